@@ -0,0 +1,60 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * <p>An event fired when devices were removed.</p>
+ */
+@Data
+@AllArgsConstructor
+@ToString
+public class DeviceRemovedEvent implements Event, Serializable {
+
+    private static final long serialVersionUID = -3315829480126739710L;
+
+    /**
+     * <p>An ID of the customer account the devices belonged to.</p>
+     */
+    private final int customerId;
+
+    /**
+     * <p>The unique identifiers of the devices.</p>
+     */
+    private final List<Integer> deviceIds;
+
+    /**
+     * <p>Gets the type of the event.</p>
+     *
+     * @return a type of the event.
+     */
+    @Override
+    public EventType getType() {
+        return EventType.DEVICE_REMOVED;
+    }
+}
@@ -31,6 +31,8 @@ public enum EventType {
     DEVICE_BATTERY_LEVEL_UPDATED(DeviceBatteryLevelUpdatedEvent.class),
     DEVICE_LOCATION_UPDATED(DeviceLocationUpdatedEvent.class),
     DEVICE_INFO_UPDATED(DeviceInfoUpdatedEvent.class),
+    DEVICE_REMOVED(DeviceRemovedEvent.class),
+    DEVICES_UPDATED(DevicesUpdatedEvent.class),
     CONFIGURATION_UPDATED(ConfigurationUpdatedEvent.class),
     CUSTOMER_CREATED(CustomerCreatedEvent.class);
 
@@ -26,9 +26,15 @@ import com.google.inject.Inject;
 import java.io.IOException;
 import java.net.URL;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.inject.Singleton;
 import com.hmdm.event.ConfigurationUpdatedEvent;
@@ -41,6 +47,7 @@ import com.hmdm.persistence.domain.ConfigurationFile;
 import com.hmdm.persistence.mapper.ApplicationMapper;
 import com.hmdm.persistence.domain.ConfigurationApplicationParameters;
 import com.hmdm.persistence.mapper.ConfigurationMapper;
+import com.hmdm.security.SecurityContext;
 import com.hmdm.security.SecurityException;
 import com.hmdm.util.CryptoUtil;
 import org.mybatis.guice.transactional.Transactional;
@@ -54,6 +61,15 @@ public class ConfigurationDAO extends AbstractLinkedDAO<Configuration, Applicati
 
     private static final Logger log = LoggerFactory.getLogger(ConfigurationDAO.class);
 
+    /**
+     * <p>A period of time (in milliseconds) the configuration data for device list is reused for. The configurations
+     * changed via this DAO are evicted immediately; the period bounds the staleness caused by changes to the
+     * applications and files used by configurations.</p>
+     */
+    private static final long DEVICE_LIST_CONFIGURATION_TTL = 60 * 1000;
+
+    private static final int MAX_CACHED_DEVICE_LIST_CONFIGURATIONS = 1000;
+
     private final ConfigurationMapper mapper;
     private final ApplicationMapper applicationMapper;
 
@@ -62,6 +78,10 @@ public class ConfigurationDAO extends AbstractLinkedDAO<Configuration, Applicati
     private String baseUrl;
     private final EventService eventService;
 
+    /**
+     * <p>The recently loaded configuration data for device list mapped to configuration IDs.</p>
+     */
+    private final ConcurrentMap<Integer, CachedConfiguration> deviceListConfigurations = new ConcurrentHashMap<>();
 
     @Inject
     public ConfigurationDAO(ConfigurationMapper mapper,
@@ -176,6 +196,7 @@ public class ConfigurationDAO extends AbstractLinkedDAO<Configuration, Applicati
                         });
                     } */
 
+                    this.deviceListConfigurations.remove(configuration.getId());
                     this.eventService.fireEvent(new ConfigurationUpdatedEvent(configuration.getId()));
                 },
                 SecurityException::onConfigurationAccessViolation
@@ -192,7 +213,10 @@ public class ConfigurationDAO extends AbstractLinkedDAO<Configuration, Applicati
         updateById(
                 id,
                 this.mapper::getConfigurationById,
-                configuration -> this.mapper.removeConfigurationById(configuration.getId()),
+                configuration -> {
+                    this.mapper.removeConfigurationById(configuration.getId());
+                    this.deviceListConfigurations.remove(configuration.getId());
+                },
                 SecurityException::onConfigurationAccessViolation
         );
     }
@@ -244,6 +268,73 @@ public class ConfigurationDAO extends AbstractLinkedDAO<Configuration, Applicati
         return configuration;
     }
 
+    /**
+     * <p>Gets the configurations referenced from the device list. Only the properties required by device list are
+     * provided: name, QR code key, the applications used by configuration and the configuration files.</p>
+     *
+     * <p>The configurations missing in cache are fetched in a single batch regardless of their number.</p>
+     *
+     * @param ids a list of configuration IDs.
+     * @return a mapping from configuration IDs to configurations. The configurations which do not exist or belong to
+     *         other customer are not included.
+     */
+    public Map<Integer, Configuration> getDeviceListConfigurations(Collection<Integer> ids) {
+        return SecurityContext.get()
+                .getCurrentUser()
+                .map(u -> getDeviceListConfigurations(u.getCustomerId(), ids))
+                .orElse(new HashMap<>());
+    }
+
+    private Map<Integer, Configuration> getDeviceListConfigurations(int customerId, Collection<Integer> ids) {
+        final long now = System.currentTimeMillis();
+        final Map<Integer, Configuration> result = new HashMap<>();
+        final Set<Integer> missingIds = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (id == null) {
+                continue;
+            }
+            final CachedConfiguration cached = this.deviceListConfigurations.get(id);
+            if (cached != null && cached.expiresAt > now && cached.configuration.getCustomerId() == customerId) {
+                result.put(id, cached.configuration);
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            final List<Configuration> configurations = this.mapper.getDeviceListConfigurations(customerId, missingIds);
+            final Map<Integer, List<ConfigurationFile>> files = new HashMap<>();
+            this.mapper.getDeviceListConfigurationFiles(missingIds).forEach(file ->
+                    files.computeIfAbsent(file.getConfigurationId(), id -> new LinkedList<>()).add(file)
+            );
+
+            if (this.deviceListConfigurations.size() + configurations.size() > MAX_CACHED_DEVICE_LIST_CONFIGURATIONS) {
+                this.deviceListConfigurations.values().removeIf(c -> c.expiresAt <= now);
+            }
+            for (Configuration dbConfig : configurations) {
+                final Configuration configuration = new Configuration();
+                configuration.setId(dbConfig.getId());
+                configuration.setName(dbConfig.getName());
+                configuration.setCustomerId(dbConfig.getCustomerId());
+                if (dbConfig.getMainAppId() != null && dbConfig.getMainAppId() > 0 &&
+                        dbConfig.getEventReceivingComponent() != null && dbConfig.getEventReceivingComponent().length() > 0) {
+                    configuration.setQrCodeKey(dbConfig.getQrCodeKey());
+                    configuration.setBaseUrl(getBaseUrl());
+                }
+                configuration.setApplications(dbConfig.getApplications());
+                configuration.setFiles(files.getOrDefault(dbConfig.getId(), new LinkedList<>()));
+
+                result.put(configuration.getId(), configuration);
+                if (this.deviceListConfigurations.size() < MAX_CACHED_DEVICE_LIST_CONFIGURATIONS) {
+                    this.deviceListConfigurations.put(configuration.getId(),
+                            new CachedConfiguration(configuration, now + DEVICE_LIST_CONFIGURATION_TTL));
+                }
+            }
+        }
+
+        return result;
+    }
+
     /**
      * <p>Upgrades the useage of specified application by specified configuration to most recent version available for
      * application.</p>
@@ -257,6 +348,7 @@ public class ConfigurationDAO extends AbstractLinkedDAO<Configuration, Applicati
                 this.mapper::getConfigurationById,
                 configuration -> {
                     this.mapper.upgradeConfigurationApplication(configuration.getId(), applicationId);
+                    this.deviceListConfigurations.remove(configuration.getId());
                     log.debug("Upgraded application #{} to most recent version for configuration #{}",
                             applicationId, configurationId);
                 },
@@ -272,4 +364,14 @@ public class ConfigurationDAO extends AbstractLinkedDAO<Configuration, Applicati
     public String getBaseUrl() {
         return baseUrl;
     }
+
+    private static final class CachedConfiguration {
+        private final Configuration configuration;
+        private final long expiresAt;
+
+        private CachedConfiguration(Configuration configuration, long expiresAt) {
+            this.configuration = configuration;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
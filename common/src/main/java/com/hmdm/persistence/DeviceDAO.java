@@ -24,6 +24,9 @@ package com.hmdm.persistence;
 import com.google.inject.Inject;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 import com.google.inject.Injector;
@@ -31,6 +34,8 @@ import com.google.inject.Key;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import com.hmdm.event.DeviceInfoUpdatedEvent;
+import com.hmdm.event.DeviceRemovedEvent;
+import com.hmdm.event.DevicesUpdatedEvent;
 import com.hmdm.event.EventService;
 import com.hmdm.persistence.domain.*;
 import com.hmdm.rest.json.*;
@@ -44,19 +49,46 @@ import com.hmdm.security.SecurityException;
 
 @Singleton
 public class DeviceDAO extends AbstractDAO<Device> {
+
+    /**
+     * <p>A period of time (in milliseconds) the number of devices matching the device list filter is reused for when
+     * the estimated total is requested.</p>
+     */
+    private static final long DEVICE_COUNT_TTL = 60 * 1000;
+
+    private static final int MAX_CACHED_DEVICE_COUNTS = 1000;
+
+    /**
+     * <p>A period of time (in milliseconds) the dashboard statistics are reused for.</p>
+     */
+    private static final long DEVICE_SUMMARY_TTL = 30 * 1000;
+
     private final DeviceMapper mapper;
     private final ApplicationSettingDAO applicationSettingDAO;
 
     private final Set<DeviceListHook> deviceListHooks;
     private final EventService eventService;
+    private final DeviceLookupIndex deviceLookupIndex;
     private final int fastSearchChars;
 
+    /**
+     * <p>The recently computed numbers of devices mapped to the keys of device list filters.</p>
+     */
+    private final ConcurrentMap<String, CachedCount> deviceCounts = new ConcurrentHashMap<>();
+
+    /**
+     * <p>The recently evaluated dashboard statistics mapped to user IDs.</p>
+     */
+    private final ConcurrentMap<Integer, CachedSummary> deviceSummaries = new ConcurrentHashMap<>();
+
     @Inject
     public DeviceDAO(DeviceMapper mapper, ApplicationSettingDAO applicationSettingDAO, Injector injector,
-                     EventService eventService, @Named("device.fast.search.chars") int fastSearchChars) {
+                     EventService eventService, DeviceLookupIndex deviceLookupIndex,
+                     @Named("device.fast.search.chars") int fastSearchChars) {
         this.mapper = mapper;
         this.applicationSettingDAO = applicationSettingDAO;
         this.eventService = eventService;
+        this.deviceLookupIndex = deviceLookupIndex;
         this.fastSearchChars = fastSearchChars;
 
         // TODO : Such a logic needs to be extracted into some utility service
@@ -144,10 +176,55 @@ public class DeviceDAO extends AbstractDAO<Device> {
             }
         }
 
-        Long totalItemsCount = this.mapper.countAllDevices(request);
+        final long totalItemsCount = request.isEstimateTotal()
+                ? estimateAllDevices(request)
+                : this.mapper.countAllDevices(request);
         return new PaginatedData<>(devices, totalItemsCount);
     }
 
+    /**
+     * <p>Gets the number of devices matching the specified filter computed recently for the same filter (regardless of
+     * the requested page and sorting) or counts the devices if there is no such number.</p>
+     *
+     * @param request a device list filter with customer and user already set.
+     * @return an estimated number of devices matching the filter.
+     */
+    private long estimateAllDevices(DeviceSearchRequest request) {
+        final long now = System.currentTimeMillis();
+        final String key = Arrays.asList(
+                request.getCustomerId(), request.getUserId(), request.getValue(), request.isFastSearch(),
+                request.getGroupId(), request.getConfigurationId(), request.getDateFrom(), request.getDateTo(),
+                request.getOnlineEarlierMillis(), request.getOnlineLaterMillis(), request.getEnrollmentDateFrom(),
+                request.getEnrollmentDateTo(), request.getMdmMode(), request.getKioskMode(),
+                request.getAndroidVersion(), request.getLauncherVersion(), request.getInstallationStatus(),
+                request.isImeiChanged()
+        ).toString();
+
+        final CachedCount cached = this.deviceCounts.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.count;
+        }
+
+        final long count = this.mapper.countAllDevices(request);
+        if (this.deviceCounts.size() >= MAX_CACHED_DEVICE_COUNTS) {
+            this.deviceCounts.values().removeIf(c -> c.expiresAt <= now);
+        }
+        if (this.deviceCounts.size() < MAX_CACHED_DEVICE_COUNTS) {
+            this.deviceCounts.put(key, new CachedCount(count, request.getCustomerId(), now + DEVICE_COUNT_TTL));
+        }
+        return count;
+    }
+
+    /**
+     * <p>Drops the recently computed numbers of devices of the specified customer so the device lists reflect the
+     * devices added, removed or moved between configurations and groups right away.</p>
+     *
+     * @param customerId an ID of a customer.
+     */
+    public void evictDeviceCounts(int customerId) {
+        this.deviceCounts.values().removeIf(c -> c.customerId == customerId);
+    }
+
     public List<Device> getDeviceIdsByConfigurationId(int configurationId) {
         return getList(customerId -> this.mapper.getDeviceIdsByConfigurationId(customerId, configurationId));
     }
@@ -168,7 +245,13 @@ public class DeviceDAO extends AbstractDAO<Device> {
         updateById(
                 id,
                 this.mapper::getDeviceById,
-                device -> this.mapper.removeDevice(device.getId()),
+                device -> {
+                    this.mapper.removeDevice(device.getId());
+                    evictDeviceCounts(device.getCustomerId());
+                    this.eventService.fireEvent(
+                            new DeviceRemovedEvent(device.getCustomerId(), Collections.singletonList(device.getId()))
+                    );
+                },
                 SecurityException::onDeviceAccessViolation
         );
     }
@@ -177,11 +260,89 @@ public class DeviceDAO extends AbstractDAO<Device> {
         updateById(
                 deviceId,
                 this.mapper::getDeviceById,
-                device -> this.mapper.updateDeviceConfiguration(device.getId(), configurationId),
+                device -> {
+                    this.mapper.updateDeviceConfiguration(device.getId(), configurationId);
+                    evictDeviceCounts(device.getCustomerId());
+                },
                 SecurityException::onDeviceAccessViolation
         );
     }
 
+    /**
+     * <p>Removes the specified devices available to current user.</p>
+     *
+     * @param deviceIds the IDs of the devices to remove.
+     * @return the IDs of the removed devices.
+     */
+    @Transactional
+    public List<Integer> removeDevicesByIds(Collection<Integer> deviceIds) {
+        return updateBulk(deviceIds, (user, ids) -> {
+            this.mapper.removeDevices(ids);
+            this.eventService.fireEvent(new DeviceRemovedEvent(user.getCustomerId(), ids));
+            return ids;
+        });
+    }
+
+    /**
+     * <p>Sets the configuration for the specified devices available to current user.</p>
+     *
+     * @param deviceIds the IDs of the devices to update.
+     * @param configurationId an ID of the configuration to set for devices.
+     * @return the IDs of the updated devices.
+     */
+    @Transactional
+    public List<Integer> updateDevicesConfiguration(Collection<Integer> deviceIds, Integer configurationId) {
+        return updateBulk(deviceIds, (user, ids) ->
+                this.mapper.updateDevicesConfiguration(user.getCustomerId(), ids, configurationId) > 0
+                        ? ids : new ArrayList<>()
+        );
+    }
+
+    /**
+     * <p>Adds the specified devices available to current user to the specified groups or removes them from those
+     * groups. Only the groups available to current user are affected.</p>
+     *
+     * @param deviceIds the IDs of the devices to update.
+     * @param groupIds the IDs of the groups to add devices to or remove devices from.
+     * @param add <code>true</code> if devices must be added to groups; <code>false</code> if removed.
+     * @return the IDs of the devices processed.
+     */
+    @Transactional
+    public List<Integer> updateDevicesGroups(Collection<Integer> deviceIds, Collection<Integer> groupIds, boolean add) {
+        return updateBulk(deviceIds, (user, ids) -> {
+            if (add) {
+                this.mapper.insertDevicesGroups(user.getId(), user.getCustomerId(), ids, groupIds);
+            } else {
+                this.mapper.removeDevicesGroups(user.getId(), user.getCustomerId(), ids, groupIds);
+            }
+            this.eventService.fireEvent(new DevicesUpdatedEvent(user.getCustomerId(), ids));
+            return ids;
+        });
+    }
+
+    /**
+     * <p>Applies the specified bulk update to those of specified devices which are available to current user.</p>
+     *
+     * @return the IDs of the devices returned by update logic.
+     */
+    private List<Integer> updateBulk(Collection<Integer> deviceIds,
+                                     BiFunction<User, List<Integer>, List<Integer>> updateLogic) {
+        return SecurityContext.get().getCurrentUser()
+                .map(u -> {
+                    if (deviceIds == null || deviceIds.isEmpty()) {
+                        return new ArrayList<Integer>();
+                    }
+                    final List<Integer> ids = this.mapper.getAccessibleDeviceIds(u.getId(), u.getCustomerId(), deviceIds);
+                    if (ids.isEmpty()) {
+                        return ids;
+                    }
+                    final List<Integer> updated = updateLogic.apply(u, ids);
+                    evictDeviceCounts(u.getCustomerId());
+                    return updated;
+                })
+                .orElse(new ArrayList<>());
+    }
+
     public Device getDeviceByNumber(String number) {
         return getSingleRecord(() -> this.mapper.getDeviceByNumber(number), SecurityException::onDeviceAccessViolation);
     }
@@ -200,6 +361,7 @@ public class DeviceDAO extends AbstractDAO<Device> {
                         d.getId(), d.getGroups().stream().map(LookupItem::getId).collect(Collectors.toList())
                 );
             }
+            evictDeviceCounts(d.getCustomerId());
             this.eventService.fireEvent(new DeviceInfoUpdatedEvent(d.getId()));
         });
     }
@@ -225,6 +387,7 @@ public class DeviceDAO extends AbstractDAO<Device> {
                         device.getId(), device.getGroups().stream().map(LookupItem::getId).collect(Collectors.toList())
                 );
             }
+            evictDeviceCounts(device.getCustomerId());
             this.eventService.fireEvent(new DeviceInfoUpdatedEvent(device.getId()));
         }, SecurityException::onDeviceAccessViolation);
     }
@@ -257,9 +420,8 @@ public class DeviceDAO extends AbstractDAO<Device> {
      * @return a response with list of devices matching the specified filter.
      */
     public List<DeviceLookupItem> findDevices(String filter, int resultsCount) {
-        String searchFilter = '%' + filter.trim() + '%';
         return SecurityContext.get().getCurrentUser()
-                .map(u -> this.mapper.lookupDevices(u.getId(), u.getCustomerId(), searchFilter, resultsCount))
+                .map(u -> this.deviceLookupIndex.find(u, filter, resultsCount))
                 .orElse(new ArrayList<>());
     }
 
@@ -289,179 +451,182 @@ public class DeviceDAO extends AbstractDAO<Device> {
         );
     }
 
-    @Transactional
-    public List<ChartItem> getStatusSummary() {
+    /**
+     * <p>Gets the device statistics for dashboard. The statistics are evaluated by three aggregate queries and reused
+     * for {@link #DEVICE_SUMMARY_TTL} milliseconds for each user.</p>
+     *
+     * @return the device statistics or <code>null</code> if there is no current user.
+     */
+    public DeviceSummary getDeviceSummary() {
         return SecurityContext.get().getCurrentUser()
                 .map(u -> {
-                    DeviceSummaryRequest filter = new DeviceSummaryRequest(
-                        u.getId(), u.getCustomerId(),
-                        null, null, null, null, null, null, null
-                    );
-                    long now = System.currentTimeMillis();
-                    List<ChartItem> result = new LinkedList<>();
-
-                    ChartItem item1 = new ChartItem();
-                    item1.setStringAttr("green");
-                    filter.setMinOnlineTime(now - 3600*1000l);
-                    item1.setNumber(this.mapper.countAllDevicesForSummary(filter));
-                    result.add(item1);
-
-                    ChartItem item2 = new ChartItem();
-                    item2.setStringAttr("yellow");
-                    filter.setMinOnlineTime(now - 3600*4000l);
-                    filter.setMaxOnlineTime(now - 3600*1000l);
-                    item2.setNumber(this.mapper.countAllDevicesForSummary(filter));
-                    result.add(item2);
-
-                    ChartItem item3 = new ChartItem();
-                    item3.setStringAttr("red");
-                    filter.setMinOnlineTime(0l);
-                    filter.setMaxOnlineTime(now - 3600*1000l);
-                    item3.setNumber(this.mapper.countAllDevicesForSummary(filter));
-                    result.add(item3);
-
-                    return result;
-                })
-                .orElse(null);
-    }
+                    final long now = System.currentTimeMillis();
+                    final CachedSummary cached = this.deviceSummaries.get(u.getId());
+                    if (cached != null && cached.expiresAt > now && cached.customerId == u.getCustomerId()) {
+                        return cached.summary;
+                    }
 
-    @Transactional
-    public List<ChartItem> getInstallSummary() {
-        return SecurityContext.get().getCurrentUser()
-                .map(u -> {
-                    DeviceSummaryRequest filter = new DeviceSummaryRequest(
-                            u.getId(), u.getCustomerId(),
-                            null, null, 1l, null, null, null, null
-                    );
-                    List<ChartItem> result = new LinkedList<>();
-
-                    ChartItem item1 = new ChartItem();
-                    item1.setStringAttr("SUCCESS");
-                    filter.setAppStatus(DeviceApplicationsStatus.SUCCESS);
-                    item1.setNumber(this.mapper.countAllDevicesForSummary(filter));
-                    result.add(item1);
-
-                    ChartItem item2 = new ChartItem();
-                    item2.setStringAttr("VERSION_MISMATCH");
-                    filter.setAppStatus(DeviceApplicationsStatus.VERSION_MISMATCH);
-                    item2.setNumber(this.mapper.countAllDevicesForSummary(filter));
-                    result.add(item2);
-
-                    ChartItem item3 = new ChartItem();
-                    item3.setStringAttr("FAILURE");
-                    filter.setAppStatus(DeviceApplicationsStatus.FAILURE);
-                    item3.setNumber(this.mapper.countAllDevicesForSummary(filter));
-                    result.add(item3);
-
-                    return result;
+                    final DeviceSummary summary = loadDeviceSummary(u, now);
+                    if (this.deviceSummaries.size() >= MAX_CACHED_DEVICE_COUNTS) {
+                        this.deviceSummaries.values().removeIf(c -> c.expiresAt <= now);
+                    }
+                    if (this.deviceSummaries.size() < MAX_CACHED_DEVICE_COUNTS) {
+                        this.deviceSummaries.put(u.getId(),
+                                new CachedSummary(summary, u.getCustomerId(), now + DEVICE_SUMMARY_TTL));
+                    }
+                    return summary;
                 })
                 .orElse(null);
     }
 
-    @Transactional
-    public Long countEnrolled(long lastEnrollTime) {
-        return SecurityContext.get().getCurrentUser()
-                .map(u -> {
-                    DeviceSummaryRequest filter = new DeviceSummaryRequest(
-                            u.getId(), u.getCustomerId(),
-                            null, null, lastEnrollTime, null, null, null, null
-                    );
-                    return this.mapper.countAllDevicesForSummary(filter);
-                })
-                .orElse(0l);
+    private DeviceSummary loadDeviceSummary(User user, long now) {
+        // The status counters are not broken down by device groups so they serve the users having access to all devices
+        final boolean useCounters = user.isAllDevicesAvailable();
+        final DeviceSummary summary = useCounters
+                ? summarizeStatusCounters(user.getCustomerId(), now)
+                : this.mapper.getDeviceSummary(user.getId(), user.getCustomerId(), now);
+
+        // The months end on the last day of previous calendar month
+        final List<Long> enrollBounds = new ArrayList<>();
+        final List<String> labels = new ArrayList<>();
+        Calendar c = Calendar.getInstance();
+        c.setTimeInMillis(now);
+        int year = c.get(Calendar.YEAR) - 1;
+        int month = c.get(Calendar.MONTH) + 1;
+        if (month >= 12) {
+            month = 0;
+            year++;
+        }
+        c.set(year, month, 0, 0, 0);
+        enrollBounds.add(c.getTimeInMillis());
+        for (int i = 0; i < 12; i++) {
+            labels.add(String.format("%02d/%02d", month + 1, year % 100));
+            month++;
+            if (month >= 12) {
+                month = 0;
+                year++;
+            }
+            c.set(year, month, 0, 0, 0);
+            enrollBounds.add(c.getTimeInMillis());
+        }
+
+        final Map<Integer, Integer> enrolledByBucket = new HashMap<>();
+        final List<ChartItem> enrolled = useCounters
+                ? this.mapper.getCustomerDevicesEnrolled(user.getCustomerId(), enrollBounds)
+                : this.mapper.getDeviceSummaryEnrolled(user.getId(), user.getCustomerId(), enrollBounds);
+        enrolled.forEach(item -> enrolledByBucket.put(item.getIntAttr(), item.getNumber()));
+        final List<ChartItem> enrolledMonthly = new LinkedList<>();
+        for (int i = 0; i < labels.size(); i++) {
+            ChartItem item = new ChartItem();
+            item.setStringAttr(labels.get(i));
+            item.setNumber(enrolledByBucket.getOrDefault(i + 1, 0));
+            enrolledMonthly.add(item);
+        }
+        summary.setEnrolledMonthly(enrolledMonthly);
+
+        if (!useCounters) {
+            summary.setTopConfigs(this.mapper.getDeviceSummaryByConfig(user.getId(), user.getCustomerId(), now));
+        }
+
+        return summary;
     }
 
-    @Transactional
-    public List<SummaryConfigItem> getSummaryByConfig(DeviceSummaryRequest condition,
-                                                      List<SummaryConfigItem> topConfigs) {
-        return SecurityContext.get().getCurrentUser()
-                .map(u -> {
-                    List<Integer> configIds = null;
-                    if (topConfigs != null) {
-                        configIds = new LinkedList<>();
-                        for (SummaryConfigItem summaryConfigItem : topConfigs) {
-                            configIds.add(summaryConfigItem.getId());
-                        }
-                        ;
-                    }
+    /**
+     * <p>Evaluates the device statistics for the specified customer from the device status counters. The counters of
+     * online status and installation status are summed up; only the number of devices enrolled during last month is
+     * counted over devices.</p>
+     *
+     * @param customerId an ID of a customer.
+     * @param now current time in milliseconds since Epoch time.
+     * @return the device statistics with enrollment history not set.
+     */
+    private DeviceSummary summarizeStatusCounters(int customerId, long now) {
+        final DeviceSummary summary = new DeviceSummary();
+        final Map<Integer, DeviceConfigSummary> configs = new HashMap<>();
+        for (DeviceStatusCounter counter : this.mapper.getDeviceStatusCounters(customerId)) {
+            final long n = counter.getCounter();
+            final DeviceConfigSummary config = configs.computeIfAbsent(counter.getConfigurationId(), id -> {
+                DeviceConfigSummary item = new DeviceConfigSummary();
+                item.setId(id);
+                item.setName(counter.getConfigurationName());
+                return item;
+            });
+
+            // The "red" status of dashboard covers all devices offline for more than an hour
+            switch (counter.getOnlineStatus()) {
+                case DeviceStatusCounter.ONLINE_STATUS_GREEN:
+                    summary.setStatusGreen(summary.getStatusGreen() + n);
+                    config.setOnline(config.getOnline() + n);
+                    break;
+                case DeviceStatusCounter.ONLINE_STATUS_YELLOW:
+                    summary.setStatusYellow(summary.getStatusYellow() + n);
+                    summary.setStatusRed(summary.getStatusRed() + n);
+                    config.setIdle(config.getIdle() + n);
+                    config.setOffline(config.getOffline() + n);
+                    break;
+                case DeviceStatusCounter.ONLINE_STATUS_RED:
+                    summary.setStatusRed(summary.getStatusRed() + n);
+                    config.setOffline(config.getOffline() + n);
+                    break;
+                default:
+                    break;
+            }
 
-                    DeviceSummaryRequest filter = new DeviceSummaryRequest(
-                            u.getId(), u.getCustomerId(),
-                            condition.getFileStatus(),
-                            condition.getAppStatus(),
-                            condition.getMinEnrollTime(),
-                            condition.getMaxEnrollTime(),
-                            condition.getMinOnlineTime(),
-                            condition.getMaxOnlineTime(),
-                            condition.getConfigIds()
-                    );
-                    List<SummaryConfigItem> result = mapper.countDevicesByConfig(filter);
-                    if (topConfigs != null) {
-                        // Sort result to correspond configIds
-                        List<SummaryConfigItem> result1 = new LinkedList<>();
-                        for (SummaryConfigItem baseItem : topConfigs) {
-                            boolean zero = true;
-                            for (SummaryConfigItem c : result) {
-                                if (c.getId() == baseItem.getId()) {
-                                    result1.add(c);
-                                    zero = false;
-                                    break;
-                                }
-                            }
-                            if (zero) {
-                                // Result not present, which means zero value
-                                baseItem.setCounter(0);
-                                result1.add(baseItem);
-                            }
-                        }
-                        return result1;
-                    }
-                    return result;
-                })
-                .orElse(null);
+            final String applicationsStatus = counter.getApplicationsStatus();
+            if (!DeviceStatusCounter.ONLINE_STATUS_NONE.equals(counter.getOnlineStatus())) {
+                config.setTotal(config.getTotal() + n);
+                if (DeviceApplicationsStatus.SUCCESS.name().equals(applicationsStatus)) {
+                    config.setAppSuccess(config.getAppSuccess() + n);
+                } else if (DeviceApplicationsStatus.VERSION_MISMATCH.name().equals(applicationsStatus)) {
+                    config.setAppMismatch(config.getAppMismatch() + n);
+                } else if (DeviceApplicationsStatus.FAILURE.name().equals(applicationsStatus)) {
+                    config.setAppFailure(config.getAppFailure() + n);
+                }
+            }
+
+            if (counter.isEnrolled()) {
+                summary.setEnrolled(summary.getEnrolled() + n);
+                if (DeviceApplicationsStatus.SUCCESS.name().equals(applicationsStatus)) {
+                    summary.setInstallSuccess(summary.getInstallSuccess() + n);
+                } else if (DeviceApplicationsStatus.VERSION_MISMATCH.name().equals(applicationsStatus)) {
+                    summary.setInstallVersionMismatch(summary.getInstallVersionMismatch() + n);
+                } else if (DeviceApplicationsStatus.FAILURE.name().equals(applicationsStatus)) {
+                    summary.setInstallFailure(summary.getInstallFailure() + n);
+                }
+            }
+        }
+
+        summary.setEnrolledLastMonth(this.mapper.countEnrolledDevicesSince(customerId, now - 30 * 86400 * 1000L));
+        summary.setTopConfigs(configs.values().stream()
+                .filter(c -> c.getTotal() > 0)
+                .sorted(Comparator.comparingLong(DeviceConfigSummary::getTotal).reversed())
+                .limit(5)
+                .collect(Collectors.toList()));
+
+        return summary;
     }
 
-    public List<ChartItem> getDevicesEnrolledMonthly() {
-        return SecurityContext.get().getCurrentUser()
-                .map(u -> {
-                    List<ChartItem> result = new LinkedList<>();
-                    Calendar c = Calendar.getInstance();
-                    int year = c.get(Calendar.YEAR) - 1;
-                    int month = c.get(Calendar.MONTH) + 1;
-                    if (month >= 12) {
-                        month = 0;
-                        year++;
-                    }
-                    c.set(year, month, 0, 0, 0);
-                    long startTime = c.getTimeInMillis();
-                    long endTime = 0;
-                    for (int i = 0; i < 12; i++) {
-                        String label = String.format("%02d/%02d", month + 1, year % 100);
-                        month++;
-                        if (month >= 12) {
-                            month = 0;
-                            year++;
-                        }
-                        c.set(year, month, 0, 0, 0);
-                        endTime = c.getTimeInMillis();
-
-                        DeviceSummaryRequest filter = new DeviceSummaryRequest(
-                                u.getId(), u.getCustomerId(),
-                                null, null,
-                                startTime, endTime,
-                                null, null, null
-                        );
-
-                        ChartItem item = new ChartItem();
-                        item.setStringAttr(label);
-                        item.setNumber(this.mapper.countAllDevicesForSummary(filter));
-                        result.add(item);
-                        startTime = endTime;
-                    }
-                    return result;
-                })
-                .orElse(null);
+    private static final class CachedCount {
+        private final long count;
+        private final int customerId;
+        private final long expiresAt;
 
+        private CachedCount(long count, int customerId, long expiresAt) {
+            this.count = count;
+            this.customerId = customerId;
+            this.expiresAt = expiresAt;
+        }
     }
 
+    private static final class CachedSummary {
+        private final DeviceSummary summary;
+        private final int customerId;
+        private final long expiresAt;
+
+        private CachedSummary(DeviceSummary summary, int customerId, long expiresAt) {
+            this.summary = summary;
+            this.customerId = customerId;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
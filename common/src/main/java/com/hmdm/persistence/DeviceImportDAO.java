@@ -0,0 +1,246 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.persistence;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import com.hmdm.event.DevicesUpdatedEvent;
+import com.hmdm.event.EventService;
+import com.hmdm.persistence.domain.User;
+import com.hmdm.persistence.mapper.DeviceImportMapper;
+import com.hmdm.rest.json.DeviceImportResult;
+import com.hmdm.rest.json.DeviceImportRow;
+import com.hmdm.security.SecurityContext;
+import com.hmdm.util.DeviceImportCsvReader;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.mybatis.guice.transactional.Transactional;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>A DAO for importing the devices in bulk. The rows are streamed to the temporary table with <code>COPY</code>,
+ * then validated, de-duplicated and inserted to <code>devices</code> and <code>deviceGroups</code> tables with a fixed
+ * number of set-based statements regardless of the number of rows. The rows failed to pass the validation are
+ * reported back and the rest of rows are imported.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class DeviceImportDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceImportDAO.class);
+
+    /**
+     * <p>The columns of <code>deviceImport</code> table the rows are copied to.</p>
+     */
+    private static final String COPY_STATEMENT = "COPY deviceImport (number, imei, serial, phone, description, " +
+            "configuration, groupNames, custom1, custom2, custom3, error) FROM STDIN WITH (FORMAT csv)";
+
+    /**
+     * <p>A size of the chunks (in characters) the rows are sent to <code>COPY</code> in.</p>
+     */
+    private static final int COPY_CHUNK_SIZE = 64 * 1024;
+
+    private final DeviceImportMapper mapper;
+    private final SqlSessionManager sqlSessionManager;
+    private final DeviceDAO deviceDAO;
+    private final EventService eventService;
+    private final int fastSearchChars;
+
+    /**
+     * <p>Constructs new <code>DeviceImportDAO</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public DeviceImportDAO(DeviceImportMapper mapper,
+                           SqlSessionManager sqlSessionManager,
+                           DeviceDAO deviceDAO,
+                           EventService eventService,
+                           @Named("device.fast.search.chars") int fastSearchChars) {
+        this.mapper = mapper;
+        this.sqlSessionManager = sqlSessionManager;
+        this.deviceDAO = deviceDAO;
+        this.eventService = eventService;
+        this.fastSearchChars = fastSearchChars;
+    }
+
+    /**
+     * <p>Imports the specified devices to customer account of current user.</p>
+     *
+     * @param rows the devices to import.
+     * @param maxDevices a maximum number of devices which can be created or <code>null</code> if not limited.
+     * @return the result of import.
+     */
+    @Transactional
+    public DeviceImportResult importDevices(List<DeviceImportRow> rows, Integer maxDevices)
+            throws SQLException, IOException {
+        final Iterator<DeviceImportRow> iterator = rows.iterator();
+        return importRows(() -> iterator.hasNext() ? iterator.next() : null, maxDevices);
+    }
+
+    /**
+     * <p>Imports the devices listed in specified CSV source to customer account of current user. The format of the
+     * source is described in {@link DeviceImportCsvReader}; the malformed lines are reported as the row errors.</p>
+     *
+     * @param source a CSV source to import the devices from.
+     * @param maxDevices a maximum number of devices which can be created or <code>null</code> if not limited.
+     * @return the result of import.
+     * @throws IllegalArgumentException if the CSV header lists unsupported column.
+     */
+    @Transactional
+    public DeviceImportResult importCsv(Reader source, Integer maxDevices) throws SQLException, IOException {
+        final DeviceImportCsvReader reader = new DeviceImportCsvReader(new BufferedReader(source));
+        return importRows(reader::next, maxDevices);
+    }
+
+    /**
+     * <p>A source of the rows to import.</p>
+     */
+    private interface RowSource {
+        /**
+         * @return a next row or <code>null</code> if there are no more rows.
+         */
+        DeviceImportRow next() throws IOException;
+    }
+
+    private DeviceImportResult importRows(RowSource rows, Integer maxDevices) throws SQLException, IOException {
+        final User user = SecurityContext.get().getCurrentUser().get();
+        createImportTables();
+
+        final CopyIn copyIn = getCopyManager().copyIn(COPY_STATEMENT);
+        try {
+            final StringBuilder chunk = new StringBuilder(COPY_CHUNK_SIZE + 1024);
+            DeviceImportRow row;
+            while ((row = rows.next()) != null) {
+                appendRow(chunk, row);
+                if (chunk.length() >= COPY_CHUNK_SIZE) {
+                    writeToCopy(copyIn, chunk);
+                }
+            }
+            writeToCopy(copyIn, chunk);
+            final long count = copyIn.endCopy();
+            logger.debug("Copied {} rows to device import table", count);
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        return processImportTable(user, maxDevices);
+    }
+
+    private void createImportTables() {
+        this.mapper.createImportTable();
+        this.mapper.createImportGroupsTable();
+    }
+
+    private DeviceImportResult processImportTable(User user, Integer maxDevices) {
+        final long start = System.currentTimeMillis();
+
+        this.mapper.analyzeImportTable();
+        this.mapper.markInvalidRows();
+        this.mapper.markDuplicateRows();
+        this.mapper.markExistingRows();
+        this.mapper.resolveConfigurations(user.getCustomerId());
+        this.mapper.markUnresolvedConfigurations();
+        this.mapper.splitGroups();
+        this.mapper.resolveGroups(user.getId(), user.getCustomerId());
+        this.mapper.markUnresolvedGroups();
+        if (maxDevices != null) {
+            this.mapper.markOverLimitRows(maxDevices);
+        }
+
+        final int imported = this.mapper.insertDevices(user.getCustomerId(), this.fastSearchChars);
+        if (imported > 0) {
+            this.mapper.insertDeviceGroups();
+            this.deviceDAO.evictDeviceCounts(user.getCustomerId());
+            this.eventService.fireEvent(
+                    new DevicesUpdatedEvent(user.getCustomerId(), this.mapper.getImportedDeviceIds())
+            );
+        }
+
+        final DeviceImportResult result = new DeviceImportResult();
+        result.setTotal(this.mapper.countRows());
+        result.setImported(imported);
+        result.setErrors(this.mapper.getErrors());
+
+        logger.info("Imported {} of {} devices to customer #{} in {} ms",
+                imported, result.getTotal(), user.getCustomerId(), System.currentTimeMillis() - start);
+
+        return result;
+    }
+
+    /**
+     * <p>Gets the COPY API for the connection of current transaction.</p>
+     */
+    private CopyManager getCopyManager() throws SQLException {
+        return this.sqlSessionManager.getConnection().unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    /**
+     * <p>Appends the specified row as a CSV line matching {@link #COPY_STATEMENT}.</p>
+     */
+    static void appendRow(StringBuilder target, DeviceImportRow row) {
+        appendCsv(target, row.getNumber(), ',');
+        appendCsv(target, row.getImei(), ',');
+        appendCsv(target, row.getSerial(), ',');
+        appendCsv(target, row.getPhone(), ',');
+        appendCsv(target, row.getDescription(), ',');
+        appendCsv(target, row.getConfiguration(), ',');
+        appendCsv(target, row.getGroups() == null ? null : String.join(";", row.getGroups()), ',');
+        appendCsv(target, row.getCustom1(), ',');
+        appendCsv(target, row.getCustom2(), ',');
+        appendCsv(target, row.getCustom3(), ',');
+        appendCsv(target, row.getError(), '\n');
+    }
+
+    /**
+     * <p>Appends the specified value in CSV format followed by specified separator. The <code>null</code> values are
+     * written as unquoted empty strings which are read by <code>COPY</code> as NULL. The zero characters are dropped
+     * since they are not allowed in PostgreSQL text values.</p>
+     */
+    static void appendCsv(StringBuilder target, String value, char separator) {
+        if (value != null) {
+            target.append('"').append(value.replace("\u0000", "").replace("\"", "\"\"")).append('"');
+        }
+        target.append(separator);
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.length() > 0) {
+            final byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            chunk.setLength(0);
+        }
+    }
+}
@@ -33,11 +33,15 @@ public class DeviceInfoUpdatedEventListener implements EventListener<DeviceInfoU
 
     private final DeviceStatusService deviceStatusService;
 
+    private final DeviceLookupIndex deviceLookupIndex;
+
     /**
      * <p>Constructs new <code>DeviceInfoUpdatedEventListener</code> instance. This implementation does nothing.</p>
      */
-    public DeviceInfoUpdatedEventListener(DeviceStatusService deviceStatusService) {
+    public DeviceInfoUpdatedEventListener(DeviceStatusService deviceStatusService,
+                                          DeviceLookupIndex deviceLookupIndex) {
         this.deviceStatusService = deviceStatusService;
+        this.deviceLookupIndex = deviceLookupIndex;
     }
 
     /**
@@ -49,6 +53,7 @@ public class DeviceInfoUpdatedEventListener implements EventListener<DeviceInfoU
     public void onEvent(DeviceInfoUpdatedEvent event) {
         final int deviceId = event.getDeviceId();
         this.deviceStatusService.recalcDeviceStatuses(deviceId);
+        this.deviceLookupIndex.onDeviceUpdated(deviceId);
     }
 
     /**
@@ -0,0 +1,415 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hmdm.persistence.domain.DeviceLookupEntry;
+import com.hmdm.persistence.domain.User;
+import com.hmdm.persistence.mapper.DeviceMapper;
+import com.hmdm.rest.json.DeviceLookupItem;
+import com.hmdm.rest.json.LookupItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>An in-memory index of the devices searched by device lookup (autocomplete) in the dialogs. The index is loaded
+ * per customer account on first lookup and then kept up to date by device update and removal events; it is reloaded
+ * completely after {@link #INDEX_TTL} to pick up the changes made on other nodes or bypassing the events.</p>
+ *
+ * <p>The device numbers and IMEIs are matched by substring (case-insensitive) same as <code>ILIKE '%filter%'</code>
+ * did. For the filters of 3 characters and more the candidates are taken from the trigram posting lists so the
+ * lookup does not scan all the devices of the customer.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class DeviceLookupIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceLookupIndex.class);
+
+    /**
+     * <p>A period of time (in milliseconds) the index of the customer devices is used for before being reloaded.</p>
+     */
+    private static final long INDEX_TTL = 2 * 60 * 1000;
+
+    private static final int MAX_CACHED_INDEXES = 1000;
+
+    private static final int PRIORITY_NUMBER = 4;
+    private static final int PRIORITY_IMEI = 2;
+    private static final int PRIORITY_INFO_IMEI = 1;
+    private static final int MAX_PRIORITY = PRIORITY_NUMBER + PRIORITY_IMEI + PRIORITY_INFO_IMEI;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final DeviceMapper mapper;
+
+    /**
+     * <p>The indexes of the devices mapped to customer account IDs.</p>
+     */
+    private final ConcurrentMap<Integer, CustomerIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * <p>Constructs new <code>DeviceLookupIndex</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public DeviceLookupIndex(DeviceMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * <p>Finds the devices matching the specified filter and available to specified user. The devices with number
+     * matching the filter go first, then those with matching IMEI; the devices of same rank are ordered by number.</p>
+     *
+     * @param user a user to find the devices for.
+     * @param filter a filter to be used for filtering the records.
+     * @param limit a maximum number of items to be included to list.
+     * @return a list of devices matching the specified filter.
+     */
+    public List<DeviceLookupItem> find(User user, String filter, int limit) {
+        final Snapshot snapshot = getIndex(user.getCustomerId()).getSnapshot(System.currentTimeMillis());
+        return snapshot.find(filter.trim().toLowerCase(Locale.ROOT), getAllowedGroups(user), limit);
+    }
+
+    /**
+     * <p>Re-reads the specified device into the index of its customer account if that index is loaded.</p>
+     *
+     * @param deviceId an ID of the device which was created or updated.
+     */
+    public void onDeviceUpdated(int deviceId) {
+        final long now = System.currentTimeMillis();
+        if (this.indexes.values().stream().noneMatch(index -> index.isLoaded(now))) {
+            return;
+        }
+
+        final List<DeviceLookupEntry> entries
+                = this.mapper.getDeviceLookupEntries(null, Collections.singletonList(deviceId));
+        if (entries.isEmpty()) {
+            this.indexes.values().forEach(index -> index.remove(deviceId));
+        } else {
+            final DeviceLookupEntry entry = entries.get(0);
+            this.indexes.forEach((customerId, index) -> {
+                if (customerId == entry.getCustomerId()) {
+                    index.put(entry);
+                } else {
+                    // The device has been moved to other customer account
+                    index.remove(deviceId);
+                }
+            });
+        }
+    }
+
+    /**
+     * <p>Re-reads the specified devices into the index of the customer account if that index is loaded.</p>
+     *
+     * @param customerId an ID of the customer account the devices belong to.
+     * @param deviceIds the IDs of the devices updated in bulk.
+     */
+    public void onDevicesUpdated(int customerId, Collection<Integer> deviceIds) {
+        final CustomerIndex index = this.indexes.get(customerId);
+        if (index == null || !index.isLoaded(System.currentTimeMillis()) || deviceIds.isEmpty()) {
+            return;
+        }
+
+        final Set<Integer> missing = new HashSet<>(deviceIds);
+        for (DeviceLookupEntry entry : this.mapper.getDeviceLookupEntries(customerId, deviceIds)) {
+            index.put(entry);
+            missing.remove(entry.getId());
+        }
+        missing.forEach(index::remove);
+    }
+
+    /**
+     * <p>Removes the specified devices from the index of their customer account.</p>
+     *
+     * @param customerId an ID of the customer account the devices belonged to.
+     * @param deviceIds the IDs of the removed devices.
+     */
+    public void onDevicesRemoved(int customerId, Collection<Integer> deviceIds) {
+        final CustomerIndex index = this.indexes.get(customerId);
+        if (index != null) {
+            deviceIds.forEach(index::remove);
+        }
+    }
+
+    private CustomerIndex getIndex(int customerId) {
+        if (this.indexes.size() >= MAX_CACHED_INDEXES) {
+            final long now = System.currentTimeMillis();
+            this.indexes.values().removeIf(index -> !index.isLoaded(now));
+        }
+        return this.indexes.computeIfAbsent(customerId, CustomerIndex::new);
+    }
+
+    /**
+     * <p>Gets the IDs of the device groups available to specified user.</p>
+     *
+     * @return a set of group IDs or <code>null</code> if all devices are available to user.
+     */
+    private static Set<Integer> getAllowedGroups(User user) {
+        if (user.isAllDevicesAvailable()) {
+            return null;
+        }
+        final Set<Integer> groups = new HashSet<>();
+        if (user.getGroups() != null) {
+            for (LookupItem group : user.getGroups()) {
+                groups.add(group.getId());
+            }
+        }
+        return groups;
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(String value, int offset) {
+        return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+    }
+
+    private static void addTrigrams(Set<Long> trigrams, String value) {
+        if (value != null) {
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                trigrams.add(trigram(value, i));
+            }
+        }
+    }
+
+    /**
+     * <p>An index of the devices of single customer account. The entries are modified under the lock while the
+     * searches use the immutable snapshot which is rebuilt on next search after the entries have changed.</p>
+     */
+    private final class CustomerIndex {
+
+        private final int customerId;
+
+        private final Map<Integer, DeviceLookupEntry> entries = new HashMap<>();
+
+        private volatile Snapshot snapshot;
+
+        private volatile long expiresAt;
+
+        private volatile boolean changed;
+
+        private CustomerIndex(int customerId) {
+            this.customerId = customerId;
+        }
+
+        private boolean isLoaded(long now) {
+            return now < this.expiresAt;
+        }
+
+        private Snapshot getSnapshot(long now) {
+            final Snapshot current = this.snapshot;
+            if (current != null && isLoaded(now) && !this.changed) {
+                return current;
+            }
+            synchronized (this) {
+                if (!isLoaded(now)) {
+                    final long start = System.currentTimeMillis();
+                    this.entries.clear();
+                    for (DeviceLookupEntry entry : mapper.getDeviceLookupEntries(this.customerId, null)) {
+                        this.entries.put(entry.getId(), entry);
+                    }
+                    this.expiresAt = now + INDEX_TTL;
+                    this.changed = true;
+                    logger.debug("Loaded {} devices to lookup index of customer #{} in {} ms",
+                            this.entries.size(), this.customerId, System.currentTimeMillis() - start);
+                }
+                if (this.changed || this.snapshot == null) {
+                    this.snapshot = new Snapshot(this.entries.values());
+                    this.changed = false;
+                }
+                return this.snapshot;
+            }
+        }
+
+        private synchronized void put(DeviceLookupEntry entry) {
+            if (isLoaded(System.currentTimeMillis()) && !entry.isSameLookup(this.entries.get(entry.getId()))) {
+                this.entries.put(entry.getId(), entry);
+                this.changed = true;
+            }
+        }
+
+        private synchronized void remove(int deviceId) {
+            if (this.entries.remove(deviceId) != null) {
+                this.changed = true;
+            }
+        }
+    }
+
+    /**
+     * <p>An immutable state of the index searched by lookups.</p>
+     */
+    private static final class Snapshot {
+
+        private static final int[] EMPTY = new int[0];
+
+        // The devices ordered by number
+        private final DeviceLookupEntry[] devices;
+
+        // The lower-cased searched fields of the devices: number, IMEI and device-reported IMEI
+        private final String[][] keys;
+
+        // The positions of the devices containing the trigrams mapped to those trigrams
+        private final Map<Long, int[]> postings;
+
+        private Snapshot(Iterable<DeviceLookupEntry> entries) {
+            final List<DeviceLookupEntry> sorted = new ArrayList<>();
+            entries.forEach(sorted::add);
+            sorted.sort(Comparator.comparing(DeviceLookupEntry::getNumber,
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder()))));
+
+            this.devices = sorted.toArray(new DeviceLookupEntry[0]);
+            this.keys = new String[this.devices.length][];
+
+            final Map<Long, List<Integer>> positions = new HashMap<>();
+            final Set<Long> trigrams = new HashSet<>();
+            for (int i = 0; i < this.devices.length; i++) {
+                final DeviceLookupEntry device = this.devices[i];
+                final String[] key = {
+                        lowerCase(device.getNumber()), lowerCase(device.getImei()), lowerCase(device.getInfoImei())
+                };
+                this.keys[i] = key;
+
+                trigrams.clear();
+                for (String value : key) {
+                    addTrigrams(trigrams, value);
+                }
+                for (Long trigram : trigrams) {
+                    positions.computeIfAbsent(trigram, t -> new ArrayList<>()).add(i);
+                }
+            }
+
+            this.postings = new HashMap<>(positions.size() * 4 / 3 + 1);
+            positions.forEach((trigram, list) -> this.postings.put(trigram, list.stream().mapToInt(i -> i).toArray()));
+        }
+
+        private List<DeviceLookupItem> find(String filter, Set<Integer> allowedGroups, int limit) {
+            if (limit <= 0) {
+                return Collections.emptyList();
+            }
+
+            final int[] candidates = getCandidates(filter);
+            final int count = candidates == null ? this.devices.length : candidates.length;
+
+            // The matches per search priority; the devices are visited in order of numbers so each list is sorted
+            final List<List<DeviceLookupEntry>> matches = new ArrayList<>(MAX_PRIORITY + 1);
+            for (int p = 0; p <= MAX_PRIORITY; p++) {
+                matches.add(new ArrayList<>());
+            }
+
+            for (int c = 0; c < count; c++) {
+                final int i = candidates == null ? c : candidates[c];
+                final String[] key = this.keys[i];
+                int priority = 0;
+                if (key[0] != null && key[0].contains(filter)) {
+                    priority += PRIORITY_NUMBER;
+                }
+                if (key[1] != null && key[1].contains(filter)) {
+                    priority += PRIORITY_IMEI;
+                }
+                if (key[2] != null && key[2].contains(filter)) {
+                    priority += PRIORITY_INFO_IMEI;
+                }
+                if (priority > 0 && matches.get(priority).size() < limit && isAllowed(this.devices[i], allowedGroups)) {
+                    matches.get(priority).add(this.devices[i]);
+                }
+            }
+
+            final List<DeviceLookupItem> result = new ArrayList<>(limit);
+            for (int p = MAX_PRIORITY; p > 0 && result.size() < limit; p--) {
+                for (DeviceLookupEntry device : matches.get(p)) {
+                    if (result.size() == limit) {
+                        break;
+                    }
+                    result.add(toLookupItem(device));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * <p>Gets the positions of the devices which may match the specified filter.</p>
+         *
+         * @return the positions of candidate devices in ascending order or <code>null</code> if all devices need to be
+         *         checked.
+         */
+        private int[] getCandidates(String filter) {
+            if (filter.length() < 3) {
+                return null;
+            }
+            int[] candidates = null;
+            for (int i = 0; i + 3 <= filter.length(); i++) {
+                final int[] posting = this.postings.getOrDefault(trigram(filter, i), EMPTY);
+                if (candidates == null || posting.length < candidates.length) {
+                    candidates = posting;
+                }
+            }
+            return candidates;
+        }
+
+        private static boolean isAllowed(DeviceLookupEntry device, Set<Integer> allowedGroups) {
+            if (allowedGroups == null) {
+                return true;
+            }
+            if (device.getGroupIds() != null) {
+                for (Integer groupId : device.getGroupIds()) {
+                    if (allowedGroups.contains(groupId)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static DeviceLookupItem toLookupItem(DeviceLookupEntry device) {
+            final DeviceLookupItem item = new DeviceLookupItem();
+            item.setId(device.getId());
+            item.setName(device.getNumber());
+            item.setImei(device.getImei());
+            if (device.getInfoImei() != null) {
+                // Only the IMEI reported by device is used by lookup clients so the whole info is not kept in memory
+                try {
+                    item.setInfo(objectMapper.writeValueAsString(Collections.singletonMap("imei", device.getInfoImei())));
+                } catch (JsonProcessingException e) {
+                    logger.error("Failed to serialize the device info for lookup: {}", device, e);
+                }
+            }
+            return item;
+        }
+    }
+}
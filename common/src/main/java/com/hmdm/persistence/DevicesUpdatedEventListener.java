@@ -0,0 +1,61 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.persistence;
+
+import com.hmdm.event.DevicesUpdatedEvent;
+import com.hmdm.event.EventListener;
+import com.hmdm.event.EventType;
+
+/**
+ * <p>A listener for {@link EventType#DEVICES_UPDATED} events.</p>
+ */
+public class DevicesUpdatedEventListener implements EventListener<DevicesUpdatedEvent> {
+
+    private final DeviceLookupIndex deviceLookupIndex;
+
+    /**
+     * <p>Constructs new <code>DevicesUpdatedEventListener</code> instance. This implementation does nothing.</p>
+     */
+    public DevicesUpdatedEventListener(DeviceLookupIndex deviceLookupIndex) {
+        this.deviceLookupIndex = deviceLookupIndex;
+    }
+
+    /**
+     * <p>Handles the event.</p>
+     *
+     * @param event an event fired from the external source.
+     */
+    @Override
+    public void onEvent(DevicesUpdatedEvent event) {
+        this.deviceLookupIndex.onDevicesUpdated(event.getCustomerId(), event.getDeviceIds());
+    }
+
+    /**
+     * <p>Gets the type of supported events.</p>
+     *
+     * @return a type of supported events.
+     */
+    @Override
+    public EventType getSupportedEventType() {
+        return EventType.DEVICES_UPDATED;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.persistence;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.Array;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>A type handler for passing the collections of IDs as a single SQL <code>INTEGER[]</code> parameter, e.g.
+ * <code>id = ANY(#{ids,typeHandler=com.hmdm.persistence.IntegerArrayTypeHandler})</code>. Unlike the
+ * <code>IN (...)</code> lists built with <code>foreach</code> the statement text and the number of parameters do not
+ * depend on the size of collection.</p>
+ *
+ * @author isv
+ */
+public class IntegerArrayTypeHandler extends BaseTypeHandler<Collection<Integer>> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Collection<Integer> parameter, JdbcType jdbcType)
+            throws SQLException {
+        ps.setArray(i, ps.getConnection().createArrayOf("integer", parameter.toArray()));
+    }
+
+    @Override
+    public Collection<Integer> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toList(rs.getArray(columnName));
+    }
+
+    @Override
+    public Collection<Integer> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toList(rs.getArray(columnIndex));
+    }
+
+    @Override
+    public Collection<Integer> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toList(cs.getArray(columnIndex));
+    }
+
+    private static List<Integer> toList(Array array) throws SQLException {
+        if (array == null) {
+            return null;
+        }
+        try {
+            final List<Integer> result = new ArrayList<>();
+            for (Object value : (Object[]) array.getArray()) {
+                result.add(value == null ? null : ((Number) value).intValue());
+            }
+            return result;
+        } finally {
+            array.free();
+        }
+    }
+}
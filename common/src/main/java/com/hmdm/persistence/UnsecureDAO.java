@@ -192,6 +192,10 @@ public class UnsecureDAO {
         this.deviceMapper.clearOldNumber(id);
     }
 
+    public int decayDeviceOnlineStatus(long now, int limit) {
+        return this.deviceMapper.decayDeviceOnlineStatus(now, limit);
+    }
+
     // This method should be called in a single-tenant mode only
     // and the device customer ID should be set
     @Transactional
@@ -26,6 +26,7 @@ import java.util.List;
 
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.hmdm.rest.json.LookupItem;
 
@@ -103,6 +104,13 @@ public class Device implements CustomerData, Serializable {
     private Long enrollTime;
     @ApiModelProperty(hidden = true)
     private String serial;
+    // The sort keys of the device in the device list, used for keyset pagination
+    @ApiModelProperty(hidden = true)
+    @JsonIgnore
+    private String sortingValue;
+    @ApiModelProperty(hidden = true)
+    @JsonIgnore
+    private Integer searchPriority;
 
     public Device() {
     }
@@ -353,6 +361,22 @@ public class Device implements CustomerData, Serializable {
         this.serial = serial;
     }
 
+    public String getSortingValue() {
+        return sortingValue;
+    }
+
+    public void setSortingValue(String sortingValue) {
+        this.sortingValue = sortingValue;
+    }
+
+    public Integer getSearchPriority() {
+        return searchPriority;
+    }
+
+    public void setSearchPriority(Integer searchPriority) {
+        this.searchPriority = searchPriority;
+    }
+
     public String getFastSearch() {
         return fastSearch;
     }
@@ -0,0 +1,133 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.persistence.domain;
+
+import java.io.Serializable;
+
+/**
+ * <p>The device statistics for a single configuration displayed on dashboard.</p>
+ *
+ * @author isv
+ */
+public class DeviceConfigSummary implements Serializable {
+
+    private static final long serialVersionUID = -3094757316651285560L;
+
+    private Integer id;
+
+    private String name;
+
+    /**
+     * <p>A number of devices which were ever online.</p>
+     */
+    private long total;
+
+    private long offline;
+
+    private long idle;
+
+    private long online;
+
+    private long appFailure;
+
+    private long appMismatch;
+
+    private long appSuccess;
+
+    /**
+     * <p>Constructs new <code>DeviceConfigSummary</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceConfigSummary() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getOffline() {
+        return offline;
+    }
+
+    public void setOffline(long offline) {
+        this.offline = offline;
+    }
+
+    public long getIdle() {
+        return idle;
+    }
+
+    public void setIdle(long idle) {
+        this.idle = idle;
+    }
+
+    public long getOnline() {
+        return online;
+    }
+
+    public void setOnline(long online) {
+        this.online = online;
+    }
+
+    public long getAppFailure() {
+        return appFailure;
+    }
+
+    public void setAppFailure(long appFailure) {
+        this.appFailure = appFailure;
+    }
+
+    public long getAppMismatch() {
+        return appMismatch;
+    }
+
+    public void setAppMismatch(long appMismatch) {
+        this.appMismatch = appMismatch;
+    }
+
+    public long getAppSuccess() {
+        return appSuccess;
+    }
+
+    public void setAppSuccess(long appSuccess) {
+        this.appSuccess = appSuccess;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.persistence.domain;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>A projection of the device on the fields searched by device lookup (autocomplete).</p>
+ *
+ * @author isv
+ */
+public class DeviceLookupEntry implements Serializable {
+
+    private static final long serialVersionUID = 6123092381754410851L;
+
+    // An ID of the device
+    private int id;
+
+    // An ID of the customer account the device belongs to
+    private int customerId;
+
+    // A device number
+    private String number;
+
+    // An IMEI set for the device on server
+    private String imei;
+
+    // An IMEI reported by the device itself
+    private String infoImei;
+
+    // The IDs of the groups the device belongs to
+    private List<Integer> groupIds;
+
+    /**
+     * <p>Constructs new <code>DeviceLookupEntry</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceLookupEntry() {
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public void setNumber(String number) {
+        this.number = number;
+    }
+
+    public String getImei() {
+        return imei;
+    }
+
+    public void setImei(String imei) {
+        this.imei = imei;
+    }
+
+    public String getInfoImei() {
+        return infoImei;
+    }
+
+    public void setInfoImei(String infoImei) {
+        this.infoImei = infoImei;
+    }
+
+    public List<Integer> getGroupIds() {
+        return groupIds;
+    }
+
+    public void setGroupIds(List<Integer> groupIds) {
+        this.groupIds = groupIds;
+    }
+
+    /**
+     * <p>Checks if the searched fields of this entry match the fields of the specified entry.</p>
+     *
+     * @param other an entry to compare this one against.
+     * @return <code>true</code> if both entries would be found by the same lookups; <code>false</code> otherwise.
+     */
+    public boolean isSameLookup(DeviceLookupEntry other) {
+        return other != null
+                && this.id == other.id
+                && this.customerId == other.customerId
+                && Objects.equals(this.number, other.number)
+                && Objects.equals(this.imei, other.imei)
+                && Objects.equals(this.infoImei, other.infoImei)
+                && Objects.equals(this.groupIds, other.groupIds);
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceLookupEntry{" +
+                "id=" + id +
+                ", customerId=" + customerId +
+                ", number='" + number + '\'' +
+                ", imei='" + imei + '\'' +
+                ", infoImei='" + infoImei + '\'' +
+                ", groupIds=" + groupIds +
+                '}';
+    }
+}
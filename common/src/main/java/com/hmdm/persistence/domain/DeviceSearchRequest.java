@@ -149,6 +149,29 @@ public class DeviceSearchRequest implements Serializable {
     @ApiModelProperty("Flag of fast searching by device number")
     private boolean fastSearch;
 
+    /**
+     * <p>The sort keys of the last device of previous page. If all of them are set, the page is selected by keyset
+     * instead of <code>OFFSET</code>.</p>
+     */
+    @ApiModelProperty("A sorting value of the last device of previous page (for keyset pagination)")
+    private String afterSortingValue;
+
+    @ApiModelProperty("A search priority of the last device of previous page (for keyset pagination)")
+    private Integer afterSearchPriority;
+
+    @ApiModelProperty("A number of the last device of previous page (for keyset pagination)")
+    private String afterDeviceNumber;
+
+    @ApiModelProperty("An ID of the last device of previous page (for keyset pagination)")
+    private Integer afterDeviceId;
+
+    /**
+     * <p>A flag indicating if the total number of devices may be taken from the recently computed count for the same
+     * filter instead of counting the devices for each page.</p>
+     */
+    @ApiModelProperty("A flag indicating if the total number of devices may be estimated")
+    private boolean estimateTotal;
+
     public DeviceSearchRequest() {
     }
 
@@ -365,6 +388,46 @@ public class DeviceSearchRequest implements Serializable {
         }
     }
 
+    public String getAfterSortingValue() {
+        return afterSortingValue;
+    }
+
+    public void setAfterSortingValue(String afterSortingValue) {
+        this.afterSortingValue = afterSortingValue;
+    }
+
+    public Integer getAfterSearchPriority() {
+        return afterSearchPriority;
+    }
+
+    public void setAfterSearchPriority(Integer afterSearchPriority) {
+        this.afterSearchPriority = afterSearchPriority;
+    }
+
+    public String getAfterDeviceNumber() {
+        return afterDeviceNumber;
+    }
+
+    public void setAfterDeviceNumber(String afterDeviceNumber) {
+        this.afterDeviceNumber = afterDeviceNumber;
+    }
+
+    public Integer getAfterDeviceId() {
+        return afterDeviceId;
+    }
+
+    public void setAfterDeviceId(Integer afterDeviceId) {
+        this.afterDeviceId = afterDeviceId;
+    }
+
+    public boolean isEstimateTotal() {
+        return estimateTotal;
+    }
+
+    public void setEstimateTotal(boolean estimateTotal) {
+        this.estimateTotal = estimateTotal;
+    }
+
     @Override
     public String toString() {
         return "DeviceSearchRequest{" +
@@ -388,6 +451,11 @@ public class DeviceSearchRequest implements Serializable {
                 ", kioskMode=" + kioskMode +
                 ", androidVersion=" + androidVersion +
                 ", installationStatus=" + installationStatus +
+                ", afterSortingValue=" + afterSortingValue +
+                ", afterSearchPriority=" + afterSearchPriority +
+                ", afterDeviceNumber=" + afterDeviceNumber +
+                ", afterDeviceId=" + afterDeviceId +
+                ", estimateTotal=" + estimateTotal +
                 '}';
     }
 }
@@ -0,0 +1,114 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.persistence.domain;
+
+import java.io.Serializable;
+
+/**
+ * <p>A number of devices of a single configuration sharing the same online status, applications installation status
+ * and enrollment state. The counters are maintained by database triggers on <code>devices</code> and
+ * <code>deviceStatuses</code> tables.</p>
+ *
+ * @author isv
+ */
+public class DeviceStatusCounter implements Serializable {
+
+    private static final long serialVersionUID = 2719453301286014377L;
+
+    public static final String ONLINE_STATUS_GREEN = "green";
+    public static final String ONLINE_STATUS_YELLOW = "yellow";
+    public static final String ONLINE_STATUS_RED = "red";
+    public static final String ONLINE_STATUS_NONE = "none";
+
+    private int configurationId;
+
+    private String configurationName;
+
+    /**
+     * <p>An online status of devices: <code>green</code> - online during last hour, <code>yellow</code> - online
+     * during last 4 hours, <code>red</code> - online earlier, <code>none</code> - never online.</p>
+     */
+    private String onlineStatus;
+
+    /**
+     * <p>A status of applications installation on devices or empty string if not evaluated yet.</p>
+     */
+    private String applicationsStatus;
+
+    private boolean enrolled;
+
+    private long counter;
+
+    /**
+     * <p>Constructs new <code>DeviceStatusCounter</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceStatusCounter() {
+    }
+
+    public int getConfigurationId() {
+        return configurationId;
+    }
+
+    public void setConfigurationId(int configurationId) {
+        this.configurationId = configurationId;
+    }
+
+    public String getConfigurationName() {
+        return configurationName;
+    }
+
+    public void setConfigurationName(String configurationName) {
+        this.configurationName = configurationName;
+    }
+
+    public String getOnlineStatus() {
+        return onlineStatus;
+    }
+
+    public void setOnlineStatus(String onlineStatus) {
+        this.onlineStatus = onlineStatus;
+    }
+
+    public String getApplicationsStatus() {
+        return applicationsStatus;
+    }
+
+    public void setApplicationsStatus(String applicationsStatus) {
+        this.applicationsStatus = applicationsStatus;
+    }
+
+    public boolean isEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(boolean enrolled) {
+        this.enrolled = enrolled;
+    }
+
+    public long getCounter() {
+        return counter;
+    }
+
+    public void setCounter(long counter) {
+        this.counter = counter;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.persistence.domain;
+
+import com.hmdm.rest.json.ChartItem;
+
+import java.io.Serializable;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * <p>A snapshot of device statistics displayed on dashboard. The counters are evaluated over the devices available to
+ * user.</p>
+ *
+ * @author isv
+ */
+public class DeviceSummary implements Serializable {
+
+    private static final long serialVersionUID = 6028356716318120394L;
+
+    /**
+     * <p>A number of devices which were online during last hour.</p>
+     */
+    private long statusGreen;
+
+    /**
+     * <p>A number of devices which were online between 4 and 1 hours ago.</p>
+     */
+    private long statusYellow;
+
+    /**
+     * <p>A number of devices which were not online during last hour.</p>
+     */
+    private long statusRed;
+
+    private long installSuccess;
+
+    private long installVersionMismatch;
+
+    private long installFailure;
+
+    private long enrolled;
+
+    private long enrolledLastMonth;
+
+    /**
+     * <p>The numbers of devices enrolled during each of last 12 months.</p>
+     */
+    private List<ChartItem> enrolledMonthly = new LinkedList<>();
+
+    /**
+     * <p>The counters for top 5 configurations by number of devices.</p>
+     */
+    private List<DeviceConfigSummary> topConfigs = new LinkedList<>();
+
+    /**
+     * <p>Constructs new <code>DeviceSummary</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceSummary() {
+    }
+
+    public long getStatusGreen() {
+        return statusGreen;
+    }
+
+    public void setStatusGreen(long statusGreen) {
+        this.statusGreen = statusGreen;
+    }
+
+    public long getStatusYellow() {
+        return statusYellow;
+    }
+
+    public void setStatusYellow(long statusYellow) {
+        this.statusYellow = statusYellow;
+    }
+
+    public long getStatusRed() {
+        return statusRed;
+    }
+
+    public void setStatusRed(long statusRed) {
+        this.statusRed = statusRed;
+    }
+
+    public long getInstallSuccess() {
+        return installSuccess;
+    }
+
+    public void setInstallSuccess(long installSuccess) {
+        this.installSuccess = installSuccess;
+    }
+
+    public long getInstallVersionMismatch() {
+        return installVersionMismatch;
+    }
+
+    public void setInstallVersionMismatch(long installVersionMismatch) {
+        this.installVersionMismatch = installVersionMismatch;
+    }
+
+    public long getInstallFailure() {
+        return installFailure;
+    }
+
+    public void setInstallFailure(long installFailure) {
+        this.installFailure = installFailure;
+    }
+
+    public long getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(long enrolled) {
+        this.enrolled = enrolled;
+    }
+
+    public long getEnrolledLastMonth() {
+        return enrolledLastMonth;
+    }
+
+    public void setEnrolledLastMonth(long enrolledLastMonth) {
+        this.enrolledLastMonth = enrolledLastMonth;
+    }
+
+    public List<ChartItem> getEnrolledMonthly() {
+        return enrolledMonthly;
+    }
+
+    public void setEnrolledMonthly(List<ChartItem> enrolledMonthly) {
+        this.enrolledMonthly = enrolledMonthly;
+    }
+
+    public List<DeviceConfigSummary> getTopConfigs() {
+        return topConfigs;
+    }
+
+    public void setTopConfigs(List<DeviceConfigSummary> topConfigs) {
+        this.topConfigs = topConfigs;
+    }
+}
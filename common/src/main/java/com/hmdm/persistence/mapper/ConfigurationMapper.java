@@ -21,6 +21,7 @@
 
 package com.hmdm.persistence.mapper;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.hmdm.persistence.domain.ApplicationSetting;
@@ -221,4 +222,22 @@ public interface ConfigurationMapper {
 
     @Delete({"DELETE FROM configurationFiles WHERE configurationId = #{id}"})
     void removeConfigurationFilesById(@Param("id") Integer configurationId);
+
+    /**
+     * <p>Gets the configurations referenced from the device list along with the applications used by them.</p>
+     *
+     * @param customerId an ID of a customer account set for current user.
+     * @param ids a list of configuration IDs.
+     * @return a list of configurations with only the properties required by device list and the used applications set.
+     */
+    List<Configuration> getDeviceListConfigurations(@Param("customerId") Integer customerId,
+                                                    @Param("ids") Collection<Integer> ids);
+
+    /**
+     * <p>Gets the files used by the configurations referenced from the device list.</p>
+     *
+     * @param ids a list of configuration IDs.
+     * @return a list of files used by specified configurations.
+     */
+    List<ConfigurationFile> getDeviceListConfigurationFiles(@Param("ids") Collection<Integer> ids);
 }
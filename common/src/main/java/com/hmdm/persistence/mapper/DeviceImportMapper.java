@@ -0,0 +1,74 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.persistence.mapper;
+
+import com.hmdm.rest.json.DeviceImportResult;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * <p>An ORM mapper for the device import. The imported rows are loaded to the temporary <code>deviceImport</code> table
+ * (dropped on commit) and validated and inserted with set-based statements.</p>
+ *
+ * @author isv
+ */
+public interface DeviceImportMapper {
+
+    void createImportTable();
+
+    void createImportGroupsTable();
+
+    @Update({"ANALYZE deviceImport"})
+    void analyzeImportTable();
+
+    void markInvalidRows();
+
+    void markDuplicateRows();
+
+    void markExistingRows();
+
+    void resolveConfigurations(@Param("customerId") int customerId);
+
+    void markUnresolvedConfigurations();
+
+    void splitGroups();
+
+    void resolveGroups(@Param("userId") int userId, @Param("customerId") int customerId);
+
+    void markUnresolvedGroups();
+
+    void markOverLimitRows(@Param("limit") int limit);
+
+    int insertDevices(@Param("customerId") int customerId, @Param("fastSearchChars") int fastSearchChars);
+
+    void insertDeviceGroups();
+
+    List<Integer> getImportedDeviceIds();
+
+    @Select({"SELECT COUNT(*) FROM deviceImport"})
+    int countRows();
+
+    List<DeviceImportResult.RowError> getErrors();
+}
@@ -21,13 +21,14 @@
 
 package com.hmdm.persistence.mapper;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.hmdm.persistence.domain.*;
 import com.hmdm.service.DeviceApplicationsStatus;
 import com.hmdm.service.DeviceConfigFilesStatus;
 import org.apache.ibatis.annotations.*;
-import com.hmdm.rest.json.DeviceLookupItem;
+import com.hmdm.rest.json.ChartItem;
 
 public interface DeviceMapper {
 
@@ -111,7 +112,50 @@ public interface DeviceMapper {
 
     Long countAllDevicesForSummary(DeviceSummaryRequest filter);
 
-    List<SummaryConfigItem> countDevicesByConfig(DeviceSummaryRequest filter);
+    DeviceSummary getDeviceSummary(@Param("userId") int userId,
+                                   @Param("customerId") int customerId,
+                                   @Param("now") long now);
+
+    List<ChartItem> getDeviceSummaryEnrolled(@Param("userId") int userId,
+                                             @Param("customerId") int customerId,
+                                             @Param("enrollBounds") List<Long> enrollBounds);
+
+    List<DeviceConfigSummary> getDeviceSummaryByConfig(@Param("userId") int userId,
+                                                       @Param("customerId") int customerId,
+                                                       @Param("now") long now);
+
+    @Select("SELECT deviceStatusCounters.configurationId, configurations.name AS configurationName, " +
+            "       deviceStatusCounters.onlineStatus, deviceStatusCounters.applicationsStatus, " +
+            "       deviceStatusCounters.enrolled, deviceStatusCounters.counter " +
+            "FROM deviceStatusCounters " +
+            "LEFT JOIN configurations ON configurations.id = deviceStatusCounters.configurationId " +
+            "WHERE deviceStatusCounters.customerId = #{customerId} " +
+            "AND deviceStatusCounters.counter <> 0")
+    List<DeviceStatusCounter> getDeviceStatusCounters(@Param("customerId") int customerId);
+
+    @Select("SELECT COUNT(*) FROM devices WHERE customerId = #{customerId} AND enrollTime > #{since}")
+    long countEnrolledDevicesSince(@Param("customerId") int customerId, @Param("since") long since);
+
+    List<ChartItem> getCustomerDevicesEnrolled(@Param("customerId") int customerId,
+                                               @Param("enrollBounds") List<Long> enrollBounds);
+
+    /**
+     * <p>Moves the devices which went offline to the next online status. The devices are processed in batches to keep
+     * the locks on status counters short.</p>
+     *
+     * @param now current time in milliseconds since Epoch time.
+     * @param limit a maximum number of devices to update.
+     * @return a number of updated devices.
+     */
+    @Update("UPDATE devices SET onlineStatus = mdm_device_online_status(lastUpdate, #{now}) " +
+            "WHERE id IN (" +
+            "    SELECT id FROM devices " +
+            "    WHERE onlineStatus = 'green' AND lastUpdate <= #{now} - 3600000 " +
+            "       OR onlineStatus = 'yellow' AND lastUpdate <= #{now} - 14400000 " +
+            "    LIMIT #{limit} " +
+            "    FOR UPDATE SKIP LOCKED" +
+            ")")
+    int decayDeviceOnlineStatus(@Param("now") long now, @Param("limit") int limit);
 
     @Update({"UPDATE devices SET " +
             "  info = #{info}, " +
@@ -140,10 +184,8 @@ public interface DeviceMapper {
             "WHERE id = #{deviceId}"})
     void clearOldNumber(@Param("deviceId") Integer deviceId);
 
-    List<DeviceLookupItem> lookupDevices(@Param("userId") int userId,
-                                         @Param("customerId") int customerId,
-                                         @Param("filter") String filter,
-                                         @Param("limit") int limit);
+    List<DeviceLookupEntry> getDeviceLookupEntries(@Param("customerId") Integer customerId,
+                                                   @Param("deviceIds") Collection<Integer> deviceIds);
 
     @Delete({"DELETE FROM devices WHERE id = #{id}"})
     void removeDevice(@Param("id") Integer id);
@@ -152,6 +194,26 @@ public interface DeviceMapper {
     void updateDeviceConfiguration(@Param("deviceId") Integer deviceId,
                                    @Param("configurationId") Integer configurationId);
 
+    List<Integer> getAccessibleDeviceIds(@Param("userId") int userId,
+                                         @Param("customerId") int customerId,
+                                         @Param("deviceIds") Collection<Integer> deviceIds);
+
+    int removeDevices(@Param("deviceIds") Collection<Integer> deviceIds);
+
+    int updateDevicesConfiguration(@Param("customerId") int customerId,
+                                   @Param("deviceIds") Collection<Integer> deviceIds,
+                                   @Param("configurationId") Integer configurationId);
+
+    int insertDevicesGroups(@Param("userId") int userId,
+                            @Param("customerId") int customerId,
+                            @Param("deviceIds") Collection<Integer> deviceIds,
+                            @Param("groupIds") Collection<Integer> groupIds);
+
+    int removeDevicesGroups(@Param("userId") int userId,
+                            @Param("customerId") int customerId,
+                            @Param("deviceIds") Collection<Integer> deviceIds,
+                            @Param("groupIds") Collection<Integer> groupIds);
+
     @Update({"UPDATE devices SET description = #{description} WHERE id = #{deviceId}"})
     void updateDeviceDescription(@Param("deviceId") Integer deviceId,
                                  @Param("description") String newDeviceDesc);
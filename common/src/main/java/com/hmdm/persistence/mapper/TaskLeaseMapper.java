@@ -0,0 +1,46 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.persistence.mapper;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * <p>An ORM mapper for the leases of the scheduled tasks shared by the server nodes.</p>
+ *
+ * @author isv
+ */
+public interface TaskLeaseMapper {
+
+    @Update({"INSERT INTO scheduledTaskLeases (name, owner, expiresAt) " +
+            "VALUES (#{name}, #{owner}, EXTRACT(EPOCH FROM NOW()) * 1000 + #{duration}) " +
+            "ON CONFLICT (name) DO UPDATE SET " +
+            "owner = EXCLUDED.owner, " +
+            "expiresAt = EXCLUDED.expiresAt " +
+            "WHERE scheduledTaskLeases.owner = EXCLUDED.owner " +
+            "OR scheduledTaskLeases.expiresAt < EXTRACT(EPOCH FROM NOW()) * 1000"})
+    int acquireLease(@Param("name") String name, @Param("owner") String owner, @Param("duration") long duration);
+
+    @Update({"UPDATE scheduledTaskLeases SET expiresAt = 0 WHERE name = #{name} AND owner = #{owner}"})
+    int releaseLease(@Param("name") String name, @Param("owner") String owner);
+}
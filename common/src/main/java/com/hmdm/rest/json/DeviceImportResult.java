@@ -0,0 +1,122 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.rest.json;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * <p>A DTO carrying the results of device import.</p>
+ *
+ * @author isv
+ */
+@ApiModel(description = "A result of device import")
+public class DeviceImportResult implements Serializable {
+
+    private static final long serialVersionUID = 4401763384617950126L;
+
+    @ApiModelProperty("Number of rows submitted for import")
+    private int total;
+
+    @ApiModelProperty("Number of devices created")
+    private int imported;
+
+    @ApiModelProperty("Rows which have not been imported")
+    private List<RowError> errors;
+
+    /**
+     * <p>Constructs new <code>DeviceImportResult</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceImportResult() {
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * <p>A DTO carrying the reason for rejecting a single imported row.</p>
+     */
+    @ApiModel(description = "A row rejected by device import")
+    public static class RowError implements Serializable {
+
+        private static final long serialVersionUID = 2148813271945573201L;
+
+        @ApiModelProperty("Row number (starting from 1, the CSV header is not counted)")
+        private int row;
+
+        @ApiModelProperty("Device number")
+        private String number;
+
+        @ApiModelProperty("Error key: error.import.number.empty, error.import.number.duplicate, " +
+                "error.import.number.exists, error.import.value.length, error.import.configuration.notfound, " +
+                "error.import.group.notfound or error.import.limit")
+        private String error;
+
+        public int getRow() {
+            return row;
+        }
+
+        public void setRow(int row) {
+            this.row = row;
+        }
+
+        public String getNumber() {
+            return number;
+        }
+
+        public void setNumber(String number) {
+            this.number = number;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
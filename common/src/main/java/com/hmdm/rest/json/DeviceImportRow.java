@@ -0,0 +1,173 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.rest.json;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * <p>A DTO carrying the data for a single device to be imported.</p>
+ *
+ * @author isv
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@ApiModel(description = "A device to be imported")
+public class DeviceImportRow implements Serializable {
+
+    private static final long serialVersionUID = -2816461259030553394L;
+
+    @ApiModelProperty("Device number (required, unique)")
+    private String number;
+
+    @ApiModelProperty("Device IMEI")
+    private String imei;
+
+    @ApiModelProperty("Device serial number")
+    private String serial;
+
+    @ApiModelProperty("Device phone number")
+    private String phone;
+
+    @ApiModelProperty("Device description")
+    private String description;
+
+    @ApiModelProperty("Configuration ID or name (required)")
+    private String configuration;
+
+    @ApiModelProperty("Group IDs or names")
+    private List<String> groups;
+
+    @ApiModelProperty("Custom property #1")
+    private String custom1;
+
+    @ApiModelProperty("Custom property #2")
+    private String custom2;
+
+    @ApiModelProperty("Custom property #3")
+    private String custom3;
+
+    /**
+     * <p>A key of the error detected when reading the row from the source (e.g. malformed CSV line).</p>
+     */
+    @ApiModelProperty(hidden = true)
+    @JsonIgnore
+    private String error;
+
+    /**
+     * <p>Constructs new <code>DeviceImportRow</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceImportRow() {
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public void setNumber(String number) {
+        this.number = number;
+    }
+
+    public String getImei() {
+        return imei;
+    }
+
+    public void setImei(String imei) {
+        this.imei = imei;
+    }
+
+    public String getSerial() {
+        return serial;
+    }
+
+    public void setSerial(String serial) {
+        this.serial = serial;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    public void setConfiguration(String configuration) {
+        this.configuration = configuration;
+    }
+
+    public List<String> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(List<String> groups) {
+        this.groups = groups;
+    }
+
+    public String getCustom1() {
+        return custom1;
+    }
+
+    public void setCustom1(String custom1) {
+        this.custom1 = custom1;
+    }
+
+    public String getCustom2() {
+        return custom2;
+    }
+
+    public void setCustom2(String custom2) {
+        this.custom2 = custom2;
+    }
+
+    public String getCustom3() {
+        return custom3;
+    }
+
+    public void setCustom3(String custom3) {
+        this.custom3 = custom3;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.service;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hmdm.persistence.mapper.TaskLeaseMapper;
+import com.hmdm.util.BackgroundTaskRunnerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A service running the periodic tasks which must be executed by a single server node only when several nodes
+ * share the same database.</p>
+ *
+ * <p>Each node schedules the task as usual but on every run the node tries to acquire (or renew) the lease of the task
+ * in <code>scheduledTaskLeases</code> table; the run is skipped if the lease is held by another node. The lease lasts
+ * for one and a half periods of the task so the node holding it keeps running the task while it is alive and another
+ * node takes over once the lease expires. The lease times are based on the database clock so the clocks of the nodes
+ * do not need to be synchronized.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class ScheduledTaskService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledTaskService.class);
+
+    private final BackgroundTaskRunnerService taskRunner;
+
+    private final TaskLeaseMapper leaseMapper;
+
+    /**
+     * <p>A unique identifier of the current server node.</p>
+     */
+    private final String nodeId;
+
+    private final ConcurrentMap<String, ScheduledTaskStats> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * <p>Constructs new <code>ScheduledTaskService</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public ScheduledTaskService(BackgroundTaskRunnerService taskRunner, TaskLeaseMapper leaseMapper) {
+        this.taskRunner = taskRunner;
+        this.leaseMapper = leaseMapper;
+        this.nodeId = resolveHostName() + "/" + UUID.randomUUID().toString();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::releaseLeases));
+    }
+
+    /**
+     * <p>Submits the specified task for repeatable execution at specified periods by the single server node.</p>
+     *
+     * @param name a unique name of the task shared by all server nodes.
+     * @param task a task to be executed in background.
+     * @param initialDelay the time to delay first execution.
+     * @param period the period between successive executions.
+     * @param unit the time unit of the initialDelay and period parameters.
+     * @return a Future representing pending completion of the series of repeated tasks.
+     */
+    public Future<?> submitScheduledTask(String name, Runnable task, long initialDelay, long period, TimeUnit unit) {
+        final ScheduledTaskStats stats = new ScheduledTaskStats(name, unit.toMillis(period));
+        if (this.tasks.putIfAbsent(name, stats) != null) {
+            throw new IllegalArgumentException("Duplicate scheduled task name: " + name);
+        }
+        logger.info("Scheduling task {} with period {} {} on node {}", name, period, unit, nodeId);
+        return this.taskRunner.submitRepeatableTask(() -> run(stats, task), initialDelay, period, unit);
+    }
+
+    /**
+     * <p>Gets the run-time statistics of the scheduled tasks on the current server node.</p>
+     *
+     * @return a list of task statistics ordered by task name.
+     */
+    public List<ScheduledTaskStats> getTaskStats() {
+        final List<ScheduledTaskStats> result = new ArrayList<>(this.tasks.values());
+        result.sort(Comparator.comparing(ScheduledTaskStats::getName));
+        return result;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void run(ScheduledTaskStats stats, Runnable task) {
+        // Any exception escaping from here would cancel the further runs of the task
+        try {
+            if (this.leaseMapper.acquireLease(stats.getName(), nodeId, stats.getLeaseDuration()) == 0) {
+                logger.debug("Skipping task {}: the lease is held by another node", stats.getName());
+                stats.onSkipped();
+                return;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to acquire the lease for task {}, skipping the run", stats.getName(), e);
+            stats.onSkipped();
+            return;
+        }
+
+        final long start = stats.onStarted();
+        boolean success = false;
+        try {
+            task.run();
+            success = true;
+        } catch (Exception e) {
+            logger.error("Unexpected error when running task {}", stats.getName(), e);
+        } finally {
+            stats.onFinished(start, success);
+        }
+    }
+
+    private void releaseLeases() {
+        for (ScheduledTaskStats stats : this.tasks.values()) {
+            if (stats.isLeader()) {
+                try {
+                    this.leaseMapper.releaseLease(stats.getName(), nodeId);
+                } catch (Exception e) {
+                    logger.warn("Failed to release the lease for task {}: {}", stats.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
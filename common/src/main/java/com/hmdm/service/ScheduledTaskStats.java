@@ -0,0 +1,128 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hmdm.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A run-time statistics of the scheduled task on the current server node.</p>
+ *
+ * @author isv
+ */
+public class ScheduledTaskStats {
+
+    private final String name;
+
+    private final long period;
+
+    private volatile boolean leader;
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private volatile Long lastStart;
+
+    private volatile Long lastDuration;
+
+    private final LatencyHistogram durations = new LatencyHistogram();
+
+    /**
+     * <p>Constructs new <code>ScheduledTaskStats</code> instance.</p>
+     *
+     * @param name a unique name of the task.
+     * @param period a period between the task runs in milliseconds.
+     */
+    ScheduledTaskStats(String name, long period) {
+        this.name = name;
+        this.period = period;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * <p>Checks if the current node held the lease of the task at its last scheduled run.</p>
+     */
+    public boolean isLeader() {
+        return leader;
+    }
+
+    public long getRuns() {
+        return durations.getCount();
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public Long getLastStart() {
+        return lastStart;
+    }
+
+    public Long getLastDuration() {
+        return lastDuration;
+    }
+
+    public LatencyHistogram getDurations() {
+        return durations;
+    }
+
+    @JsonIgnore
+    long getLeaseDuration() {
+        return period + period / 2;
+    }
+
+    void onSkipped() {
+        this.leader = false;
+        this.skipped.incrementAndGet();
+    }
+
+    long onStarted() {
+        this.leader = true;
+        final long now = System.currentTimeMillis();
+        this.lastStart = now;
+        return now;
+    }
+
+    void onFinished(long start, boolean success) {
+        final long duration = System.currentTimeMillis() - start;
+        this.lastDuration = duration;
+        this.durations.record(duration);
+        if (!success) {
+            this.failures.incrementAndGet();
+        }
+    }
+}
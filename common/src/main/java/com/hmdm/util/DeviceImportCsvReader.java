@@ -0,0 +1,285 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.util;
+
+import com.hmdm.rest.json.DeviceImportRow;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * <p>A reader of the devices to be imported from CSV source.</p>
+ *
+ * <p>The first line of the source must list the column names (the order of columns is arbitrary); the values are
+ * separated by comma or semicolon (detected from the header). The values may be quoted with double quotes; the quoted
+ * values may contain the separators, line breaks and doubled quotes. The groups within the <code>groups</code> column
+ * are separated by semicolon. The empty lines are skipped.</p>
+ *
+ * <p>The malformed lines (unbalanced quotes, text after the closing quote, wrong number of values) do not stop the
+ * reading: they are returned as the rows having {@link #ERROR_FORMAT} error so they are reported along with the other
+ * rows.</p>
+ *
+ * @author isv
+ */
+public class DeviceImportCsvReader {
+
+    /**
+     * <p>A key of the error for malformed lines.</p>
+     */
+    public static final String ERROR_FORMAT = "error.import.format";
+
+    /**
+     * <p>The supported columns mapped to the setters of the row properties.</p>
+     */
+    private static final Map<String, BiConsumer<DeviceImportRow, String>> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("number", DeviceImportRow::setNumber);
+        COLUMNS.put("imei", DeviceImportRow::setImei);
+        COLUMNS.put("serial", DeviceImportRow::setSerial);
+        COLUMNS.put("phone", DeviceImportRow::setPhone);
+        COLUMNS.put("description", DeviceImportRow::setDescription);
+        COLUMNS.put("configuration", DeviceImportRow::setConfiguration);
+        COLUMNS.put("groups", (row, value) -> row.setGroups(value == null ? null : Arrays.asList(value.split(";"))));
+        COLUMNS.put("custom1", DeviceImportRow::setCustom1);
+        COLUMNS.put("custom2", DeviceImportRow::setCustom2);
+        COLUMNS.put("custom3", DeviceImportRow::setCustom3);
+    }
+
+    private final Reader source;
+
+    private final char delimiter;
+
+    private final List<BiConsumer<DeviceImportRow, String>> setters;
+
+    /**
+     * <p>An index of the <code>number</code> column or <code>-1</code> if there is no such column.</p>
+     */
+    private final int numberIndex;
+
+    /**
+     * <p>A character read ahead or <code>-2</code> if none.</p>
+     */
+    private int lookAhead = -2;
+
+    /**
+     * <p>A flag indicating if the last record read was malformed.</p>
+     */
+    private boolean malformed;
+
+    /**
+     * <p>Constructs new <code>DeviceImportCsvReader</code> instance reading the header from the specified source.</p>
+     *
+     * @param source a source to read CSV from.
+     * @throws IllegalArgumentException if the header lists an unsupported column or is malformed.
+     */
+    public DeviceImportCsvReader(Reader source) throws IOException {
+        this.source = source;
+
+        int c = read();
+        if (c != '\uFEFF') {
+            this.lookAhead = c;
+        }
+        final String header = readLine();
+        this.delimiter = detectDelimiter(header);
+
+        final List<String> names = header.isEmpty() ? new ArrayList<>() : parseLine(header, this.delimiter);
+        if (names == null) {
+            throw new IllegalArgumentException("Malformed header in device import: " + header);
+        }
+        this.setters = new ArrayList<>();
+        for (String name : names) {
+            final BiConsumer<DeviceImportRow, String> setter = name == null
+                    ? null : COLUMNS.get(name.trim().toLowerCase(Locale.ROOT));
+            if (setter == null) {
+                throw new IllegalArgumentException("Unsupported column in device import: " + name);
+            }
+            this.setters.add(setter);
+        }
+        this.numberIndex = names.stream()
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList())
+                .indexOf("number");
+    }
+
+    /**
+     * <p>Detects the delimiter of the values from the header line. The semicolon is used if the header contains
+     * semicolons and no commas, otherwise the comma is used.</p>
+     *
+     * @param header a header line.
+     * @return a delimiter of the values.
+     */
+    public static char detectDelimiter(String header) {
+        return header.indexOf(';') >= 0 && header.indexOf(',') < 0 ? ';' : ',';
+    }
+
+    /**
+     * <p>Gets the delimiter of the values detected from the header.</p>
+     *
+     * @return a delimiter of the values.
+     */
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * <p>Reads the next row from the source.</p>
+     *
+     * @return a next row or <code>null</code> if the end of source is reached. The malformed lines are returned as
+     *         the rows having {@link #ERROR_FORMAT} error.
+     */
+    public DeviceImportRow next() throws IOException {
+        List<String> values;
+        do {
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (!this.malformed && values.size() == 1 && values.get(0) == null);
+
+        final DeviceImportRow row = new DeviceImportRow();
+        if (this.malformed || values.size() != this.setters.size()) {
+            row.setError(ERROR_FORMAT);
+            if (this.numberIndex >= 0 && this.numberIndex < values.size()) {
+                row.setNumber(values.get(this.numberIndex));
+            }
+        } else {
+            for (int i = 0; i < values.size(); i++) {
+                this.setters.get(i).accept(row, values.get(i));
+            }
+        }
+        return row;
+    }
+
+    /**
+     * <p>Parses the values of a single line having no line breaks inside the quoted values.</p>
+     *
+     * @param line a line to parse.
+     * @param delimiter a delimiter of the values.
+     * @return a list of values or <code>null</code> if the line is malformed. The empty unquoted values are returned
+     *         as <code>null</code>.
+     */
+    public static List<String> parseLine(String line, char delimiter) throws IOException {
+        final DeviceImportCsvReader reader = new DeviceImportCsvReader(line, delimiter);
+        final List<String> values = reader.readRecord();
+        return reader.malformed || reader.read() != -1 ? null : values;
+    }
+
+    private DeviceImportCsvReader(String line, char delimiter) {
+        this.source = new StringReader(line);
+        this.delimiter = delimiter;
+        this.setters = new ArrayList<>();
+        this.numberIndex = -1;
+    }
+
+    /**
+     * <p>Reads a single record which may span several lines if the quoted values contain line breaks. The malformed
+     * record is read till the end of the line the error was found at.</p>
+     *
+     * @return a list of values or <code>null</code> if the end of source is reached.
+     */
+    private List<String> readRecord() throws IOException {
+        this.malformed = false;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        final List<String> values = new ArrayList<>();
+        final StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) {
+                    this.malformed = true;
+                    values.add(value.toString());
+                    return values;
+                } else if (c == '"') {
+                    final int next = read();
+                    if (next == '"') {
+                        value.append('"');
+                    } else {
+                        inQuotes = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                values.add(toValue(value, quoted));
+                return values;
+            } else if (c == this.delimiter) {
+                values.add(toValue(value, quoted));
+                value.setLength(0);
+                quoted = false;
+            } else if (c != '\r') {
+                if (quoted) {
+                    this.malformed = true;
+                    values.add(value.toString());
+                    readLine();
+                    return values;
+                } else if (c == '"' && value.length() == 0) {
+                    quoted = true;
+                    inQuotes = true;
+                } else {
+                    value.append((char) c);
+                }
+            }
+            c = read();
+        }
+    }
+
+    private String readLine() throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private int read() throws IOException {
+        if (this.lookAhead != -2) {
+            final int c = this.lookAhead;
+            this.lookAhead = -2;
+            return c;
+        }
+        return this.source.read();
+    }
+
+    private static String toValue(StringBuilder value, boolean quoted) {
+        return value.length() == 0 && !quoted ? null : value.toString();
+    }
+}
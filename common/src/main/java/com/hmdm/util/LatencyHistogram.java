@@ -0,0 +1,158 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A lock-free histogram of durations (in milliseconds) with fixed bucket boundaries. Intended for exposing the
+ * latencies of the internal pipelines over REST; the percentiles are approximated by the upper bound of the bucket
+ * containing the requested rank.</p>
+ *
+ * @author isv
+ */
+public class LatencyHistogram {
+
+    /**
+     * <p>The upper bounds of the buckets (in milliseconds). The last implicit bucket collects everything above.</p>
+     */
+    private static final long[] BOUNDS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500,
+            1000, 2000, 5000, 10000, 30000, 60000,
+            300000, 600000, 1800000, 3600000
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * <p>Constructs new <code>LatencyHistogram</code> instance. This implementation does nothing.</p>
+     */
+    public LatencyHistogram() {
+    }
+
+    /**
+     * <p>Records the specified duration. Negative values (caused by clock adjustments) are counted as zero.</p>
+     *
+     * @param millis a duration in milliseconds.
+     */
+    public void record(long millis) {
+        if (millis < 0) {
+            millis = 0;
+        }
+        int i = 0;
+        while (i < BOUNDS.length && millis > BOUNDS[i]) {
+            i++;
+        }
+        buckets.incrementAndGet(i);
+        count.incrementAndGet();
+        total.addAndGet(millis);
+        long prev;
+        while (millis > (prev = max.get()) && !max.compareAndSet(prev, millis)) {
+            // retry
+        }
+    }
+
+    /**
+     * <p>Records the time elapsed since the specified moment.</p>
+     *
+     * @param startMillis a timestamp (in milliseconds since Epoch time) the measured interval started at.
+     */
+    public void recordSince(long startMillis) {
+        record(System.currentTimeMillis() - startMillis);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean() {
+        final long n = count.get();
+        return n == 0 ? 0 : total.get() / n;
+    }
+
+    public long getP50() {
+        return getPercentile(50);
+    }
+
+    public long getP95() {
+        return getPercentile(95);
+    }
+
+    public long getP99() {
+        return getPercentile(99);
+    }
+
+    /**
+     * <p>Gets the number of recorded values per bucket. The keys are the bucket upper bounds in milliseconds, the
+     * last bucket is keyed as <code>+Inf</code>.</p>
+     *
+     * @return a mapping from bucket upper bounds to the number of values in the bucket.
+     */
+    public Map<String, Long> getBuckets() {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < BOUNDS.length; i++) {
+            result.put(String.valueOf(BOUNDS[i]), buckets.get(i));
+        }
+        result.put("+Inf", buckets.get(BOUNDS.length));
+        return result;
+    }
+
+    /**
+     * <p>Gets the approximate value of the specified percentile.</p>
+     *
+     * @param percentile a percentile to get the value for (0 - 100).
+     * @return an upper bound of the bucket holding the requested percentile or max value if it falls into the last
+     *         bucket.
+     */
+    public long getPercentile(int percentile) {
+        final long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(BOUNDS[i], max.get());
+            }
+        }
+        return max.get();
+    }
+}
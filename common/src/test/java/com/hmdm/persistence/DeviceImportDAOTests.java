@@ -0,0 +1,73 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.persistence;
+
+import com.hmdm.rest.json.DeviceImportRow;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * <p>A test suite for the CSV formatting of rows copied by {@link DeviceImportDAO}.</p>
+ *
+ * @author isv
+ */
+public class DeviceImportDAOTests {
+
+    /**
+     * <p>Constructs new <code>DeviceImportDAOTests</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceImportDAOTests() {
+    }
+
+    @Test
+    public void testAppendCsv() {
+        Assert.assertEquals(",", appendCsv(null));
+        Assert.assertEquals("\"\",", appendCsv(""));
+        Assert.assertEquals("\"plain\",", appendCsv("plain"));
+        Assert.assertEquals("\"a,b;c\",", appendCsv("a,b;c"));
+        Assert.assertEquals("\"say \"\"hi\"\"\",", appendCsv("say \"hi\""));
+        Assert.assertEquals("\"line1\nline2\r\",", appendCsv("line1\nline2\r"));
+        Assert.assertEquals("\"back\\slash\",", appendCsv("back\\slash"));
+        Assert.assertEquals("\"ab\",", appendCsv("a\u0000b"));
+    }
+
+    @Test
+    public void testAppendRow() {
+        final DeviceImportRow row = new DeviceImportRow();
+        row.setNumber("d1");
+        row.setConfiguration("Default");
+        row.setGroups(Arrays.asList("g1", "g,2"));
+        row.setError("error.import.format");
+
+        final StringBuilder target = new StringBuilder();
+        DeviceImportDAO.appendRow(target, row);
+        Assert.assertEquals("\"d1\",,,,,\"Default\",\"g1;g,2\",,,,\"error.import.format\"\n", target.toString());
+    }
+
+    private static String appendCsv(String value) {
+        final StringBuilder target = new StringBuilder();
+        DeviceImportDAO.appendCsv(target, value, ',');
+        return target.toString();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.util;
+
+import com.hmdm.rest.json.DeviceImportRow;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>A test suite for {@link DeviceImportCsvReader} class.</p>
+ *
+ * @author isv
+ */
+public class DeviceImportCsvReaderTests {
+
+    /**
+     * <p>Constructs new <code>DeviceImportCsvReaderTests</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceImportCsvReaderTests() {
+    }
+
+    @Test
+    public void testDetectDelimiter() {
+        Assert.assertEquals(',', DeviceImportCsvReader.detectDelimiter("number,imei"));
+        Assert.assertEquals(';', DeviceImportCsvReader.detectDelimiter("number;imei"));
+        Assert.assertEquals(',', DeviceImportCsvReader.detectDelimiter("number,groups;x"));
+        Assert.assertEquals(',', DeviceImportCsvReader.detectDelimiter("number"));
+    }
+
+    @Test
+    public void testParseLine() throws IOException {
+        Assert.assertEquals(Arrays.asList("a", null, "c"), DeviceImportCsvReader.parseLine("a,,c", ','));
+        Assert.assertEquals(Arrays.asList("a,b", "", "say \"hi\""),
+                DeviceImportCsvReader.parseLine("\"a,b\",\"\",\"say \"\"hi\"\"\"", ','));
+        Assert.assertEquals(Arrays.asList("a", "b"), DeviceImportCsvReader.parseLine("a;b", ';'));
+        Assert.assertNull(DeviceImportCsvReader.parseLine("\"a\"b,c", ','));
+        Assert.assertNull(DeviceImportCsvReader.parseLine("\"a,b", ','));
+    }
+
+    @Test
+    public void testHeader() throws IOException {
+        final DeviceImportCsvReader reader = reader("\uFEFF\"Number\"; IMEI ;groups\r\nd1;123;\"g1;g2\"\r\n");
+        Assert.assertEquals(';', reader.getDelimiter());
+
+        final DeviceImportRow row = reader.next();
+        Assert.assertEquals("d1", row.getNumber());
+        Assert.assertEquals("123", row.getImei());
+        Assert.assertEquals(Arrays.asList("g1", "g2"), row.getGroups());
+        Assert.assertNull(row.getError());
+        Assert.assertNull(reader.next());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedColumn() throws IOException {
+        reader("number,color\nd1,red\n");
+    }
+
+    @Test
+    public void testRows() throws IOException {
+        final List<DeviceImportRow> rows = readAll(
+                "configuration,number,description\n" +
+                "1,d1,\"first\nsecond line\"\n" +
+                "\n" +
+                "Default,d2,\n"
+        );
+        Assert.assertEquals(2, rows.size());
+        Assert.assertEquals("1", rows.get(0).getConfiguration());
+        Assert.assertEquals("d1", rows.get(0).getNumber());
+        Assert.assertEquals("first\nsecond line", rows.get(0).getDescription());
+        Assert.assertEquals("Default", rows.get(1).getConfiguration());
+        Assert.assertEquals("d2", rows.get(1).getNumber());
+        Assert.assertNull(rows.get(1).getDescription());
+    }
+
+    @Test
+    public void testMalformedLines() throws IOException {
+        final List<DeviceImportRow> rows = readAll(
+                "number,configuration\n" +
+                "d1,1,extra\n" +
+                "d2\n" +
+                "\"d3\"x,1\n" +
+                "d4,1\n" +
+                "d5,\"1\n"
+        );
+        Assert.assertEquals(5, rows.size());
+        Assert.assertEquals(DeviceImportCsvReader.ERROR_FORMAT, rows.get(0).getError());
+        Assert.assertEquals("d1", rows.get(0).getNumber());
+        Assert.assertEquals(DeviceImportCsvReader.ERROR_FORMAT, rows.get(1).getError());
+        Assert.assertEquals("d2", rows.get(1).getNumber());
+        Assert.assertEquals(DeviceImportCsvReader.ERROR_FORMAT, rows.get(2).getError());
+        Assert.assertNull(rows.get(3).getError());
+        Assert.assertEquals("d4", rows.get(3).getNumber());
+        Assert.assertEquals("1", rows.get(3).getConfiguration());
+        Assert.assertEquals(DeviceImportCsvReader.ERROR_FORMAT, rows.get(4).getError());
+        Assert.assertEquals("d5", rows.get(4).getNumber());
+    }
+
+    @Test
+    public void testEmptySource() throws IOException {
+        Assert.assertNull(reader("").next());
+        Assert.assertNull(reader("number\n").next());
+    }
+
+    private static DeviceImportCsvReader reader(String csv) throws IOException {
+        return new DeviceImportCsvReader(new StringReader(csv));
+    }
+
+    private static List<DeviceImportRow> readAll(String csv) throws IOException {
+        final DeviceImportCsvReader reader = reader(csv);
+        final List<DeviceImportRow> rows = new ArrayList<>();
+        DeviceImportRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.notification;
+
+import org.apache.activemq.broker.Broker;
+import org.apache.activemq.broker.BrokerPlugin;
+import org.apache.activemq.broker.ConnectionContext;
+import org.apache.activemq.command.ConnectionInfo;
+import org.apache.activemq.jaas.GroupPrincipal;
+import org.apache.activemq.security.AbstractAuthenticationBroker;
+import org.apache.activemq.security.AuthenticationUser;
+import org.apache.activemq.security.SecurityContext;
+
+import java.security.Principal;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>An authentication plugin for the embedded MQTT broker which shares a single security context among all the
+ * connections authenticated with the same credentials.</p>
+ *
+ * <p>All devices connect with the same user name, so the standard <code>SimpleAuthenticationPlugin</code> creates a
+ * new security context on each connect and registers it in a copy-on-write list, making every connect and disconnect
+ * copy the list of all connected clients. Under a reconnect storm of tens of thousands of clients that list copying
+ * dominates the broker CPU. This plugin verifies the credentials once and reuses the resulting context (together with
+ * its cache of authorized destinations) for all subsequent connections; failed attempts are never cached.</p>
+ *
+ * @author isv
+ */
+public class CachingAuthenticationPlugin implements BrokerPlugin {
+
+    private final Map<String, String> userPasswords = new HashMap<>();
+
+    private final Map<String, Set<Principal>> userGroups = new HashMap<>();
+
+    /**
+     * <p>Constructs new <code>CachingAuthenticationPlugin</code> instance.</p>
+     *
+     * @param users a list of users allowed to connect to broker.
+     */
+    public CachingAuthenticationPlugin(List<AuthenticationUser> users) {
+        for (AuthenticationUser user : users) {
+            this.userPasswords.put(user.getUsername(), user.getPassword());
+            final Set<Principal> groups = new HashSet<>();
+            for (String group : user.getGroups().split(",")) {
+                groups.add(new GroupPrincipal(group.trim()));
+            }
+            this.userGroups.put(user.getUsername(), Collections.unmodifiableSet(groups));
+        }
+    }
+
+    @Override
+    public Broker installPlugin(Broker broker) {
+        return new CachingAuthenticationBroker(broker, userPasswords, userGroups);
+    }
+
+    /**
+     * <p>A broker filter authenticating the connections against the static list of users.</p>
+     */
+    static class CachingAuthenticationBroker extends AbstractAuthenticationBroker {
+
+        private final Map<String, String> userPasswords;
+
+        private final Map<String, Set<Principal>> userGroups;
+
+        /**
+         * <p>The security contexts for successfully verified credentials mapped by user name and password.</p>
+         */
+        private final ConcurrentMap<String, SecurityContext> cache = new ConcurrentHashMap<>();
+
+        CachingAuthenticationBroker(Broker next, Map<String, String> userPasswords,
+                                    Map<String, Set<Principal>> userGroups) {
+            super(next);
+            this.userPasswords = userPasswords;
+            this.userGroups = userGroups;
+        }
+
+        @Override
+        public void addConnection(ConnectionContext context, ConnectionInfo info) throws Exception {
+            if (context.getSecurityContext() == null) {
+                context.setSecurityContext(getSecurityContext(info.getUserName(), info.getPassword()));
+            }
+            try {
+                super.addConnection(context, info);
+            } catch (Exception e) {
+                context.setSecurityContext(null);
+                throw e;
+            }
+        }
+
+        @Override
+        public SecurityContext authenticate(String username, String password, X509Certificate[] certificates)
+                throws SecurityException {
+            return getSecurityContext(username, password);
+        }
+
+        int getCacheSize() {
+            return cache.size();
+        }
+
+        private SecurityContext getSecurityContext(String username, String password) {
+            if (username == null || password == null) {
+                throw new SecurityException("User name [" + username + "] or password is invalid.");
+            }
+            // computeIfAbsent does not store the value if verification throws an exception
+            return cache.computeIfAbsent(username + '\u0000' + password, key -> verify(username, password));
+        }
+
+        private SecurityContext verify(String username, String password) {
+            final String expected = userPasswords.get(username);
+            if (expected == null || !expected.equals(password)) {
+                throw new SecurityException("User name [" + username + "] or password is invalid.");
+            }
+            final Set<Principal> groups = userGroups.get(username);
+            return new SecurityContext(username) {
+                @Override
+                public Set<Principal> getPrincipals() {
+                    return groups;
+                }
+            };
+        }
+    }
+}
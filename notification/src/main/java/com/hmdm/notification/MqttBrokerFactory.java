@@ -0,0 +1,205 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.notification;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import com.hmdm.util.CryptoUtil;
+import org.apache.activemq.broker.BrokerPlugin;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.filter.DestinationMapEntry;
+import org.apache.activemq.security.AuthenticationUser;
+import org.apache.activemq.security.AuthorizationEntry;
+import org.apache.activemq.security.AuthorizationPlugin;
+import org.apache.activemq.security.DefaultAuthorizationMap;
+import org.apache.activemq.store.kahadb.KahaDBPersistenceAdapter;
+import org.apache.activemq.usage.SystemUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * <p>A factory for the embedded MQTT broker configured by the <code>mqtt.*</code> context parameters.</p>
+ *
+ * <p>The limits set to zero (the default) keep the ActiveMQ defaults.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class MqttBrokerFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(MqttBrokerFactory.class);
+
+    public static final String MQTT_USERNAME = "hmdm";
+    public static final String MQTT_ADMIN_USERNAME = "admin";
+
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private final boolean mqttAuth;
+    private final String mqttAdminPassword;
+    private final String hashSecret;
+    private final String transport;
+    private final long maxConnections;
+    private final long keepAlive;
+    private final long memoryLimit;
+    private final long storeLimit;
+    private final long tempLimit;
+    private final boolean persistent;
+    private final String dataDir;
+
+    /**
+     * <p>Constructs new <code>MqttBrokerFactory</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public MqttBrokerFactory(@Named("mqtt.auth") boolean mqttAuth,
+                             @Named("mqtt.admin.password") String mqttAdminPassword,
+                             @Named("hash.secret") String hashSecret,
+                             @Named("mqtt.transport") String transport,
+                             @Named("mqtt.max.connections") long maxConnections,
+                             @Named("mqtt.keep.alive") long keepAlive,
+                             @Named("mqtt.memory.limit") long memoryLimit,
+                             @Named("mqtt.store.limit") long storeLimit,
+                             @Named("mqtt.temp.limit") long tempLimit,
+                             @Named("mqtt.persistent") boolean persistent,
+                             @Named("mqtt.data.dir") String dataDir) {
+        this.mqttAuth = mqttAuth;
+        this.mqttAdminPassword = mqttAdminPassword;
+        this.hashSecret = hashSecret;
+        this.transport = transport;
+        this.maxConnections = maxConnections;
+        this.keepAlive = keepAlive;
+        this.memoryLimit = memoryLimit;
+        this.storeLimit = storeLimit;
+        this.tempLimit = tempLimit;
+        this.persistent = persistent;
+        this.dataDir = dataDir;
+    }
+
+    /**
+     * <p>Creates the broker listening for MQTT connections at specified address. The broker is not started.</p>
+     *
+     * @param serverUri an address to listen at (host:port).
+     * @return a configured broker.
+     * @throws Exception if broker could not be configured.
+     */
+    public BrokerService createBroker(String serverUri) throws Exception {
+        BrokerService brokerService = new BrokerService();
+        brokerService.setUseJmx(false);
+
+        if (!dataDir.isEmpty()) {
+            brokerService.setDataDirectory(dataDir);
+        }
+
+        if (persistent) {
+            // Keeps QoS 1/2 messages for the durable (clean session = false) subscriptions across restarts
+            KahaDBPersistenceAdapter kahaDB = new KahaDBPersistenceAdapter();
+            kahaDB.setDirectory(new File(brokerService.getBrokerDataDirectory(), "KahaDB"));
+            brokerService.setPersistenceAdapter(kahaDB);
+            brokerService.setPersistent(true);
+        } else {
+            brokerService.setPersistent(false);
+        }
+
+        SystemUsage systemUsage = brokerService.getSystemUsage();
+        if (memoryLimit > 0) {
+            systemUsage.getMemoryUsage().setLimit(memoryLimit * MEGABYTE);
+        }
+        if (storeLimit > 0) {
+            systemUsage.getStoreUsage().setLimit(storeLimit * MEGABYTE);
+        }
+        if (tempLimit > 0) {
+            systemUsage.getTempUsage().setLimit(tempLimit * MEGABYTE);
+        }
+
+        if (mqttAuth) {
+            brokerService.setPlugins(new BrokerPlugin[]{createAuthenticationPlugin(), createAuthorizationPlugin()});
+        }
+
+        brokerService.addConnector(getConnectorUri(serverUri));
+
+        return brokerService;
+    }
+
+    /**
+     * <p>Gets the URI of the MQTT transport connector for the specified address.</p>
+     *
+     * @param serverUri an address to listen at (host:port).
+     * @return a connector URI with the transport options.
+     */
+    String getConnectorUri(String serverUri) {
+        StringBuilder uri = new StringBuilder("nio".equalsIgnoreCase(transport) ? "mqtt+nio://" : "mqtt://");
+        uri.append(serverUri);
+
+        List<String> options = new LinkedList<>();
+        if (maxConnections > 0) {
+            options.add("maximumConnections=" + maxConnections);
+        }
+        if (keepAlive > 0) {
+            // Applied to the clients which do not request the keep-alive interval
+            options.add("transport.defaultKeepAlive=" + keepAlive * 1000);
+        }
+        if (!options.isEmpty()) {
+            uri.append('?').append(String.join("&", options));
+        }
+
+        log.info("MQTT broker connector: {}", uri);
+        return uri.toString();
+    }
+
+    private BrokerPlugin createAuthenticationPlugin() {
+        List<AuthenticationUser> users = new LinkedList<>();
+        users.add(new AuthenticationUser(MQTT_USERNAME, CryptoUtil.getSHA1String(MQTT_USERNAME + hashSecret), "users"));
+        users.add(new AuthenticationUser(MQTT_ADMIN_USERNAME, mqttAdminPassword, "admins"));
+        return new CachingAuthenticationPlugin(users);
+    }
+
+    private BrokerPlugin createAuthorizationPlugin() {
+        AuthorizationPlugin authorizationPlugin = new AuthorizationPlugin();
+        try {
+            List<DestinationMapEntry> entries = new LinkedList<>();
+
+            AuthorizationEntry authorizationEntry = new AuthorizationEntry();
+            authorizationEntry.setTopic(">");
+            authorizationEntry.setRead("users,admins");
+            authorizationEntry.setWrite("admins");
+            authorizationEntry.setAdmin("users,admins");
+            entries.add(authorizationEntry);
+
+            authorizationEntry = new AuthorizationEntry();
+            authorizationEntry.setTopic("ActiveMQ.Advisory.>");
+            authorizationEntry.setRead("users,admins");
+            authorizationEntry.setWrite("users,admins");
+            authorizationEntry.setAdmin("users,admins");
+            entries.add(authorizationEntry);
+
+            authorizationPlugin.setMap(new DefaultAuthorizationMap(entries));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return authorizationPlugin;
+    }
+}
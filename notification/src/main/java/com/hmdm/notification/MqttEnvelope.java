@@ -5,6 +5,7 @@ import org.eclipse.paho.client.mqttv3.MqttMessage;
 public class MqttEnvelope {
     private String address;
     private MqttMessage message;
+    private Long createTime;
 
     public MqttEnvelope() {}
 
@@ -13,6 +14,12 @@ public class MqttEnvelope {
         this.message = message;
     }
 
+    public MqttEnvelope(String address, MqttMessage message, Long createTime) {
+        this.address = address;
+        this.message = message;
+        this.createTime = createTime;
+    }
+
     public MqttMessage getMessage() {
         return message;
     }
@@ -28,4 +35,12 @@ public class MqttEnvelope {
     public void setAddress(String address) {
         this.address = address;
     }
+
+    public Long getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Long createTime) {
+        this.createTime = createTime;
+    }
 }
@@ -1,6 +1,7 @@
 package com.hmdm.notification;
 
 import com.google.inject.Inject;
+import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttException;
@@ -11,18 +12,22 @@ import org.slf4j.LoggerFactory;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
+@Singleton
 public class MqttThrottledSender implements Runnable {
 
     private BlockingQueue<MqttEnvelope> queue = new LinkedBlockingQueue<>();
     private long mqttDelay;
     private MqttClient mqttClient;
+    private PushMetrics pushMetrics;
     private static final Logger log = LoggerFactory.getLogger(MqttThrottledSender.class);
 
     public MqttThrottledSender() {}
 
     @Inject
-    public MqttThrottledSender(@Named("mqtt.message.delay") long mqttDelay) {
+    public MqttThrottledSender(@Named("mqtt.message.delay") long mqttDelay,
+                               PushMetrics pushMetrics) {
         this.mqttDelay = mqttDelay;
+        this.pushMetrics = pushMetrics;
     }
 
     public void setClient(MqttClient mqttClient) {
@@ -37,6 +42,10 @@ public class MqttThrottledSender implements Runnable {
         }
     }
 
+    public int getQueueSize() {
+        return queue.size();
+    }
+
     @Override
     public void run() {
         log.info("Push message sending throttled, delay=" + mqttDelay + "ms");
@@ -44,9 +53,17 @@ public class MqttThrottledSender implements Runnable {
             try {
                 MqttEnvelope msg = queue.take();
                 if (mqttClient != null) {
-                    mqttClient.publish(msg.getAddress(), msg.getMessage());
-                    log.debug("Sending MQTT message to " + msg.getAddress());
+                    try {
+                        long sentTime = pushMetrics.onSent(PushMetrics.TRANSPORT_MQTT, msg.getCreateTime());
+                        mqttClient.publish(msg.getAddress(), msg.getMessage());
+                        pushMetrics.onDelivered(PushMetrics.TRANSPORT_MQTT, sentTime);
+                        log.debug("Sending MQTT message to " + msg.getAddress());
+                    } catch (MqttException e) {
+                        pushMetrics.onFailure(PushMetrics.TRANSPORT_MQTT);
+                        throw e;
+                    }
                 } else {
+                    pushMetrics.onFailure(PushMetrics.TRANSPORT_MQTT);
                     log.error("MQTT client not initialized");
                 }
                 Thread.sleep(mqttDelay);
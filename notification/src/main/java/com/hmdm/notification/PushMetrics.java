@@ -0,0 +1,119 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.notification;
+
+import com.google.inject.Singleton;
+import com.hmdm.util.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Collects the latencies and failures of push message delivery for each transport.</p>
+ *
+ * <p>The pipeline is measured in two stages: <i>enqueue &rarr; sent</i> covers the time from
+ * {@link PushService#send(com.hmdm.notification.persistence.domain.PushMessage)} till the message is handed to the
+ * transport (MQTT throttling queue wait included); <i>sent &rarr; delivered</i> covers the time till the broker
+ * acknowledges the message (MQTT) or the device gets it (long polling).</p>
+ *
+ * <p>A long-polling message is sent when it is stored as pending or handed to the open connection of the device. A
+ * pending message is delivered when the device picks it up and it is marked as delivered; a message handed to the
+ * open connection is delivered when the device polls again after the response carrying it.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class PushMetrics {
+
+    public static final String TRANSPORT_MQTT = "mqtt";
+    public static final String TRANSPORT_POLLING = "polling";
+
+    private final ConcurrentMap<String, LatencyHistogram> enqueueToSent = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, LatencyHistogram> sentToDelivered = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    /**
+     * <p>Constructs new <code>PushMetrics</code> instance. This implementation does nothing.</p>
+     */
+    public PushMetrics() {
+    }
+
+    /**
+     * <p>Records the message being handed to the transport.</p>
+     *
+     * @param transport a transport name.
+     * @param enqueueTime a timestamp of the message submission (in milliseconds since Epoch time); may be
+     *                    <code>null</code> if unknown.
+     * @return a timestamp of sending (in milliseconds since Epoch time).
+     */
+    public long onSent(String transport, Long enqueueTime) {
+        final long now = System.currentTimeMillis();
+        if (enqueueTime != null) {
+            histogram(enqueueToSent, transport).record(now - enqueueTime);
+        }
+        return now;
+    }
+
+    /**
+     * <p>Records the message being delivered by the transport.</p>
+     *
+     * @param transport a transport name.
+     * @param sentTime a timestamp of sending (in milliseconds since Epoch time); may be <code>null</code> if unknown.
+     */
+    public void onDelivered(String transport, Long sentTime) {
+        if (sentTime != null) {
+            histogram(sentToDelivered, transport).recordSince(sentTime);
+        }
+    }
+
+    /**
+     * <p>Records the failure to send or deliver the message by the transport.</p>
+     *
+     * @param transport a transport name.
+     */
+    public void onFailure(String transport) {
+        failures.computeIfAbsent(transport, t -> new AtomicLong()).incrementAndGet();
+    }
+
+    public Map<String, LatencyHistogram> getEnqueueToSent() {
+        return new TreeMap<>(enqueueToSent);
+    }
+
+    public Map<String, LatencyHistogram> getSentToDelivered() {
+        return new TreeMap<>(sentToDelivered);
+    }
+
+    public Map<String, Long> getFailures() {
+        final Map<String, Long> result = new TreeMap<>();
+        failures.forEach((transport, counter) -> result.put(transport, counter.get()));
+        return result;
+    }
+
+    private static LatencyHistogram histogram(ConcurrentMap<String, LatencyHistogram> map, String transport) {
+        return map.computeIfAbsent(transport, t -> new LatencyHistogram());
+    }
+}
@@ -2,7 +2,19 @@ package com.hmdm.notification;
 
 import com.hmdm.notification.persistence.domain.PushMessage;
 
+import java.util.List;
+
 public interface PushSender {
     public void init();
     public int send(PushMessage message);
+
+    /**
+     * <p>Sends the batch of messages. Senders which can benefit from batching (e.g. by storing the messages for
+     * offline devices with a single statement) override this method.</p>
+     *
+     * @param messages a list of messages to send.
+     */
+    public default void sendAll(List<PushMessage> messages) {
+        messages.forEach(this::send);
+    }
 }
@@ -33,6 +33,7 @@ public class PushSenderMqtt implements PushSender {
     private BackgroundTaskRunnerService taskRunner;
     private MemoryPersistence persistence = new MemoryPersistence();
     private long mqttDelay;
+    private PushMetrics pushMetrics;
 
     @Inject
     public PushSenderMqtt(@Named("mqtt.server.uri") String serverUri,
@@ -42,7 +43,8 @@ public class PushSenderMqtt implements PushSender {
                           @Named("mqtt.message.delay") long mqttDelay,
                           MqttThrottledSender throttledSender,
                           BackgroundTaskRunnerService taskRunner,
-                          UnsecureDAO unsecureDAO) {
+                          UnsecureDAO unsecureDAO,
+                          PushMetrics pushMetrics) {
         this.serverUri = serverUri;
         this.clientTag = clientTag;
         this.mqttAuth = mqttAuth;
@@ -51,6 +53,7 @@ public class PushSenderMqtt implements PushSender {
         this.throttledSender = throttledSender;
         this.taskRunner = taskRunner;
         this.unsecureDAO = unsecureDAO;
+        this.pushMetrics = pushMetrics;
     }
 
     @Override
@@ -77,10 +80,14 @@ public class PushSenderMqtt implements PushSender {
 
     @Override
     public int send(PushMessage message) {
-        if (client == null || !client.isConnected()) {
+        if (client == null) {
             // Not initialized
             return 0;
         }
+        if (!client.isConnected()) {
+            pushMetrics.onFailure(PushMetrics.TRANSPORT_MQTT);
+            return 0;
+        }
         // Since this method is used by scheduled task service which is impersonated,
         // we use UnsecureDAO here (which doesn't check the signed user).
         Device device = unsecureDAO.getDeviceById(message.getDeviceId());
@@ -99,12 +106,15 @@ public class PushSenderMqtt implements PushSender {
             mqttMessage.setQos(2);
             String number = device.getOldNumber() == null ? device.getNumber() : device.getOldNumber();
             if (mqttDelay == 0) {
+                long sentTime = pushMetrics.onSent(PushMetrics.TRANSPORT_MQTT, message.getCreateTime());
                 client.publish(number, mqttMessage);
+                pushMetrics.onDelivered(PushMetrics.TRANSPORT_MQTT, sentTime);
             } else {
-                throttledSender.send(new MqttEnvelope(number, mqttMessage));
+                throttledSender.send(new MqttEnvelope(number, mqttMessage, message.getCreateTime()));
             }
 
         } catch (Exception e) {
+            pushMetrics.onFailure(PushMetrics.TRANSPORT_MQTT);
             e.printStackTrace();
         }
         return 0;
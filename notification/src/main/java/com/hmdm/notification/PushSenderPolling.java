@@ -8,16 +8,21 @@ import com.hmdm.notification.persistence.domain.PushMessage;
 
 import javax.servlet.AsyncContext;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Singleton
 public class PushSenderPolling implements PushSender {
     private final NotificationDAO notificationDAO;
-    private final Map<Integer, DeviceEntry> deviceIdMap = new HashMap<>();
-    private final Map<AsyncContext, DeviceEntry> deviceContextMap = new HashMap<>();
+    private final PushMetrics pushMetrics;
+    private final Map<Integer, DeviceEntry> deviceIdMap = new ConcurrentHashMap<>();
+    private final Map<AsyncContext, DeviceEntry> deviceContextMap = new ConcurrentHashMap<>();
+    // Sending times of the messages written to the devices directly, confirmed by the next poll of the device
+    private final Map<Integer, List<Long>> unconfirmedSentTimes = new ConcurrentHashMap<>();
 
     @Inject
-    public PushSenderPolling(NotificationDAO notificationDAO) {
+    public PushSenderPolling(NotificationDAO notificationDAO, PushMetrics pushMetrics) {
         this.notificationDAO = notificationDAO;
+        this.pushMetrics = pushMetrics;
     }
 
     @Override
@@ -29,20 +34,48 @@ public class PushSenderPolling implements PushSender {
     public int send(PushMessage message) {
         DeviceEntry deviceEntry = deviceIdMap.get(message.getDeviceId());
         if (deviceEntry == null) {
-            // Device is offline,
-            return notificationDAO.send(message);
+            // Device is offline, the message is stored for the pickup
+            final int messageId = notificationDAO.send(message);
+            pushMetrics.onSent(PushMetrics.TRANSPORT_POLLING, message.getCreateTime());
+            return messageId;
         }
         List<PushMessage> pendingMessages = notificationDAO.getPendingMessagesForDelivery(message.getDeviceId());
+        final long sentTime = pushMetrics.onSent(PushMetrics.TRANSPORT_POLLING, message.getCreateTime());
         synchronized (deviceEntry.messages) {
             for (PushMessage pending : pendingMessages) {
                 deviceEntry.messages.add(pending);
             }
             deviceEntry.messages.add(message);
+            deviceEntry.sentTimes.add(sentTime);
         }
         deviceEntry.context.complete();
         return 0;
     }
 
+    /**
+     * <p>Sends the batch of messages. The messages for online devices are passed to the open connections, the
+     * messages for offline devices are stored for the pickup with a single statement.</p>
+     *
+     * @param messages a list of messages to send.
+     */
+    @Override
+    public void sendAll(List<PushMessage> messages) {
+        List<PushMessage> offlineMessages = new ArrayList<>(messages.size());
+        for (PushMessage message : messages) {
+            if (deviceIdMap.containsKey(message.getDeviceId())) {
+                send(message);
+            } else {
+                offlineMessages.add(message);
+            }
+        }
+        if (!offlineMessages.isEmpty()) {
+            notificationDAO.sendAll(offlineMessages);
+            for (PushMessage message : offlineMessages) {
+                pushMetrics.onSent(PushMetrics.TRANSPORT_POLLING, message.getCreateTime());
+            }
+        }
+    }
+
     public void sendPending(int deviceId, List<PushMessage> messages) {
         DeviceEntry deviceEntry = deviceIdMap.get(deviceId);
         if (deviceEntry == null) {
@@ -70,10 +103,47 @@ public class PushSenderPolling implements PushSender {
         return result;
     }
 
+    /**
+     * <p>Marks the messages handed to the specified connection as written to the device. They are counted as delivered
+     * when the device polls again, as the device does not acknowledge the response otherwise. The messages picked up
+     * from the database are counted as delivered by {@link NotificationDAO} when they are marked so.</p>
+     *
+     * @param asyncContext a context of the connection the response was written to.
+     */
+    public void awaitConfirmation(AsyncContext asyncContext) {
+        DeviceEntry deviceEntry = deviceContextMap.get(asyncContext);
+        if (deviceEntry != null) {
+            synchronized (deviceEntry.messages) {
+                if (!deviceEntry.sentTimes.isEmpty()) {
+                    unconfirmedSentTimes.computeIfAbsent(deviceEntry.deviceId, id -> new ArrayList<>())
+                            .addAll(deviceEntry.sentTimes);
+                    deviceEntry.sentTimes.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Gets the number of devices currently holding a long-polling connection to this node.</p>
+     *
+     * @return a number of connected devices.
+     */
+    public int getConnectedCount() {
+        return deviceIdMap.size();
+    }
+
     public void register(Integer deviceId, AsyncContext asyncContext) {
         DeviceEntry deviceEntry = new DeviceEntry(deviceId, asyncContext);
         deviceIdMap.put(deviceId, deviceEntry);
         deviceContextMap.put(asyncContext, deviceEntry);
+
+        // The next poll confirms the previously written messages have reached the device
+        List<Long> sentTimes = unconfirmedSentTimes.remove(deviceId);
+        if (sentTimes != null) {
+            for (Long sentTime : sentTimes) {
+                pushMetrics.onDelivered(PushMetrics.TRANSPORT_POLLING, sentTime);
+            }
+        }
     }
 
     public void unregister(AsyncContext asyncContext) {
@@ -88,6 +158,7 @@ public class PushSenderPolling implements PushSender {
         public Integer deviceId;
         public AsyncContext context;
         public final List<PushMessage> messages = new LinkedList<>();
+        public final List<Long> sentTimes = new LinkedList<>();
 
         public DeviceEntry(Integer deviceId, AsyncContext context) {
             this.deviceId = deviceId;
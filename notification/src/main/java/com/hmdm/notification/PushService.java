@@ -11,11 +11,17 @@ import com.hmdm.persistence.domain.Configuration;
 import com.hmdm.persistence.domain.Device;
 import org.mybatis.guice.transactional.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Singleton
 public class PushService {
 
+    /**
+     * <p>A number of messages sent at once when notifying multiple devices.</p>
+     */
+    private static final int BATCH_SIZE = 500;
+
     private final PushSender pushSenderMqtt;
     private final PushSender pushSenderPolling;
     private final ConfigurationDAO configurationDAO;
@@ -32,10 +38,29 @@ public class PushService {
 
     // Use both ways to send a message, because the decision how to receive messages is done on the device (configuration)
     public int send(PushMessage message) {
+        if (message.getCreateTime() == null) {
+            message.setCreateTime(System.currentTimeMillis());
+        }
         pushSenderMqtt.send(message);
         return pushSenderPolling.send(message);
     }
 
+    /**
+     * <p>Sends the batch of messages using both ways.</p>
+     *
+     * @param messages a list of messages to send.
+     */
+    public void sendAll(List<PushMessage> messages) {
+        final long now = System.currentTimeMillis();
+        messages.forEach(message -> {
+            if (message.getCreateTime() == null) {
+                message.setCreateTime(now);
+            }
+        });
+        pushSenderMqtt.sendAll(messages);
+        pushSenderPolling.sendAll(messages);
+    }
+
     /**
      * <p>Sends the messages on configuration update for the devices related to specified configuration.</p>
      *
@@ -57,6 +82,26 @@ public class PushService {
         }
     }
 
+    /**
+     * <p>Sends the messages on settings update to specified devices. The messages are sent in batches of
+     * {@link #BATCH_SIZE}. The devices are expected to be verified by caller.</p>
+     *
+     * @param deviceIds the IDs of devices to be notified.
+     */
+    public void notifyDevicesOnSettingUpdate(List<Integer> deviceIds) {
+        for (int from = 0; from < deviceIds.size(); from += BATCH_SIZE) {
+            final List<Integer> batch = deviceIds.subList(from, Math.min(from + BATCH_SIZE, deviceIds.size()));
+            final List<PushMessage> messages = new ArrayList<>(batch.size());
+            for (Integer deviceId : batch) {
+                PushMessage message = new PushMessage();
+                message.setDeviceId(deviceId);
+                message.setMessageType(PushMessage.TYPE_CONFIG_UPDATED);
+                messages.add(message);
+            }
+            this.sendAll(messages);
+        }
+    }
+
     /**
      * <p>Sends the message on application settings update to specified device.</p>
      *
@@ -10,6 +10,8 @@ import javax.servlet.ServletContext;
 
 public class NotificationMqttConfigModule extends AbstractModule {
 
+    private static final Logger log = LoggerFactory.getLogger(NotificationMqttConfigModule.class);
+
     /**
      * <p>A context for module execution.</p>
      */
@@ -77,5 +79,45 @@ public class NotificationMqttConfigModule extends AbstractModule {
         }
         this.bindConstant().annotatedWith(Names.named("polling.timeout")).to(pollTimeout);
 
+        // Embedded broker tuning, zero keeps the ActiveMQ defaults
+        String mqttTransport = context.getInitParameter("mqtt.transport");
+        if (mqttTransport == null || "".equals(mqttTransport)) {
+            mqttTransport = "tcp";
+        }
+        this.bindConstant().annotatedWith(Names.named("mqtt.transport")).to(mqttTransport);
+        this.bindConstant().annotatedWith(Names.named("mqtt.max.connections")).to(getLongParameter("mqtt.max.connections"));
+        this.bindConstant().annotatedWith(Names.named("mqtt.keep.alive")).to(getLongParameter("mqtt.keep.alive"));
+        this.bindConstant().annotatedWith(Names.named("mqtt.memory.limit")).to(getLongParameter("mqtt.memory.limit"));
+        this.bindConstant().annotatedWith(Names.named("mqtt.store.limit")).to(getLongParameter("mqtt.store.limit"));
+        this.bindConstant().annotatedWith(Names.named("mqtt.temp.limit")).to(getLongParameter("mqtt.temp.limit"));
+
+        String mqttPersistentTag = this.context.getInitParameter("mqtt.persistent");
+        this.bindConstant().annotatedWith(Names.named("mqtt.persistent")).to(
+                mqttPersistentTag != null && (mqttPersistentTag.equals("1") || mqttPersistentTag.equalsIgnoreCase("true"))
+        );
+
+        String mqttDataDir = context.getInitParameter("mqtt.data.dir");
+        if (mqttDataDir == null) {
+            mqttDataDir = "";
+        }
+        this.bindConstant().annotatedWith(Names.named("mqtt.data.dir")).to(mqttDataDir);
+    }
+
+    /**
+     * <p>Gets the value of the specified numeric context parameter.</p>
+     *
+     * @param name a parameter name.
+     * @return a parameter value or zero if parameter is not set or is not a number.
+     */
+    private long getLongParameter(String name) {
+        String value = this.context.getInitParameter(name);
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value of parameter {}: {}", name, value);
+            }
+        }
+        return 0;
     }
 }
@@ -25,7 +25,9 @@ import com.google.inject.Scopes;
 import com.google.inject.servlet.ServletModule;
 import com.hmdm.notification.rest.LongPollingServlet;
 import com.hmdm.notification.rest.NotificationResource;
+import com.hmdm.notification.rest.PushMetricsResource;
 import com.hmdm.rest.filter.AuthFilter;
+import com.hmdm.rest.filter.PrivateIPFilter;
 
 /**
  * <p>A <code>Guice</code> module for <code>Notification API</code> sub-system.</p>
@@ -46,8 +48,10 @@ public class NotificationRestModule extends ServletModule {
      */
     protected void configureServlets() {
         this.filter("/rest/notification/private/*").through(AuthFilter.class);
+        this.filter("/rest/notification/private/*").through(PrivateIPFilter.class);
         this.serve(LongPollingServlet.BASE_PATH + "*").with(LongPollingServlet.class);
         this.bind(NotificationResource.class);
+        this.bind(PushMetricsResource.class);
     }
 
 }
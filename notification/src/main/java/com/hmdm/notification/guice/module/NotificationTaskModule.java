@@ -23,11 +23,10 @@ package com.hmdm.notification.guice.module;
 
 import com.google.inject.Inject;
 import com.hmdm.notification.persistence.NotificationDAO;
+import com.hmdm.service.ScheduledTaskService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -37,23 +36,22 @@ import java.util.concurrent.TimeUnit;
  */
 public class NotificationTaskModule {
 
-    private final ScheduledExecutorService messagePurgeService = Executors.newScheduledThreadPool(1);
-
     private final NotificationDAO notificationDAO;
 
+    private final ScheduledTaskService scheduledTaskService;
+
     /**
      * <p>Constructs new <code>NotificationTaskModule</code> instance. This implementation does nothing.</p>
      */
     @Inject
-    public NotificationTaskModule(NotificationDAO notificationDAO) {
+    public NotificationTaskModule(NotificationDAO notificationDAO, ScheduledTaskService scheduledTaskService) {
         this.notificationDAO = notificationDAO;
+        this.scheduledTaskService = scheduledTaskService;
     }
 
     public void init() {
-        messagePurgeService.scheduleWithFixedDelay(new MessagePurgeWorker(notificationDAO),
+        scheduledTaskService.submitScheduledTask("notification.purge", new MessagePurgeWorker(notificationDAO),
                 1, 1, TimeUnit.HOURS);
-
-        Runtime.getRuntime().addShutdownHook(new Thread(messagePurgeService::shutdown));
     }
 
     /**
@@ -23,6 +23,8 @@ package com.hmdm.notification.persistence;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.hmdm.notification.PushMetrics;
+import com.hmdm.notification.persistence.domain.PendingPushCount;
 import com.hmdm.notification.persistence.domain.PushMessage;
 import com.hmdm.notification.persistence.mapper.NotificationMapper;
 import org.mybatis.guice.transactional.Transactional;
@@ -40,12 +42,15 @@ public class NotificationDAO {
 
     private final NotificationMapper notificationMapper;
 
+    private final PushMetrics pushMetrics;
+
     /**
      * <p>Constructs new <code>NotificationDAO</code> instance. This implementation does nothing.</p>
      */
     @Inject
-    public NotificationDAO(NotificationMapper notificationMapper) {
+    public NotificationDAO(NotificationMapper notificationMapper, PushMetrics pushMetrics) {
         this.notificationMapper = notificationMapper;
+        this.pushMetrics = pushMetrics;
     }
 
     /**
@@ -61,6 +66,7 @@ public class NotificationDAO {
         if (!messages.isEmpty()) {
             final List<Integer> messageIds = messages.stream().map(PushMessage::getId).collect(Collectors.toList());
             this.notificationMapper.markMessagesAsDelivered(messageIds);
+            onDelivered(messages);
         }
         return messages;
     }
@@ -78,10 +84,23 @@ public class NotificationDAO {
         if (!messages.isEmpty()) {
             final List<Integer> messageIds = messages.stream().map(PushMessage::getId).collect(Collectors.toList());
             this.notificationMapper.markMessagesAsDelivered(messageIds);
+            onDelivered(messages);
         }
         return messages;
     }
 
+    /**
+     * <p>Records the pending messages as delivered. A message is sent when it becomes pending, the creation time of
+     * the pending message is used as the sending time.</p>
+     *
+     * @param messages a list of messages marked as delivered.
+     */
+    private void onDelivered(List<PushMessage> messages) {
+        for (PushMessage message : messages) {
+            this.pushMetrics.onDelivered(PushMetrics.TRANSPORT_POLLING, message.getCreateTime());
+        }
+    }
+
     /**
      * <p>Sends the specified notification message. This implementation puts it to queue to be retrieved by device later.</p>
      *
@@ -95,6 +114,19 @@ public class NotificationDAO {
         return message.getId();
     }
 
+    /**
+     * <p>Sends the specified notification messages. This implementation puts them to queue to be retrieved by devices
+     * later using a single statement.</p>
+     *
+     * @param messages a list of messages to send.
+     */
+    @Transactional
+    public void sendAll(List<PushMessage> messages) {
+        if (!messages.isEmpty()) {
+            this.notificationMapper.insertPendingPushMessages(messages);
+        }
+    }
+
     /**
      * <p>Gets the current status of delivery for the specified message.</p>
      *
@@ -106,6 +138,15 @@ public class NotificationDAO {
         return this.notificationMapper.getDeliveryStatus(messageId);
     }
 
+    /**
+     * <p>Gets the number of non-delivered messages per customer account.</p>
+     *
+     * @return a list of pending message counts, the largest first.
+     */
+    public List<PendingPushCount> getPendingMessageCounts() {
+        return this.notificationMapper.getPendingMessageCounts();
+    }
+
     /**
      * <p>Deletes the messages with lifespans exceeding the specified limits.</p>
      *
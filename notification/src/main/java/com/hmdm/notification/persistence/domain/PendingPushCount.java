@@ -0,0 +1,74 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.notification.persistence.domain;
+
+import java.io.Serializable;
+
+/**
+ * <p>A number of push messages awaiting the pickup by devices of a single customer.</p>
+ *
+ * @author isv
+ */
+public class PendingPushCount implements Serializable {
+
+    private static final long serialVersionUID = -3571094563622189804L;
+
+    /**
+     * <p>An ID of a customer account.</p>
+     */
+    private int customerId;
+
+    /**
+     * <p>A number of non-delivered messages for the devices of the customer.</p>
+     */
+    private long pendingCount;
+
+    /**
+     * <p>Constructs new <code>PendingPushCount</code> instance. This implementation does nothing.</p>
+     */
+    public PendingPushCount() {
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    public long getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(long pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PendingPushCount{" +
+                "customerId=" + customerId +
+                ", pendingCount=" + pendingCount +
+                '}';
+    }
+}
@@ -43,6 +43,12 @@ public class PushMessage implements Serializable {
 
     private String payload;
 
+    /**
+     * <p>A timestamp of submitting the message for delivery (in milliseconds since Epoch time). Not stored in
+     * <code>pushMessages</code> table; for pending messages it is populated from <code>pendingPushes</code>.</p>
+     */
+    private Long createTime;
+
     public static final String TYPE_APP_CONFIG_UPDATED = "appConfigUpdated";
     public static final String TYPE_CONFIG_UPDATED = "configUpdated";
     public static final String TYPE_RUN_APP = "runApp";
@@ -91,6 +97,14 @@ public class PushMessage implements Serializable {
         this.payload = payload;
     }
 
+    public Long getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Long createTime) {
+        this.createTime = createTime;
+    }
+
     @Override
     public String toString() {
         return "PushMessage{" +
@@ -21,6 +21,7 @@
 
 package com.hmdm.notification.persistence.mapper;
 
+import com.hmdm.notification.persistence.domain.PendingPushCount;
 import com.hmdm.notification.persistence.domain.PushMessage;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Insert;
@@ -37,7 +38,7 @@ import java.util.List;
  */
 public interface NotificationMapper {
 
-    @Select("SELECT pushMessages.* " +
+    @Select("SELECT pushMessages.*, pendingPushes.createTime " +
             "FROM pendingPushes " +
             "INNER JOIN pushMessages ON pushMessages.id = pendingPushes.messageId " +
             "INNER JOIN devices ON devices.id = pushMessages.deviceId " +
@@ -46,7 +47,7 @@ public interface NotificationMapper {
             "ORDER BY pendingPushes.createTime ASC")
     List<PushMessage> getPendingMessagesByNumber(@Param("deviceNumber") String deviceNumber);
 
-    @Select("SELECT pushMessages.* " +
+    @Select("SELECT pushMessages.*, pendingPushes.createTime " +
             "FROM pendingPushes " +
             "INNER JOIN pushMessages ON pushMessages.id = pendingPushes.messageId " +
             "WHERE pushMessages.deviceId = #{deviceId} " +
@@ -61,10 +62,21 @@ public interface NotificationMapper {
     @SelectKey( statement = "SELECT currval('pushmessages_id_seq')", keyColumn = "id", keyProperty = "id", before = false, resultType = int.class )
     void insertPushMessage(PushMessage message);
 
+    void insertPendingPushMessages(@Param("messages") List<PushMessage> messages);
+
     @Insert("INSERT INTO pendingPushes (messageId, status, createTime) " +
             "VALUES (#{messageId}, 0, EXTRACT(EPOCH FROM NOW()) * 1000)")
     void insertPendingPush(int messageId);
 
+    @Select("SELECT devices.customerId, COUNT(*) AS pendingCount " +
+            "FROM pendingPushes " +
+            "INNER JOIN pushMessages ON pushMessages.id = pendingPushes.messageId " +
+            "INNER JOIN devices ON devices.id = pushMessages.deviceId " +
+            "WHERE pendingPushes.status = 0 " +
+            "GROUP BY devices.customerId " +
+            "ORDER BY pendingCount DESC")
+    List<PendingPushCount> getPendingMessageCounts();
+
     @Select("SELECT status FROM pendingPushes WHERE messageId = #{messageId}")
     Integer getDeliveryStatus(@Param("messageId") int messageId);
 
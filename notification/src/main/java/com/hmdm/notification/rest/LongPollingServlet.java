@@ -21,6 +21,7 @@
 
 package com.hmdm.notification.rest;
 
+import com.hmdm.notification.PushMetrics;
 import com.hmdm.notification.PushSenderPolling;
 import com.hmdm.notification.persistence.NotificationDAO;
 import com.hmdm.notification.persistence.domain.PushMessage;
@@ -70,6 +71,7 @@ public class LongPollingServlet extends HttpServlet {
     private UnsecureDAO unsecureDAO;
     private NotificationDAO notificationDAO;
     private PushSenderPolling pushSenderPolling;
+    private PushMetrics pushMetrics;
     private String hashSecret;
     private boolean secureEnrollment;
     private PublicIPFilter publicIPFilter;
@@ -93,6 +95,7 @@ public class LongPollingServlet extends HttpServlet {
     public LongPollingServlet(UnsecureDAO unsecureDAO,
                               NotificationDAO notificationDAO,
                               PushSenderPolling pushSenderPolling,
+                              PushMetrics pushMetrics,
                               PublicIPFilter publicIPFilter,
                               @Named("polling.timeout") long pollingTimeout,
                               @Named("secure.enrollment") boolean secureEnrollment,
@@ -100,6 +103,7 @@ public class LongPollingServlet extends HttpServlet {
         this.unsecureDAO = unsecureDAO;
         this.notificationDAO = notificationDAO;
         this.pushSenderPolling = pushSenderPolling;
+        this.pushMetrics = pushMetrics;
         this.publicIPFilter = publicIPFilter;
         this.hashSecret = hashSecret;
         this.pollingTimeout = pollingTimeout * 1000L;
@@ -179,8 +183,12 @@ public class LongPollingServlet extends HttpServlet {
                     resp.getOutputStream().write(sb.toString().getBytes("UTF-8"));
                     resp.getOutputStream().flush();
                     log.debug("Succesfully delivered");
+                    pushSenderPolling.awaitConfirmation(event.getAsyncContext());
                 } catch (Exception e) {
                     log.warn("Failed to deliver push messages to device '{}': {}", deviceNumber, e.getMessage());
+                    if (messages.size() > 0) {
+                        pushMetrics.onFailure(PushMetrics.TRANSPORT_POLLING);
+                    }
                     // Put pending messages back to the database
                     for (PushMessage m : messages) {
                         notificationDAO.send(m);
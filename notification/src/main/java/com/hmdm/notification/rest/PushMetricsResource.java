@@ -0,0 +1,108 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.notification.rest;
+
+import com.hmdm.notification.MqttThrottledSender;
+import com.hmdm.notification.PushMetrics;
+import com.hmdm.notification.PushSenderPolling;
+import com.hmdm.notification.persistence.NotificationDAO;
+import com.hmdm.notification.rest.json.PushMetricsSnapshot;
+import com.hmdm.rest.json.Response;
+import com.hmdm.security.SecurityContext;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.Authorization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * <p>A resource exposing the push delivery metrics of the server node.</p>
+ *
+ * @author isv
+ */
+@Api(tags = {"Notifications"})
+@Singleton
+@Path("/notification/private/metrics")
+public class PushMetricsResource {
+
+    private static final Logger log = LoggerFactory.getLogger(PushMetricsResource.class);
+    private PushMetrics pushMetrics;
+    private MqttThrottledSender throttledSender;
+    private PushSenderPolling pushSenderPolling;
+    private NotificationDAO notificationDAO;
+
+    /**
+     * <p>A constructor required by Swagger.</p>
+     */
+    public PushMetricsResource() {
+    }
+
+    /**
+     * <p>Constructs new <code>PushMetricsResource</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public PushMetricsResource(PushMetrics pushMetrics,
+                               MqttThrottledSender throttledSender,
+                               PushSenderPolling pushSenderPolling,
+                               NotificationDAO notificationDAO) {
+        this.pushMetrics = pushMetrics;
+        this.throttledSender = throttledSender;
+        this.pushSenderPolling = pushSenderPolling;
+        this.notificationDAO = notificationDAO;
+    }
+
+    // =================================================================================================================
+    @ApiOperation(
+            value = "Get push metrics",
+            notes = "Gets the push delivery latencies, queue depths and failure counts of the server node.",
+            response = PushMetricsSnapshot.class,
+            authorizations = {@Authorization("Bearer Token")}
+    )
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getMetrics() {
+        if (!SecurityContext.get().isSuperAdmin()) {
+            log.error("Unauthorized attempt to get push metrics by user {}", SecurityContext.get().getCurrentUserName());
+            return Response.PERMISSION_DENIED();
+        }
+        try {
+            PushMetricsSnapshot snapshot = new PushMetricsSnapshot();
+            snapshot.setEnqueueToSent(pushMetrics.getEnqueueToSent());
+            snapshot.setSentToDelivered(pushMetrics.getSentToDelivered());
+            snapshot.setFailures(pushMetrics.getFailures());
+            snapshot.setMqttQueueSize(throttledSender.getQueueSize());
+            snapshot.setLongPollingConnections(pushSenderPolling.getConnectedCount());
+            snapshot.setPendingMessages(notificationDAO.getPendingMessageCounts());
+            return Response.OK(snapshot);
+        } catch (Exception e) {
+            log.error("Unexpected error when getting push metrics", e);
+            return Response.INTERNAL_ERROR();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.notification.rest.json;
+
+import com.hmdm.notification.persistence.domain.PendingPushCount;
+import com.hmdm.util.LatencyHistogram;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+@ApiModel(description = "A snapshot of push delivery metrics of the server node")
+public class PushMetricsSnapshot implements Serializable {
+
+    private static final long serialVersionUID = -2263816473385722057L;
+    @ApiModelProperty("Latencies (ms) from submitting a message till handing it to the transport, per transport")
+    private Map<String, LatencyHistogram> enqueueToSent;
+    @ApiModelProperty("Latencies (ms) from handing a message to the transport till delivery, per transport")
+    private Map<String, LatencyHistogram> sentToDelivered;
+    @ApiModelProperty("Numbers of send or delivery failures, per transport")
+    private Map<String, Long> failures;
+    @ApiModelProperty("A number of messages waiting in the MQTT throttling queue")
+    private int mqttQueueSize;
+    @ApiModelProperty("A number of devices holding a long-polling connection to this node")
+    private int longPollingConnections;
+    @ApiModelProperty("Numbers of non-delivered messages per customer")
+    private List<PendingPushCount> pendingMessages;
+
+    public PushMetricsSnapshot() {
+    }
+
+    public Map<String, LatencyHistogram> getEnqueueToSent() {
+        return enqueueToSent;
+    }
+
+    public void setEnqueueToSent(Map<String, LatencyHistogram> enqueueToSent) {
+        this.enqueueToSent = enqueueToSent;
+    }
+
+    public Map<String, LatencyHistogram> getSentToDelivered() {
+        return sentToDelivered;
+    }
+
+    public void setSentToDelivered(Map<String, LatencyHistogram> sentToDelivered) {
+        this.sentToDelivered = sentToDelivered;
+    }
+
+    public Map<String, Long> getFailures() {
+        return failures;
+    }
+
+    public void setFailures(Map<String, Long> failures) {
+        this.failures = failures;
+    }
+
+    public int getMqttQueueSize() {
+        return mqttQueueSize;
+    }
+
+    public void setMqttQueueSize(int mqttQueueSize) {
+        this.mqttQueueSize = mqttQueueSize;
+    }
+
+    public int getLongPollingConnections() {
+        return longPollingConnections;
+    }
+
+    public void setLongPollingConnections(int longPollingConnections) {
+        this.longPollingConnections = longPollingConnections;
+    }
+
+    public List<PendingPushCount> getPendingMessages() {
+        return pendingMessages;
+    }
+
+    public void setPendingMessages(List<PendingPushCount> pendingMessages) {
+        this.pendingMessages = pendingMessages;
+    }
+}
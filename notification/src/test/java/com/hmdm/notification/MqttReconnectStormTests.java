@@ -0,0 +1,186 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.notification;
+
+import com.hmdm.util.CryptoUtil;
+import org.apache.activemq.broker.BrokerService;
+import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * <p>A test suite simulating the reconnect storm of the devices against the embedded MQTT broker.</p>
+ *
+ * @author isv
+ */
+public class MqttReconnectStormTests {
+
+    private static final String HASH_SECRET = "test-secret";
+
+    private static final int CLIENTS = 200;
+
+    private static final int ROUNDS = 3;
+
+    private BrokerService broker;
+
+    private String address;
+
+    private File dataDir;
+
+    /**
+     * <p>Constructs new <code>MqttReconnectStormTests</code> instance. This implementation does nothing.</p>
+     */
+    public MqttReconnectStormTests() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        address = "localhost:" + port;
+        dataDir = Files.createTempDirectory("mqtt-storm").toFile();
+
+        MqttBrokerFactory factory = new MqttBrokerFactory(true, "admin-password", HASH_SECRET, "nio",
+                CLIENTS * 2, 60, 64, 0, 64, false, dataDir.getAbsolutePath());
+        broker = factory.createBroker(address);
+        broker.setUseShutdownHook(false);
+        broker.start();
+        broker.waitUntilStarted();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (broker != null) {
+            broker.stop();
+            broker.waitUntilStopped();
+        }
+        if (dataDir != null) {
+            try (Stream<Path> paths = Files.walk(dataDir.toPath())) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    @Test
+    public void testReconnectStorm() throws Exception {
+        final String password = CryptoUtil.getSHA1String(MqttBrokerFactory.MQTT_USERNAME + HASH_SECRET);
+        final List<MqttClient> clients = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(new MqttClient("tcp://" + address, "device-" + i, new MemoryPersistence()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(50);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                final long start = System.currentTimeMillis();
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (MqttClient client : clients) {
+                    results.add(executor.submit(connect(client, password)));
+                }
+                int connected = 0;
+                for (Future<Boolean> result : results) {
+                    if (result.get(60, TimeUnit.SECONDS)) {
+                        connected++;
+                    }
+                }
+                Assert.assertEquals("All clients must reconnect in round " + round, CLIENTS, connected);
+                Assert.assertTrue("Reconnect storm took too long",
+                        System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(60));
+
+                // Simulate the broker side drop of all connections without a clean disconnect
+                for (MqttClient client : clients) {
+                    client.disconnectForcibly(0, 1000, false);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            for (MqttClient client : clients) {
+                client.close(true);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidPasswordRejected() throws Exception {
+        final CachingAuthenticationPlugin.CachingAuthenticationBroker authBroker =
+                (CachingAuthenticationPlugin.CachingAuthenticationBroker) broker.getBroker()
+                        .getAdaptor(CachingAuthenticationPlugin.CachingAuthenticationBroker.class);
+        Assert.assertNotNull("Caching authentication broker must be installed", authBroker);
+        final int cacheSize = authBroker.getCacheSize();
+
+        MqttClient client = new MqttClient("tcp://" + address, "device-invalid", new MemoryPersistence());
+        try {
+            Assert.assertFalse(connect(client, "wrong").call());
+            // The failed attempt must not be cached
+            Assert.assertEquals(cacheSize, authBroker.getCacheSize());
+            Assert.assertFalse(connect(client, "wrong").call());
+            Assert.assertEquals(cacheSize, authBroker.getCacheSize());
+
+            // The valid credentials are accepted right after the failures
+            final String password = CryptoUtil.getSHA1String(MqttBrokerFactory.MQTT_USERNAME + HASH_SECRET);
+            Assert.assertTrue(connect(client, password).call());
+            Assert.assertEquals(cacheSize + 1, authBroker.getCacheSize());
+            client.disconnect();
+        } finally {
+            client.close(true);
+        }
+    }
+
+    private static Callable<Boolean> connect(MqttClient client, String password) {
+        return () -> {
+            MqttConnectOptions options = new MqttConnectOptions();
+            options.setUserName(MqttBrokerFactory.MQTT_USERNAME);
+            options.setPassword(password.toCharArray());
+            options.setCleanSession(true);
+            options.setConnectionTimeout(30);
+            options.setKeepAliveInterval(0);
+            try {
+                client.connect(options);
+                return client.isConnected();
+            } catch (MqttException e) {
+                return false;
+            }
+        };
+    }
+}
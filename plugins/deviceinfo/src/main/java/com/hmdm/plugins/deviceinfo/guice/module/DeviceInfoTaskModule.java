@@ -27,7 +27,7 @@ import com.hmdm.plugin.PluginTaskModule;
 import com.hmdm.plugins.deviceinfo.persistence.CustomerCreatedEventListener;
 import com.hmdm.plugins.deviceinfo.persistence.DeviceInfoDAO;
 import com.hmdm.plugins.deviceinfo.persistence.DeviceInfoSettingsDAO;
-import com.hmdm.util.BackgroundTaskRunnerService;
+import com.hmdm.service.ScheduledTaskService;
 
 import java.util.concurrent.TimeUnit;
 
@@ -49,9 +49,9 @@ public class DeviceInfoTaskModule implements PluginTaskModule {
 
     private final DeviceInfoSettingsDAO settingsDAO;
     /**
-     * <p>A runner for the repeatable tasks.</p>
+     * <p>A runner for the tasks executed by the single server node.</p>
      */
-    private final BackgroundTaskRunnerService taskRunner;
+    private final ScheduledTaskService scheduledTaskService;
 
     /**
      * <p>Constructs new <code>DeviceInfoTaskModule</code> instance. This implementation does nothing.</p>
@@ -60,11 +60,11 @@ public class DeviceInfoTaskModule implements PluginTaskModule {
     public DeviceInfoTaskModule(EventService eventService,
                                 DeviceInfoDAO deviceInfoDAO,
                                 DeviceInfoSettingsDAO settingsDAO,
-                                BackgroundTaskRunnerService taskRunner) {
+                                ScheduledTaskService scheduledTaskService) {
         this.eventService = eventService;
         this.deviceInfoDAO = deviceInfoDAO;
         this.settingsDAO = settingsDAO;
-        this.taskRunner = taskRunner;
+        this.scheduledTaskService = scheduledTaskService;
     }
 
     /**
@@ -73,7 +73,8 @@ public class DeviceInfoTaskModule implements PluginTaskModule {
      */
     @Override
     public void init() {
-        taskRunner.submitRepeatableTask(deviceInfoDAO::purgeDeviceInfoRecords, 1, 24, TimeUnit.HOURS);
+        scheduledTaskService.submitScheduledTask("deviceinfo.purge", deviceInfoDAO::purgeDeviceInfoRecords,
+                1, 24, TimeUnit.HOURS);
 
         this.eventService.addEventListener(new CustomerCreatedEventListener(this.settingsDAO));
     }
@@ -29,11 +29,15 @@ import com.hmdm.persistence.DeviceDAO;
 import com.hmdm.persistence.UnsecureDAO;
 import com.hmdm.persistence.domain.*;
 import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceDynamicInfo;
+import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceInfoResolution;
+import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceInfoRollup;
 import com.hmdm.plugins.deviceinfo.persistence.mapper.DeviceInfoMapper;
+import com.hmdm.plugins.deviceinfo.rest.json.DeviceDynamicInfoPoint;
 import com.hmdm.plugins.deviceinfo.rest.json.DeviceDynamicInfoRecord;
 import com.hmdm.plugins.deviceinfo.rest.json.DeviceInfo;
 import com.hmdm.plugins.deviceinfo.rest.json.DeviceInfoApplication;
 import com.hmdm.plugins.deviceinfo.rest.json.DynamicInfoFilter;
+import com.hmdm.plugins.deviceinfo.rest.json.DynamicInfoSeries;
 import com.hmdm.rest.json.LookupItem;
 import org.mybatis.guice.transactional.Transactional;
 import org.slf4j.Logger;
@@ -45,8 +49,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -59,6 +64,16 @@ public class DeviceInfoDAO {
 
     private static final Logger logger = LoggerFactory.getLogger(DeviceInfoDAO.class);
 
+    /**
+     * <p>A max number of records to be inserted by single statement.</p>
+     */
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    /**
+     * <p>An upper limit for the number of points in the time series.</p>
+     */
+    private static final int MAX_SERIES_POINTS = 5000;
+
     /**
      * <p>An interface to persistence layer.</p>
      */
@@ -100,59 +115,95 @@ public class DeviceInfoDAO {
     /**
      * <p>Saves the specified list of device info records.</p>
      *
+     * <p>The IDs for the records are allocated at once and the records are written with a single multi-row
+     * <code>INSERT</code> per table (for up to {@link #INSERT_BATCH_SIZE} records) within one transaction.</p>
+     *
      * @param data a list of records to be saved.
      */
     @Transactional
     public void saveDeviceDynamicData(List<DeviceDynamicInfo> data) {
-        AtomicInteger countMain = new AtomicInteger(0);
-        AtomicInteger countDevice = new AtomicInteger(0);
-        AtomicInteger countWifi = new AtomicInteger(0);
-        AtomicInteger countGps = new AtomicInteger(0);
-        AtomicInteger countMobile1 = new AtomicInteger(0);
-        AtomicInteger countMobile2 = new AtomicInteger(0);
-
-        data.forEach(record -> {
-            countMain.addAndGet(
-                    this.deviceInfoMapper.insertDeviceInfoMain(record)
-            );
-            if (record.getDevice() != null) {
-                countDevice.addAndGet(
-                    this.deviceInfoMapper.insertDeviceInfoGroupDevice(record.getId(), record.getDevice())
-                );
-            }
-            if (record.getWifi() != null) {
-                countWifi.addAndGet(
-                    this.deviceInfoMapper.insertDeviceInfoGroupWifi(record.getId(), record.getWifi())
-                );
-            }
-            if (record.getGps() != null) {
-                countGps.addAndGet(
-                    this.deviceInfoMapper.insertDeviceInfoGroupGps(record.getId(), record.getGps())
-                );
-            }
-            if (record.getMobile() != null) {
-                countMobile1.addAndGet(
-                        this.deviceInfoMapper.insertDeviceInfoGroupMobile(record.getId(), record.getMobile())
-                );
+        int countMain = 0;
+        int countDevice = 0;
+        int countWifi = 0;
+        int countGps = 0;
+        int countMobile1 = 0;
+        int countMobile2 = 0;
+        int countRollups = 0;
+
+        for (int i = 0; i < data.size(); i += INSERT_BATCH_SIZE) {
+            final List<DeviceDynamicInfo> batch = data.subList(i, Math.min(data.size(), i + INSERT_BATCH_SIZE));
+            final List<Integer> ids = this.deviceInfoMapper.allocateDeviceInfoIds(batch.size());
+            for (int j = 0; j < batch.size(); j++) {
+                batch.get(j).setId(ids.get(j));
             }
-            if (record.getMobile2() != null) {
-                countMobile2.addAndGet(
-                        this.deviceInfoMapper.insertDeviceInfoGroupMobile2(record.getId(), record.getMobile2())
-                );
+
+            countMain += this.deviceInfoMapper.insertDeviceInfoMainRecords(batch);
+            countDevice += insertGroup(batch, DeviceDynamicInfo::getDevice,
+                    this.deviceInfoMapper::insertDeviceInfoGroupDeviceRecords);
+            countWifi += insertGroup(batch, DeviceDynamicInfo::getWifi,
+                    this.deviceInfoMapper::insertDeviceInfoGroupWifiRecords);
+            countGps += insertGroup(batch, DeviceDynamicInfo::getGps,
+                    this.deviceInfoMapper::insertDeviceInfoGroupGpsRecords);
+            countMobile1 += insertGroup(batch, DeviceDynamicInfo::getMobile,
+                    this.deviceInfoMapper::insertDeviceInfoGroupMobileRecords);
+            countMobile2 += insertGroup(batch, DeviceDynamicInfo::getMobile2,
+                    this.deviceInfoMapper::insertDeviceInfoGroupMobile2Records);
+
+            for (DeviceInfoResolution resolution : DeviceInfoResolution.values()) {
+                if (resolution.isRollup()) {
+                    countRollups += this.deviceInfoMapper.upsertDeviceInfoRollups(rollup(batch, resolution));
+                }
             }
-        });
+        }
 
         logger.debug("Number of records inserted: main {}, device group: {}, wi-fi group: {}, gps group: {}, " +
-                        "mobile data group 1: {}, mobile data group 2: {} ",
-                countMain.get(),
-                countDevice.get(),
-                countWifi.get(),
-                countGps.get(),
-                countMobile1.get(),
-                countMobile2.get()
+                        "mobile data group 1: {}, mobile data group 2: {}, rollups: {} ",
+                countMain,
+                countDevice,
+                countWifi,
+                countGps,
+                countMobile1,
+                countMobile2,
+                countRollups
         );
     }
 
+    /**
+     * <p>Aggregates the specified records into the rollups of specified resolution.</p>
+     *
+     * @param records a list of records to aggregate.
+     * @param resolution a resolution of the rollups.
+     * @return a list of rollups (one per device and bucket) ordered by device and bucket.
+     */
+    static List<DeviceInfoRollup> rollup(List<DeviceDynamicInfo> records, DeviceInfoResolution resolution) {
+        final Map<String, DeviceInfoRollup> rollups = new TreeMap<>();
+        records.forEach(record -> {
+            final long bucketTs = resolution.getBucketStart(record.getTs());
+            rollups.computeIfAbsent(
+                    String.format("%010d:%020d", record.getDeviceId(), bucketTs),
+                    key -> new DeviceInfoRollup(record.getDeviceId(), record.getCustomerId(), resolution, bucketTs)
+            ).add(record);
+        });
+        return new ArrayList<>(rollups.values());
+    }
+
+    /**
+     * <p>Inserts the specified group of parameters for those of specified records which have this group set.</p>
+     *
+     * @param records a list of records to insert the group of parameters for.
+     * @param group a getter for the group of parameters.
+     * @param insert a statement inserting the group of parameters for the list of records.
+     * @return a number of inserted rows.
+     */
+    private static int insertGroup(List<DeviceDynamicInfo> records,
+                                   Function<DeviceDynamicInfo, Object> group,
+                                   Function<List<DeviceDynamicInfo>, Integer> insert) {
+        final List<DeviceDynamicInfo> groupRecords = records.stream()
+                .filter(record -> group.apply(record) != null)
+                .collect(Collectors.toList());
+        return groupRecords.isEmpty() ? 0 : insert.apply(groupRecords);
+    }
+
     /**
      * <p>Deletes the device info records which are older than number of days configured in customer's profile.</p>
      */
@@ -166,6 +217,10 @@ public class DeviceInfoDAO {
                 if (count > 0) {
                     logger.info("Deleted {} records from the device info for customer {}", count, c.getId());
                 }
+                final int rollupsCount = this.deviceInfoMapper.purgeDeviceInfoRollups(c.getId());
+                if (rollupsCount > 0) {
+                    logger.info("Deleted {} rollups from the device info for customer {}", rollupsCount, c.getId());
+                }
             }
 
         } catch (Exception e) {
@@ -244,4 +299,61 @@ public class DeviceInfoDAO {
     public long countAllDynamicData(DynamicInfoFilter filter) {
         return this.deviceInfoMapper.countAllDynamicData(filter);
     }
+
+    /**
+     * <p>Gets the time series of the device dynamic info for the time range set by specified filter.</p>
+     *
+     * <p>The raw samples are returned if their number fits the requested number of points. Otherwise the finest
+     * rollups fitting the requested number of points are used, falling back to the coarsest ones for long ranges.</p>
+     *
+     * @param filter a filter providing the device, the time range and the max number of points.
+     * @return a time series of the device dynamic info, most recent points first.
+     */
+    public DynamicInfoSeries searchDynamicSeries(DynamicInfoFilter filter) {
+        final long now = System.currentTimeMillis();
+        final long fromTs;
+        final long toTs;
+        if (filter.isUseFixedInterval()) {
+            fromTs = now - filter.getFixedInterval() * 1000L;
+            toTs = now;
+        } else {
+            fromTs = filter.getDateFromMillis();
+            toTs = filter.getDateTo() != null ? filter.getDateToMillis() : now;
+        }
+        final int maxPoints = Math.max(1, Math.min(filter.getMaxPoints(), MAX_SERIES_POINTS));
+        final int deviceId = filter.getDeviceId();
+
+        if (this.deviceInfoMapper.countDynamicDataPoints(deviceId, fromTs, toTs, maxPoints + 1) <= maxPoints) {
+            return new DynamicInfoSeries(DeviceInfoResolution.RAW,
+                    this.deviceInfoMapper.searchDynamicDataPoints(deviceId, fromTs, toTs, maxPoints));
+        }
+
+        final DeviceInfoResolution resolution = chooseRollupResolution(toTs - fromTs, maxPoints);
+        final List<DeviceDynamicInfoPoint> points = this.deviceInfoMapper.searchDynamicDataRollups(
+                deviceId, resolution.getBucketSize(), resolution.getBucketStart(fromTs), toTs, maxPoints
+        );
+        return new DynamicInfoSeries(resolution, points);
+    }
+
+    /**
+     * <p>Gets the finest rollup resolution which covers the specified time range with the specified number of
+     * buckets.</p>
+     *
+     * @param rangeMillis a length of the time range (in milliseconds).
+     * @param maxPoints a max number of buckets.
+     * @return a finest fitting rollup resolution or the coarsest one if none fits.
+     */
+    static DeviceInfoResolution chooseRollupResolution(long rangeMillis, int maxPoints) {
+        DeviceInfoResolution result = null;
+        for (DeviceInfoResolution resolution : DeviceInfoResolution.values()) {
+            if (resolution.isRollup()) {
+                result = resolution;
+                final long buckets = rangeMillis / (resolution.getBucketSize() * 1000L) + 1;
+                if (buckets <= maxPoints) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
 }
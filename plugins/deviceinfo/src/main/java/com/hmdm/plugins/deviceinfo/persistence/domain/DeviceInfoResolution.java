@@ -0,0 +1,71 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.deviceinfo.persistence.domain;
+
+/**
+ * <p>An enumeration over the resolutions of the device dynamic info time series.</p>
+ *
+ * @author isv
+ */
+public enum DeviceInfoResolution {
+    RAW(0),
+    FIVE_MINUTES(300),
+    HOUR(3600);
+
+    /**
+     * <p>A size of the aggregation bucket (in seconds); 0 for the raw samples.</p>
+     */
+    private final int bucketSize;
+
+    private DeviceInfoResolution(int bucketSize) {
+        this.bucketSize = bucketSize;
+    }
+
+    /**
+     * <p>Gets the size of the aggregation bucket for this resolution.</p>
+     *
+     * @return a size of the aggregation bucket (in seconds); 0 for the raw samples.
+     */
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    /**
+     * <p>Checks if the samples are aggregated into rollups for this resolution.</p>
+     *
+     * @return <code>true</code> if this resolution is backed by rollups; <code>false</code> for raw samples.
+     */
+    public boolean isRollup() {
+        return bucketSize > 0;
+    }
+
+    /**
+     * <p>Gets the start of the aggregation bucket the specified timestamp falls into.</p>
+     *
+     * @param ts a timestamp (in milliseconds since Epoch time).
+     * @return a timestamp of the bucket start (in milliseconds since Epoch time).
+     */
+    public long getBucketStart(long ts) {
+        final long bucketMillis = bucketSize * 1000L;
+        return Math.floorDiv(ts, bucketMillis) * bucketMillis;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.deviceinfo.persistence.domain;
+
+/**
+ * <p>A domain object representing the aggregated device dynamic info samples falling into single time bucket.</p>
+ *
+ * <p>The averages are not stored: the sums and the counts of the non-empty samples are kept instead so the rollups can
+ * be merged incrementally as new samples arrive.</p>
+ *
+ * @author isv
+ */
+public class DeviceInfoRollup {
+
+    private int deviceId;
+
+    private int customerId;
+
+    /**
+     * <p>A size of the aggregation bucket (in seconds).</p>
+     */
+    private int bucketSize;
+
+    /**
+     * <p>A timestamp of the bucket start (in milliseconds since Epoch time).</p>
+     */
+    private long bucketTs;
+
+    /**
+     * <p>A number of samples aggregated into this bucket.</p>
+     */
+    private int samples;
+
+    private final Metric batteryLevel = new Metric();
+
+    private final Metric wifiRssi = new Metric();
+
+    private final Metric mobile1Rssi = new Metric();
+
+    private final Metric mobile2Rssi = new Metric();
+
+    /**
+     * <p>The max values of the traffic counters reported within the bucket.</p>
+     */
+    private Long wifiTx;
+    private Long wifiRx;
+    private Long mobile1Tx;
+    private Long mobile1Rx;
+    private Long mobile2Tx;
+    private Long mobile2Rx;
+
+    /**
+     * <p>Constructs new <code>DeviceInfoRollup</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceInfoRollup(int deviceId, int customerId, DeviceInfoResolution resolution, long bucketTs) {
+        this.deviceId = deviceId;
+        this.customerId = customerId;
+        this.bucketSize = resolution.getBucketSize();
+        this.bucketTs = bucketTs;
+    }
+
+    /**
+     * <p>Adds the specified sample to this bucket.</p>
+     *
+     * @param record a sample to add.
+     */
+    public void add(DeviceDynamicInfo record) {
+        this.samples++;
+        if (record.getDevice() != null) {
+            this.batteryLevel.add(record.getDevice().getBatteryLevel());
+        }
+        if (record.getWifi() != null) {
+            this.wifiRssi.add(record.getWifi().getRssi());
+            this.wifiTx = max(this.wifiTx, record.getWifi().getTx());
+            this.wifiRx = max(this.wifiRx, record.getWifi().getRx());
+        }
+        if (record.getMobile() != null) {
+            this.mobile1Rssi.add(record.getMobile().getRssi());
+            this.mobile1Tx = max(this.mobile1Tx, record.getMobile().getTx());
+            this.mobile1Rx = max(this.mobile1Rx, record.getMobile().getRx());
+        }
+        if (record.getMobile2() != null) {
+            this.mobile2Rssi.add(record.getMobile2().getRssi());
+            this.mobile2Tx = max(this.mobile2Tx, record.getMobile2().getTx());
+            this.mobile2Rx = max(this.mobile2Rx, record.getMobile2().getRx());
+        }
+    }
+
+    private static Long max(Long current, Long value) {
+        if (current == null) {
+            return value;
+        } else if (value == null) {
+            return current;
+        } else {
+            return Math.max(current, value);
+        }
+    }
+
+    public int getDeviceId() {
+        return deviceId;
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    public long getBucketTs() {
+        return bucketTs;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public Metric getBatteryLevel() {
+        return batteryLevel;
+    }
+
+    public Metric getWifiRssi() {
+        return wifiRssi;
+    }
+
+    public Metric getMobile1Rssi() {
+        return mobile1Rssi;
+    }
+
+    public Metric getMobile2Rssi() {
+        return mobile2Rssi;
+    }
+
+    public Long getWifiTx() {
+        return wifiTx;
+    }
+
+    public Long getWifiRx() {
+        return wifiRx;
+    }
+
+    public Long getMobile1Tx() {
+        return mobile1Tx;
+    }
+
+    public Long getMobile1Rx() {
+        return mobile1Rx;
+    }
+
+    public Long getMobile2Tx() {
+        return mobile2Tx;
+    }
+
+    public Long getMobile2Rx() {
+        return mobile2Rx;
+    }
+
+    /**
+     * <p>The aggregates for single metric. The empty values are not counted.</p>
+     */
+    public static class Metric {
+
+        private Integer min;
+
+        private Integer max;
+
+        private long sum;
+
+        private int count;
+
+        private void add(Integer value) {
+            if (value != null) {
+                this.min = this.min == null ? value : Math.min(this.min, value);
+                this.max = this.max == null ? value : Math.max(this.max, value);
+                this.sum += value;
+                this.count++;
+            }
+        }
+
+        public Integer getMin() {
+            return min;
+        }
+
+        public Integer getMax() {
+            return max;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
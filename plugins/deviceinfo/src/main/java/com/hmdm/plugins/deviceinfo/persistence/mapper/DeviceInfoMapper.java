@@ -24,9 +24,11 @@ package com.hmdm.plugins.deviceinfo.persistence.mapper;
 import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceData;
 import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceDynamicInfo;
 import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceInfoPluginSettings;
+import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceInfoRollup;
 import com.hmdm.plugins.deviceinfo.persistence.domain.GpsData;
 import com.hmdm.plugins.deviceinfo.persistence.domain.MobileData;
 import com.hmdm.plugins.deviceinfo.persistence.domain.WifiData;
+import com.hmdm.plugins.deviceinfo.rest.json.DeviceDynamicInfoPoint;
 import com.hmdm.plugins.deviceinfo.rest.json.DeviceDynamicInfoRecord;
 import com.hmdm.plugins.deviceinfo.rest.json.DeviceInfo;
 import com.hmdm.plugins.deviceinfo.rest.json.DynamicInfoExportFilter;
@@ -191,6 +193,50 @@ public interface DeviceInfoMapper {
             ")")
     int insertDeviceInfoGroupMobile2(@Param("recordId") Integer recordId, @Param("item") MobileData mobile);
 
+    /**
+     * <p>Allocates the specified number of IDs for the device info records.</p>
+     *
+     * @param count a number of IDs to allocate.
+     * @return a list of allocated IDs.
+     */
+    @Select("SELECT nextval('plugin_deviceinfo_deviceParams_id_seq') FROM generate_series(1, #{count})")
+    List<Integer> allocateDeviceInfoIds(@Param("count") int count);
+
+    /**
+     * <p>Inserts the specified device info records with pre-allocated IDs by a single statement.</p>
+     */
+    int insertDeviceInfoMainRecords(@Param("records") List<DeviceDynamicInfo> records);
+
+    /**
+     * <p>Inserts the device parameters of the specified device info records by a single statement. All records must
+     * have the device parameters set.</p>
+     */
+    int insertDeviceInfoGroupDeviceRecords(@Param("records") List<DeviceDynamicInfo> records);
+
+    /**
+     * <p>Inserts the Wi-Fi parameters of the specified device info records by a single statement. All records must
+     * have the Wi-Fi parameters set.</p>
+     */
+    int insertDeviceInfoGroupWifiRecords(@Param("records") List<DeviceDynamicInfo> records);
+
+    /**
+     * <p>Inserts the GPS parameters of the specified device info records by a single statement. All records must
+     * have the GPS parameters set.</p>
+     */
+    int insertDeviceInfoGroupGpsRecords(@Param("records") List<DeviceDynamicInfo> records);
+
+    /**
+     * <p>Inserts the mobile data parameters of the specified device info records by a single statement. All records
+     * must have the mobile data parameters set.</p>
+     */
+    int insertDeviceInfoGroupMobileRecords(@Param("records") List<DeviceDynamicInfo> records);
+
+    /**
+     * <p>Inserts the parameters of the second SIM card of the specified device info records by a single statement.
+     * All records must have the parameters of the second SIM card set.</p>
+     */
+    int insertDeviceInfoGroupMobile2Records(@Param("records") List<DeviceDynamicInfo> records);
+
     /**
      * <p>Deletes the device info records which are older than number of days configured in customer's profile.</p>
      *
@@ -202,6 +248,54 @@ public interface DeviceInfoMapper {
             "            WHERE pds.customerId =  #{customerId})")
     int purgeDeviceInfoRecords(@Param("customerId") int customerId);
 
+    /**
+     * <p>Deletes the device info rollups which are older than number of days configured in customer's profile.</p>
+     *
+     * @return a number of deleted rollups.
+     */
+    @Delete("DELETE FROM plugin_deviceinfo_rollups " +
+            "WHERE customerId = #{customerId} " +
+            "AND bucketTs < (SELECT EXTRACT(EPOCH FROM DATE_TRUNC('day', NOW() - (pds.dataPreservePeriod || ' day')::INTERVAL)) * 1000 " +
+            "                FROM plugin_deviceinfo_settings pds " +
+            "                WHERE pds.customerId =  #{customerId})")
+    int purgeDeviceInfoRollups(@Param("customerId") int customerId);
+
+    /**
+     * <p>Merges the specified rollups into the stored ones. The list must not contain two rollups for the same
+     * bucket.</p>
+     *
+     * @param rollups a list of rollups to merge.
+     * @return a number of inserted or updated rollups.
+     */
+    int upsertDeviceInfoRollups(@Param("rollups") List<DeviceInfoRollup> rollups);
+
+    /**
+     * <p>Counts the raw samples for device within the specified time range stopping at the specified limit.</p>
+     *
+     * @return a number of raw samples but not greater than <code>limit</code>.
+     */
+    int countDynamicDataPoints(@Param("deviceId") int deviceId,
+                               @Param("fromTs") long fromTs,
+                               @Param("toTs") long toTs,
+                               @Param("limit") int limit);
+
+    /**
+     * <p>Gets the most recent raw samples for device within the specified time range.</p>
+     */
+    List<DeviceDynamicInfoPoint> searchDynamicDataPoints(@Param("deviceId") int deviceId,
+                                                         @Param("fromTs") long fromTs,
+                                                         @Param("toTs") long toTs,
+                                                         @Param("limit") int limit);
+
+    /**
+     * <p>Gets the most recent rollups of specified bucket size for device within the specified time range.</p>
+     */
+    List<DeviceDynamicInfoPoint> searchDynamicDataRollups(@Param("deviceId") int deviceId,
+                                                          @Param("bucketSize") int bucketSize,
+                                                          @Param("fromTs") long fromTs,
+                                                          @Param("toTs") long toTs,
+                                                          @Param("limit") int limit);
+
     @Select("SELECT " +
             "    devices.id AS id," +
             "    devices.number AS deviceNumber," +
@@ -33,6 +33,7 @@ import com.hmdm.plugins.deviceinfo.rest.json.DeviceDynamicInfoRecord;
 import com.hmdm.plugins.deviceinfo.rest.json.DeviceInfo;
 import com.hmdm.plugins.deviceinfo.rest.json.DynamicInfoExportFilter;
 import com.hmdm.plugins.deviceinfo.rest.json.DynamicInfoFilter;
+import com.hmdm.plugins.deviceinfo.rest.json.DynamicInfoSeries;
 import com.hmdm.plugins.deviceinfo.service.DeviceInfoExportService;
 import com.hmdm.rest.json.DeviceLocation;
 import com.hmdm.rest.json.DeviceLookupItem;
@@ -274,6 +275,41 @@ public class DeviceInfoResource {
         }
     }
 
+    /**
+     * <p>Gets the time series of dynamic info for the time range set by specified filter. The resolution of the series
+     * is picked to fit the time range into the requested number of points.</p>
+     *
+     * @param filter a filter providing the device, the time range and the max number of points.
+     * @return a response with the time series of dynamic info.
+     */
+    @ApiOperation(
+            value = "Search dynamic info series",
+            notes = "Gets the time series of dynamic info downsampled to the requested number of points",
+            response = DynamicInfoSeries.class,
+            authorizations = {@Authorization("Bearer Token")}
+    )
+    @POST
+    @Path("/private/search/dynamic/series")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getDynamicSeries(DynamicInfoFilter filter) {
+        try {
+            final String deviceNumber = filter.getDeviceNumber();
+
+            Device dbDevice = this.deviceDAO.getDeviceByNumber(deviceNumber);
+            if (dbDevice == null) {
+                logger.error("Device {} was not found", deviceNumber);
+                return Response.DEVICE_NOT_FOUND_ERROR();
+            }
+
+            filter.setDeviceId(dbDevice.getId());
+
+            return Response.OK(this.deviceInfoDAO.searchDynamicSeries(filter));
+        } catch (Exception e) {
+            logger.error("Unexpected error when searching for dynamic device info series", e);
+            return Response.INTERNAL_ERROR();
+        }
+    }
+
     /**
      * <p>Exports the devices related to selected group or configuration to Excel file and sends it back to client.</p>
      *
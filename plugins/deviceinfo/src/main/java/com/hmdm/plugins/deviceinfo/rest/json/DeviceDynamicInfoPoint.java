@@ -0,0 +1,263 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.deviceinfo.rest.json;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * <p>A DTO carrying a single point of the device dynamic info time series. For raw samples the min, max and average
+ * values are the same.</p>
+ *
+ * @author isv
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DeviceDynamicInfoPoint {
+
+    @ApiModelProperty("A timestamp of the sample or the bucket start (in milliseconds since epoch time)")
+    private Long time;
+
+    @ApiModelProperty("A number of samples aggregated into this point")
+    private Integer samples;
+
+    @ApiModelProperty("A min battery level in percents")
+    private Integer batteryLevelMin;
+
+    @ApiModelProperty("A max battery level in percents")
+    private Integer batteryLevelMax;
+
+    @ApiModelProperty("An average battery level in percents")
+    private Double batteryLevelAvg;
+
+    @ApiModelProperty("A min Wi-Fi signal level")
+    private Integer wifiRssiMin;
+
+    @ApiModelProperty("A max Wi-Fi signal level")
+    private Integer wifiRssiMax;
+
+    @ApiModelProperty("An average Wi-Fi signal level")
+    private Double wifiRssiAvg;
+
+    @ApiModelProperty("A min mobile signal level (SIM 1)")
+    private Integer mobile1RssiMin;
+
+    @ApiModelProperty("A max mobile signal level (SIM 1)")
+    private Integer mobile1RssiMax;
+
+    @ApiModelProperty("An average mobile signal level (SIM 1)")
+    private Double mobile1RssiAvg;
+
+    @ApiModelProperty("A min mobile signal level (SIM 2)")
+    private Integer mobile2RssiMin;
+
+    @ApiModelProperty("A max mobile signal level (SIM 2)")
+    private Integer mobile2RssiMax;
+
+    @ApiModelProperty("An average mobile signal level (SIM 2)")
+    private Double mobile2RssiAvg;
+
+    @ApiModelProperty("A max counter of Wi-Fi bytes sent")
+    private Long wifiTx;
+
+    @ApiModelProperty("A max counter of Wi-Fi bytes received")
+    private Long wifiRx;
+
+    @ApiModelProperty("A max counter of mobile bytes sent (SIM 1)")
+    private Long mobile1Tx;
+
+    @ApiModelProperty("A max counter of mobile bytes received (SIM 1)")
+    private Long mobile1Rx;
+
+    @ApiModelProperty("A max counter of mobile bytes sent (SIM 2)")
+    private Long mobile2Tx;
+
+    @ApiModelProperty("A max counter of mobile bytes received (SIM 2)")
+    private Long mobile2Rx;
+
+    /**
+     * <p>Constructs new <code>DeviceDynamicInfoPoint</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceDynamicInfoPoint() {
+    }
+
+    public Long getTime() {
+        return time;
+    }
+
+    public void setTime(Long time) {
+        this.time = time;
+    }
+
+    public Integer getSamples() {
+        return samples;
+    }
+
+    public void setSamples(Integer samples) {
+        this.samples = samples;
+    }
+
+    public Integer getBatteryLevelMin() {
+        return batteryLevelMin;
+    }
+
+    public void setBatteryLevelMin(Integer batteryLevelMin) {
+        this.batteryLevelMin = batteryLevelMin;
+    }
+
+    public Integer getBatteryLevelMax() {
+        return batteryLevelMax;
+    }
+
+    public void setBatteryLevelMax(Integer batteryLevelMax) {
+        this.batteryLevelMax = batteryLevelMax;
+    }
+
+    public Double getBatteryLevelAvg() {
+        return batteryLevelAvg;
+    }
+
+    public void setBatteryLevelAvg(Double batteryLevelAvg) {
+        this.batteryLevelAvg = batteryLevelAvg;
+    }
+
+    public Integer getWifiRssiMin() {
+        return wifiRssiMin;
+    }
+
+    public void setWifiRssiMin(Integer wifiRssiMin) {
+        this.wifiRssiMin = wifiRssiMin;
+    }
+
+    public Integer getWifiRssiMax() {
+        return wifiRssiMax;
+    }
+
+    public void setWifiRssiMax(Integer wifiRssiMax) {
+        this.wifiRssiMax = wifiRssiMax;
+    }
+
+    public Double getWifiRssiAvg() {
+        return wifiRssiAvg;
+    }
+
+    public void setWifiRssiAvg(Double wifiRssiAvg) {
+        this.wifiRssiAvg = wifiRssiAvg;
+    }
+
+    public Integer getMobile1RssiMin() {
+        return mobile1RssiMin;
+    }
+
+    public void setMobile1RssiMin(Integer mobile1RssiMin) {
+        this.mobile1RssiMin = mobile1RssiMin;
+    }
+
+    public Integer getMobile1RssiMax() {
+        return mobile1RssiMax;
+    }
+
+    public void setMobile1RssiMax(Integer mobile1RssiMax) {
+        this.mobile1RssiMax = mobile1RssiMax;
+    }
+
+    public Double getMobile1RssiAvg() {
+        return mobile1RssiAvg;
+    }
+
+    public void setMobile1RssiAvg(Double mobile1RssiAvg) {
+        this.mobile1RssiAvg = mobile1RssiAvg;
+    }
+
+    public Integer getMobile2RssiMin() {
+        return mobile2RssiMin;
+    }
+
+    public void setMobile2RssiMin(Integer mobile2RssiMin) {
+        this.mobile2RssiMin = mobile2RssiMin;
+    }
+
+    public Integer getMobile2RssiMax() {
+        return mobile2RssiMax;
+    }
+
+    public void setMobile2RssiMax(Integer mobile2RssiMax) {
+        this.mobile2RssiMax = mobile2RssiMax;
+    }
+
+    public Double getMobile2RssiAvg() {
+        return mobile2RssiAvg;
+    }
+
+    public void setMobile2RssiAvg(Double mobile2RssiAvg) {
+        this.mobile2RssiAvg = mobile2RssiAvg;
+    }
+
+    public Long getWifiTx() {
+        return wifiTx;
+    }
+
+    public void setWifiTx(Long wifiTx) {
+        this.wifiTx = wifiTx;
+    }
+
+    public Long getWifiRx() {
+        return wifiRx;
+    }
+
+    public void setWifiRx(Long wifiRx) {
+        this.wifiRx = wifiRx;
+    }
+
+    public Long getMobile1Tx() {
+        return mobile1Tx;
+    }
+
+    public void setMobile1Tx(Long mobile1Tx) {
+        this.mobile1Tx = mobile1Tx;
+    }
+
+    public Long getMobile1Rx() {
+        return mobile1Rx;
+    }
+
+    public void setMobile1Rx(Long mobile1Rx) {
+        this.mobile1Rx = mobile1Rx;
+    }
+
+    public Long getMobile2Tx() {
+        return mobile2Tx;
+    }
+
+    public void setMobile2Tx(Long mobile2Tx) {
+        this.mobile2Tx = mobile2Tx;
+    }
+
+    public Long getMobile2Rx() {
+        return mobile2Rx;
+    }
+
+    public void setMobile2Rx(Long mobile2Rx) {
+        this.mobile2Rx = mobile2Rx;
+    }
+}
@@ -77,6 +77,12 @@ public class DynamicInfoFilter implements Serializable {
     @ApiModelProperty("A flag indicating if a fixed interval is to be used for searching the records")
     private boolean useFixedInterval = true;
 
+    /**
+     * <p>A max number of points to be returned for the time series.</p>
+     */
+    @ApiModelProperty("A max number of points to be returned for the time series")
+    private int maxPoints = 500;
+
     /**
      * <p>Constructs new <code>DynamicInfoFilter</code> instance. This implementation does nothing.</p>
      */
@@ -162,4 +168,12 @@ public class DynamicInfoFilter implements Serializable {
     public void setUseFixedInterval(boolean useFixedInterval) {
         this.useFixedInterval = useFixedInterval;
     }
+
+    public int getMaxPoints() {
+        return maxPoints;
+    }
+
+    public void setMaxPoints(int maxPoints) {
+        this.maxPoints = maxPoints;
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.deviceinfo.rest.json;
+
+import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceInfoResolution;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+/**
+ * <p>A DTO carrying the device dynamic info time series of the resolution picked for requested time range.</p>
+ *
+ * @author isv
+ */
+@ApiModel(description = "A device dynamic info time series")
+public class DynamicInfoSeries {
+
+    @ApiModelProperty("A resolution of the series")
+    private final DeviceInfoResolution resolution;
+
+    @ApiModelProperty("A size of the aggregation bucket (in seconds); 0 for raw samples")
+    private final int bucketSize;
+
+    @ApiModelProperty("The points of the series, most recent first")
+    private final List<DeviceDynamicInfoPoint> items;
+
+    /**
+     * <p>Constructs new <code>DynamicInfoSeries</code> instance. This implementation does nothing.</p>
+     */
+    public DynamicInfoSeries(DeviceInfoResolution resolution, List<DeviceDynamicInfoPoint> items) {
+        this.resolution = resolution;
+        this.bucketSize = resolution.getBucketSize();
+        this.items = items;
+    }
+
+    public DeviceInfoResolution getResolution() {
+        return resolution;
+    }
+
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    public List<DeviceDynamicInfoPoint> getItems() {
+        return items;
+    }
+}
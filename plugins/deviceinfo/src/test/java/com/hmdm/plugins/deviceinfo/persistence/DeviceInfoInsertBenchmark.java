@@ -0,0 +1,217 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.deviceinfo.persistence;
+
+import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceData;
+import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceDynamicInfo;
+import com.hmdm.plugins.deviceinfo.persistence.domain.GpsData;
+import com.hmdm.plugins.deviceinfo.persistence.domain.MobileData;
+import com.hmdm.plugins.deviceinfo.persistence.domain.WifiData;
+import com.hmdm.plugins.deviceinfo.persistence.mapper.DeviceInfoMapper;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>A benchmark comparing the throughput of saving the device info records by single-row statements against the
+ * multi-row statements used by {@link DeviceInfoDAO#saveDeviceDynamicData(List)}.</p>
+ *
+ * <p>The benchmark is not run by default. It requires a local database with the schema of the application and an
+ * existing device:</p>
+ *
+ * <pre>
+ * mvn test -pl plugins/deviceinfo -Dtest=DeviceInfoInsertBenchmark \
+ *     -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/hmdm -Dbenchmark.jdbc.username=hmdm \
+ *     -Dbenchmark.jdbc.password=... -Dbenchmark.deviceId=1 -Dbenchmark.customerId=1
+ * </pre>
+ *
+ * <p>The inserted records get the timestamps in 1970 and are deleted once the benchmark completes.</p>
+ *
+ * @author isv
+ */
+public class DeviceInfoInsertBenchmark {
+
+    private static final int UPLOADS = 200;
+
+    private static final int RECORDS_PER_UPLOAD = 50;
+
+    private static final long MAX_BENCHMARK_TS = 1000000;
+
+    private SqlSessionFactory sqlSessionFactory;
+
+    private int deviceId;
+
+    private int customerId;
+
+    /**
+     * <p>Constructs new <code>DeviceInfoInsertBenchmark</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceInfoInsertBenchmark() {
+    }
+
+    @Before
+    public void setUp() {
+        final String url = System.getProperty("benchmark.jdbc.url");
+        Assume.assumeNotNull(url);
+
+        deviceId = Integer.getInteger("benchmark.deviceId", 1);
+        customerId = Integer.getInteger("benchmark.customerId", 1);
+
+        final PooledDataSource dataSource = new PooledDataSource("org.postgresql.Driver", url,
+                System.getProperty("benchmark.jdbc.username"), System.getProperty("benchmark.jdbc.password"));
+        final Configuration configuration
+                = new Configuration(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        configuration.getTypeAliasRegistry().registerAliases("com.hmdm.plugins.deviceinfo.persistence.domain");
+        configuration.addMapper(DeviceInfoMapper.class);
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (sqlSessionFactory != null) {
+            try (SqlSession session = sqlSessionFactory.openSession(true);
+                 Connection connection = session.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         "DELETE FROM plugin_deviceinfo_deviceParams WHERE deviceId = ? AND ts < ?");
+                 PreparedStatement rollupsStatement = connection.prepareStatement(
+                         "DELETE FROM plugin_deviceinfo_rollups WHERE deviceId = ? AND bucketTs < ?")) {
+                statement.setInt(1, deviceId);
+                statement.setLong(2, MAX_BENCHMARK_TS);
+                statement.executeUpdate();
+                rollupsStatement.setInt(1, deviceId);
+                rollupsStatement.setLong(2, MAX_BENCHMARK_TS);
+                rollupsStatement.executeUpdate();
+            }
+        }
+    }
+
+    @Test
+    public void compareInsertThroughput() {
+        // Warm up the connection pool, statement caches and JIT
+        run("warm-up (single-row)", DeviceInfoInsertBenchmark::saveBySingleRowStatements);
+        run("warm-up (multi-row)", DeviceInfoInsertBenchmark::saveByMultiRowStatements);
+
+        final double singleRow = run("single-row statements", DeviceInfoInsertBenchmark::saveBySingleRowStatements);
+        final double multiRow = run("multi-row statements", DeviceInfoInsertBenchmark::saveByMultiRowStatements);
+        System.out.printf("Speed-up: %.1fx%n", multiRow / singleRow);
+    }
+
+    /**
+     * <p>Saves {@link #UPLOADS} uploads by specified method, one transaction per upload.</p>
+     *
+     * @return a number of inserted rows per second.
+     */
+    private double run(String name, BiConsumer<DeviceInfoMapper, List<DeviceDynamicInfo>> save) {
+        long rows = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < UPLOADS; i++) {
+            final List<DeviceDynamicInfo> upload = createUpload();
+            try (SqlSession session = sqlSessionFactory.openSession(false)) {
+                save.accept(session.getMapper(DeviceInfoMapper.class), upload);
+                session.commit();
+            }
+            // Main record and five groups of parameters
+            rows += upload.size() * 6L;
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        final double rowsPerSecond = rows / seconds;
+        System.out.printf("%s: %d rows in %.2f s, %.0f rows/s%n", name, rows, seconds, rowsPerSecond);
+        return rowsPerSecond;
+    }
+
+    /**
+     * <p>Saves the records the way it was done before the multi-row statements were introduced: the main record and
+     * each group of parameters are inserted by separate statements with the generated key fetched for each record.</p>
+     */
+    private static void saveBySingleRowStatements(DeviceInfoMapper mapper, List<DeviceDynamicInfo> data) {
+        data.forEach(record -> {
+            mapper.insertDeviceInfoMain(record);
+            mapper.insertDeviceInfoGroupDevice(record.getId(), record.getDevice());
+            mapper.insertDeviceInfoGroupWifi(record.getId(), record.getWifi());
+            mapper.insertDeviceInfoGroupGps(record.getId(), record.getGps());
+            mapper.insertDeviceInfoGroupMobile(record.getId(), record.getMobile());
+            mapper.insertDeviceInfoGroupMobile2(record.getId(), record.getMobile2());
+        });
+    }
+
+    private static void saveByMultiRowStatements(DeviceInfoMapper mapper, List<DeviceDynamicInfo> data) {
+        new DeviceInfoDAO(mapper, null, null, null, null).saveDeviceDynamicData(data);
+    }
+
+    private List<DeviceDynamicInfo> createUpload() {
+        final List<DeviceDynamicInfo> records = new ArrayList<>(RECORDS_PER_UPLOAD);
+        for (int i = 0; i < RECORDS_PER_UPLOAD; i++) {
+            final DeviceDynamicInfo record = new DeviceDynamicInfo();
+            record.setDeviceId(deviceId);
+            record.setCustomerId(customerId);
+            record.setTs(i + 1);
+
+            final DeviceData device = new DeviceData();
+            device.setBatteryLevel(80);
+            device.setBatteryCharging("usb");
+            device.setIp("10.0.0.2");
+            device.setWifi(true);
+            device.setMemoryTotal(4096);
+            device.setMemoryAvailable(1024);
+            record.setDevice(device);
+
+            final WifiData wifi = new WifiData();
+            wifi.setRssi(-60);
+            wifi.setSsid("benchmark");
+            wifi.setState("connected");
+            wifi.setTx(1000L);
+            wifi.setRx(2000L);
+            record.setWifi(wifi);
+
+            final GpsData gps = new GpsData();
+            gps.setState("on");
+            gps.setLat(55.75);
+            gps.setLon(37.61);
+            record.setGps(gps);
+
+            final MobileData mobile = new MobileData();
+            mobile.setRssi(-90);
+            mobile.setCarrier("benchmark");
+            mobile.setData(true);
+            mobile.setState("connected");
+            record.setMobile(mobile);
+            record.setMobile2(mobile);
+
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.deviceinfo.persistence;
+
+import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceData;
+import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceDynamicInfo;
+import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceInfoResolution;
+import com.hmdm.plugins.deviceinfo.persistence.domain.DeviceInfoRollup;
+import com.hmdm.plugins.deviceinfo.persistence.domain.WifiData;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * <p>Tests for aggregating the device info records into rollups and picking the rollup resolution.</p>
+ *
+ * @author isv
+ */
+public class DeviceInfoRollupTests {
+
+    private static final long HOUR = 3600 * 1000L;
+
+    @Test
+    public void rollupAggregatesRecordsPerDeviceAndBucket() {
+        final List<DeviceInfoRollup> rollups = DeviceInfoDAO.rollup(Arrays.asList(
+                record(2, HOUR + 1000, 80, -70, 100L),
+                record(1, HOUR + 2000, 50, null, null),
+                record(2, HOUR + 240000, 60, -50, 300L),
+                record(2, HOUR + 300000, null, -40, 200L)
+        ), DeviceInfoResolution.FIVE_MINUTES);
+
+        assertEquals(3, rollups.size());
+
+        assertEquals(1, rollups.get(0).getDeviceId());
+        assertEquals(1, rollups.get(0).getSamples());
+        assertNull(rollups.get(0).getWifiRssi().getMin());
+        assertEquals(0, rollups.get(0).getWifiRssi().getCount());
+
+        final DeviceInfoRollup first = rollups.get(1);
+        assertEquals(2, first.getDeviceId());
+        assertEquals(HOUR, first.getBucketTs());
+        assertEquals(300, first.getBucketSize());
+        assertEquals(2, first.getSamples());
+        assertEquals(Integer.valueOf(60), first.getBatteryLevel().getMin());
+        assertEquals(Integer.valueOf(80), first.getBatteryLevel().getMax());
+        assertEquals(140, first.getBatteryLevel().getSum());
+        assertEquals(2, first.getBatteryLevel().getCount());
+        assertEquals(Integer.valueOf(-70), first.getWifiRssi().getMin());
+        assertEquals(Long.valueOf(300), first.getWifiTx());
+
+        final DeviceInfoRollup second = rollups.get(2);
+        assertEquals(HOUR + 300000, second.getBucketTs());
+        assertEquals(1, second.getSamples());
+        assertEquals(0, second.getBatteryLevel().getCount());
+        assertEquals(Integer.valueOf(-40), second.getWifiRssi().getMax());
+    }
+
+    @Test
+    public void rollupResolutionIsFinestFittingTheRange() {
+        assertEquals(DeviceInfoResolution.FIVE_MINUTES, DeviceInfoDAO.chooseRollupResolution(24 * HOUR, 500));
+        assertEquals(DeviceInfoResolution.HOUR, DeviceInfoDAO.chooseRollupResolution(7 * 24 * HOUR, 500));
+        assertEquals(DeviceInfoResolution.HOUR, DeviceInfoDAO.chooseRollupResolution(365 * 24 * HOUR, 500));
+    }
+
+    private static DeviceDynamicInfo record(int deviceId, long ts, Integer batteryLevel, Integer wifiRssi, Long wifiTx) {
+        final DeviceDynamicInfo record = new DeviceDynamicInfo();
+        record.setDeviceId(deviceId);
+        record.setCustomerId(1);
+        record.setTs(ts);
+
+        final DeviceData device = new DeviceData();
+        device.setBatteryLevel(batteryLevel);
+        record.setDevice(device);
+
+        if (wifiRssi != null) {
+            final WifiData wifi = new WifiData();
+            wifi.setRssi(wifiRssi);
+            wifi.setTx(wifiTx);
+            record.setWifi(wifi);
+        }
+        return record;
+    }
+}
@@ -24,6 +24,7 @@ package com.hmdm.plugins.devicelog;
 import com.google.inject.Module;
 import com.hmdm.plugin.PluginConfiguration;
 import com.hmdm.plugin.PluginTaskModule;
+import com.hmdm.plugins.devicelog.guice.module.DeviceLogConfigureModule;
 import com.hmdm.plugins.devicelog.guice.module.DeviceLogLiquibaseModule;
 import com.hmdm.plugins.devicelog.guice.module.DeviceLogRestModule;
 import com.hmdm.plugins.devicelog.guice.module.DeviceLogTaskModule;
@@ -82,6 +83,7 @@ public class DeviceLogPluginConfigurationImpl implements PluginConfiguration {
             List<Module> modules = new ArrayList<>();
 
             modules.add(new DeviceLogLiquibaseModule(context));
+            modules.add(new DeviceLogConfigureModule(context));
 
             final String configClass = context.getInitParameter("plugin.devicelog.persistence.config.class");
             if (configClass != null && !configClass.trim().isEmpty()) {
@@ -0,0 +1,90 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.guice.module;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.name.Names;
+
+import javax.servlet.ServletContext;
+
+/**
+ * <p>A module binding the configuration parameters of the <code>Device Log</code> plugin set in context.</p>
+ *
+ * @author isv
+ */
+public class DeviceLogConfigureModule extends AbstractModule {
+
+    /**
+     * <p>A flag indicating if identical log records uploaded by a device are collapsed into one (default: on).</p>
+     */
+    public static final String DEDUPLICATION_PARAMETER = "plugin.devicelog.deduplication";
+
+    /**
+     * <p>A max number of log records accepted from a single device per minute (default: 0, unlimited).</p>
+     */
+    public static final String DEVICE_RATE_LIMIT_PARAMETER = "plugin.devicelog.device.rate.limit";
+
+    /**
+     * <p>A sampling ratio for the log records exceeding the per-device rate limit: one of that many records is kept
+     * (default: 100).</p>
+     */
+    public static final String DEVICE_RATE_SAMPLING_PARAMETER = "plugin.devicelog.device.rate.sampling";
+
+    /**
+     * <p>A context for module usage.</p>
+     */
+    private final ServletContext context;
+
+    /**
+     * <p>Constructs new <code>DeviceLogConfigureModule</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceLogConfigureModule(ServletContext context) {
+        this.context = context;
+    }
+
+    /**
+     * <p>Binds the configuration parameters to values set in context or to default values.</p>
+     */
+    @Override
+    protected void configure() {
+        final String deduplication = this.context.getInitParameter(DEDUPLICATION_PARAMETER);
+        this.bindConstant().annotatedWith(Names.named(DEDUPLICATION_PARAMETER)).to(
+                deduplication == null || deduplication.equals("1") || deduplication.equalsIgnoreCase("true")
+        );
+        this.bindConstant().annotatedWith(Names.named(DEVICE_RATE_LIMIT_PARAMETER))
+                .to(getIntParameter(DEVICE_RATE_LIMIT_PARAMETER, 0));
+        this.bindConstant().annotatedWith(Names.named(DEVICE_RATE_SAMPLING_PARAMETER))
+                .to(Math.max(1, getIntParameter(DEVICE_RATE_SAMPLING_PARAMETER, 100)));
+    }
+
+    private int getIntParameter(String name, int defaultValue) {
+        final String value = this.context.getInitParameter(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value of " + name + " parameter: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.plugins.devicelog.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.io.Serializable;
+
+/**
+ * <p>A single point of device location history.</p>
+ *
+ * @author isv
+ */
+@ApiModel(description = "A single point of device location history")
+public class DeviceLocationPoint implements Serializable {
+
+    private static final long serialVersionUID = -3158930347736482193L;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ApiModelProperty(hidden = true)
+    @JsonIgnore
+    private int customerId;
+
+    @ApiModelProperty("An ID of a device")
+    private int deviceId;
+
+    @ApiModelProperty("A device identifier")
+    private String deviceNumber;
+
+    @ApiModelProperty("A timestamp of the location (in milliseconds since epoch time)")
+    private long createTime;
+
+    @ApiModelProperty("A latitude coordinate")
+    private double lat;
+
+    @ApiModelProperty("A longitude coordinate")
+    private double lon;
+
+    @ApiModelProperty("An accuracy of the location (in meters)")
+    private Float accuracy;
+
+    /**
+     * <p>Constructs new <code>DeviceLocationPoint</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceLocationPoint() {
+    }
+
+    /**
+     * <p>Parses the location point from the message of log record with {@link LogLevel#LOCATION} severity. Such
+     * messages are JSON objects having <code>latitude</code>, <code>longitude</code> and optional
+     * <code>accuracy</code> properties.</p>
+     *
+     * @param customerId an ID of a customer account the device belongs to.
+     * @param deviceId an ID of a device.
+     * @param createTime a timestamp of log record.
+     * @param message a message of log record.
+     * @return a location point or <code>null</code> if message does not contain valid coordinates.
+     */
+    public static DeviceLocationPoint fromLogMessage(int customerId, int deviceId, Long createTime, String message) {
+        if (createTime == null || message == null) {
+            return null;
+        }
+        try {
+            final JsonNode json = objectMapper.readTree(message);
+            final JsonNode lat = json.get("latitude");
+            final JsonNode lon = json.get("longitude");
+            if (lat == null || lon == null || !lat.isNumber() || !lon.isNumber()
+                    || Math.abs(lat.asDouble()) > 90 || Math.abs(lon.asDouble()) > 180) {
+                return null;
+            }
+
+            final DeviceLocationPoint point = new DeviceLocationPoint();
+            point.setCustomerId(customerId);
+            point.setDeviceId(deviceId);
+            point.setCreateTime(createTime);
+            point.setLat(lat.asDouble());
+            point.setLon(lon.asDouble());
+            final JsonNode accuracy = json.get("accuracy");
+            if (accuracy != null && accuracy.isNumber()) {
+                point.setAccuracy((float) accuracy.asDouble());
+            }
+            return point;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+
+    public int getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(int deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getDeviceNumber() {
+        return deviceNumber;
+    }
+
+    public void setDeviceNumber(String deviceNumber) {
+        this.deviceNumber = deviceNumber;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(long createTime) {
+        this.createTime = createTime;
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public void setLat(double lat) {
+        this.lat = lat;
+    }
+
+    public double getLon() {
+        return lon;
+    }
+
+    public void setLon(double lon) {
+        this.lon = lon;
+    }
+
+    public Float getAccuracy() {
+        return accuracy;
+    }
+
+    public void setAccuracy(Float accuracy) {
+        this.accuracy = accuracy;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceLocationPoint{" +
+                "deviceId=" + deviceId +
+                ", createTime=" + createTime +
+                ", lat=" + lat +
+                ", lon=" + lon +
+                ", accuracy=" + accuracy +
+                '}';
+    }
+}
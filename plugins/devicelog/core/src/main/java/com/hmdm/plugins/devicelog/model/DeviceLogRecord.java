@@ -57,6 +57,12 @@ public abstract class DeviceLogRecord implements Serializable {
     @ApiModelProperty("A package ID for application")
     private String applicationPkg;
 
+    @ApiModelProperty("A number of identical records collapsed into this one")
+    private int repeatCount = 1;
+
+    @ApiModelProperty("A timestamp of the last of collapsed records (in milliseconds since epoch time)")
+    private Long lastTime;
+
     /**
      * <p>Constructs new <code>DeviceLogRecord</code> instance. This implementation does nothing.</p>
      */
@@ -140,6 +146,22 @@ public abstract class DeviceLogRecord implements Serializable {
         this.applicationPkg = applicationPkg;
     }
 
+    public int getRepeatCount() {
+        return repeatCount;
+    }
+
+    public void setRepeatCount(int repeatCount) {
+        this.repeatCount = repeatCount;
+    }
+
+    public Long getLastTime() {
+        return lastTime;
+    }
+
+    public void setLastTime(Long lastTime) {
+        this.lastTime = lastTime;
+    }
+
     /**
      * <p>Gets the unique identifier for this record within underlying persistence layer.</p>
      *
@@ -158,6 +180,7 @@ public abstract class DeviceLogRecord implements Serializable {
                 ", message='" + message + '\'' +
                 ", deviceNumber='" + deviceNumber + '\'' +
                 ", applicationPkg='" + applicationPkg + '\'' +
+                ", repeatCount=" + repeatCount +
                 '}';
     }
 }
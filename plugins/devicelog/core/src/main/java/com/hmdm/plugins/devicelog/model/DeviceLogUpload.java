@@ -0,0 +1,101 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.plugins.devicelog.model;
+
+import com.hmdm.plugins.devicelog.rest.json.UploadedDeviceLogRecord;
+
+import java.util.List;
+
+/**
+ * <p>A batch of log records uploaded by a single device and queued for saving to persistent data store.</p>
+ *
+ * @author isv
+ */
+public class DeviceLogUpload {
+
+    /**
+     * <p>An ID of a device which have uploaded the log records.</p>
+     */
+    private final int deviceId;
+
+    /**
+     * <p>An ID of a customer account which the device belongs to.</p>
+     */
+    private final int customerId;
+
+    /**
+     * <p>An identifier of a device which have uploaded the log records.</p>
+     */
+    private final String deviceNumber;
+
+    /**
+     * <p>An IP-address of a device which have uploaded the log records.</p>
+     */
+    private final String ipAddress;
+
+    /**
+     * <p>A list of uploaded log records.</p>
+     */
+    private final List<UploadedDeviceLogRecord> logs;
+
+    /**
+     * <p>Constructs new <code>DeviceLogUpload</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceLogUpload(int deviceId, int customerId, String deviceNumber, String ipAddress,
+                           List<UploadedDeviceLogRecord> logs) {
+        this.deviceId = deviceId;
+        this.customerId = customerId;
+        this.deviceNumber = deviceNumber;
+        this.ipAddress = ipAddress;
+        this.logs = logs;
+    }
+
+    public int getDeviceId() {
+        return deviceId;
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public String getDeviceNumber() {
+        return deviceNumber;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public List<UploadedDeviceLogRecord> getLogs() {
+        return logs;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceLogUpload{" +
+                "deviceNumber='" + deviceNumber + '\'' +
+                ", ipAddress='" + ipAddress + '\'' +
+                ", records=" + logs.size() +
+                '}';
+    }
+}
@@ -85,4 +85,19 @@ public enum LogLevel {
     public static Optional<LogLevel> byId(int id) {
         return Optional.ofNullable(lookupMap.get(id));
     }
+
+    /**
+     * <p>Gets the log level for the log record uploaded by device. The messages carrying the location data (latitude
+     * and longitude) are tagged with {@link #LOCATION} level regardless of the level reported by device.</p>
+     *
+     * @param message a message of the log record.
+     * @param logLevel an ID of log level reported by device.
+     * @return a log level for the record.
+     */
+    public static LogLevel forUploadedRecord(String message, int logLevel) {
+        if (message != null && message.contains("\"latitude\"") && message.contains("\"longitude\"")) {
+            return LOCATION;
+        }
+        return byId(logLevel).orElse(NONE);
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.plugins.devicelog.persistence;
+
+import com.hmdm.plugins.devicelog.model.DeviceLocationPoint;
+
+import java.util.List;
+
+/**
+ * <p>An interface for DAO to be used for managing the device location history in persistence layer.</p>
+ *
+ * @author isv
+ */
+public interface DeviceLocationDAO {
+
+    /**
+     * <p>Inserts the specified location points into underlying persistent data store. No security checks are
+     * applied.</p>
+     *
+     * @param points a list of location points to be inserted.
+     */
+    void insertLocationPoints(List<DeviceLocationPoint> points);
+
+    /**
+     * <p>Gets the location history of specified device available to current user.</p>
+     *
+     * @param deviceId an ID of a device.
+     * @param from a start of the time range (in milliseconds since epoch time, inclusive).
+     * @param to an end of the time range (in milliseconds since epoch time, inclusive).
+     * @param limit a max number of points to be returned.
+     * @return a list of location points ordered by time.
+     */
+    List<DeviceLocationPoint> getDeviceTrack(int deviceId, long from, long to, int limit);
+
+    /**
+     * <p>Finds the location points of devices available to current user within specified area and time range.</p>
+     *
+     * @param minLat a min latitude of the area.
+     * @param minLon a min longitude of the area.
+     * @param maxLat a max latitude of the area.
+     * @param maxLon a max longitude of the area.
+     * @param from a start of the time range (in milliseconds since epoch time, inclusive).
+     * @param to an end of the time range (in milliseconds since epoch time, inclusive).
+     * @param limit a max number of points to be returned.
+     * @return a list of location points, the latest first.
+     */
+    List<DeviceLocationPoint> findInArea(double minLat, double minLon, double maxLat, double maxLon,
+                                         long from, long to, int limit);
+}
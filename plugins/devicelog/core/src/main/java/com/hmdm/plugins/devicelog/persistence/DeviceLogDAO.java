@@ -22,11 +22,13 @@
 package com.hmdm.plugins.devicelog.persistence;
 
 import com.hmdm.plugins.devicelog.model.DeviceLogRecord;
+import com.hmdm.plugins.devicelog.model.DeviceLogUpload;
 import com.hmdm.plugins.devicelog.rest.json.AppliedDeviceLogRule;
 import com.hmdm.plugins.devicelog.rest.json.DeviceLogFilter;
 import com.hmdm.plugins.devicelog.rest.json.UploadedDeviceLogRecord;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * <p>An interface for DAO to be used for managing the device log records in persistence layer.</p>
@@ -43,6 +45,24 @@ public interface DeviceLogDAO {
      */
     List<DeviceLogRecord> findAll(DeviceLogFilter filter);
 
+    /**
+     * <p>Passes all log records matching the specified filter to specified consumer in order of export. The paging
+     * parameters of the filter are ignored. The default implementation retrieves the records page by page.</p>
+     *
+     * @param filter a filter used to narrowing down the search results.
+     * @param consumer a consumer of found log records.
+     */
+    default void exportAll(DeviceLogFilter filter, Consumer<DeviceLogRecord> consumer) {
+        filter.setExport(true);
+        filter.setPageNum(1);
+        List<DeviceLogRecord> records = findAll(filter);
+        while (!records.isEmpty()) {
+            records.forEach(consumer);
+            filter.setPageNum(filter.getPageNum() + 1);
+            records = findAll(filter);
+        }
+    }
+
     /**
      * <p>Counts the log records matching the specified filter.</p>
      *
@@ -61,6 +81,22 @@ public interface DeviceLogDAO {
      */
     int insertDeviceLogRecords(String deviceNumber, String ipAddress, List<UploadedDeviceLogRecord> logs);
 
+    /**
+     * <p>Inserts the log records uploaded by several devices into underlying persistent data store. The default
+     * implementation inserts the uploads one by one; implementations are expected to write the whole batch at
+     * once.</p>
+     *
+     * @param uploads a list of uploads collected by ingestion queue.
+     * @return a number of log records inserted into underlying persistent store.
+     */
+    default int insertDeviceLogUploads(List<DeviceLogUpload> uploads) {
+        int count = 0;
+        for (DeviceLogUpload upload : uploads) {
+            count += insertDeviceLogRecords(upload.getDeviceNumber(), upload.getIpAddress(), upload.getLogs());
+        }
+        return count;
+    }
+
     /**
      * <p>Gets the list of log rules applicable to specified device.</p>
      *
@@ -51,6 +51,19 @@ public class DeviceLogFilter implements Serializable {
     @ApiModelProperty("A number of page of data to be retrieved (1-based)")
     private int pageNum = 1;
 
+    /**
+     * <p>A creation time of the last record of previous page. If set along with {@link #afterId} and records are
+     * sorted by creation time, the page following that record is retrieved regardless of page number.</p>
+     */
+    @ApiModelProperty("A creation time of the last record of previous page (for sorting by createTime only)")
+    private Long afterCreateTime;
+
+    /**
+     * <p>An ID of the last record of previous page.</p>
+     */
+    @ApiModelProperty("An ID of the last record of previous page (for sorting by createTime only)")
+    private Integer afterId;
+
     /**
      * <p>A filter used for filtering the data records by device.</p>
      */
@@ -139,6 +152,22 @@ public class DeviceLogFilter implements Serializable {
         this.pageNum = pageNum;
     }
 
+    public Long getAfterCreateTime() {
+        return afterCreateTime;
+    }
+
+    public void setAfterCreateTime(Long afterCreateTime) {
+        this.afterCreateTime = afterCreateTime;
+    }
+
+    public Integer getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(Integer afterId) {
+        this.afterId = afterId;
+    }
+
     public Date getDateFrom() {
         return dateFrom;
     }
@@ -249,6 +278,8 @@ public class DeviceLogFilter implements Serializable {
         return "DeviceLogFilter{" +
                 "pageSize=" + pageSize +
                 ", pageNum=" + pageNum +
+                ", afterCreateTime=" + afterCreateTime +
+                ", afterId=" + afterId +
                 ", deviceFilter='" + deviceFilter + '\'' +
                 ", messageFilter='" + messageFilter + '\'' +
                 ", dateFrom=" + dateFrom +
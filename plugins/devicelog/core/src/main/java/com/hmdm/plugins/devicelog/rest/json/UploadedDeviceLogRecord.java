@@ -21,6 +21,7 @@
 
 package com.hmdm.plugins.devicelog.rest.json;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModelProperty;
 
 import java.io.Serializable;
@@ -45,6 +46,18 @@ public class UploadedDeviceLogRecord implements Serializable {
     @ApiModelProperty("A message for log record")
     private String message;
 
+    /**
+     * <p>A number of identical records collapsed into this one upon ingestion.</p>
+     */
+    @JsonIgnore
+    private int repeatCount = 1;
+
+    /**
+     * <p>A timestamp of the last of collapsed records or <code>null</code> if this record is not collapsed.</p>
+     */
+    @JsonIgnore
+    private Long lastTimestamp;
+
     /**
      * <p>Constructs new <code>UploadedDeviceLogRecord</code> instance. This implementation does nothing.</p>
      */
@@ -83,6 +96,22 @@ public class UploadedDeviceLogRecord implements Serializable {
         this.message = message;
     }
 
+    public int getRepeatCount() {
+        return repeatCount;
+    }
+
+    public void setRepeatCount(int repeatCount) {
+        this.repeatCount = repeatCount;
+    }
+
+    public Long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public void setLastTimestamp(Long lastTimestamp) {
+        this.lastTimestamp = lastTimestamp;
+    }
+
     @Override
     public String toString() {
         return "UploadedDeviceLogRecord{" +
@@ -90,6 +119,7 @@ public class UploadedDeviceLogRecord implements Serializable {
                 ", packageId='" + packageId + '\'' +
                 ", logLevel=" + logLevel +
                 ", message='" + message + '\'' +
+                ", repeatCount=" + repeatCount +
                 '}';
     }
 }
@@ -33,6 +33,7 @@ import com.hmdm.persistence.domain.DeviceSearchRequest;
 import com.hmdm.plugins.devicelog.model.DeviceLogPluginSettings;
 import com.hmdm.plugins.devicelog.model.DeviceLogRule;
 import com.hmdm.plugins.devicelog.persistence.DeviceLogPluginSettingsDAO;
+import com.hmdm.plugins.devicelog.service.DeviceLogRulesCache;
 import com.hmdm.plugins.devicelog.rest.json.DeviceLogFilter;
 import com.hmdm.rest.json.LookupItem;
 import com.hmdm.rest.json.Response;
@@ -84,6 +85,8 @@ public class DeviceLogPluginSettingsResource {
 
     private PushService pushService;
 
+    private DeviceLogRulesCache rulesCache;
+
     /**
      * <p>A constructor required by Swagger.</p>
      */
@@ -96,8 +99,10 @@ public class DeviceLogPluginSettingsResource {
     @Inject
     public DeviceLogPluginSettingsResource(DeviceLogPluginSettingsDAO settingsDAO,
                                            DeviceDAO deviceDAO,
-                                           PushService pushService) {
+                                           PushService pushService,
+                                           DeviceLogRulesCache rulesCache) {
         this.settingsDAO = settingsDAO;
+        this.rulesCache = rulesCache;
         this.deviceDAO = deviceDAO;
         this.pushService = pushService;
     }
@@ -168,6 +173,7 @@ public class DeviceLogPluginSettingsResource {
             } else {
                 this.settingsDAO.updatePluginSettings(settings);
             }
+            invalidateRulesCache();
 
             return Response.OK();
         } catch (Exception e) {
@@ -195,6 +201,7 @@ public class DeviceLogPluginSettingsResource {
             DeviceLogRule rule = mapper.readValue(ruleJSON, this.settingsDAO.getSettingsRuleClass());
 
             this.settingsDAO.savePluginSettingsRule(rule);
+            invalidateRulesCache();
             notifyRuleDevices(rule);
 
             return Response.OK();
@@ -221,6 +228,7 @@ public class DeviceLogPluginSettingsResource {
             DeviceLogRule rule = this.settingsDAO.getPluginSettingsRuleById(id);
             if (rule != null) {
                 this.settingsDAO.deletePluginSettingRule(id);
+                invalidateRulesCache();
                 notifyRuleDevices(rule);
             }
             return Response.OK();
@@ -233,6 +241,10 @@ public class DeviceLogPluginSettingsResource {
         }
     }
 
+    private void invalidateRulesCache() {
+        SecurityContext.get().getCurrentUser().ifPresent(user -> this.rulesCache.invalidate(user.getCustomerId()));
+    }
+
     private void notifyRuleDevices(DeviceLogRule rule) {
         if (rule.getDevices() != null && rule.getDevices().size() > 0) {
             for (LookupItem item : rule.getDevices()) {
@@ -26,13 +26,17 @@ import javax.inject.Singleton;
 import com.hmdm.persistence.UnsecureDAO;
 import com.hmdm.persistence.domain.Device;
 import com.hmdm.plugin.service.PluginStatusCache;
+import com.hmdm.plugins.devicelog.model.DeviceLocationPoint;
 import com.hmdm.plugins.devicelog.model.DeviceLogRecord;
+import com.hmdm.plugins.devicelog.model.DeviceLogUpload;
 import com.hmdm.plugins.devicelog.model.LogLevel;
+import com.hmdm.plugins.devicelog.persistence.DeviceLocationDAO;
 import com.hmdm.plugins.devicelog.persistence.DeviceLogDAO;
 import com.hmdm.plugins.devicelog.rest.json.AppliedDeviceLogRule;
 import com.hmdm.plugins.devicelog.rest.json.DeviceLogFilter;
 import com.hmdm.plugins.devicelog.rest.json.UploadedDeviceLogRecord;
-import com.hmdm.plugins.devicelog.task.InsertDeviceLogRecordsTask;
+import com.hmdm.plugins.devicelog.service.DeviceLogIngestionService;
+import com.hmdm.plugins.devicelog.service.DeviceLogRulesCache;
 import com.hmdm.rest.json.PaginatedData;
 import com.hmdm.rest.json.Response;
 import com.hmdm.security.SecurityContext;
@@ -52,17 +56,21 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hmdm.plugins.devicelog.DeviceLogPluginConfigurationImpl.PLUGIN_ID;
 
@@ -79,8 +87,20 @@ public class DeviceLogResource {
     // A logging service
     private static final Logger logger  = LoggerFactory.getLogger(DeviceLogResource.class);
 
-    // An executor for the log recrods upload tasks
-    private final ExecutorService executor = Executors.newFixedThreadPool(5);
+    /**
+     * <p>A delay (in seconds) suggested to devices for retrying the rejected uploads.</p>
+     */
+    private static final int UPLOAD_RETRY_DELAY = 60;
+
+    /**
+     * <p>A default time range (in milliseconds) for location queries.</p>
+     */
+    private static final long DEFAULT_LOCATION_PERIOD = 24 * 3600 * 1000L;
+
+    /**
+     * <p>A max number of location points returned by single request.</p>
+     */
+    private static final int MAX_LOCATION_POINTS = 10000;
 
     /**
      * <p>An interface to device log records persistence layer.</p>
@@ -89,6 +109,21 @@ public class DeviceLogResource {
 
     private PluginStatusCache pluginStatusCache;
 
+    /**
+     * <p>A queue of uploaded log records to be saved.</p>
+     */
+    private DeviceLogIngestionService ingestionService;
+
+    /**
+     * <p>An interface to device location history persistence layer.</p>
+     */
+    private DeviceLocationDAO locationDAO;
+
+    /**
+     * <p>A cache of log rules resolved for devices.</p>
+     */
+    private DeviceLogRulesCache rulesCache;
+
     /**
      * <p>An interface to persistence without security checks.</p>
      */
@@ -107,10 +142,16 @@ public class DeviceLogResource {
     @Inject
     public DeviceLogResource(DeviceLogDAO deviceLogDAO,
                              PluginStatusCache pluginStatusCache,
-                             UnsecureDAO unsecureDAO) {
+                             UnsecureDAO unsecureDAO,
+                             DeviceLogIngestionService ingestionService,
+                             DeviceLocationDAO locationDAO,
+                             DeviceLogRulesCache rulesCache) {
         this.deviceLogDAO = deviceLogDAO;
         this.pluginStatusCache = pluginStatusCache;
         this.unsecureDAO = unsecureDAO;
+        this.ingestionService = ingestionService;
+        this.locationDAO = locationDAO;
+        this.rulesCache = rulesCache;
     }
 
     /**
@@ -161,51 +202,29 @@ public class DeviceLogResource {
             return javax.ws.rs.core.Response.serverError().status(403).build();
         }
 
-        filter.setPageNum(1);
-        filter.setExport(true);
-
         ContentDisposition contentDisposition = ContentDisposition.type("attachment").fileName("logs.csv").creationDate(new Date()).build();
 
         DateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss.SSS");
 
-        AtomicBoolean stop = new AtomicBoolean(false);
-
-
         return javax.ws.rs.core.Response.ok( (StreamingOutput) output -> {
+            final Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
             try {
-                List<DeviceLogRecord> records = this.deviceLogDAO.findAll(filter);
-                while (!stop.get() && !records.isEmpty()) {
-                    records.forEach(log -> {
-                        StringBuilder b = new StringBuilder();
-                        b.append(log.getDeviceNumber());
-                        b.append(",");
-                        b.append(dateFormat.format(new Date(log.getCreateTime())));
-                        b.append(",");
-                        b.append(log.getApplicationPkg());
-                        b.append(",");
-                        b.append(log.getSeverity());
-                        b.append(",");
-                        b.append(log.getMessage());
-                        b.append('\n');
-
-                        try {
-                            output.write(b.toString().getBytes());
-                        } catch (IOException e) {
-                            logger.error("Failed to write log record {} to output stream. Stopping to export the " +
-                                    "further log records.", log, e);
-                            stop.set(true);
-                        }
-                    });
-
-                    output.flush();
-
-                    if (!stop.get()) {
-                        filter.setPageNum(filter.getPageNum() + 1);
-                        records = this.deviceLogDAO.findAll(filter);
+                this.deviceLogDAO.exportAll(filter, log -> {
+                    try {
+                        writer.write(log.getDeviceNumber() + "," +
+                                dateFormat.format(new Date(log.getCreateTime())) + "," +
+                                log.getApplicationPkg() + "," +
+                                log.getSeverity() + "," +
+                                log.getMessage() + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
                     }
-                }
+                });
 
-                output.flush();
+                writer.flush();
+            } catch (UncheckedIOException e) {
+                logger.error("Failed to write log records to output stream. Stopping to export the further log " +
+                        "records.", e.getCause());
             } catch ( Exception e ) {
                 logger.error("Failed to export the device log records due to unexpected error. Filter: {}", filter, e);
             }
@@ -218,41 +237,50 @@ public class DeviceLogResource {
 
     @ApiOperation(
             value = "Upload logs",
-            notes = "Uploads the list of log records from device to server",
+            notes = "Uploads the list of log records from device to server. Responds with HTTP 429 status if " +
+                    "the server is overloaded and the upload must be retried later.",
             response = Response.class
     )
     @POST
     @Path("/list/{deviceNumber}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response uploadLogs(@PathParam("deviceNumber") String deviceNumber,
-                               List<UploadedDeviceLogRecord> logs,
-                               @Context HttpServletRequest httpRequest) {
+    public javax.ws.rs.core.Response uploadLogs(@PathParam("deviceNumber") String deviceNumber,
+                                                List<UploadedDeviceLogRecord> logs,
+                                                @Context HttpServletRequest httpRequest) {
         logger.debug("#uploadLogs: {} => {}", deviceNumber, logs);
         try {
             final Device dbDevice = this.unsecureDAO.getDeviceByNumber(deviceNumber);
             if (dbDevice == null) {
                 logger.error("Device {} was not found", deviceNumber);
-                return Response.DEVICE_NOT_FOUND_ERROR();
+                return javax.ws.rs.core.Response.ok(Response.DEVICE_NOT_FOUND_ERROR()).build();
             }
 
             SecurityContext.init(dbDevice.getCustomerId());
             try {
                 if (this.pluginStatusCache.isPluginDisabled(PLUGIN_ID)) {
                     logger.error("Rejecting request from device {} due to disabled plugin", deviceNumber);
-                    return Response.PLUGIN_DISABLED();
+                    return javax.ws.rs.core.Response.ok(Response.PLUGIN_DISABLED()).build();
                 }
 
-                this.executor.submit(
-                        new InsertDeviceLogRecordsTask(deviceNumber, httpRequest.getRemoteAddr(), logs, this.deviceLogDAO)
-                );
-                return Response.OK();
+                final DeviceLogUpload upload = new DeviceLogUpload(dbDevice.getId(), dbDevice.getCustomerId(),
+                        deviceNumber, httpRequest.getRemoteAddr(), logs == null ? new ArrayList<>() : logs);
+                if (!this.ingestionService.offer(upload)) {
+                    logger.warn("Rejecting {} log records from device {}: the ingestion queue is full",
+                            upload.getLogs().size(), deviceNumber);
+                    return javax.ws.rs.core.Response.status(429)
+                            .header("Retry-After", UPLOAD_RETRY_DELAY)
+                            .entity(Response.ERROR("error.devicelog.queue.full"))
+                            .type(MediaType.APPLICATION_JSON)
+                            .build();
+                }
+                return javax.ws.rs.core.Response.ok(Response.OK()).build();
             } finally {
                 SecurityContext.release();
             }
         } catch (Exception e) {
             logger.error("Unexpected error when handling uploaded log records", e);
-            return Response.INTERNAL_ERROR();
+            return javax.ws.rs.core.Response.ok(Response.INTERNAL_ERROR()).build();
         }
     }
 
@@ -281,7 +309,7 @@ public class DeviceLogResource {
                     return Response.PLUGIN_DISABLED();
                 }
 
-                final List<AppliedDeviceLogRule> deviceLogRules = this.deviceLogDAO.getDeviceLogRules(deviceNumber);
+                final List<AppliedDeviceLogRule> deviceLogRules = this.rulesCache.getDeviceLogRules(dbDevice);
                 logger.debug("#getDeviceLogRules: {} => {}", deviceNumber, deviceLogRules);
                 return Response.OK(deviceLogRules);
             } finally {
@@ -337,4 +365,76 @@ public class DeviceLogResource {
         }
     }
 
+    @ApiOperation(
+            value = "Get device location track",
+            notes = "Gets the location history of a device for specified time range (last 24 hours by default)",
+            response = DeviceLocationPoint.class,
+            responseContainer = "List",
+            authorizations = {@Authorization("Bearer Token")}
+    )
+    @GET
+    @Path("/private/location/device/{deviceId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getDeviceTrack(@PathParam("deviceId") int deviceId,
+                                   @QueryParam("from") Long from,
+                                   @QueryParam("to") Long to,
+                                   @QueryParam("limit") Integer limit) {
+        if (!SecurityContext.get().hasPermission("plugin_devicelog_access")) {
+            logger.error("Unauthorized attempt to get device location track by user " +
+                    SecurityContext.get().getCurrentUserName());
+            return Response.PERMISSION_DENIED();
+        }
+        try {
+            final long timeTo = to == null ? System.currentTimeMillis() : to;
+            final long timeFrom = from == null ? timeTo - DEFAULT_LOCATION_PERIOD : from;
+            return Response.OK(this.locationDAO.getDeviceTrack(deviceId, timeFrom, timeTo, locationLimit(limit)));
+        } catch (Exception e) {
+            logger.error("Failed to get location track for device {} due to unexpected error", deviceId, e);
+            return Response.INTERNAL_ERROR();
+        }
+    }
+
+    @ApiOperation(
+            value = "Find device locations in area",
+            notes = "Gets the location points of devices within specified area and time range (last 24 hours by " +
+                    "default)",
+            response = DeviceLocationPoint.class,
+            responseContainer = "List",
+            authorizations = {@Authorization("Bearer Token")}
+    )
+    @GET
+    @Path("/private/location/area")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response findLocationsInArea(@QueryParam("minLat") Double minLat,
+                                        @QueryParam("minLon") Double minLon,
+                                        @QueryParam("maxLat") Double maxLat,
+                                        @QueryParam("maxLon") Double maxLon,
+                                        @QueryParam("from") Long from,
+                                        @QueryParam("to") Long to,
+                                        @QueryParam("limit") Integer limit) {
+        if (!SecurityContext.get().hasPermission("plugin_devicelog_access")) {
+            logger.error("Unauthorized attempt to find device locations by user " +
+                    SecurityContext.get().getCurrentUserName());
+            return Response.PERMISSION_DENIED();
+        }
+        if (minLat == null || minLon == null || maxLat == null || maxLon == null) {
+            return Response.ERROR("error.params.missing");
+        }
+        try {
+            final long timeTo = to == null ? System.currentTimeMillis() : to;
+            final long timeFrom = from == null ? timeTo - DEFAULT_LOCATION_PERIOD : from;
+            return Response.OK(this.locationDAO.findInArea(
+                    Math.min(minLat, maxLat), Math.min(minLon, maxLon), Math.max(minLat, maxLat), Math.max(minLon, maxLon),
+                    timeFrom, timeTo, locationLimit(limit)
+            ));
+        } catch (Exception e) {
+            logger.error("Failed to find device locations in area due to unexpected error", e);
+            return Response.INTERNAL_ERROR();
+        }
+    }
+
+    private static int locationLimit(Integer limit) {
+        return limit == null || limit <= 0 ? MAX_LOCATION_POINTS : Math.min(limit, MAX_LOCATION_POINTS);
+    }
+
 }
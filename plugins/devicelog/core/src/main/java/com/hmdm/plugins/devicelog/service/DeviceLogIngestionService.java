@@ -0,0 +1,179 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.plugins.devicelog.service;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hmdm.plugins.devicelog.model.DeviceLogUpload;
+import com.hmdm.plugins.devicelog.persistence.DeviceLogDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A queue of the log records uploaded by devices which are waiting for being saved to persistent data store.</p>
+ *
+ * <p>The uploads are accepted into a queue bounded by the total number of log records and are written by a single
+ * flusher thread which groups the records of many devices into one write once either {@link #BATCH_SIZE} records are
+ * collected or {@link #FLUSH_INTERVAL} has passed since the first record of the batch was queued. The batch is reduced
+ * by {@link DeviceLogUploadReducer} before being written. The uploads are rejected when the queue is full so the
+ * devices could retry them later.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class DeviceLogIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceLogIngestionService.class);
+
+    /**
+     * <p>A max number of log records waiting in the queue.</p>
+     */
+    private static final int QUEUE_CAPACITY = 200000;
+
+    /**
+     * <p>A number of log records to be written at once.</p>
+     */
+    private static final int BATCH_SIZE = 5000;
+
+    /**
+     * <p>A max period of time (in milliseconds) for queued records to wait for the write.</p>
+     */
+    private static final long FLUSH_INTERVAL = 1000;
+
+    private final DeviceLogDAO deviceLogDAO;
+
+    private final DeviceLogUploadReducer reducer;
+
+    private final LinkedBlockingQueue<DeviceLogUpload> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * <p>A number of log records in the queue.</p>
+     */
+    private final AtomicInteger queuedRecords = new AtomicInteger();
+
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    /**
+     * <p>Constructs new <code>DeviceLogIngestionService</code> instance. Starts the flusher thread.</p>
+     */
+    @Inject
+    public DeviceLogIngestionService(DeviceLogDAO deviceLogDAO, DeviceLogUploadReducer reducer) {
+        this.deviceLogDAO = deviceLogDAO;
+        this.reducer = reducer;
+        this.flusher = new Thread(this::flushLoop, "devicelog-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown));
+    }
+
+    /**
+     * <p>Queues the specified upload for saving.</p>
+     *
+     * @param upload an upload to save.
+     * @return <code>true</code> if upload has been queued; <code>false</code> if queue is full.
+     */
+    public boolean offer(DeviceLogUpload upload) {
+        final int size = upload.getLogs().size();
+        if (size == 0) {
+            return true;
+        }
+        if (queuedRecords.addAndGet(size) > QUEUE_CAPACITY) {
+            queuedRecords.addAndGet(-size);
+            return false;
+        }
+        queue.add(upload);
+        return true;
+    }
+
+    public int getQueuedRecords() {
+        return queuedRecords.get();
+    }
+
+    private void flushLoop() {
+        final List<DeviceLogUpload> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                DeviceLogUpload upload = queue.poll(FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+                if (upload == null) {
+                    continue;
+                }
+
+                int records = add(batch, upload);
+                final long deadline = System.currentTimeMillis() + FLUSH_INTERVAL;
+                long wait;
+                while (records < BATCH_SIZE && (wait = deadline - System.currentTimeMillis()) > 0) {
+                    upload = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (upload == null) {
+                        break;
+                    }
+                    records += add(batch, upload);
+                }
+
+                flush(batch, records);
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) {
+                    flush(batch, batch.stream().mapToInt(u -> u.getLogs().size()).sum());
+                }
+            } catch (Exception e) {
+                logger.error("Unexpected error in device log flusher", e);
+            }
+        }
+    }
+
+    private int add(List<DeviceLogUpload> batch, DeviceLogUpload upload) {
+        batch.add(upload);
+        return upload.getLogs().size();
+    }
+
+    private void flush(List<DeviceLogUpload> batch, int records) {
+        try {
+            final long start = System.currentTimeMillis();
+            final int inserted = this.deviceLogDAO.insertDeviceLogUploads(this.reducer.reduce(batch));
+            logger.debug("Inserted {} of {} log records from {} uploads in {} ms",
+                    inserted, records, batch.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to insert {} log records from {} uploads", records, batch.size(), e);
+        } finally {
+            queuedRecords.addAndGet(-records);
+            batch.clear();
+        }
+    }
+
+    private void shutdown() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(10000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.plugins.devicelog.service;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hmdm.persistence.domain.Device;
+import com.hmdm.plugins.devicelog.model.DeviceLogPluginSettings;
+import com.hmdm.plugins.devicelog.model.DeviceLogRule;
+import com.hmdm.plugins.devicelog.model.LogLevel;
+import com.hmdm.plugins.devicelog.persistence.DeviceLogPluginSettingsDAO;
+import com.hmdm.plugins.devicelog.rest.json.AppliedDeviceLogRule;
+import com.hmdm.rest.json.LookupItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * <p>A cache of device log rules resolved for devices.</p>
+ *
+ * <p>For each customer the active rules are indexed by configuration, group and device once; the effective rules for
+ * a combination of configuration and set of groups are computed once and memoized. The index of a customer is
+ * dropped when its settings or rules are changed on this node and is rebuilt at most every {@link #INDEX_TTL}
+ * milliseconds otherwise, so the changes made on other nodes of cluster are picked up as well.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class DeviceLogRulesCache {
+
+    /**
+     * <p>A max age (in milliseconds) of the rules index.</p>
+     */
+    private static final long INDEX_TTL = TimeUnit.MINUTES.toMillis(5);
+
+    private final DeviceLogPluginSettingsDAO settingsDAO;
+
+    /**
+     * <p>A mapping from customer IDs to rules indexes.</p>
+     */
+    private final ConcurrentHashMap<Integer, RulesIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * <p>Constructs new <code>DeviceLogRulesCache</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public DeviceLogRulesCache(DeviceLogPluginSettingsDAO settingsDAO) {
+        this.settingsDAO = settingsDAO;
+    }
+
+    /**
+     * <p>Gets the list of log rules applicable to specified device.</p>
+     *
+     * @param device a device.
+     * @return a list of log rules to be applied by device.
+     */
+    public List<AppliedDeviceLogRule> getDeviceLogRules(Device device) {
+        final long now = System.currentTimeMillis();
+        RulesIndex index = this.indexes.get(device.getCustomerId());
+        if (index == null || index.createTime + INDEX_TTL < now) {
+            index = new RulesIndex(this.settingsDAO.getPluginSettings(device.getCustomerId()), now);
+            this.indexes.put(device.getCustomerId(), index);
+        }
+        return index.getRules(device);
+    }
+
+    /**
+     * <p>Drops the rules index for specified customer so it will be rebuilt on next request.</p>
+     *
+     * @param customerId an ID of a customer account.
+     */
+    public void invalidate(int customerId) {
+        this.indexes.remove(customerId);
+    }
+
+    /**
+     * <p>Combines the specified list of device log rules into a single list.</p>
+     *
+     * @param lessPreferred a list of less preferred rules.
+     * @param morePreferred a list of more preferred rules.
+     * @return a resulting list of rules.
+     */
+    static List<DeviceLogRule> combineDeviceLogRules(List<DeviceLogRule> lessPreferred, List<DeviceLogRule> morePreferred) {
+        final Map<String, DeviceLogRule> moreMapping
+                = morePreferred.stream().collect(Collectors.toMap(DeviceLogRule::getApplicationPkg, r -> r, (r1, r2) -> r1));
+
+        List<DeviceLogRule> result = new ArrayList<>();
+
+        lessPreferred.stream()
+                .filter(less -> !moreMapping.containsKey(less.getApplicationPkg()))
+                .forEach(result::add);
+
+        result.addAll(morePreferred);
+
+        return result;
+    }
+
+    /**
+     * <p>An index of active rules of a single customer.</p>
+     */
+    private static class RulesIndex {
+
+        private final long createTime;
+
+        private final List<DeviceLogRule> defaultRules;
+
+        private final Map<Integer, List<DeviceLogRule>> configurationRules = new HashMap<>();
+
+        /**
+         * <p>A list of rules bound to groups in original order.</p>
+         */
+        private final List<DeviceLogRule> groupRules = new ArrayList<>();
+
+        private final Map<Integer, List<DeviceLogRule>> deviceRules = new HashMap<>();
+
+        /**
+         * <p>A mapping from configuration ID and group IDs to effective rules.</p>
+         */
+        private final ConcurrentHashMap<String, List<DeviceLogRule>> combinedRules = new ConcurrentHashMap<>();
+
+        private RulesIndex(DeviceLogPluginSettings settings, long createTime) {
+            this.createTime = createTime;
+
+            final List<DeviceLogRule> rules = settings == null || settings.getRules() == null
+                    ? Collections.emptyList()
+                    : settings.getRules().stream()
+                    .filter(DeviceLogRule::isActive)
+                    .filter(r -> r.getSeverity() != LogLevel.NONE)
+                    .collect(Collectors.toList());
+
+            this.defaultRules = new ArrayList<>();
+            for (DeviceLogRule rule : rules) {
+                final boolean hasDevices = rule.getDevices() != null && !rule.getDevices().isEmpty();
+                if (rule.getConfigurationId() != null) {
+                    this.configurationRules.computeIfAbsent(rule.getConfigurationId(), id -> new ArrayList<>()).add(rule);
+                }
+                if (rule.getGroupId() != null) {
+                    this.groupRules.add(rule);
+                }
+                if (hasDevices) {
+                    for (LookupItem device : rule.getDevices()) {
+                        this.deviceRules.computeIfAbsent(device.getId(), id -> new ArrayList<>()).add(rule);
+                    }
+                }
+                if (rule.getConfigurationId() == null && rule.getGroupId() == null && !hasDevices) {
+                    this.defaultRules.add(rule);
+                }
+            }
+        }
+
+        private List<AppliedDeviceLogRule> getRules(Device device) {
+            final TreeSet<Integer> groupIds = new TreeSet<>();
+            if (device.getGroups() != null) {
+                device.getGroups().forEach(g -> groupIds.add(g.getId()));
+            }
+
+            final List<DeviceLogRule> rules = this.combinedRules.computeIfAbsent(
+                    device.getConfigurationId() + ":" + groupIds,
+                    key -> combine(device.getConfigurationId(), groupIds)
+            );
+
+            return combineDeviceLogRules(rules, this.deviceRules.getOrDefault(device.getId(), Collections.emptyList()))
+                    .stream()
+                    .map(AppliedDeviceLogRule::new)
+                    .collect(Collectors.toList());
+        }
+
+        private List<DeviceLogRule> combine(Integer configurationId, TreeSet<Integer> groupIds) {
+            List<DeviceLogRule> result = this.defaultRules;
+            if (configurationId != null) {
+                result = combineDeviceLogRules(
+                        result, this.configurationRules.getOrDefault(configurationId, Collections.emptyList())
+                );
+            }
+            if (!groupIds.isEmpty()) {
+                result = combineDeviceLogRules(result, this.groupRules.stream()
+                        .filter(r -> groupIds.contains(r.getGroupId()))
+                        .collect(Collectors.toList()));
+            }
+            return result;
+        }
+    }
+}
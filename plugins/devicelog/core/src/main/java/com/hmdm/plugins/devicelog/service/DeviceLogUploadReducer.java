@@ -0,0 +1,236 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.service;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import com.hmdm.plugins.devicelog.guice.module.DeviceLogConfigureModule;
+import com.hmdm.plugins.devicelog.model.DeviceLogUpload;
+import com.hmdm.plugins.devicelog.model.LogLevel;
+import com.hmdm.plugins.devicelog.rest.json.UploadedDeviceLogRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>A reducer of the log records uploaded by devices applied before the records are saved.</p>
+ *
+ * <p>The identical records (same application, level and message) uploaded by a device within a single write batch
+ * of {@link DeviceLogIngestionService} are collapsed into one record keeping the number of repeats and the timestamps
+ * of the first and the last occurrence. If the per-device rate limit is set, the records uploaded by a device in
+ * excess of the limit within a minute are sampled: only one of
+ * {@link DeviceLogConfigureModule#DEVICE_RATE_SAMPLING_PARAMETER} records is kept and the rest are dropped.</p>
+ *
+ * <p>The location records are never collapsed since each of them is a point of the device track. The error records
+ * are never dropped by sampling though they are counted against the rate limit.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class DeviceLogUploadReducer {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceLogUploadReducer.class);
+
+    /**
+     * <p>A period of time (in milliseconds) the per-device rate limit is applied to.</p>
+     */
+    private static final long RATE_WINDOW = 60 * 1000;
+
+    private final boolean deduplication;
+
+    private final int rateLimit;
+
+    private final int sampling;
+
+    /**
+     * <p>The numbers of records accepted from devices within current rate window mapped by device IDs.</p>
+     */
+    private final Map<Integer, DeviceRate> deviceRates = new HashMap<>();
+
+    private long lastCleanupTime;
+
+    /**
+     * <p>Constructs new <code>DeviceLogUploadReducer</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public DeviceLogUploadReducer(@Named(DeviceLogConfigureModule.DEDUPLICATION_PARAMETER) boolean deduplication,
+                                  @Named(DeviceLogConfigureModule.DEVICE_RATE_LIMIT_PARAMETER) int rateLimit,
+                                  @Named(DeviceLogConfigureModule.DEVICE_RATE_SAMPLING_PARAMETER) int sampling) {
+        this.deduplication = deduplication;
+        this.rateLimit = rateLimit;
+        this.sampling = sampling;
+    }
+
+    /**
+     * <p>Reduces the specified batch of uploads. The uploads of a device from the same IP-address are merged
+     * together.</p>
+     *
+     * @param uploads a list of uploads to be reduced.
+     * @return a list of uploads with collapsed and sampled log records.
+     */
+    public synchronized List<DeviceLogUpload> reduce(List<DeviceLogUpload> uploads) {
+        if (!deduplication && rateLimit <= 0) {
+            return uploads;
+        }
+
+        final Map<String, DeviceLogUpload> merged = new LinkedHashMap<>();
+        for (DeviceLogUpload upload : uploads) {
+            final DeviceLogUpload existing = merged.get(upload.getDeviceId() + "/" + upload.getIpAddress());
+            if (existing == null) {
+                merged.put(upload.getDeviceId() + "/" + upload.getIpAddress(), new DeviceLogUpload(
+                        upload.getDeviceId(), upload.getCustomerId(), upload.getDeviceNumber(),
+                        upload.getIpAddress(), new ArrayList<>(upload.getLogs())
+                ));
+            } else {
+                existing.getLogs().addAll(upload.getLogs());
+            }
+        }
+
+        final long now = System.currentTimeMillis();
+        int collapsed = 0;
+        int dropped = 0;
+        final List<DeviceLogUpload> result = new ArrayList<>(merged.size());
+        for (DeviceLogUpload upload : merged.values()) {
+            List<UploadedDeviceLogRecord> logs = upload.getLogs();
+            if (deduplication) {
+                final int count = logs.size();
+                logs = collapse(logs);
+                collapsed += count - logs.size();
+            }
+            if (rateLimit > 0) {
+                final int count = logs.size();
+                logs = sample(upload.getDeviceId(), logs, now);
+                dropped += count - logs.size();
+            }
+            if (!logs.isEmpty()) {
+                result.add(new DeviceLogUpload(upload.getDeviceId(), upload.getCustomerId(), upload.getDeviceNumber(),
+                        upload.getIpAddress(), logs));
+            }
+        }
+
+        if (now - lastCleanupTime > RATE_WINDOW) {
+            deviceRates.values().removeIf(rate -> now - rate.windowStart >= RATE_WINDOW);
+            lastCleanupTime = now;
+        }
+
+        if (collapsed > 0 || dropped > 0) {
+            logger.debug("Collapsed {} and dropped {} log records from {} uploads", collapsed, dropped, uploads.size());
+        }
+        return result;
+    }
+
+    /**
+     * <p>Collapses the identical records from specified list into one keeping the order of first occurrences.</p>
+     */
+    private static List<UploadedDeviceLogRecord> collapse(List<UploadedDeviceLogRecord> logs) {
+        final Map<RecordKey, UploadedDeviceLogRecord> unique = new LinkedHashMap<>();
+        final List<UploadedDeviceLogRecord> result = new ArrayList<>(logs.size());
+        for (UploadedDeviceLogRecord log : logs) {
+            if (log.getTimestamp() == null || levelOf(log) == LogLevel.LOCATION) {
+                result.add(log);
+                continue;
+            }
+            final UploadedDeviceLogRecord first = unique.putIfAbsent(new RecordKey(log), log);
+            if (first == null) {
+                result.add(log);
+            } else {
+                final long firstTime = Math.min(first.getTimestamp(), log.getTimestamp());
+                final long lastTime = Math.max(
+                        first.getLastTimestamp() != null ? first.getLastTimestamp() : first.getTimestamp(),
+                        log.getLastTimestamp() != null ? log.getLastTimestamp() : log.getTimestamp()
+                );
+                first.setTimestamp(firstTime);
+                first.setLastTimestamp(lastTime);
+                first.setRepeatCount(first.getRepeatCount() + log.getRepeatCount());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>Applies the rate limit of the specified device to the specified records.</p>
+     */
+    private List<UploadedDeviceLogRecord> sample(int deviceId, List<UploadedDeviceLogRecord> logs, long now) {
+        final DeviceRate rate = deviceRates.computeIfAbsent(deviceId, id -> new DeviceRate());
+        if (now - rate.windowStart >= RATE_WINDOW) {
+            rate.windowStart = now;
+            rate.count = 0;
+        }
+        final List<UploadedDeviceLogRecord> result = new ArrayList<>(Math.min(logs.size(), rateLimit));
+        for (UploadedDeviceLogRecord log : logs) {
+            rate.count++;
+            if (rate.count <= rateLimit || (rate.count - rateLimit) % sampling == 0 || levelOf(log) == LogLevel.ERROR) {
+                result.add(log);
+            }
+        }
+        return result;
+    }
+
+    private static LogLevel levelOf(UploadedDeviceLogRecord log) {
+        return LogLevel.forUploadedRecord(log.getMessage(), log.getLogLevel());
+    }
+
+    /**
+     * <p>A key identifying the identical log records.</p>
+     */
+    private static final class RecordKey {
+        private final String packageId;
+        private final int logLevel;
+        private final String message;
+
+        private RecordKey(UploadedDeviceLogRecord log) {
+            this.packageId = log.getPackageId();
+            this.logLevel = log.getLogLevel();
+            this.message = log.getMessage();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RecordKey that = (RecordKey) o;
+            return logLevel == that.logLevel &&
+                    Objects.equals(packageId, that.packageId) &&
+                    Objects.equals(message, that.message);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(packageId, logLevel, message);
+        }
+    }
+
+    /**
+     * <p>A number of records accepted from a device within current rate window.</p>
+     */
+    private static final class DeviceRate {
+        private long windowStart;
+        private int count;
+    }
+}
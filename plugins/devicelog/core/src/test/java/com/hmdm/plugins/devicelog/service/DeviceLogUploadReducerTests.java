@@ -0,0 +1,158 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.service;
+
+import com.hmdm.plugins.devicelog.model.DeviceLogUpload;
+import com.hmdm.plugins.devicelog.model.LogLevel;
+import com.hmdm.plugins.devicelog.rest.json.UploadedDeviceLogRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>A test suite for {@link DeviceLogUploadReducer} class.</p>
+ *
+ * @author isv
+ */
+public class DeviceLogUploadReducerTests {
+
+    private static final String LOCATION = "{\"latitude\":55.75,\"longitude\":37.61}";
+
+    /**
+     * <p>Constructs new <code>DeviceLogUploadReducerTests</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceLogUploadReducerTests() {
+    }
+
+    @Test
+    public void testCollapse() {
+        final DeviceLogUploadReducer reducer = new DeviceLogUploadReducer(true, 0, 1);
+        final List<DeviceLogUpload> result = reducer.reduce(Arrays.asList(
+                upload(1, record(100L, LogLevel.INFO, "started"), record(200L, LogLevel.INFO, "tick")),
+                upload(1, record(300L, LogLevel.INFO, "tick"), record(150L, LogLevel.WARNING, "tick")),
+                upload(2, record(400L, LogLevel.INFO, "tick"))
+        ));
+
+        Assert.assertEquals(2, result.size());
+        final List<UploadedDeviceLogRecord> logs = result.get(0).getLogs();
+        Assert.assertEquals(3, logs.size());
+        Assert.assertEquals("started", logs.get(0).getMessage());
+        Assert.assertEquals(1, logs.get(0).getRepeatCount());
+
+        final UploadedDeviceLogRecord tick = logs.get(1);
+        Assert.assertEquals("tick", tick.getMessage());
+        Assert.assertEquals(2, tick.getRepeatCount());
+        Assert.assertEquals(Long.valueOf(200L), tick.getTimestamp());
+        Assert.assertEquals(Long.valueOf(300L), tick.getLastTimestamp());
+
+        Assert.assertEquals(LogLevel.WARNING.getId(), logs.get(2).getLogLevel());
+        Assert.assertEquals(1, logs.get(2).getRepeatCount());
+
+        Assert.assertEquals(1, result.get(1).getLogs().size());
+    }
+
+    @Test
+    public void testLocationRecordsAreNotCollapsed() {
+        final DeviceLogUploadReducer reducer = new DeviceLogUploadReducer(true, 0, 1);
+        final List<DeviceLogUpload> result = reducer.reduce(Collections.singletonList(upload(1,
+                record(100L, LogLevel.INFO, LOCATION), record(200L, LogLevel.INFO, LOCATION),
+                record(300L, LogLevel.INFO, LOCATION)
+        )));
+
+        final List<UploadedDeviceLogRecord> logs = result.get(0).getLogs();
+        Assert.assertEquals(3, logs.size());
+        for (UploadedDeviceLogRecord log : logs) {
+            Assert.assertEquals(1, log.getRepeatCount());
+            Assert.assertNull(log.getLastTimestamp());
+        }
+    }
+
+    @Test
+    public void testRateLimit() {
+        final DeviceLogUploadReducer reducer = new DeviceLogUploadReducer(false, 5, 3);
+        final List<UploadedDeviceLogRecord> records = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            records.add(record((long) i, LogLevel.INFO, "message " + i));
+        }
+
+        final List<DeviceLogUpload> result = reducer.reduce(Arrays.asList(
+                upload(1, records.toArray(new UploadedDeviceLogRecord[0])),
+                upload(2, record(1L, LogLevel.INFO, "other device"))
+        ));
+
+        // 5 records within the limit and every 3rd one of the remaining 15
+        final List<UploadedDeviceLogRecord> logs = result.get(0).getLogs();
+        Assert.assertEquals(10, logs.size());
+        Assert.assertEquals("message 4", logs.get(4).getMessage());
+        Assert.assertEquals("message 7", logs.get(5).getMessage());
+        Assert.assertEquals(1, result.get(1).getLogs().size());
+
+        // The limit is kept for the device within the rate window
+        final List<DeviceLogUpload> next = reducer.reduce(Collections.singletonList(
+                upload(1, record(21L, LogLevel.INFO, "a"), record(22L, LogLevel.INFO, "b"),
+                        record(23L, LogLevel.INFO, "c"))
+        ));
+        Assert.assertEquals(1, next.get(0).getLogs().size());
+        Assert.assertEquals("c", next.get(0).getLogs().get(0).getMessage());
+    }
+
+    @Test
+    public void testErrorRecordsAreNotSampled() {
+        final DeviceLogUploadReducer reducer = new DeviceLogUploadReducer(false, 2, 100);
+        final List<DeviceLogUpload> result = reducer.reduce(Collections.singletonList(upload(1,
+                record(1L, LogLevel.INFO, "1"), record(2L, LogLevel.INFO, "2"), record(3L, LogLevel.INFO, "3"),
+                record(4L, LogLevel.ERROR, "4"), record(5L, LogLevel.INFO, "5"), record(6L, LogLevel.ERROR, "6")
+        )));
+
+        final List<UploadedDeviceLogRecord> logs = result.get(0).getLogs();
+        Assert.assertEquals(4, logs.size());
+        Assert.assertEquals("4", logs.get(2).getMessage());
+        Assert.assertEquals("6", logs.get(3).getMessage());
+    }
+
+    @Test
+    public void testDisabled() {
+        final DeviceLogUploadReducer reducer = new DeviceLogUploadReducer(false, 0, 1);
+        final List<DeviceLogUpload> uploads = Collections.singletonList(upload(1,
+                record(1L, LogLevel.INFO, "same"), record(2L, LogLevel.INFO, "same")
+        ));
+        Assert.assertSame(uploads, reducer.reduce(uploads));
+    }
+
+    private static DeviceLogUpload upload(int deviceId, UploadedDeviceLogRecord... records) {
+        return new DeviceLogUpload(deviceId, 1, "device" + deviceId, "127.0.0.1",
+                new ArrayList<>(Arrays.asList(records)));
+    }
+
+    private static UploadedDeviceLogRecord record(Long timestamp, LogLevel level, String message) {
+        final UploadedDeviceLogRecord record = new UploadedDeviceLogRecord();
+        record.setTimestamp(timestamp);
+        record.setPackageId("com.example.app");
+        record.setLogLevel(level.getId());
+        record.setMessage(message);
+        return record;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.persistence.file;
+
+import com.google.inject.Module;
+import com.hmdm.plugin.PluginTaskModule;
+import com.hmdm.plugins.devicelog.persistence.DeviceLogPersistenceConfiguration;
+import com.hmdm.plugins.devicelog.persistence.file.guice.module.DeviceLogFileConfigureModule;
+import com.hmdm.plugins.devicelog.persistence.file.guice.module.DeviceLogFilePersistenceModule;
+import com.hmdm.plugins.devicelog.persistence.file.guice.module.DeviceLogFileServiceModule;
+import com.hmdm.plugins.devicelog.persistence.file.guice.module.DeviceLogFileTaskModule;
+import com.hmdm.plugins.devicelog.persistence.postgres.guice.module.DeviceLogPostgresLiquibaseModule;
+import com.hmdm.plugins.devicelog.persistence.postgres.guice.module.DeviceLogPostgresPersistenceModule;
+
+import javax.servlet.ServletContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <p>A configuration for the persistence layer of <code>Device Log</code> plugin keeping the log records in files on
+ * local disk. The plugin settings, log rules and device locations are still kept in <code>Postgres</code>
+ * database.</p>
+ *
+ * <p>The directory for log files is set by <code>plugin.devicelog.file.directory</code> context parameter; if not set
+ * the <code>devicelog</code> subdirectory of <code>plugins.files.directory</code> is used.</p>
+ *
+ * @author isv
+ */
+public class DeviceLogFilePersistenceConfiguration implements DeviceLogPersistenceConfiguration {
+
+    /**
+     * <p>Constructs new <code>DeviceLogFilePersistenceConfiguration</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceLogFilePersistenceConfiguration() {
+    }
+
+    /**
+     * <p>Gets the list of modules to be used for initializing the persistence layer.</p>
+     *
+     * @param context a context for plugin usage.
+     * @return a list of modules to be used for persistence layer initialization.
+     */
+    @Override
+    public List<Module> getPersistenceModules(ServletContext context) {
+        List<Module> modules = new ArrayList<>();
+        modules.add(new DeviceLogPostgresLiquibaseModule(context));
+        modules.add(new DeviceLogFileConfigureModule(context));
+        modules.add(new DeviceLogFileServiceModule());
+        modules.add(new DeviceLogPostgresPersistenceModule(context));
+        modules.add(new DeviceLogFilePersistenceModule(context));
+        return modules;
+    }
+
+    /**
+     * <p>Gets the list of task modules to be initialized upon application startup.</p>
+     *
+     * @param context a context for plugin usage.
+     * @return an optional list of task modules for plugins.
+     */
+    @Override
+    public Optional<List<Class<? extends PluginTaskModule>>> getTaskModules(ServletContext context) {
+        List<Class<? extends PluginTaskModule>> modules = new ArrayList<>();
+        modules.add(DeviceLogFileTaskModule.class);
+        return Optional.of(modules);
+    }
+}
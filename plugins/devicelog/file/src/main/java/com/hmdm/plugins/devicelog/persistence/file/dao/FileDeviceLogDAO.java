@@ -0,0 +1,370 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.persistence.file.dao;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hmdm.persistence.UnsecureDAO;
+import com.hmdm.persistence.domain.Device;
+import com.hmdm.persistence.domain.User;
+import com.hmdm.plugins.devicelog.model.DeviceLocationPoint;
+import com.hmdm.plugins.devicelog.model.DeviceLogRecord;
+import com.hmdm.plugins.devicelog.model.DeviceLogUpload;
+import com.hmdm.plugins.devicelog.model.LogLevel;
+import com.hmdm.plugins.devicelog.persistence.DeviceLogDAO;
+import com.hmdm.plugins.devicelog.persistence.file.dao.domain.FileDeviceLogRecord;
+import com.hmdm.plugins.devicelog.persistence.file.dao.mapper.FileDeviceLogLookupMapper;
+import com.hmdm.plugins.devicelog.persistence.file.store.FileDeviceLogQuery;
+import com.hmdm.plugins.devicelog.persistence.file.store.FileDeviceLogStore;
+import com.hmdm.plugins.devicelog.persistence.postgres.dao.PostgresDeviceLocationDAO;
+import com.hmdm.plugins.devicelog.persistence.postgres.dao.domain.PostgresDeviceLogPluginSettings;
+import com.hmdm.plugins.devicelog.persistence.postgres.dao.mapper.PostgresDeviceLogMapper;
+import com.hmdm.plugins.devicelog.rest.json.AppliedDeviceLogRule;
+import com.hmdm.plugins.devicelog.rest.json.DeviceLogFilter;
+import com.hmdm.plugins.devicelog.rest.json.UploadedDeviceLogRecord;
+import com.hmdm.plugins.devicelog.service.DeviceLogRulesCache;
+import com.hmdm.rest.json.LookupItem;
+import com.hmdm.security.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * <p>A DAO for device log records kept in append-only segment files on local disk (see {@link FileDeviceLogStore}).
+ * The devices and applications referenced by the records are looked up in database, so the filtering by devices and
+ * applications and the access checks follow the ones applied by <code>Postgres</code> backend.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class FileDeviceLogDAO implements DeviceLogDAO {
+
+    /**
+     * <p>A logger to be used for logging the events.</p>
+     */
+    private static final Logger logger = LoggerFactory.getLogger(FileDeviceLogDAO.class);
+
+    /**
+     * <p>A max number of location points to be inserted by single statement.</p>
+     */
+    private static final int LOCATION_INSERT_BATCH_SIZE = 1000;
+
+    private final FileDeviceLogStore store;
+
+    private final FileDeviceLogLookupMapper lookupMapper;
+
+    private final PostgresDeviceLogMapper deviceLogMapper;
+
+    private final PostgresDeviceLocationDAO locationDAO;
+
+    private final UnsecureDAO unsecureDAO;
+
+    private final DeviceLogRulesCache rulesCache;
+
+    /**
+     * <p>Constructs new <code>FileDeviceLogDAO</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public FileDeviceLogDAO(FileDeviceLogStore store,
+                            FileDeviceLogLookupMapper lookupMapper,
+                            PostgresDeviceLogMapper deviceLogMapper,
+                            PostgresDeviceLocationDAO locationDAO,
+                            UnsecureDAO unsecureDAO,
+                            DeviceLogRulesCache rulesCache) {
+        this.store = store;
+        this.lookupMapper = lookupMapper;
+        this.deviceLogMapper = deviceLogMapper;
+        this.locationDAO = locationDAO;
+        this.unsecureDAO = unsecureDAO;
+        this.rulesCache = rulesCache;
+    }
+
+    /**
+     * <p>Finds the log records matching the specified filter.</p>
+     *
+     * @param filter a filter used to narrowing down the search results.
+     * @return a list of log records matching the specified filter.
+     */
+    @Override
+    public List<DeviceLogRecord> findAll(DeviceLogFilter filter) {
+        final List<DeviceLogRecord> result = new ArrayList<>();
+        SecurityContext.get().getCurrentUser().ifPresent(user -> {
+            final Map<Integer, String> devices = findAvailableDevices(user, filter);
+            final Optional<FileDeviceLogQuery> query = buildQuery(filter, devices);
+            if (query.isPresent()) {
+                final int offset = query.get().getKeysetTime() != null
+                        ? 0 : (filter.getPageNum() - 1) * filter.getPageSize();
+                final List<FileDeviceLogRecord> records
+                        = this.store.find(user.getCustomerId(), query.get(), offset, filter.getPageSize());
+
+                final Set<Integer> applicationIds = records.stream()
+                        .map(FileDeviceLogRecord::getApplicationId)
+                        .filter(id -> id > 0)
+                        .collect(Collectors.toSet());
+                final Map<Integer, String> applications = new HashMap<>();
+                if (!applicationIds.isEmpty()) {
+                    this.lookupMapper.findApplicationPackages(applicationIds)
+                            .forEach(item -> applications.put(item.getId(), item.getName()));
+                }
+
+                records.forEach(record -> {
+                    record.setDeviceNumber(devices.get(record.getDeviceId()));
+                    record.setApplicationPkg(applications.get(record.getApplicationId()));
+                    result.add(record);
+                });
+            }
+        });
+        return result;
+    }
+
+    /**
+     * <p>Passes all log records matching the specified filter to specified consumer.</p>
+     *
+     * @param filter a filter used to narrowing down the search results.
+     * @param consumer a consumer of found log records.
+     */
+    @Override
+    public void exportAll(DeviceLogFilter filter, Consumer<DeviceLogRecord> consumer) {
+        filter.setExport(true);
+        SecurityContext.get().getCurrentUser().ifPresent(user -> {
+            final Map<Integer, String> devices = findAvailableDevices(user, filter);
+            final Map<Integer, String> applications = new HashMap<>();
+            buildQuery(filter, devices).ifPresent(query -> this.store.export(user.getCustomerId(), query, record -> {
+                record.setDeviceNumber(devices.get(record.getDeviceId()));
+                if (record.getApplicationId() > 0) {
+                    record.setApplicationPkg(applications.computeIfAbsent(record.getApplicationId(), id ->
+                            this.lookupMapper.findApplicationPackages(Collections.singleton(id)).stream()
+                                    .findFirst().map(LookupItem::getName).orElse(null)));
+                }
+                consumer.accept(record);
+            }));
+        });
+    }
+
+    /**
+     * <p>Counts the log records matching the specified filter.</p>
+     *
+     * @param filter a filter used to narrowing down the search results.
+     * @return a number of log records matching the specified filter.
+     */
+    @Override
+    public long countAll(DeviceLogFilter filter) {
+        return SecurityContext.get().getCurrentUser()
+                .map(user -> buildQuery(filter, findAvailableDevices(user, filter))
+                        .map(query -> this.store.count(user.getCustomerId(), query))
+                        .orElse(0L))
+                .orElse(0L);
+    }
+
+    /**
+     * <p>Finds the devices available to specified user and matching the device conditions of specified filter.</p>
+     *
+     * @return a mapping from device IDs to device numbers.
+     */
+    private Map<Integer, String> findAvailableDevices(User user, DeviceLogFilter filter) {
+        final String deviceFilter = filter.getDeviceFilter() == null || filter.getDeviceFilter().trim().isEmpty()
+                ? null : '%' + filter.getDeviceFilter().trim() + '%';
+        final Map<Integer, String> devices = new HashMap<>();
+        this.lookupMapper.findAvailableDevices(user.getCustomerId(), user.getId(), deviceFilter, filter.getDeviceId())
+                .forEach(item -> devices.put(item.getId(), item.getName()));
+        return devices;
+    }
+
+    /**
+     * <p>Builds the query to the store for specified filter.</p>
+     *
+     * @param filter a filter provided by request.
+     * @param devices a mapping from IDs to numbers of devices the records are to be selected for.
+     * @return a query or empty value if no records may match the filter.
+     */
+    private Optional<FileDeviceLogQuery> buildQuery(DeviceLogFilter filter, Map<Integer, String> devices) {
+        if (devices.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final FileDeviceLogQuery query = new FileDeviceLogQuery();
+        query.setDeviceIds(devices.keySet().stream().mapToInt(Integer::intValue).toArray());
+        if (filter.getApplicationFilter() != null && !filter.getApplicationFilter().trim().isEmpty()) {
+            final List<Integer> applicationIds
+                    = this.lookupMapper.findApplicationIds('%' + filter.getApplicationFilter().trim() + '%');
+            if (applicationIds.isEmpty()) {
+                return Optional.empty();
+            }
+            query.setApplicationIds(new HashSet<>(applicationIds));
+        }
+        if (filter.getSeverity() != null && filter.getSeverity() != -1) {
+            query.setMaxSeverityOrder(filter.getSeverity());
+        }
+        if (filter.getMessageFilter() != null && !filter.getMessageFilter().trim().isEmpty()) {
+            query.setMessageFilter(filter.getMessageFilter().trim());
+        }
+        if (filter.getDateFrom() != null) {
+            query.setTimeFrom(filter.getDateFromMillis());
+        }
+        if (filter.getDateTo() != null) {
+            query.setTimeTo(filter.getDateToMillis());
+        }
+        query.setAscending(filter.isExport());
+        if ("deviceNumber".equals(filter.getSortValue())) {
+            query.setDeviceOrder(Comparator.comparing(devices::get));
+        } else if (filter.getAfterCreateTime() != null && filter.getAfterId() != null) {
+            query.setKeyset(filter.getAfterCreateTime(), filter.getAfterId());
+        }
+        return Optional.of(query);
+    }
+
+    /**
+     * <p>Inserts the specified log records uploaded by the specified device into underlying persistent data store.</p>
+     *
+     * @param deviceNumber an identifier of a device.
+     * @param ipAddress    an IP-address of a device.
+     * @param logs         a list of log records to be inserted.
+     * @return a number of log records inserted into underlying persistent store.
+     */
+    @Override
+    public int insertDeviceLogRecords(String deviceNumber, String ipAddress, List<UploadedDeviceLogRecord> logs) {
+        final Device dbDevice = this.unsecureDAO.getDeviceByNumber(deviceNumber);
+        if (dbDevice != null) {
+            return insertDeviceLogUploads(Collections.singletonList(
+                    new DeviceLogUpload(dbDevice.getId(), dbDevice.getCustomerId(), deviceNumber, ipAddress, logs)
+            ));
+        }
+
+        return 0;
+    }
+
+    /**
+     * <p>Inserts the log records uploaded by several devices into underlying persistent data store. The records of
+     * each customer are appended to the store at once.</p>
+     *
+     * @param uploads a list of uploads collected by ingestion queue.
+     * @return a number of log records inserted into underlying persistent store.
+     */
+    @Override
+    public int insertDeviceLogUploads(List<DeviceLogUpload> uploads) {
+        final Map<Integer, List<DeviceLogUpload>> customerUploads = uploads.stream()
+                .collect(Collectors.groupingBy(DeviceLogUpload::getCustomerId));
+
+        int inserted = 0;
+        for (Map.Entry<Integer, List<DeviceLogUpload>> entry : customerUploads.entrySet()) {
+            final int customerId = entry.getKey();
+            final Set<String> packages = new HashSet<>();
+            entry.getValue().forEach(upload -> upload.getLogs().forEach(log -> packages.add(log.getPackageId())));
+            final Map<String, Integer> appCache = this.unsecureDAO.buildPackageIdMapping(customerId, packages);
+
+            final List<FileDeviceLogRecord> records = new ArrayList<>();
+            entry.getValue().forEach(upload -> upload.getLogs().stream()
+                    .filter(log -> log.getTimestamp() != null)
+                    .forEach(log -> {
+                        final FileDeviceLogRecord record = new FileDeviceLogRecord();
+                        record.setCreateTime(log.getTimestamp());
+                        record.setDeviceId(upload.getDeviceId());
+                        record.setApplicationId(Optional.ofNullable(appCache.get(log.getPackageId())).orElse(0));
+                        record.setIpAddress(upload.getIpAddress());
+                        record.setSeverity(LogLevel.forUploadedRecord(log.getMessage(), log.getLogLevel()));
+                        record.setMessage(log.getMessage());
+                        record.setRepeatCount(log.getRepeatCount());
+                        record.setLastTime(log.getLastTimestamp());
+                        records.add(record);
+                    }));
+
+            try {
+                inserted += this.store.append(customerId, records);
+            } catch (IOException e) {
+                logger.error("Failed to write {} log records for customer {}", records.size(), customerId, e);
+                continue;
+            }
+
+            final List<DeviceLocationPoint> points = records.stream()
+                    .filter(record -> record.getSeverity() == LogLevel.LOCATION)
+                    .map(record -> DeviceLocationPoint.fromLogMessage(customerId, record.getDeviceId(),
+                            record.getCreateTime(), record.getMessage()))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            for (int i = 0; i < points.size(); i += LOCATION_INSERT_BATCH_SIZE) {
+                final List<DeviceLocationPoint> batch
+                        = points.subList(i, Math.min(points.size(), i + LOCATION_INSERT_BATCH_SIZE));
+                try {
+                    this.locationDAO.insertLocationPoints(batch);
+                } catch (Exception e) {
+                    logger.error("Failed to insert {} device location points", batch.size(), e);
+                }
+            }
+        }
+
+        return inserted;
+    }
+
+    /**
+     * <p>Gets the list of log rules applicable to specified device.</p>
+     *
+     * @param deviceNumber an identifier of device.
+     * @return a list of applicable log rules for device.
+     */
+    @Override
+    public List<AppliedDeviceLogRule> getDeviceLogRules(String deviceNumber) {
+        final Device dbDevice = this.unsecureDAO.getDeviceByNumber(deviceNumber);
+        if (dbDevice != null) {
+            return this.rulesCache.getDeviceLogRules(dbDevice);
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * <p>Deletes the log records and location points which are older than number of days configured in customer's
+     * profile. The log records are deleted by whole days.</p>
+     */
+    public void purgeLogRecords() {
+        try {
+            logger.info("Deleting outdated records from the device log files...");
+
+            final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            for (PostgresDeviceLogPluginSettings s : this.deviceLogMapper.findAllPluginSettingsForPurge()) {
+                final LocalDate before = today.minusDays(s.getLogsPreservePeriod());
+                final int count = this.store.purge(s.getCustomerId(), before);
+                if (count > 0) {
+                    logger.info("Deleted {} days from the device logs for customer {}", count, s.getCustomerId());
+                }
+                this.locationDAO.purgeLocationPoints(s.getCustomerId(),
+                        before.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli());
+            }
+        } catch (Exception e) {
+            logger.error("Unexpected error when purging the device log records", e);
+        }
+    }
+}
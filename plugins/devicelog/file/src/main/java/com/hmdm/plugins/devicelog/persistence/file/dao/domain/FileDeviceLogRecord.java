@@ -0,0 +1,66 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.persistence.file.dao.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.hmdm.plugins.devicelog.model.DeviceLogRecord;
+
+/**
+ * <p>A device log record stored in segment files on local disk.</p>
+ *
+ * @author isv
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FileDeviceLogRecord extends DeviceLogRecord {
+
+    private static final long serialVersionUID = -3188640379012215730L;
+
+    /**
+     * <p>An ordinal number of a log record within the day of its creation. Together with creation time makes the
+     * unique key of the record.</p>
+     */
+    private Integer id;
+
+    /**
+     * <p>Constructs new <code>FileDeviceLogRecord</code> instance. This implementation does nothing.</p>
+     */
+    public FileDeviceLogRecord() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    /**
+     * <p>Gets the unique identifier for this record within underlying persistence layer.</p>
+     *
+     * @return an identifier for this record.
+     */
+    @Override
+    public String getIdentifier() {
+        return getId() == null ? null : getCreateTime() + "-" + getId();
+    }
+}
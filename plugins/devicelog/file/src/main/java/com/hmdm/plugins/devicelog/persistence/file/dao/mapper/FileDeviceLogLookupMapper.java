@@ -0,0 +1,56 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.persistence.file.dao.mapper;
+
+import com.hmdm.rest.json.LookupItem;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>An ORM mapper for looking up the devices and applications referenced by the device log records kept on local
+ * disk.</p>
+ *
+ * @author isv
+ */
+public interface FileDeviceLogLookupMapper {
+
+    /**
+     * <p>Finds the devices of the specified customer available to specified user. The numbers of devices are returned
+     * as names of lookup items.</p>
+     */
+    List<LookupItem> findAvailableDevices(@Param("customerId") int customerId,
+                                          @Param("userId") int userId,
+                                          @Param("deviceFilter") String deviceFilter,
+                                          @Param("deviceId") Integer deviceId);
+
+    @Select("SELECT id FROM applications WHERE pkg ILIKE #{applicationFilter}")
+    List<Integer> findApplicationIds(@Param("applicationFilter") String applicationFilter);
+
+    /**
+     * <p>Finds the applications with specified IDs. The package IDs of applications are returned as names of lookup
+     * items.</p>
+     */
+    List<LookupItem> findApplicationPackages(@Param("ids") Collection<Integer> ids);
+}
@@ -0,0 +1,65 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.persistence.file.guice.module;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.name.Names;
+
+import javax.servlet.ServletContext;
+import java.io.File;
+
+/**
+ * <p>A module binding the configuration parameters of the file storage for device log records.</p>
+ *
+ * @author isv
+ */
+public class DeviceLogFileConfigureModule extends AbstractModule {
+
+    private static final String DIRECTORY_PARAMETER = "plugin.devicelog.file.directory";
+
+    private static final String PLUGIN_FILES_DIRECTORY_PARAMETER = "plugins.files.directory";
+
+    /**
+     * <p>A context for module usage.</p>
+     */
+    private final ServletContext context;
+
+    /**
+     * <p>Constructs new <code>DeviceLogFileConfigureModule</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceLogFileConfigureModule(ServletContext context) {
+        this.context = context;
+    }
+
+    /**
+     * <p>Binds the directory for log files to value set in context or to <code>devicelog</code> subdirectory of the
+     * directory for plugin files.</p>
+     */
+    @Override
+    protected void configure() {
+        String directory = this.context.getInitParameter(DIRECTORY_PARAMETER);
+        if (directory == null || directory.trim().isEmpty()) {
+            directory = new File(this.context.getInitParameter(PLUGIN_FILES_DIRECTORY_PARAMETER), "devicelog").getPath();
+        }
+        this.bindConstant().annotatedWith(Names.named(DIRECTORY_PARAMETER)).to(directory.trim());
+    }
+}
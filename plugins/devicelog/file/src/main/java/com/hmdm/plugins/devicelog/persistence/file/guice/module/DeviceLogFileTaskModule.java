@@ -0,0 +1,65 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.persistence.file.guice.module;
+
+import com.google.inject.Inject;
+import com.hmdm.plugin.PluginTaskModule;
+import com.hmdm.plugins.devicelog.persistence.file.dao.FileDeviceLogDAO;
+import com.hmdm.service.ScheduledTaskService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A module initializing the tasks of the persistence layer of <code>Device Log</code> plugin backed by files.</p>
+ *
+ * @author isv
+ */
+public class DeviceLogFileTaskModule implements PluginTaskModule {
+
+    /**
+     * <p>An interface to persistence layer.</p>
+     */
+    private final FileDeviceLogDAO deviceLogDAO;
+
+    /**
+     * <p>A runner for the tasks executed by the single server node.</p>
+     */
+    private final ScheduledTaskService scheduledTaskService;
+
+    /**
+     * <p>Constructs new <code>DeviceLogFileTaskModule</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public DeviceLogFileTaskModule(FileDeviceLogDAO deviceLogDAO, ScheduledTaskService scheduledTaskService) {
+        this.deviceLogDAO = deviceLogDAO;
+        this.scheduledTaskService = scheduledTaskService;
+    }
+
+    /**
+     * <p>Initializes this module. Schedules the task for deleting the outdated device log files on a daily
+     * basis.</p>
+     */
+    @Override
+    public void init() {
+        scheduledTaskService.submitScheduledTask("devicelog.file.purge", deviceLogDAO::purgeLogRecords, 1, 24, TimeUnit.HOURS);
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.persistence.file.store;
+
+import com.hmdm.plugins.devicelog.persistence.file.dao.domain.FileDeviceLogRecord;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * <p>A set of conditions for selecting the log records from {@link FileDeviceLogStore}. The conditions mirror the ones
+ * applied by <code>Postgres</code> backend to <code>plugin_devicelog_log</code> table.</p>
+ *
+ * @author isv
+ */
+public class FileDeviceLogQuery {
+
+    /**
+     * <p>A sorted list of IDs of devices to select the records for.</p>
+     */
+    private int[] deviceIds = new int[0];
+
+    /**
+     * <p>A list of IDs of applications to select the records for or <code>null</code> if not restricted.</p>
+     */
+    private Set<Integer> applicationIds;
+
+    /**
+     * <p>A max value of severity order of selected records or <code>null</code> if not restricted.</p>
+     */
+    private Integer maxSeverityOrder;
+
+    /**
+     * <p>A lower-cased substring which the messages of selected records must contain or <code>null</code> if not
+     * restricted.</p>
+     */
+    private String messageFilter;
+
+    /**
+     * <p>A lower bound (inclusive) for creation time of selected records or <code>null</code> if not restricted.</p>
+     */
+    private Long timeFrom;
+
+    /**
+     * <p>An upper bound (inclusive) for creation time of selected records or <code>null</code> if not restricted.</p>
+     */
+    private Long timeTo;
+
+    /**
+     * <p>A creation time of the record which the selected records must follow in order of selection or
+     * <code>null</code> if not restricted.</p>
+     */
+    private Long keysetTime;
+
+    /**
+     * <p>An ID of the record which the selected records must follow in order of selection.</p>
+     */
+    private int keysetId;
+
+    /**
+     * <p>A flag indicating if the records are selected in ascending order of creation time.</p>
+     */
+    private boolean ascending;
+
+    /**
+     * <p>An order of devices if the records are to be sorted by devices first or <code>null</code> if the records are
+     * sorted by creation time only.</p>
+     */
+    private Comparator<Integer> deviceOrder;
+
+    /**
+     * <p>Constructs new <code>FileDeviceLogQuery</code> instance. This implementation does nothing.</p>
+     */
+    public FileDeviceLogQuery() {
+    }
+
+    public int[] getDeviceIds() {
+        return deviceIds;
+    }
+
+    public void setDeviceIds(int[] deviceIds) {
+        this.deviceIds = deviceIds.clone();
+        Arrays.sort(this.deviceIds);
+    }
+
+    public Set<Integer> getApplicationIds() {
+        return applicationIds;
+    }
+
+    public void setApplicationIds(Set<Integer> applicationIds) {
+        this.applicationIds = applicationIds;
+    }
+
+    public Integer getMaxSeverityOrder() {
+        return maxSeverityOrder;
+    }
+
+    public void setMaxSeverityOrder(Integer maxSeverityOrder) {
+        this.maxSeverityOrder = maxSeverityOrder;
+    }
+
+    public String getMessageFilter() {
+        return messageFilter;
+    }
+
+    public void setMessageFilter(String messageFilter) {
+        this.messageFilter = messageFilter == null ? null : messageFilter.toLowerCase(Locale.ROOT);
+    }
+
+    public Long getTimeFrom() {
+        return timeFrom;
+    }
+
+    public void setTimeFrom(Long timeFrom) {
+        this.timeFrom = timeFrom;
+    }
+
+    public Long getTimeTo() {
+        return timeTo;
+    }
+
+    public void setTimeTo(Long timeTo) {
+        this.timeTo = timeTo;
+    }
+
+    public Long getKeysetTime() {
+        return keysetTime;
+    }
+
+    public int getKeysetId() {
+        return keysetId;
+    }
+
+    /**
+     * <p>Restricts the selection to records following the specified one in order of selection.</p>
+     *
+     * @param createTime a creation time of the last record of previous page.
+     * @param id an ID of the last record of previous page.
+     */
+    public void setKeyset(long createTime, int id) {
+        this.keysetTime = createTime;
+        this.keysetId = id;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public void setAscending(boolean ascending) {
+        this.ascending = ascending;
+    }
+
+    public Comparator<Integer> getDeviceOrder() {
+        return deviceOrder;
+    }
+
+    public void setDeviceOrder(Comparator<Integer> deviceOrder) {
+        this.deviceOrder = deviceOrder;
+    }
+
+    /**
+     * <p>Gets the order of selected records.</p>
+     *
+     * @return a comparator defining the order of records.
+     */
+    Comparator<FileDeviceLogRecord> getOrder() {
+        Comparator<FileDeviceLogRecord> byTime = Comparator
+                .comparing(FileDeviceLogRecord::getCreateTime)
+                .thenComparing(FileDeviceLogRecord::getId);
+        if (!ascending) {
+            byTime = byTime.reversed();
+        }
+        if (deviceOrder == null) {
+            return byTime;
+        }
+        return Comparator.comparing(FileDeviceLogRecord::getDeviceId, deviceOrder).thenComparing(byTime);
+    }
+
+    /**
+     * <p>Checks if the block of records described by specified index entry may contain the records matching this
+     * query.</p>
+     */
+    boolean mayMatch(SegmentIndexEntry entry) {
+        if (timeFrom != null && entry.getMaxTime() < timeFrom) {
+            return false;
+        }
+        if (timeTo != null && entry.getMinTime() > timeTo) {
+            return false;
+        }
+        if (maxSeverityOrder != null && entry.getMinSeverityOrder() > maxSeverityOrder) {
+            return false;
+        }
+        if (keysetTime != null) {
+            if (ascending ? entry.getMaxTime() < keysetTime : entry.getMinTime() > keysetTime) {
+                return false;
+            }
+        }
+        for (int deviceId : entry.getDeviceIds()) {
+            if (Arrays.binarySearch(deviceIds, deviceId) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <p>Checks if all records from the block described by specified index entry match this query so they can be
+     * counted without reading the block.</p>
+     */
+    boolean matchesAll(SegmentIndexEntry entry) {
+        if (messageFilter != null || applicationIds != null || keysetTime != null) {
+            return false;
+        }
+        if (timeFrom != null && entry.getMinTime() < timeFrom) {
+            return false;
+        }
+        if (timeTo != null && entry.getMaxTime() > timeTo) {
+            return false;
+        }
+        if (maxSeverityOrder != null && entry.getMaxSeverityOrder() > maxSeverityOrder) {
+            return false;
+        }
+        for (int deviceId : entry.getDeviceIds()) {
+            if (Arrays.binarySearch(deviceIds, deviceId) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>Checks if the specified record matches this query.</p>
+     */
+    boolean matches(FileDeviceLogRecord record) {
+        final long createTime = record.getCreateTime();
+        if (timeFrom != null && createTime < timeFrom) {
+            return false;
+        }
+        if (timeTo != null && createTime > timeTo) {
+            return false;
+        }
+        if (keysetTime != null) {
+            final int c = createTime != keysetTime
+                    ? Long.compare(createTime, keysetTime)
+                    : Integer.compare(record.getId(), keysetId);
+            if (ascending ? c <= 0 : c >= 0) {
+                return false;
+            }
+        }
+        if (maxSeverityOrder != null && record.getSeverity().getId() > maxSeverityOrder) {
+            return false;
+        }
+        if (Arrays.binarySearch(deviceIds, record.getDeviceId()) < 0) {
+            return false;
+        }
+        if (applicationIds != null && !applicationIds.contains(record.getApplicationId())) {
+            return false;
+        }
+        if (messageFilter != null) {
+            return record.getMessage() != null && record.getMessage().toLowerCase(Locale.ROOT).contains(messageFilter);
+        }
+        return true;
+    }
+}
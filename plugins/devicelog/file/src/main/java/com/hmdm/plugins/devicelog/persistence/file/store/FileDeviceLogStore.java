@@ -0,0 +1,525 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.persistence.file.store;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import com.hmdm.plugins.devicelog.model.LogLevel;
+import com.hmdm.plugins.devicelog.persistence.file.dao.domain.FileDeviceLogRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>An append-only store of device log records on local disk.</p>
+ *
+ * <p>The records are kept in a directory per customer and day of record creation (UTC):
+ * <code>&lt;base&gt;/&lt;customerId&gt;/&lt;yyyyMMdd&gt;/</code>. Each directory holds the numbered segment files
+ * (<code>.seg</code>) with the gzip-compressed blocks of records and the index files (<code>.idx</code>) describing
+ * these blocks (see {@link SegmentIndexEntry}). A block is written by a single append and is never modified; a new
+ * segment is started once the current one grows over {@link #SEGMENT_SIZE_LIMIT} and on every restart of the
+ * application, so a segment left incomplete by a crash is never appended to. The retention is implemented by deleting
+ * the directories of the outdated days.</p>
+ *
+ * <p>The records of a day are assigned the sequential IDs which, together with creation time, provide the unique key
+ * used for ordering and keyset paging.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class FileDeviceLogStore {
+
+    /**
+     * <p>A logger to be used for logging the events.</p>
+     */
+    private static final Logger logger = LoggerFactory.getLogger(FileDeviceLogStore.class);
+
+    /**
+     * <p>A size of segment file (in bytes) to start a new segment after.</p>
+     */
+    static final long SEGMENT_SIZE_LIMIT = 32 * 1024 * 1024;
+
+    /**
+     * <p>A max number of records in a single compressed block.</p>
+     */
+    static final int BLOCK_SIZE = 4096;
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String INDEX_SUFFIX = ".idx";
+
+    /**
+     * <p>A base directory of the store.</p>
+     */
+    private final File baseDirectory;
+
+    /**
+     * <p>A state of the days written to since the start of application mapped by day directories.</p>
+     */
+    private final Map<File, DayState> dayStates = new HashMap<>();
+
+    /**
+     * <p>Constructs new <code>FileDeviceLogStore</code> instance. This implementation does nothing.</p>
+     *
+     * @param baseDirectory a path to the base directory of the store.
+     */
+    @Inject
+    public FileDeviceLogStore(@Named("plugin.devicelog.file.directory") String baseDirectory) {
+        this.baseDirectory = new File(baseDirectory);
+    }
+
+    /**
+     * <p>Appends the specified records of the specified customer to the store. The records get their IDs
+     * assigned.</p>
+     *
+     * @param customerId an ID of a customer account which the records belong to.
+     * @param records a list of records to be appended.
+     * @return a number of appended records.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized int append(int customerId, List<FileDeviceLogRecord> records) throws IOException {
+        final Map<LocalDate, List<FileDeviceLogRecord>> byDay = new TreeMap<>();
+        records.forEach(record -> byDay.computeIfAbsent(toDay(record.getCreateTime()), d -> new ArrayList<>())
+                .add(record));
+
+        for (Map.Entry<LocalDate, List<FileDeviceLogRecord>> entry : byDay.entrySet()) {
+            final File dayDirectory = getDayDirectory(customerId, entry.getKey());
+            final List<FileDeviceLogRecord> dayRecords = entry.getValue();
+            for (int i = 0; i < dayRecords.size(); i += BLOCK_SIZE) {
+                appendBlock(dayDirectory, dayRecords.subList(i, Math.min(dayRecords.size(), i + BLOCK_SIZE)));
+            }
+        }
+
+        return records.size();
+    }
+
+    /**
+     * <p>Writes the specified records as a single block to current segment of the specified day and registers the
+     * block in segment index.</p>
+     */
+    private void appendBlock(File dayDirectory, List<FileDeviceLogRecord> records) throws IOException {
+        final DayState state = getDayState(dayDirectory);
+        if (state.segmentSize >= SEGMENT_SIZE_LIMIT) {
+            state.segmentNo++;
+            state.segmentSize = 0;
+        }
+        if (!dayDirectory.isDirectory() && !dayDirectory.mkdirs()) {
+            throw new IOException("Could not create directory " + dayDirectory);
+        }
+
+        for (int i = 0; i < records.size(); i++) {
+            records.get(i).setId(state.nextId + i);
+        }
+        final byte[] block = encode(records);
+        final SegmentIndexEntry indexEntry = SegmentIndexEntry.of(state.segmentSize, block.length, state.nextId, records);
+
+        // The block goes first so an indexed block is always complete
+        try (OutputStream out = new FileOutputStream(segmentFile(dayDirectory, state.segmentNo, SEGMENT_SUFFIX), true)) {
+            out.write(block);
+        }
+        try (OutputStream out = new FileOutputStream(segmentFile(dayDirectory, state.segmentNo, INDEX_SUFFIX), true)) {
+            out.write(indexEntry.toBytes());
+        }
+
+        state.segmentSize += block.length;
+        state.nextId += records.size();
+    }
+
+    /**
+     * <p>Finds the records matching the specified query.</p>
+     *
+     * @param customerId an ID of a customer account to find the records for.
+     * @param query a query to select the records.
+     * @param offset a number of leading records to skip.
+     * @param limit a max number of records to return.
+     * @return a list of matching records in order defined by query.
+     */
+    public List<FileDeviceLogRecord> find(int customerId, FileDeviceLogQuery query, int offset, int limit) {
+        final Comparator<FileDeviceLogRecord> order = query.getOrder();
+        final int need = offset + limit;
+        final PriorityQueue<FileDeviceLogRecord> top = new PriorityQueue<>(Math.min(need, 10000) + 1, order.reversed());
+        for (LocalDate day : listDays(customerId, query)) {
+            scanDay(customerId, day, query, record -> {
+                top.add(record);
+                if (top.size() > need) {
+                    top.poll();
+                }
+            });
+            // The days are scanned in order of creation time so the rest of days can not contribute to the result
+            if (query.getDeviceOrder() == null && top.size() >= need) {
+                break;
+            }
+        }
+
+        final List<FileDeviceLogRecord> result = new ArrayList<>(top);
+        result.sort(order);
+        return offset >= result.size() ? Collections.emptyList() : result.subList(offset, result.size());
+    }
+
+    /**
+     * <p>Passes all records matching the specified query to specified consumer in order defined by query. If the
+     * records are ordered by creation time only, the records are loaded into memory a day at a time.</p>
+     *
+     * @param customerId an ID of a customer account to find the records for.
+     * @param query a query to select the records.
+     * @param consumer a consumer of found records.
+     */
+    public void export(int customerId, FileDeviceLogQuery query, Consumer<FileDeviceLogRecord> consumer) {
+        final Comparator<FileDeviceLogRecord> order = query.getOrder();
+        final List<FileDeviceLogRecord> records = new ArrayList<>();
+        for (LocalDate day : listDays(customerId, query)) {
+            scanDay(customerId, day, query, records::add);
+            if (query.getDeviceOrder() == null) {
+                records.sort(order);
+                records.forEach(consumer);
+                records.clear();
+            }
+        }
+        records.sort(order);
+        records.forEach(consumer);
+    }
+
+    /**
+     * <p>Counts the records matching the specified query. The blocks which entirely match the query according to
+     * their index entries are counted without being read.</p>
+     *
+     * @param customerId an ID of a customer account to count the records for.
+     * @param query a query to select the records.
+     * @return a number of matching records.
+     */
+    public long count(int customerId, FileDeviceLogQuery query) {
+        long count = 0;
+        for (LocalDate day : listDays(customerId, query)) {
+            final File dayDirectory = getDayDirectory(customerId, day);
+            for (int segmentNo : listSegments(dayDirectory)) {
+                for (SegmentIndexEntry entry : readIndex(dayDirectory, segmentNo)) {
+                    if (query.matchesAll(entry)) {
+                        count += entry.getCount();
+                    } else if (query.mayMatch(entry)) {
+                        count += readBlock(dayDirectory, segmentNo, entry).stream().filter(query::matches).count();
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * <p>Deletes the records of the specified customer created before the specified day.</p>
+     *
+     * @param customerId an ID of a customer account to delete the records for.
+     * @param before a day (UTC) to delete the records created before.
+     * @return a number of deleted days.
+     */
+    public synchronized int purge(int customerId, LocalDate before) {
+        int count = 0;
+        for (LocalDate day : listDays(customerId)) {
+            if (day.isBefore(before)) {
+                final File dayDirectory = getDayDirectory(customerId, day);
+                final File[] files = dayDirectory.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        if (!file.delete()) {
+                            logger.warn("Could not delete device log file {}", file);
+                        }
+                    }
+                }
+                if (dayDirectory.delete()) {
+                    count++;
+                }
+                dayStates.remove(dayDirectory);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * <p>Passes the records of the specified day matching the specified query to specified consumer.</p>
+     */
+    private void scanDay(int customerId, LocalDate day, FileDeviceLogQuery query, Consumer<FileDeviceLogRecord> consumer) {
+        final File dayDirectory = getDayDirectory(customerId, day);
+        for (int segmentNo : listSegments(dayDirectory)) {
+            for (SegmentIndexEntry entry : readIndex(dayDirectory, segmentNo)) {
+                if (query.mayMatch(entry)) {
+                    for (FileDeviceLogRecord record : readBlock(dayDirectory, segmentNo, entry)) {
+                        if (query.matches(record)) {
+                            consumer.accept(record);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Lists the days of the specified customer which may contain the records matching the specified query in
+     * order of record selection.</p>
+     */
+    private List<LocalDate> listDays(int customerId, FileDeviceLogQuery query) {
+        final List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day : listDays(customerId)) {
+            final long dayStart = day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            final long dayEnd = dayStart + DAY_MILLIS - 1;
+            if (query.getTimeFrom() != null && dayEnd < query.getTimeFrom()) {
+                continue;
+            }
+            if (query.getTimeTo() != null && dayStart > query.getTimeTo()) {
+                continue;
+            }
+            if (query.getKeysetTime() != null) {
+                if (query.isAscending() ? dayEnd < query.getKeysetTime() : dayStart > query.getKeysetTime()) {
+                    continue;
+                }
+            }
+            days.add(day);
+        }
+        if (!query.isAscending()) {
+            Collections.reverse(days);
+        }
+        return days;
+    }
+
+    /**
+     * <p>Lists the days having the records of the specified customer in ascending order.</p>
+     */
+    private List<LocalDate> listDays(int customerId) {
+        final List<LocalDate> days = new ArrayList<>();
+        final String[] names = new File(baseDirectory, String.valueOf(customerId)).list();
+        if (names != null) {
+            for (String name : names) {
+                try {
+                    days.add(LocalDate.parse(name, DAY_FORMAT));
+                } catch (DateTimeParseException e) {
+                    // Not a day directory
+                }
+            }
+        }
+        Collections.sort(days);
+        return days;
+    }
+
+    /**
+     * <p>Lists the numbers of segments in the specified day directory in ascending order.</p>
+     */
+    private static List<Integer> listSegments(File dayDirectory) {
+        final List<Integer> segments = new ArrayList<>();
+        final String[] names = dayDirectory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.endsWith(INDEX_SUFFIX)) {
+                    try {
+                        segments.add(Integer.parseInt(name.substring(0, name.length() - INDEX_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // Not an index file
+                    }
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * <p>Reads the entries of the index of specified segment. A trailing entry cut by a crash is ignored.</p>
+     */
+    private static List<SegmentIndexEntry> readIndex(File dayDirectory, int segmentNo) {
+        final List<SegmentIndexEntry> entries = new ArrayList<>();
+        final File file = segmentFile(dayDirectory, segmentNo, INDEX_SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                entries.add(SegmentIndexEntry.read(in));
+            }
+        } catch (EOFException e) {
+            // End of index
+        } catch (IOException e) {
+            logger.error("Failed to read device log index {}", file, e);
+        }
+        return entries;
+    }
+
+    /**
+     * <p>Reads the records of the block described by specified index entry. A block which can not be read is logged
+     * and skipped.</p>
+     */
+    private static List<FileDeviceLogRecord> readBlock(File dayDirectory, int segmentNo, SegmentIndexEntry entry) {
+        final File file = segmentFile(dayDirectory, segmentNo, SEGMENT_SUFFIX);
+        try (RandomAccessFile segment = new RandomAccessFile(file, "r")) {
+            final byte[] block = new byte[entry.getLength()];
+            segment.seek(entry.getOffset());
+            segment.readFully(block);
+            return decode(block, entry.getFirstId(), entry.getCount());
+        } catch (IOException e) {
+            logger.error("Failed to read device log block at {} from {}", entry.getOffset(), file, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * <p>Encodes the specified records to a compressed block.</p>
+     */
+    private static byte[] encode(List<FileDeviceLogRecord> records) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes, 8192))) {
+            for (FileDeviceLogRecord record : records) {
+                out.writeLong(record.getCreateTime());
+                out.writeInt(record.getDeviceId());
+                out.writeInt(record.getApplicationId());
+                out.writeByte(record.getSeverity().getId());
+                writeString(out, record.getIpAddress());
+                writeString(out, record.getMessage());
+                out.writeInt(record.getRepeatCount());
+                out.writeLong(record.getLastTime() != null ? record.getLastTime() : -1);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * <p>Decodes the records from specified compressed block.</p>
+     */
+    private static List<FileDeviceLogRecord> decode(byte[] block, int firstId, int count) throws IOException {
+        final List<FileDeviceLogRecord> records = new ArrayList<>(count);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(block)), 8192))) {
+            for (int i = 0; i < count; i++) {
+                final FileDeviceLogRecord record = new FileDeviceLogRecord();
+                record.setId(firstId + i);
+                record.setCreateTime(in.readLong());
+                record.setDeviceId(in.readInt());
+                record.setApplicationId(in.readInt());
+                record.setSeverity(LogLevel.byId(in.readByte()).orElse(LogLevel.NONE));
+                record.setIpAddress(readString(in));
+                record.setMessage(readString(in));
+                record.setRepeatCount(in.readInt());
+                final long lastTime = in.readLong();
+                record.setLastTime(lastTime >= 0 ? lastTime : null);
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * <p>Gets the state of writing to specified day directory. For a day not written to since the start of
+     * application a new segment is started and the IDs continue from the last indexed record.</p>
+     */
+    private DayState getDayState(File dayDirectory) {
+        return dayStates.computeIfAbsent(dayDirectory, dir -> {
+            final DayState state = new DayState();
+            final String[] names = dir.list();
+            if (names != null) {
+                for (String name : names) {
+                    final int dot = name.indexOf('.');
+                    try {
+                        state.segmentNo = Math.max(state.segmentNo, Integer.parseInt(name.substring(0, dot)));
+                    } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                        // Not a segment file
+                    }
+                }
+                for (int segmentNo : listSegments(dir)) {
+                    final List<SegmentIndexEntry> entries = readIndex(dir, segmentNo);
+                    if (!entries.isEmpty()) {
+                        final SegmentIndexEntry last = entries.get(entries.size() - 1);
+                        state.nextId = Math.max(state.nextId, last.getFirstId() + last.getCount());
+                    }
+                }
+            }
+            state.segmentNo++;
+            return state;
+        });
+    }
+
+    private File getDayDirectory(int customerId, LocalDate day) {
+        return new File(new File(baseDirectory, String.valueOf(customerId)), DAY_FORMAT.format(day));
+    }
+
+    private static File segmentFile(File dayDirectory, int segmentNo, String suffix) {
+        return new File(dayDirectory, String.format("%06d%s", segmentNo, suffix));
+    }
+
+    private static LocalDate toDay(long createTime) {
+        return Instant.ofEpochMilli(createTime).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    /**
+     * <p>A state of writing to a single day directory.</p>
+     */
+    private static class DayState {
+        private int segmentNo;
+        private long segmentSize;
+        private int nextId;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.persistence.file.store;
+
+import com.hmdm.plugins.devicelog.persistence.file.dao.domain.FileDeviceLogRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * <p>An entry of segment index describing a single compressed block of log records within segment file. The entry
+ * holds the ranges of creation time and severity and the list of devices of the records in block so the blocks which
+ * can not contain the requested records are skipped without reading.</p>
+ *
+ * @author isv
+ */
+class SegmentIndexEntry {
+
+    /**
+     * <p>An offset of the block within segment file.</p>
+     */
+    private final long offset;
+
+    /**
+     * <p>A length of the block in bytes.</p>
+     */
+    private final int length;
+
+    /**
+     * <p>An ID of the first record in block. The records in block are assigned the sequential IDs.</p>
+     */
+    private final int firstId;
+
+    /**
+     * <p>A number of records in block.</p>
+     */
+    private final int count;
+
+    private final long minTime;
+
+    private final long maxTime;
+
+    private final int minSeverityOrder;
+
+    private final int maxSeverityOrder;
+
+    /**
+     * <p>A sorted list of IDs of devices having the records in block.</p>
+     */
+    private final int[] deviceIds;
+
+    /**
+     * <p>Constructs new <code>SegmentIndexEntry</code> instance. This implementation does nothing.</p>
+     */
+    SegmentIndexEntry(long offset, int length, int firstId, int count, long minTime, long maxTime,
+                      int minSeverityOrder, int maxSeverityOrder, int[] deviceIds) {
+        this.offset = offset;
+        this.length = length;
+        this.firstId = firstId;
+        this.count = count;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+        this.minSeverityOrder = minSeverityOrder;
+        this.maxSeverityOrder = maxSeverityOrder;
+        this.deviceIds = deviceIds;
+    }
+
+    /**
+     * <p>Builds the index entry for the specified records written as a block at specified offset.</p>
+     */
+    static SegmentIndexEntry of(long offset, int length, int firstId, List<FileDeviceLogRecord> records) {
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        int minSeverity = Integer.MAX_VALUE;
+        int maxSeverity = Integer.MIN_VALUE;
+        for (FileDeviceLogRecord record : records) {
+            minTime = Math.min(minTime, record.getCreateTime());
+            maxTime = Math.max(maxTime, record.getCreateTime());
+            minSeverity = Math.min(minSeverity, record.getSeverity().getId());
+            maxSeverity = Math.max(maxSeverity, record.getSeverity().getId());
+        }
+        final int[] deviceIds = records.stream().mapToInt(FileDeviceLogRecord::getDeviceId).distinct().sorted().toArray();
+        return new SegmentIndexEntry(offset, length, firstId, records.size(), minTime, maxTime,
+                minSeverity, maxSeverity, deviceIds);
+    }
+
+    /**
+     * <p>Serializes this entry. The entry is written to index file by a single write so a reader never observes a
+     * partially written entry except for the one cut by a crash.</p>
+     */
+    byte[] toBytes() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(48 + 4 * deviceIds.length);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(offset);
+        out.writeInt(length);
+        out.writeInt(firstId);
+        out.writeInt(count);
+        out.writeLong(minTime);
+        out.writeLong(maxTime);
+        out.writeByte(minSeverityOrder);
+        out.writeByte(maxSeverityOrder);
+        out.writeInt(deviceIds.length);
+        for (int deviceId : deviceIds) {
+            out.writeInt(deviceId);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * <p>Reads the entry from specified stream.</p>
+     *
+     * @throws java.io.EOFException if the stream ends before the entry is read completely.
+     */
+    static SegmentIndexEntry read(DataInputStream in) throws IOException {
+        final long offset = in.readLong();
+        final int length = in.readInt();
+        final int firstId = in.readInt();
+        final int count = in.readInt();
+        final long minTime = in.readLong();
+        final long maxTime = in.readLong();
+        final int minSeverityOrder = in.readByte();
+        final int maxSeverityOrder = in.readByte();
+        final int[] deviceIds = new int[in.readInt()];
+        for (int i = 0; i < deviceIds.length; i++) {
+            deviceIds[i] = in.readInt();
+        }
+        return new SegmentIndexEntry(offset, length, firstId, count, minTime, maxTime,
+                minSeverityOrder, maxSeverityOrder, deviceIds);
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    int getFirstId() {
+        return firstId;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    int getMinSeverityOrder() {
+        return minSeverityOrder;
+    }
+
+    int getMaxSeverityOrder() {
+        return maxSeverityOrder;
+    }
+
+    int[] getDeviceIds() {
+        return deviceIds;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.devicelog.persistence.file.store;
+
+import com.hmdm.plugins.devicelog.model.LogLevel;
+import com.hmdm.plugins.devicelog.persistence.file.dao.domain.FileDeviceLogRecord;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>A test suite for {@link FileDeviceLogStore} class.</p>
+ *
+ * @author isv
+ */
+public class FileDeviceLogStoreTests {
+
+    private static final int CUSTOMER_ID = 1;
+
+    private static final long DAY_1 = LocalDate.of(2026, 10, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+
+    private static final long DAY_2 = DAY_1 + 24 * 60 * 60 * 1000L;
+
+    private File directory;
+
+    /**
+     * <p>Constructs new <code>FileDeviceLogStoreTests</code> instance. This implementation does nothing.</p>
+     */
+    public FileDeviceLogStoreTests() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("devicelog").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testFindNewestFirst() throws IOException {
+        final FileDeviceLogStore store = new FileDeviceLogStore(directory.getPath());
+        store.append(CUSTOMER_ID, Arrays.asList(
+                record(DAY_1 + 1000, 1, LogLevel.INFO, "first"),
+                record(DAY_2 + 1000, 1, LogLevel.INFO, "third"),
+                record(DAY_1 + 2000, 2, LogLevel.ERROR, "second")
+        ));
+
+        final List<FileDeviceLogRecord> records = store.find(CUSTOMER_ID, query(1, 2), 0, 10);
+        Assert.assertEquals(Arrays.asList("third", "second", "first"), messages(records));
+        Assert.assertEquals(3, store.count(CUSTOMER_ID, query(1, 2)));
+        Assert.assertEquals(0, store.count(CUSTOMER_ID + 1, query(1, 2)));
+    }
+
+    @Test
+    public void testFilters() throws IOException {
+        final FileDeviceLogStore store = new FileDeviceLogStore(directory.getPath());
+        final FileDeviceLogRecord other = record(DAY_1 + 4000, 2, LogLevel.DEBUG, "Connection lost");
+        other.setApplicationId(7);
+        store.append(CUSTOMER_ID, Arrays.asList(
+                record(DAY_1 + 1000, 1, LogLevel.ERROR, "Connection failed"),
+                record(DAY_1 + 2000, 1, LogLevel.DEBUG, "Connected"),
+                record(DAY_1 + 3000, 3, LogLevel.ERROR, "Connection failed"),
+                other
+        ));
+
+        FileDeviceLogQuery query = query(1, 2);
+        query.setMaxSeverityOrder(LogLevel.WARNING.getId());
+        Assert.assertEquals(Collections.singletonList("Connection failed"), messages(store.find(CUSTOMER_ID, query, 0, 10)));
+        Assert.assertEquals(1, store.count(CUSTOMER_ID, query));
+
+        query = query(1, 2);
+        query.setMessageFilter("CONNECTION");
+        Assert.assertEquals(Arrays.asList("Connection lost", "Connection failed"), messages(store.find(CUSTOMER_ID, query, 0, 10)));
+
+        query = query(1, 2);
+        query.setApplicationIds(Collections.singleton(7));
+        Assert.assertEquals(Collections.singletonList("Connection lost"), messages(store.find(CUSTOMER_ID, query, 0, 10)));
+
+        query = query(1, 2, 3);
+        query.setTimeFrom(DAY_1 + 2000);
+        query.setTimeTo(DAY_1 + 3000);
+        Assert.assertEquals(2, store.count(CUSTOMER_ID, query));
+    }
+
+    @Test
+    public void testPaging() throws IOException {
+        final FileDeviceLogStore store = new FileDeviceLogStore(directory.getPath());
+        final List<FileDeviceLogRecord> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // Two records per timestamp, so the ID breaks the ties
+            records.add(record(DAY_1 + (i / 2) * 1000, 1, LogLevel.INFO, "r" + i));
+        }
+        store.append(CUSTOMER_ID, records);
+
+        final List<FileDeviceLogRecord> first = store.find(CUSTOMER_ID, query(1), 0, 4);
+        Assert.assertEquals(Arrays.asList("r9", "r8", "r7", "r6"), messages(first));
+        Assert.assertEquals(Arrays.asList("r5", "r4", "r3", "r2"), messages(store.find(CUSTOMER_ID, query(1), 4, 4)));
+
+        final FileDeviceLogRecord last = first.get(first.size() - 1);
+        final FileDeviceLogQuery query = query(1);
+        query.setKeyset(last.getCreateTime(), last.getId());
+        Assert.assertEquals(Arrays.asList("r5", "r4", "r3", "r2"), messages(store.find(CUSTOMER_ID, query, 0, 4)));
+
+        final List<String> exported = new ArrayList<>();
+        final FileDeviceLogQuery exportQuery = query(1);
+        exportQuery.setAscending(true);
+        store.export(CUSTOMER_ID, exportQuery, record -> exported.add(record.getMessage()));
+        Assert.assertEquals(Arrays.asList("r0", "r1", "r2", "r3", "r4", "r5", "r6", "r7", "r8", "r9"), exported);
+    }
+
+    @Test
+    public void testDeviceOrder() throws IOException {
+        final FileDeviceLogStore store = new FileDeviceLogStore(directory.getPath());
+        store.append(CUSTOMER_ID, Arrays.asList(
+                record(DAY_1 + 1000, 1, LogLevel.INFO, "b1"),
+                record(DAY_2 + 1000, 2, LogLevel.INFO, "a2"),
+                record(DAY_1 + 2000, 2, LogLevel.INFO, "a1"),
+                record(DAY_2 + 2000, 1, LogLevel.INFO, "b2")
+        ));
+
+        final FileDeviceLogQuery query = query(1, 2);
+        query.setDeviceOrder(Comparator.comparing(deviceId -> deviceId == 2 ? "A" : "B"));
+        Assert.assertEquals(Arrays.asList("a2", "a1", "b2", "b1"), messages(store.find(CUSTOMER_ID, query, 0, 10)));
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        new FileDeviceLogStore(directory.getPath()).append(CUSTOMER_ID,
+                Collections.singletonList(record(DAY_1 + 1000, 1, LogLevel.INFO, "before restart")));
+
+        final FileDeviceLogStore store = new FileDeviceLogStore(directory.getPath());
+        store.append(CUSTOMER_ID, Collections.singletonList(record(DAY_1 + 1000, 1, LogLevel.INFO, "after restart")));
+
+        final List<FileDeviceLogRecord> records = store.find(CUSTOMER_ID, query(1), 0, 10);
+        Assert.assertEquals(Arrays.asList("after restart", "before restart"), messages(records));
+        Assert.assertEquals(Integer.valueOf(1), records.get(0).getId());
+        Assert.assertEquals(Integer.valueOf(0), records.get(1).getId());
+    }
+
+    @Test
+    public void testPurge() throws IOException {
+        final FileDeviceLogStore store = new FileDeviceLogStore(directory.getPath());
+        store.append(CUSTOMER_ID, Arrays.asList(
+                record(DAY_1 + 1000, 1, LogLevel.INFO, "old"),
+                record(DAY_2 + 1000, 1, LogLevel.INFO, "new")
+        ));
+        store.append(CUSTOMER_ID + 1, Collections.singletonList(record(DAY_1 + 1000, 1, LogLevel.INFO, "other")));
+
+        Assert.assertEquals(1, store.purge(CUSTOMER_ID, LocalDate.of(2026, 10, 2)));
+        Assert.assertEquals(Collections.singletonList("new"), messages(store.find(CUSTOMER_ID, query(1), 0, 10)));
+        Assert.assertEquals(1, store.count(CUSTOMER_ID + 1, query(1)));
+    }
+
+    private static FileDeviceLogRecord record(long createTime, int deviceId, LogLevel severity, String message) {
+        final FileDeviceLogRecord record = new FileDeviceLogRecord();
+        record.setCreateTime(createTime);
+        record.setDeviceId(deviceId);
+        record.setSeverity(severity);
+        record.setMessage(message);
+        record.setIpAddress("127.0.0.1");
+        return record;
+    }
+
+    private static FileDeviceLogQuery query(int... deviceIds) {
+        final FileDeviceLogQuery query = new FileDeviceLogQuery();
+        query.setDeviceIds(deviceIds);
+        return query;
+    }
+
+    private static List<String> messages(List<FileDeviceLogRecord> records) {
+        return records.stream().map(FileDeviceLogRecord::getMessage).collect(Collectors.toList());
+    }
+}
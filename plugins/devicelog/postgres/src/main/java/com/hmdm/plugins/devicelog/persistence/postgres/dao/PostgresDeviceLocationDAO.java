@@ -0,0 +1,89 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.plugins.devicelog.persistence.postgres.dao;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hmdm.plugins.devicelog.model.DeviceLocationPoint;
+import com.hmdm.plugins.devicelog.persistence.DeviceLocationDAO;
+import com.hmdm.plugins.devicelog.persistence.postgres.dao.mapper.PostgresDeviceLocationMapper;
+import com.hmdm.security.SecurityContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>A DAO for device location history backed by the <code>Postgres</code> database.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class PostgresDeviceLocationDAO implements DeviceLocationDAO {
+
+    /**
+     * <p>An ORM mapper for domain object type.</p>
+     */
+    private final PostgresDeviceLocationMapper mapper;
+
+    /**
+     * <p>Constructs new <code>PostgresDeviceLocationDAO</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public PostgresDeviceLocationDAO(PostgresDeviceLocationMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void insertLocationPoints(List<DeviceLocationPoint> points) {
+        if (!points.isEmpty()) {
+            this.mapper.insertLocationPoints(points);
+        }
+    }
+
+    @Override
+    public List<DeviceLocationPoint> getDeviceTrack(int deviceId, long from, long to, int limit) {
+        return SecurityContext.get().getCurrentUser()
+                .map(user -> this.mapper.getDeviceTrack(user.getCustomerId(), user.getId(), deviceId, from, to, limit))
+                .orElse(new ArrayList<>());
+    }
+
+    @Override
+    public List<DeviceLocationPoint> findInArea(double minLat, double minLon, double maxLat, double maxLon,
+                                                long from, long to, int limit) {
+        return SecurityContext.get().getCurrentUser()
+                .map(user -> this.mapper.findInArea(user.getCustomerId(), user.getId(),
+                        minLat, minLon, maxLat, maxLon, from, to, limit))
+                .orElse(new ArrayList<>());
+    }
+
+    /**
+     * <p>Deletes the location points of specified customer which are older than specified time.</p>
+     *
+     * @param customerId an ID of a customer account.
+     * @param before a timestamp (in milliseconds since Epoch time) to delete the points created before.
+     * @return a number of deleted points.
+     */
+    public int purgeLocationPoints(int customerId, long before) {
+        return this.mapper.purgeLocationPoints(customerId, before);
+    }
+}
@@ -26,29 +26,45 @@ import com.google.inject.Singleton;
 import com.hmdm.persistence.AbstractDAO;
 import com.hmdm.persistence.CustomerDAO;
 import com.hmdm.persistence.UnsecureDAO;
-import com.hmdm.persistence.domain.Customer;
 import com.hmdm.persistence.domain.Device;
-import com.hmdm.plugins.devicelog.model.DeviceLogPluginSettings;
+import com.hmdm.plugins.devicelog.model.DeviceLocationPoint;
 import com.hmdm.plugins.devicelog.model.DeviceLogRecord;
-import com.hmdm.plugins.devicelog.model.DeviceLogRule;
+import com.hmdm.plugins.devicelog.model.DeviceLogUpload;
 import com.hmdm.plugins.devicelog.model.LogLevel;
 import com.hmdm.plugins.devicelog.persistence.DeviceLogDAO;
-import com.hmdm.plugins.devicelog.persistence.DeviceLogPluginSettingsDAO;
+import com.hmdm.plugins.devicelog.persistence.postgres.dao.domain.PostgresDeviceLogPluginSettings;
 import com.hmdm.plugins.devicelog.persistence.postgres.dao.domain.PostgresDeviceLogRecord;
 import com.hmdm.plugins.devicelog.persistence.postgres.dao.mapper.PostgresDeviceLogMapper;
 import com.hmdm.plugins.devicelog.rest.json.AppliedDeviceLogRule;
 import com.hmdm.plugins.devicelog.rest.json.DeviceLogFilter;
 import com.hmdm.plugins.devicelog.rest.json.UploadedDeviceLogRecord;
+import com.hmdm.plugins.devicelog.service.DeviceLogRulesCache;
 import com.hmdm.security.SecurityContext;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.guice.transactional.Transactional;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -64,22 +80,58 @@ public class PostgresDeviceLogDAO extends AbstractDAO<PostgresDeviceLogRecord> i
      */
     private static final Logger logger = LoggerFactory.getLogger(PostgresDeviceLogDAO.class);
 
+    /**
+     * <p>A statement for bulk loading of log records in CSV format.</p>
+     */
+    private static final String COPY_LOG_RECORDS_SQL = "COPY plugin_devicelog_log " +
+            "(createTime, customerId, deviceId, applicationId, ipAddress, severity, severityOrder, message, " +
+            "repeatCount, lastTime) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    /**
+     * <p>A max number of matching log records to be counted exactly. Must be kept in sync with the limit in
+     * <code>countAll</code> query.</p>
+     */
+    private static final long EXACT_COUNT_LIMIT = 10000;
+
+    /**
+     * <p>A pattern for extracting the estimated number of rows from the query plan in JSON format.</p>
+     */
+    private static final Pattern PLAN_ROWS_PATTERN = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
+    /**
+     * <p>A max number of location points to be inserted by single statement.</p>
+     */
+    private static final int LOCATION_INSERT_BATCH_SIZE = 1000;
+
     private final PostgresDeviceLogMapper deviceLogMapper;
 
+    private final PostgresDeviceLocationDAO locationDAO;
+
+    private final SqlSessionFactory sqlSessionFactory;
+
     private final UnsecureDAO unsecureDAO;
 
-    private DeviceLogPluginSettingsDAO deviceLogPluginSettingsDAO;
+    private final PostgresDeviceLogPartitionDAO partitionDAO;
+
+    private final DeviceLogRulesCache rulesCache;
 
     /**
      * <p>Constructs new <code>PostgresDeviceLogDAO</code> instance. This implementation does nothing.</p>
      */
     @Inject
     public PostgresDeviceLogDAO(PostgresDeviceLogMapper deviceLogMapper,
-                                DeviceLogPluginSettingsDAO deviceLogPluginSettingsDAO,
-                                UnsecureDAO unsecureDAO) {
+                                UnsecureDAO unsecureDAO,
+                                SqlSessionFactory sqlSessionFactory,
+                                PostgresDeviceLogPartitionDAO partitionDAO,
+                                PostgresDeviceLocationDAO locationDAO,
+                                DeviceLogRulesCache rulesCache) {
+        this.rulesCache = rulesCache;
         this.deviceLogMapper = deviceLogMapper;
+        this.locationDAO = locationDAO;
+        this.partitionDAO = partitionDAO;
+        this.sqlSessionFactory = sqlSessionFactory;
         this.unsecureDAO = unsecureDAO;
-        this.deviceLogPluginSettingsDAO = deviceLogPluginSettingsDAO;
     }
 
     /**
@@ -103,7 +155,31 @@ public class PostgresDeviceLogDAO extends AbstractDAO<PostgresDeviceLogRecord> i
     }
 
     /**
-     * <p>Counts the log records matching the specified filter.</p>
+     * <p>Passes all log records matching the specified filter to specified consumer. The records are read by a single
+     * query through a cursor fetching the rows in chunks, so the records are never loaded into memory at once.</p>
+     *
+     * @param filter a filter used to narrowing down the search results.
+     * @param consumer a consumer of found log records.
+     */
+    @Override
+    @Transactional
+    public void exportAll(DeviceLogFilter filter, Consumer<DeviceLogRecord> consumer) {
+        prepareFilter(filter);
+        filter.setExport(true);
+        SecurityContext.get().getCurrentUser().ifPresent(user -> {
+            filter.setCustomerId(user.getCustomerId());
+            filter.setUserId(user.getId());
+            try (Cursor<PostgresDeviceLogRecord> cursor = this.deviceLogMapper.findAllLogRecordsForExport(filter)) {
+                cursor.forEach(consumer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * <p>Counts the log records matching the specified filter. The exact number is returned for up to
+     * {@link #EXACT_COUNT_LIMIT} records; for larger results the number estimated by query planner is returned.</p>
      *
      * @param filter a filter used to narrowing down the search results.
      * @return a number of log records matching the specified filter.
@@ -114,11 +190,34 @@ public class PostgresDeviceLogDAO extends AbstractDAO<PostgresDeviceLogRecord> i
         return SecurityContext.get().getCurrentUser()
                 .map(user -> {
                     filter.setCustomerId(user.getCustomerId());
-                    return this.deviceLogMapper.countAll(filter);
+                    filter.setUserId(user.getId());
+                    final long count = this.deviceLogMapper.countAll(filter);
+                    if (count <= EXACT_COUNT_LIMIT) {
+                        return count;
+                    }
+                    return Math.max(count, estimateCount(filter));
                 })
                 .orElse(0L);
     }
 
+    /**
+     * <p>Gets the number of log records matching the specified filter as estimated by query planner.</p>
+     *
+     * @param filter a filter used to narrowing down the search results.
+     * @return an estimated number of records or <code>0</code> if estimation fails.
+     */
+    private long estimateCount(DeviceLogFilter filter) {
+        try {
+            final Matcher matcher = PLAN_ROWS_PATTERN.matcher(this.deviceLogMapper.estimateCount(filter));
+            if (matcher.find()) {
+                return Long.parseLong(matcher.group(1));
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to estimate the number of log records: {}", e.getMessage());
+        }
+        return 0;
+    }
+
     /**
      * <p>Inserts the specified log records uploaded by the specified device into underlying persistent data store.</p>
      *
@@ -137,28 +236,12 @@ public class PostgresDeviceLogDAO extends AbstractDAO<PostgresDeviceLogRecord> i
             final Map<String, Integer> appCache
                     = this.unsecureDAO.buildPackageIdMapping(dbDevice.getCustomerId(), appPackages);
             
-            final List<PostgresDeviceLogRecord> postgresLogs = logs.stream().map(log -> {
-                try {
-                    PostgresDeviceLogRecord postgresRecord = new PostgresDeviceLogRecord();
-                    postgresRecord.setCustomerId(dbDevice.getCustomerId());
-                    postgresRecord.setApplicationId(appCache.get(log.getPackageId()));
-                    postgresRecord.setCreateTime(log.getTimestamp());
-                    postgresRecord.setDeviceId(dbDevice.getId());
-                    postgresRecord.setMessage(log.getMessage());
-                    // Check if this is a location message (contains latitude/longitude)
-                    LogLevel severity = detectLocationSeverity(log.getMessage(), log.getLogLevel());
-                    postgresRecord.setSeverity(severity);
-                    postgresRecord.setIpAddress(ipAddress);
-
-                    return postgresRecord;
-                } catch (Exception e) {
-                    logger.error("Unexpected error when converting log record {}. This record will be skipped. ", log, e);
-                    return null;
-                }
-            }).filter(Objects::nonNull).collect(Collectors.toList());
+            final List<PostgresDeviceLogRecord> postgresLogs
+                    = toPostgresRecords(dbDevice.getCustomerId(), dbDevice.getId(), ipAddress, logs, appCache);
 
             if (!postgresLogs.isEmpty()) {
                 int insertCount = this.deviceLogMapper.insertDeviceLogRecords(postgresLogs);
+                insertLocationPoints(Collections.singletonList(postgresLogs));
 
                 return insertCount;
             }
@@ -168,98 +251,230 @@ public class PostgresDeviceLogDAO extends AbstractDAO<PostgresDeviceLogRecord> i
     }
 
     /**
-     * <p>Gets the list of log rules applicable to specified device.</p>
+     * <p>Inserts the log records uploaded by several devices into underlying persistent data store using a single
+     * <code>COPY</code> statement. The package IDs are resolved once per customer for the whole batch. If
+     * <code>COPY</code> fails (e.g. the device has been deleted meanwhile) the uploads are inserted one by one so a
+     * single invalid upload does not cause the loss of the whole batch.</p>
      *
-     * @param deviceNumber an identifier of device.
-     * @return a list of applicable log rules for device.
+     * @param uploads a list of uploads collected by ingestion queue.
+     * @return a number of log records inserted into underlying persistent store.
      */
     @Override
-    public List<AppliedDeviceLogRule> getDeviceLogRules(String deviceNumber) {
-        final Device dbDevice = this.unsecureDAO.getDeviceByNumber(deviceNumber);
-        if (dbDevice != null) {
-            final DeviceLogPluginSettings deviceLogSettings
-                    = this.deviceLogPluginSettingsDAO.getPluginSettings(dbDevice.getCustomerId());
-            if (deviceLogSettings != null) {
-                List<DeviceLogRule> rules = deviceLogSettings.getRules();
-                if (rules != null && !rules.isEmpty()) {
-                    rules = rules.stream()
-                            .filter(DeviceLogRule::isActive)
-                            .filter(r -> r.getSeverity() != LogLevel.NONE)
-                            .collect(Collectors.toList());
-
-                    final List<DeviceLogRule> defaultRules = rules.stream()
-                            .filter(r -> r.getConfigurationId() == null)
-                            .filter(r -> r.getGroupId() == null)
-                            .filter(r -> r.getDevices() == null || r.getDevices().isEmpty())
-                            .collect(Collectors.toList());
-
-                    List<DeviceLogRule> resultingRules = defaultRules;
-
-                    if (dbDevice.getConfigurationId() != null) {
-                        final List<DeviceLogRule> configurationRules = rules.stream()
-                                .filter(r -> r.getConfigurationId() != null)
-                                .filter(r -> r.getConfigurationId().equals(dbDevice.getConfigurationId()))
-                                .collect(Collectors.toList());
-
-                        resultingRules = combineDeviceLogRules(resultingRules, configurationRules);
-                    }
+    public int insertDeviceLogUploads(List<DeviceLogUpload> uploads) {
+        final Map<Integer, Set<String>> customerPackages = new HashMap<>();
+        uploads.forEach(upload -> upload.getLogs().forEach(log -> customerPackages
+                .computeIfAbsent(upload.getCustomerId(), id -> new HashSet<>())
+                .add(log.getPackageId())));
+
+        final Map<Integer, Map<String, Integer>> customerAppCache = new HashMap<>();
+        customerPackages.forEach((customerId, packages)
+                -> customerAppCache.put(customerId, this.unsecureDAO.buildPackageIdMapping(customerId, packages)));
+
+        final List<List<PostgresDeviceLogRecord>> converted = new ArrayList<>(uploads.size());
+        int total = 0;
+        for (DeviceLogUpload upload : uploads) {
+            final List<PostgresDeviceLogRecord> records = toPostgresRecords(upload.getCustomerId(),
+                    upload.getDeviceId(), upload.getIpAddress(), upload.getLogs(),
+                    customerAppCache.get(upload.getCustomerId()));
+            converted.add(records);
+            total += records.size();
+        }
+        if (total == 0) {
+            return 0;
+        }
 
-                    if (dbDevice.getGroups() != null && !dbDevice.getGroups().isEmpty()) {
-                        final List<DeviceLogRule> groupRules = rules.stream()
-                                .filter(r -> r.getGroupId() != null)
-                                .filter(r -> dbDevice.getGroups().stream().anyMatch(g -> g.getId() == r.getGroupId()))
-                                .collect(Collectors.toList());
+        int inserted = 0;
+        try {
+            inserted = copyDeviceLogRecords(converted);
+        } catch (Exception e) {
+            logger.warn("Failed to copy {} log records, falling back to inserting the uploads one by one: {}",
+                    total, e.getMessage());
+            for (int i = 0; i < uploads.size(); i++) {
+                if (converted.get(i).isEmpty()) {
+                    continue;
+                }
+                try {
+                    inserted += this.deviceLogMapper.insertDeviceLogRecords(converted.get(i));
+                } catch (Exception e1) {
+                    logger.error("Failed to insert log records: {}", uploads.get(i), e1);
+                }
+            }
+        }
 
-                        resultingRules = combineDeviceLogRules(resultingRules, groupRules);
-                    }
+        insertLocationPoints(converted);
+        return inserted;
+    }
 
-                    final List<DeviceLogRule> deviceRules = rules.stream()
-                            .filter(r -> r.getDevices() != null)
-                            .filter(r -> !r.getDevices().isEmpty())
-                            .filter(r -> r.getDevices().stream().anyMatch(d -> d.getId() == dbDevice.getId()))
-                            .collect(Collectors.toList());
+    /**
+     * <p>Saves the coordinates reported by the log records with {@link LogLevel#LOCATION} severity to device location
+     * history.</p>
+     *
+     * @param records a list of record lists to take the location points from.
+     */
+    private void insertLocationPoints(List<List<PostgresDeviceLogRecord>> records) {
+        final List<DeviceLocationPoint> points = records.stream()
+                .flatMap(List::stream)
+                .filter(record -> record.getSeverity() == LogLevel.LOCATION)
+                .map(record -> DeviceLocationPoint.fromLogMessage(record.getCustomerId(), record.getDeviceId(),
+                        record.getCreateTime(), record.getMessage()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        for (int i = 0; i < points.size(); i += LOCATION_INSERT_BATCH_SIZE) {
+            final List<DeviceLocationPoint> batch
+                    = points.subList(i, Math.min(points.size(), i + LOCATION_INSERT_BATCH_SIZE));
+            try {
+                this.locationDAO.insertLocationPoints(batch);
+            } catch (Exception e) {
+                logger.error("Failed to insert {} device location points", batch.size(), e);
+            }
+        }
+    }
 
-                    resultingRules = combineDeviceLogRules(resultingRules, deviceRules);
+    /**
+     * <p>Writes the specified log records to database using <code>COPY</code> statement in a single transaction.</p>
+     *
+     * @param records a list of record lists to be written.
+     * @return a number of written records.
+     * @throws Exception if an error occurs while writing the records.
+     */
+    private int copyDeviceLogRecords(List<List<PostgresDeviceLogRecord>> records) throws Exception {
+        final StringBuilder csv = new StringBuilder();
+        for (List<PostgresDeviceLogRecord> list : records) {
+            for (PostgresDeviceLogRecord record : list) {
+                appendCsvValue(csv, record.getCreateTime()).append(',');
+                appendCsvValue(csv, record.getCustomerId()).append(',');
+                appendCsvValue(csv, record.getDeviceId()).append(',');
+                appendCsvValue(csv, record.getApplicationId()).append(',');
+                appendCsvValue(csv, record.getIpAddress()).append(',');
+                appendCsvValue(csv, record.getSeverity().name()).append(',');
+                appendCsvValue(csv, record.getSeverity().getId()).append(',');
+                appendCsvValue(csv, record.getMessage()).append(',');
+                appendCsvValue(csv, record.getRepeatCount()).append(',');
+                appendCsvValue(csv, record.getLastTime()).append('\n');
+            }
+        }
 
+        try (SqlSession session = this.sqlSessionFactory.openSession(false)) {
+            try {
+                final CopyManager copyManager = session.getConnection().unwrap(PGConnection.class).getCopyAPI();
+                final long count = copyManager.copyIn(COPY_LOG_RECORDS_SQL, new StringReader(csv.toString()));
+                session.commit(true);
+                return (int) count;
+            } catch (Exception e) {
+                session.rollback(true);
+                throw e;
+            }
+        }
+    }
 
-                    final List<AppliedDeviceLogRule> result
-                            = resultingRules.stream().map(AppliedDeviceLogRule::new).collect(Collectors.toList());
+    /**
+     * <p>Appends the specified value to <code>CSV</code> row. The <code>null</code> values are written as empty
+     * unquoted fields which <code>COPY</code> reads as <code>NULL</code>.</p>
+     */
+    private static StringBuilder appendCsvValue(StringBuilder csv, Object value) {
+        if (value != null) {
+            // Postgres text values may not contain zero bytes
+            csv.append('"').append(value.toString().replace("\0", "").replace("\"", "\"\"")).append('"');
+        }
+        return csv;
+    }
 
-                    return result;
-                }
+    /**
+     * <p>Converts the uploaded log records to records to be stored in database. The records for applications which
+     * are not known to server are skipped.</p>
+     */
+    private List<PostgresDeviceLogRecord> toPostgresRecords(int customerId, int deviceId, String ipAddress,
+                                                            List<UploadedDeviceLogRecord> logs,
+                                                            Map<String, Integer> appCache) {
+        // The application is mandatory for a log record, a single record of unknown application would fail the COPY
+        final Set<String> unknownPackages = new HashSet<>();
+        final List<UploadedDeviceLogRecord> knownLogs = new ArrayList<>(logs.size());
+        for (UploadedDeviceLogRecord log : logs) {
+            if (appCache.containsKey(log.getPackageId())) {
+                knownLogs.add(log);
+            } else {
+                unknownPackages.add(log.getPackageId());
             }
         }
+        if (!unknownPackages.isEmpty()) {
+            logger.warn("Skipped {} log records of device #{} for unknown applications: {}",
+                    logs.size() - knownLogs.size(), deviceId, unknownPackages);
+        }
 
-        return new ArrayList<>();
+        return knownLogs.stream().map(log -> {
+            try {
+                PostgresDeviceLogRecord postgresRecord = new PostgresDeviceLogRecord();
+                postgresRecord.setCustomerId(customerId);
+                postgresRecord.setApplicationId(appCache.get(log.getPackageId()));
+                postgresRecord.setCreateTime(log.getTimestamp());
+                postgresRecord.setDeviceId(deviceId);
+                postgresRecord.setMessage(log.getMessage());
+                // Check if this is a location message (contains latitude/longitude)
+                LogLevel severity = LogLevel.forUploadedRecord(log.getMessage(), log.getLogLevel());
+                postgresRecord.setSeverity(severity);
+                postgresRecord.setIpAddress(ipAddress);
+                postgresRecord.setRepeatCount(log.getRepeatCount());
+                postgresRecord.setLastTime(log.getLastTimestamp());
+
+                return postgresRecord;
+            } catch (Exception e) {
+                logger.error("Unexpected error when converting log record {}. This record will be skipped. ", log, e);
+                return null;
+            }
+        }).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     /**
-     * <p>Detects the severity level for a log record.
-     * If the message contains location data (latitude/longitude), returns LOCATION.</p>
+     * <p>Gets the list of log rules applicable to specified device.</p>
      *
-     * @param message the log message
-     * @param logLevel the original log level from the device
-     * @return the appropriate LogLevel
+     * @param deviceNumber an identifier of device.
+     * @return a list of applicable log rules for device.
      */
-    private LogLevel detectLocationSeverity(String message, int logLevel) {
-        if (message != null && message.contains("\"latitude\"") && message.contains("\"longitude\"")) {
-            return LogLevel.LOCATION;
+    @Override
+    public List<AppliedDeviceLogRule> getDeviceLogRules(String deviceNumber) {
+        final Device dbDevice = this.unsecureDAO.getDeviceByNumber(deviceNumber);
+        if (dbDevice != null) {
+            return this.rulesCache.getDeviceLogRules(dbDevice);
         }
-        return LogLevel.byId(logLevel).orElse(LogLevel.NONE);
+
+        return new ArrayList<>();
     }
 
     /**
      * <p>Deletes the log records which are older than number of days configured in customer's profile.</p>
+     *
+     * <p>The partitions holding only the records past the retention periods of their customers are dropped as a
+     * whole. The outdated records are deleted per customer from the remaining partitions. Also creates the partitions
+     * for the coming days.</p>
      */
     public void purgeLogRecords() {
         try {
+            final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            this.partitionDAO.createPartitions(today);
+
             logger.info("Deleting outdated records from the device logs...");
 
-            List<Customer> customers = unsecureDAO.getAllCustomersUnsecure();
-            for (Customer c : customers) {
-                final int count = this.deviceLogMapper.purgeLogRecords(c.getId());
+            final List<PostgresDeviceLogPluginSettings> settings = this.deviceLogMapper.findAllPluginSettingsForPurge();
+            final Map<Integer, Long> cutoffs = new HashMap<>();
+            settings.forEach(s -> cutoffs.put(
+                    s.getCustomerId(), PostgresDeviceLogPartitionDAO.dayStart(today.minusDays(s.getLogsPreservePeriod())))
+            );
+            if (!cutoffs.isEmpty()) {
+                final int dropped = this.partitionDAO.dropPartitions(cutoffs);
+                if (dropped > 0) {
+                    logger.info("Dropped {} partitions from the device logs", dropped);
+                }
+            }
+
+            for (PostgresDeviceLogPluginSettings s : settings) {
+                final long before = cutoffs.get(s.getCustomerId());
+                final int count = this.deviceLogMapper.purgeLogRecords(s.getCustomerId(), before);
                 if (count > 0) {
-                    logger.info("Deleted {} records from the device logs for customer {}", count, c.getId());
+                    logger.info("Deleted {} records from the device logs for customer {}", count, s.getCustomerId());
+                }
+                final int pointsCount = this.locationDAO.purgeLocationPoints(s.getCustomerId(), before);
+                if (pointsCount > 0) {
+                    logger.info("Deleted {} device location points for customer {}", pointsCount, s.getCustomerId());
                 }
             }
 
@@ -297,26 +512,4 @@ public class PostgresDeviceLogDAO extends AbstractDAO<PostgresDeviceLogRecord> i
             }
         }
     }
-
-    /**
-     * <p>Combines the specified list of device log rules into a single list.</p>
-     *
-     * @param lessPreferred a list of less preferred rules.
-     * @param morePreferred a list of more preferred rules.
-     * @return a resulting list of rules.
-     */
-    private static List<DeviceLogRule> combineDeviceLogRules(List<DeviceLogRule> lessPreferred, List<DeviceLogRule> morePreferred) {
-        final Map<String, DeviceLogRule> moreMapping
-                = morePreferred.stream().collect(Collectors.toMap(DeviceLogRule::getApplicationPkg, r -> r, (r1, r2) -> r1));
-
-        List<DeviceLogRule> result = new ArrayList<>();
-
-        lessPreferred.stream()
-                .filter(less -> !moreMapping.containsKey(less.getApplicationPkg()))
-                .forEach(result::add);
-
-        result.addAll(morePreferred);
-
-        return result;
-    }
 }
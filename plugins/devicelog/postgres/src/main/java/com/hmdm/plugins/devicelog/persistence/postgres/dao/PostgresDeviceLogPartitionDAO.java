@@ -0,0 +1,195 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.plugins.devicelog.persistence.postgres.dao;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hmdm.plugins.devicelog.persistence.postgres.dao.mapper.PostgresDeviceLogMapper;
+import org.mybatis.guice.transactional.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>A DAO managing the daily partitions of <code>plugin_devicelog_log</code> table.</p>
+ *
+ * <p>The table is partitioned by <code>createTime</code> into partitions covering a single UTC day each and named as
+ * <code>plugin_devicelog_log_pYYYYMMDD</code>. Besides those there are <code>plugin_devicelog_log_legacy</code>
+ * partition holding the records created before the partitioning was introduced and
+ * <code>plugin_devicelog_log_default</code> partition holding the records which do not fit into any daily partition
+ * (e.g. sent by devices with wrong clock).</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class PostgresDeviceLogPartitionDAO {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresDeviceLogPartitionDAO.class);
+
+    /**
+     * <p>A number of days to create the partitions for in advance.</p>
+     */
+    private static final int DAYS_AHEAD = 7;
+
+    private static final String PARTITION_PREFIX = "plugin_devicelog_log_p";
+
+    private static final String LEGACY_PARTITION = "plugin_devicelog_log_legacy";
+
+    private static final DateTimeFormatter PARTITION_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /**
+     * <p>An ORM mapper for log records.</p>
+     */
+    private final PostgresDeviceLogMapper mapper;
+
+    /**
+     * <p>Constructs new <code>PostgresDeviceLogPartitionDAO</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public PostgresDeviceLogPartitionDAO(PostgresDeviceLogMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * <p>Creates the missing daily partitions for the current day and the next {@link #DAYS_AHEAD} days.</p>
+     *
+     * @param today a current day.
+     */
+    public void createPartitions(LocalDate today) {
+        final List<String> partitions = this.mapper.findLogPartitions();
+        for (int i = 0; i <= DAYS_AHEAD; i++) {
+            final LocalDate day = today.plusDays(i);
+            final String name = partitionName(day);
+            if (!partitions.contains(name) && !isCoveredByLegacyPartition(partitions, day)) {
+                try {
+                    createPartition(name, day);
+                    logger.info("Created device log partition {}", name);
+                } catch (Exception e) {
+                    logger.error("Failed to create device log partition {}", name, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Creates the partition for specified day. The records for that day which have been put to default partition so
+     * far are moved to new partition.</p>
+     *
+     * @param name a name of the partition.
+     * @param day a day to be covered by partition.
+     */
+    @Transactional
+    public void createPartition(String name, LocalDate day) {
+        final long from = dayStart(day);
+        final long to = dayStart(day.plusDays(1));
+        this.mapper.createLogPartitionTable(name);
+        final int moved = this.mapper.moveDefaultPartitionRecords(name, from, to);
+        if (moved > 0) {
+            logger.info("Moved {} device log records from default partition to {}", moved, name);
+        }
+        this.mapper.attachLogPartition(name, from, to);
+    }
+
+    /**
+     * <p>Drops the partitions holding the expired records only. A partition is dropped if every customer having the
+     * records in it is past its retention period; the records of customers with no retention period set are never
+     * dropped.</p>
+     *
+     * @param cutoffs a mapping from customer IDs to timestamps (in milliseconds since Epoch time) the records of the
+     *                customer created before are expired; the timestamps must be a start of UTC day.
+     * @return a number of dropped partitions.
+     */
+    public int dropPartitions(Map<Integer, Long> cutoffs) {
+        final long before = cutoffs.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        if (before <= 0) {
+            return 0;
+        }
+
+        int count = 0;
+        for (String name : this.mapper.findLogPartitions()) {
+            boolean candidate;
+            if (name.equals(LEGACY_PARTITION)) {
+                final Long maxCreateTime = this.mapper.findLegacyPartitionMaxCreateTime();
+                candidate = maxCreateTime == null || maxCreateTime < before;
+            } else {
+                final LocalDate day = partitionDay(name);
+                candidate = day != null && dayStart(day.plusDays(1)) <= before;
+            }
+
+            if (candidate) {
+                try {
+                    if (!this.mapper.hasUnexpiredLogRecords(name, cutoffs)) {
+                        this.mapper.dropLogPartition(name);
+                        logger.info("Dropped device log partition {}", name);
+                        count++;
+                    }
+                } catch (Exception e) {
+                    logger.error("Failed to drop device log partition {}", name, e);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * <p>Gets the start of the specified UTC day.</p>
+     *
+     * @param day a day.
+     * @return a timestamp (in milliseconds since Epoch time).
+     */
+    public static long dayStart(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_DATE_FORMAT.format(day);
+    }
+
+    private static LocalDate partitionDay(String name) {
+        if (!name.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_DATE_FORMAT);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * <p>Checks if the specified day is covered by legacy partition. The legacy partition holds the records till the
+     * end of the day the partitioning was introduced at, so no daily partitions exist before the earliest one.</p>
+     */
+    private static boolean isCoveredByLegacyPartition(List<String> partitions, LocalDate day) {
+        return partitions.contains(LEGACY_PARTITION) && partitions.stream()
+                .map(PostgresDeviceLogPartitionDAO::partitionDay)
+                .filter(Objects::nonNull)
+                .noneMatch(d -> !d.isAfter(day));
+    }
+}
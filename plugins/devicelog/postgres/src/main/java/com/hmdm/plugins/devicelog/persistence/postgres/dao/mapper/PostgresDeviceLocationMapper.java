@@ -0,0 +1,61 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.plugins.devicelog.persistence.postgres.dao.mapper;
+
+import com.hmdm.plugins.devicelog.model.DeviceLocationPoint;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * <p>An ORM mapper for {@link DeviceLocationPoint} domain object.</p>
+ *
+ * @author isv
+ */
+public interface PostgresDeviceLocationMapper {
+
+    int insertLocationPoints(@Param("points") List<DeviceLocationPoint> points);
+
+    List<DeviceLocationPoint> getDeviceTrack(@Param("customerId") int customerId,
+                                             @Param("userId") int userId,
+                                             @Param("deviceId") int deviceId,
+                                             @Param("from") long from,
+                                             @Param("to") long to,
+                                             @Param("limit") int limit);
+
+    List<DeviceLocationPoint> findInArea(@Param("customerId") int customerId,
+                                         @Param("userId") int userId,
+                                         @Param("minLat") double minLat,
+                                         @Param("minLon") double minLon,
+                                         @Param("maxLat") double maxLat,
+                                         @Param("maxLon") double maxLon,
+                                         @Param("from") long from,
+                                         @Param("to") long to,
+                                         @Param("limit") int limit);
+
+    @Delete("DELETE FROM plugin_devicelog_location " +
+            "WHERE customerId = #{customerId} " +
+            "AND createTime < #{before}")
+    int purgeLocationPoints(@Param("customerId") int customerId, @Param("before") long before);
+}
@@ -31,8 +31,10 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.SelectKey;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>An ORM mapper for {@link PostgresDeviceLogRecord} domain object.</p>
@@ -43,8 +45,12 @@ public interface PostgresDeviceLogMapper {
 
     List<PostgresDeviceLogRecord> findAllLogRecordsByCustomerId(DeviceLogFilter filter);
 
+    Cursor<PostgresDeviceLogRecord> findAllLogRecordsForExport(DeviceLogFilter filter);
+
     long countAll(DeviceLogFilter filter);
 
+    String estimateCount(DeviceLogFilter filter);
+
     int insertDeviceLogRecords(@Param("logs") List<PostgresDeviceLogRecord> postgresLogs);
 
     // ------------ devicelog plugin settings ------------------------------------------------------------------------------
@@ -115,13 +121,47 @@ public interface PostgresDeviceLogMapper {
     void insertPluginSettingsRuleDevices(@Param("ruleId") int ruleId, @Param("deviceIds") List<Integer> deviceIds);
 
     /**
-     * <p>Deletes the log records which are older than number of days configured in customer's profile.</p>
+     * <p>Deletes the log records of specified customer which are older than specified time.</p>
      *
+     * @param customerId an ID of a customer account.
+     * @param before a timestamp (in milliseconds since Epoch time) to delete the records created before.
      * @return a number of deleted records.
      */
     @Delete("DELETE FROM plugin_devicelog_log " +
-            "WHERE createTime < (SELECT EXTRACT(EPOCH FROM DATE_TRUNC('day', NOW() - (pds.logsPreservePeriod || ' day')::INTERVAL)) * 1000 " +
-            "                    FROM plugin_devicelog_settings pds " +
-            "                    WHERE pds.customerId = #{customerId})")
-    int purgeLogRecords(@Param("customerId") int customerId);
+            "WHERE customerId = #{customerId} " +
+            "AND createTime < #{before}")
+    int purgeLogRecords(@Param("customerId") int customerId, @Param("before") long before);
+
+    @Select("SELECT id, customerId, logsPreservePeriod FROM plugin_devicelog_settings")
+    List<PostgresDeviceLogPluginSettings> findAllPluginSettingsForPurge();
+
+    // ------------ log table partitions ----------------------------------------------------------------------------------
+    @Select("SELECT c.relname " +
+            "FROM pg_inherits i " +
+            "INNER JOIN pg_class c ON c.oid = i.inhrelid " +
+            "INNER JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'plugin_devicelog_log'")
+    List<String> findLogPartitions();
+
+    @Select("SELECT MAX(createTime) FROM plugin_devicelog_log_legacy")
+    Long findLegacyPartitionMaxCreateTime();
+
+    boolean hasUnexpiredLogRecords(@Param("name") String name, @Param("cutoffs") Map<Integer, Long> cutoffs);
+
+    @Update("CREATE TABLE ${name} (LIKE plugin_devicelog_log INCLUDING DEFAULTS)")
+    void createLogPartitionTable(@Param("name") String name);
+
+    @Insert("WITH moved AS (" +
+            "  DELETE FROM plugin_devicelog_log_default " +
+            "  WHERE createTime >= #{from} AND createTime < #{to} " +
+            "  RETURNING *" +
+            ") " +
+            "INSERT INTO ${name} SELECT * FROM moved")
+    int moveDefaultPartitionRecords(@Param("name") String name, @Param("from") long from, @Param("to") long to);
+
+    @Update("ALTER TABLE plugin_devicelog_log ATTACH PARTITION ${name} FOR VALUES FROM (${from}) TO (${to})")
+    void attachLogPartition(@Param("name") String name, @Param("from") long from, @Param("to") long to);
+
+    @Update("DROP TABLE ${name}")
+    void dropLogPartition(@Param("name") String name);
 }
@@ -24,7 +24,7 @@ package com.hmdm.plugins.devicelog.persistence.postgres.guice.module;
 import com.google.inject.Inject;
 import com.hmdm.plugin.PluginTaskModule;
 import com.hmdm.plugins.devicelog.persistence.postgres.dao.PostgresDeviceLogDAO;
-import com.hmdm.util.BackgroundTaskRunnerService;
+import com.hmdm.service.ScheduledTaskService;
 
 import java.util.concurrent.TimeUnit;
 
@@ -41,17 +41,17 @@ public class DeviceLogPostgresTaskModule implements PluginTaskModule {
     private final PostgresDeviceLogDAO deviceLogDAO;
 
     /**
-     * <p>A runner for the repeatable tasks.</p>
+     * <p>A runner for the tasks executed by the single server node.</p>
      */
-    private final BackgroundTaskRunnerService taskRunner;
+    private final ScheduledTaskService scheduledTaskService;
 
     /**
      * <p>Constructs new <code>DeviceLogPostgresTaskModule</code> instance. This implementation does nothing.</p>
      */
     @Inject
-    public DeviceLogPostgresTaskModule(PostgresDeviceLogDAO deviceLogDAO, BackgroundTaskRunnerService taskRunner) {
+    public DeviceLogPostgresTaskModule(PostgresDeviceLogDAO deviceLogDAO, ScheduledTaskService scheduledTaskService) {
         this.deviceLogDAO = deviceLogDAO;
-        this.taskRunner = taskRunner;
+        this.scheduledTaskService = scheduledTaskService;
     }
 
     /**
@@ -60,6 +60,6 @@ public class DeviceLogPostgresTaskModule implements PluginTaskModule {
      */
     @Override
     public void init() {
-        taskRunner.submitRepeatableTask(deviceLogDAO::purgeLogRecords, 1, 24, TimeUnit.HOURS);
+        scheduledTaskService.submitScheduledTask("devicelog.purge", deviceLogDAO::purgeLogRecords, 1, 24, TimeUnit.HOURS);
     }
 }
@@ -188,6 +188,7 @@ angular.module('plugin-devicelog', ['ngResource', 'ui.bootstrap', 'ui.router', '
             }
 
             $scope.paging.pageNum = 1;
+            pageCursors = {};
             loadData();
         };
 
@@ -229,6 +230,31 @@ angular.module('plugin-devicelog', ['ngResource', 'ui.bootstrap', 'ui.router', '
             loadData();
         });
 
+        // The last records of loaded pages used for requesting the next page by keyset
+        var pageCursors = {};
+
+        $scope.sortByCreateTime = function () {
+            $scope.paging.sortValue = 'createTime';
+        };
+
+        $scope.sortByDeviceNumber = function () {
+            $scope.paging.sortValue = 'deviceNumber';
+        };
+
+        // The cursors are valid for the order and the page size they were taken with only, so the paging restarts
+        $scope.$watchGroup(['paging.sortValue', 'paging.pageSize'], function (newValues, oldValues) {
+            if (newValues === oldValues) {
+                return;
+            }
+            pageCursors = {};
+            if ($scope.paging.pageNum != 1) {
+                // The page number watcher loads the data
+                $scope.paging.pageNum = 1;
+            } else {
+                loadData();
+            }
+        });
+
         var loading = false;
         var loadData = function () {
             $scope.errorMessage = undefined;
@@ -249,10 +275,20 @@ angular.module('plugin-devicelog', ['ngResource', 'ui.bootstrap', 'ui.router', '
 
             request.deviceFilter = $scope.deviceLookupFormatter(request.deviceFilter);
 
+            var pageNum = $scope.paging.pageNum;
+            var cursor = pageCursors[pageNum - 1];
+            if (cursor && $scope.paging.sortValue === 'createTime') {
+                request.afterCreateTime = cursor.createTime;
+                request.afterId = cursor.id;
+            }
+
             pluginDeviceLogService.getLogs(request, function (response) {
                 loading = false;
                 if (response.status === 'OK') {
                     $scope.logs = response.data.items;
+                    if ($scope.logs.length > 0) {
+                        pageCursors[pageNum] = $scope.logs[$scope.logs.length - 1];
+                    }
                     $scope.paging.totalItems = response.data.totalItemsCount;
                 } else {
                     $scope.errorMessage = localization.localizeServerResponse(response);
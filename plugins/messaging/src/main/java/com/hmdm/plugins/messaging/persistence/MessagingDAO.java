@@ -33,7 +33,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>A DAO for {@link Message} domain objects.</p>
@@ -105,6 +107,53 @@ public class MessagingDAO extends AbstractDAO<Message> {
         });
     }
 
+    /**
+     * <p>Inserts the specified messages into underlying persistent data store with a single statement. The messages
+     * must have the customer ID set and must be addressed to distinct devices; the generated IDs are set to
+     * messages.</p>
+     *
+     * @param messages messages to insert
+     */
+    @Transactional
+    public void insertMessages(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        final Map<Integer, Integer> ids = new HashMap<>();
+        this.messageMapper.insertMessages(messages).forEach(inserted -> ids.put(inserted.getDeviceId(), inserted.getId()));
+        messages.forEach(message -> message.setId(ids.get(message.getDeviceId())));
+    }
+
+    /**
+     * <p>Gets the next chunk of IDs of devices available to specified user and matching the specified criteria. The
+     * IDs are returned in ascending order so the chunks are iterated by passing the last ID of previous chunk.</p>
+     *
+     * @param customerId an ID of the customer account.
+     * @param userId an ID of the user.
+     * @param groupId an optional ID of the device group.
+     * @param configurationId an optional ID of the configuration.
+     * @param afterId an ID of the device to start the chunk after.
+     * @param limit a maximum number of IDs to return.
+     * @return a list of device IDs.
+     */
+    public List<Integer> findRecipientIds(int customerId, int userId, Integer groupId, Integer configurationId,
+                                          int afterId, int limit) {
+        return this.messageMapper.findRecipientIds(customerId, userId, groupId, configurationId, afterId, limit);
+    }
+
+    /**
+     * <p>Counts the devices available to specified user and matching the specified criteria.</p>
+     *
+     * @param customerId an ID of the customer account.
+     * @param userId an ID of the user.
+     * @param groupId an optional ID of the device group.
+     * @param configurationId an optional ID of the configuration.
+     * @return a number of devices.
+     */
+    public int countRecipients(int customerId, int userId, Integer groupId, Integer configurationId) {
+        return this.messageMapper.countRecipients(customerId, userId, groupId, configurationId);
+    }
+
     /**
      * <p>Updates the message status (sets as read)</p>
      *
@@ -43,6 +43,20 @@ public interface MessageMapper {
             keyColumn = "id", keyProperty = "id", before = false, resultType = int.class )
     int insertMessage(Message msg);
 
+    List<Message> insertMessages(@Param("messages") List<Message> messages);
+
+    List<Integer> findRecipientIds(@Param("customerId") int customerId,
+                                   @Param("userId") int userId,
+                                   @Param("groupId") Integer groupId,
+                                   @Param("configurationId") Integer configurationId,
+                                   @Param("afterId") int afterId,
+                                   @Param("limit") int limit);
+
+    int countRecipients(@Param("customerId") int customerId,
+                        @Param("userId") int userId,
+                        @Param("groupId") Integer groupId,
+                        @Param("configurationId") Integer configurationId);
+
     @Update("UPDATE plugin_messaging_messages SET status = #{status} WHERE id = #{id}")
     int updateMessageStatus(@Param("id") int id, @Param("status") int status);
 
@@ -26,12 +26,13 @@ import com.hmdm.notification.persistence.domain.PushMessage;
 import com.hmdm.persistence.DeviceDAO;
 import com.hmdm.persistence.UnsecureDAO;
 import com.hmdm.persistence.domain.Device;
-import com.hmdm.persistence.domain.DeviceSearchRequest;
 import com.hmdm.plugin.service.PluginStatusCache;
 import com.hmdm.plugins.messaging.persistence.MessagingDAO;
 import com.hmdm.plugins.messaging.persistence.domain.Message;
 import com.hmdm.plugins.messaging.rest.json.MessageFilter;
 import com.hmdm.plugins.messaging.rest.json.SendRequest;
+import com.hmdm.plugins.messaging.service.BulkSendJob;
+import com.hmdm.plugins.messaging.service.BulkSendService;
 import com.hmdm.rest.json.PaginatedData;
 import com.hmdm.rest.json.Response;
 import com.hmdm.security.SecurityContext;
@@ -47,7 +48,6 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -85,6 +85,11 @@ public class MessagingResource {
 
     private PluginStatusCache pluginStatusCache;
 
+    /**
+     * <p>A service sending the messages to groups of devices in background.</p>
+     */
+    private BulkSendService bulkSendService;
+
     /**
      * <p>A constructor required by swagger.</p>
      */
@@ -99,12 +104,14 @@ public class MessagingResource {
                              UnsecureDAO unsecureDAO,
                              DeviceDAO deviceDAO,
                              PushService pushService,
-                             PluginStatusCache pluginStatusCache) {
+                             PluginStatusCache pluginStatusCache,
+                             BulkSendService bulkSendService) {
         this.messagingDAO = messagingDAO;
         this.unsecureDAO = unsecureDAO;
         this.deviceDAO = deviceDAO;
         this.pushService = pushService;
         this.pluginStatusCache = pluginStatusCache;
+        this.bulkSendService = bulkSendService;
     }
 
     // =================================================================================================================
@@ -156,8 +163,6 @@ public class MessagingResource {
                 return Response.PERMISSION_DENIED();
             }
 
-            List<Message> messages = new LinkedList<>();
-
             if (sendRequest.getScope().equals("device")) {
                 // Send by device number
                 if (sendRequest.getDeviceNumber() != null) {
@@ -169,63 +174,87 @@ public class MessagingResource {
                         return Response.ERROR(error);
                     }
                     message.setDeviceId(device.getId());
-                    messages.add(message);
+                    message.setMessage(sendRequest.getMessage());
+                    message.setTs(System.currentTimeMillis());
+                    sendSingleMessage(message);
+                    return Response.OK();
                 } else {
                     String error = "Empty device number while trying to send a message!";
                     logger.error(error);
                     return Response.ERROR(error);
                 }
-            } else {
-                DeviceSearchRequest dsr = new DeviceSearchRequest();
-                dsr.setPageSize(1000000); // No page limitations
-                dsr.setCustomerId(SecurityContext.get().getCurrentCustomerId().get());
-                dsr.setUserId(SecurityContext.get().getCurrentUser().get().getId());
-                if (sendRequest.getScope().equals("group")) {
-                    if (sendRequest.getGroupId() == null || sendRequest.getGroupId() == 0) {
-                        String error = "Empty group id while trying to send a message to group!";
-                        logger.error(error);
-                        return Response.ERROR(error);
-                    }
-                    dsr.setGroupId(sendRequest.getGroupId());
-                }
-                else if (sendRequest.getScope().equals("configuration")) {
-                    if (sendRequest.getConfigurationId() == null || sendRequest.getConfigurationId() == 0) {
-                        String error = "Empty configuration id while trying to send a message to configuration!";
-                        logger.error(error);
-                        return Response.ERROR(error);
-                    }
-                    dsr.setConfigurationId(sendRequest.getConfigurationId());
+            }
 
+            Integer groupId = null;
+            Integer configurationId = null;
+            if (sendRequest.getScope().equals("group")) {
+                if (sendRequest.getGroupId() == null || sendRequest.getGroupId() == 0) {
+                    String error = "Empty group id while trying to send a message to group!";
+                    logger.error(error);
+                    return Response.ERROR(error);
                 }
-
-                List<Device> devices = deviceDAO.getAllDevices(dsr).getItems();
-                for (Device device : devices) {
-                    Message message = new Message();
-                    message.setDeviceId(device.getId());
-                    messages.add(message);
+                groupId = sendRequest.getGroupId();
+            }
+            else if (sendRequest.getScope().equals("configuration")) {
+                if (sendRequest.getConfigurationId() == null || sendRequest.getConfigurationId() == 0) {
+                    String error = "Empty configuration id while trying to send a message to configuration!";
+                    logger.error(error);
+                    return Response.ERROR(error);
                 }
+                configurationId = sendRequest.getConfigurationId();
             }
 
-            for (Message message : messages) {
-                message.setMessage(sendRequest.getMessage());
-                message.setTs(System.currentTimeMillis());
-                sendSingleMessage(message);
-            }
+            // The recipients are processed in background, the progress is available via job status
+            BulkSendJob job = this.bulkSendService.submit(
+                    SecurityContext.get().getCurrentCustomerId().get(),
+                    SecurityContext.get().getCurrentUser().get().getId(),
+                    groupId, configurationId, sendRequest.getMessage()
+            );
 
-            return Response.OK();
+            return Response.OK(job);
         } catch (Exception e) {
             logger.error("Unexpected error when sending a message", e);
             return Response.ERROR();
         }
     }
 
+    // =================================================================================================================
+    @ApiOperation(
+            value = "Get bulk sending job status",
+            notes = "Gets the progress of sending the message to a group of devices.",
+            response = BulkSendJob.class,
+            authorizations = {@Authorization("Bearer Token")}
+    )
+    @GET
+    @Path("/private/jobs/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getSendJob(@PathParam("id") @ApiParam("Job ID") String id) {
+        try {
+            if (!SecurityContext.get().hasPermission("plugin_messaging_send")) {
+                logger.error("Unauthorized attempt to get the message sending job status",
+                        SecurityException.onCustomerDataAccessViolation(0, "message"));
+                return Response.PERMISSION_DENIED();
+            }
+
+            BulkSendJob job = this.bulkSendService.getJob(id, SecurityContext.get().getCurrentCustomerId().get());
+            if (job == null) {
+                return Response.ERROR("error.notfound.object");
+            }
+
+            return Response.OK(job);
+        } catch (Exception e) {
+            logger.error("Unexpected error when getting the message sending job status", e);
+            return Response.ERROR();
+        }
+    }
+
     private boolean sendSingleMessage(Message message) {
          try {
              this.messagingDAO.insertMessage(message);
 
              PushMessage pushMessage = new PushMessage();
              pushMessage.setDeviceId(message.getDeviceId());
-             pushMessage.setPayload("{id:" + message.getId() + ",text:\"" + message.getMessage().trim().replace("\"", "\\\"") + "\"}");
+             pushMessage.setPayload(BulkSendService.buildPayload(message));
              pushMessage.setMessageType("textMessage");
 
              this.pushService.send(pushMessage);
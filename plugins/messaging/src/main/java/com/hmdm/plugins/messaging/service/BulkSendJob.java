@@ -0,0 +1,151 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.plugins.messaging.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A state of the background job sending the message to a group of devices.</p>
+ *
+ * @author isv
+ */
+@ApiModel(description = "A state of the bulk message sending job")
+public class BulkSendJob {
+
+    public static final String STATE_PENDING = "PENDING";
+    public static final String STATE_RUNNING = "RUNNING";
+    public static final String STATE_DONE = "DONE";
+    public static final String STATE_FAILED = "FAILED";
+
+    @ApiModelProperty("ID of the job")
+    private final String id;
+
+    @JsonIgnore
+    private final int customerId;
+
+    @ApiModelProperty("Job state: PENDING, RUNNING, DONE or FAILED")
+    private volatile String state = STATE_PENDING;
+
+    @ApiModelProperty("Number of devices to send the message to")
+    private volatile int total;
+
+    @ApiModelProperty("Number of devices the message has been sent to")
+    private final AtomicInteger sent = new AtomicInteger();
+
+    @ApiModelProperty("Number of devices the message has failed to be sent to")
+    private final AtomicInteger failed = new AtomicInteger();
+
+    @ApiModelProperty("Timestamp of job submission (in milliseconds since epoch time)")
+    private final long createTime;
+
+    @ApiModelProperty("Timestamp of job completion (in milliseconds since epoch time)")
+    private volatile Long finishTime;
+
+    /**
+     * <p>Constructs new <code>BulkSendJob</code> instance.</p>
+     *
+     * @param id an ID of the job.
+     * @param customerId an ID of the customer account the job has been submitted for.
+     * @param total a number of devices to send the message to, counted on submission.
+     */
+    public BulkSendJob(String id, int customerId, int total) {
+        this.id = id;
+        this.customerId = customerId;
+        this.total = total;
+        this.createTime = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getCustomerId() {
+        return customerId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSent() {
+        return sent.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public Long getFinishTime() {
+        return finishTime;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return finishTime != null;
+    }
+
+    void onStarted() {
+        this.state = STATE_RUNNING;
+    }
+
+    void onBatchSent(int count) {
+        this.sent.addAndGet(count);
+    }
+
+    void onBatchFailed(int count) {
+        this.failed.addAndGet(count);
+    }
+
+    void onFinished(boolean success) {
+        if (success) {
+            // The devices may be added or removed while sending, so the total is adjusted to the processed ones
+            this.total = this.sent.get() + this.failed.get();
+        }
+        this.state = success ? STATE_DONE : STATE_FAILED;
+        this.finishTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkSendJob{" +
+                "id='" + id + '\'' +
+                ", customerId=" + customerId +
+                ", state=" + state +
+                ", total=" + total +
+                ", sent=" + sent +
+                ", failed=" + failed +
+                '}';
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.plugins.messaging.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hmdm.notification.PushService;
+import com.hmdm.notification.persistence.domain.PushMessage;
+import com.hmdm.plugins.messaging.persistence.MessagingDAO;
+import com.hmdm.plugins.messaging.persistence.domain.Message;
+import com.hmdm.util.BackgroundTaskRunnerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>A service sending the message to a group of devices in background.</p>
+ *
+ * <p>The recipients are read from the database in chunks ordered by device ID (so the whole list of devices is never
+ * held in memory), the messages for each chunk are inserted with a single statement and the push notifications for the
+ * chunk are dispatched as a batch. The progress is tracked by {@link BulkSendJob} available for
+ * {@link #FINISHED_JOB_TTL} after completion.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class BulkSendService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkSendService.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * <p>A number of recipients processed at once.</p>
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * <p>A period of time (in milliseconds) to keep the state of the finished jobs for.</p>
+     */
+    private static final long FINISHED_JOB_TTL = 3600 * 1000L;
+
+    private final MessagingDAO messagingDAO;
+
+    private final PushService pushService;
+
+    private final BackgroundTaskRunnerService taskRunner;
+
+    private final ConcurrentMap<String, BulkSendJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * <p>Constructs new <code>BulkSendService</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public BulkSendService(MessagingDAO messagingDAO,
+                           PushService pushService,
+                           BackgroundTaskRunnerService taskRunner) {
+        this.messagingDAO = messagingDAO;
+        this.pushService = pushService;
+        this.taskRunner = taskRunner;
+    }
+
+    /**
+     * <p>Submits the job for sending the message to all devices matching the specified criteria and available to
+     * specified user.</p>
+     *
+     * @param customerId an ID of the customer account.
+     * @param userId an ID of the user sending the message.
+     * @param groupId an optional ID of the device group to send the message to.
+     * @param configurationId an optional ID of the configuration to send the message to.
+     * @param text a message text.
+     * @return a state of the submitted job.
+     */
+    public BulkSendJob submit(int customerId, int userId, Integer groupId, Integer configurationId, String text) {
+        evictFinishedJobs();
+
+        final int total = this.messagingDAO.countRecipients(customerId, userId, groupId, configurationId);
+        final BulkSendJob job = new BulkSendJob(UUID.randomUUID().toString(), customerId, total);
+        this.jobs.put(job.getId(), job);
+        this.taskRunner.submitTask(() -> run(job, userId, groupId, configurationId, text));
+
+        return job;
+    }
+
+    /**
+     * <p>Gets the state of the specified job.</p>
+     *
+     * @param id an ID of the job.
+     * @param customerId an ID of the customer account requesting the job state.
+     * @return a job state or <code>null</code> if there is no such job for the specified customer.
+     */
+    public BulkSendJob getJob(String id, int customerId) {
+        final BulkSendJob job = this.jobs.get(id);
+        if (job == null || job.getCustomerId() != customerId) {
+            return null;
+        }
+        return job;
+    }
+
+    /**
+     * <p>Builds the push notification payload for the specified message.</p>
+     *
+     * @param message a message to be delivered to device.
+     * @return a payload to be sent to device.
+     */
+    public static String buildPayload(Message message) {
+        final ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("id", message.getId());
+        payload.put("text", message.getMessage().trim());
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to build the message payload", e);
+        }
+    }
+
+    private void run(BulkSendJob job, int userId, Integer groupId, Integer configurationId, String text) {
+        logger.info("Starting bulk message sending: {}", job);
+        job.onStarted();
+        try {
+            int afterId = 0;
+            List<Integer> deviceIds;
+            do {
+                deviceIds = this.messagingDAO.findRecipientIds(
+                        job.getCustomerId(), userId, groupId, configurationId, afterId, BATCH_SIZE
+                );
+                if (!deviceIds.isEmpty()) {
+                    afterId = deviceIds.get(deviceIds.size() - 1);
+                    sendBatch(job, deviceIds, text);
+                }
+            } while (deviceIds.size() == BATCH_SIZE);
+
+            job.onFinished(true);
+            logger.info("Finished bulk message sending: {}", job);
+        } catch (Exception e) {
+            job.onFinished(false);
+            logger.error("Bulk message sending has failed: {}", job, e);
+        }
+    }
+
+    private void sendBatch(BulkSendJob job, List<Integer> deviceIds, String text) {
+        try {
+            final long now = System.currentTimeMillis();
+            final List<Message> messages = new ArrayList<>(deviceIds.size());
+            for (Integer deviceId : deviceIds) {
+                Message message = new Message();
+                message.setCustomerId(job.getCustomerId());
+                message.setDeviceId(deviceId);
+                message.setTs(now);
+                message.setMessage(text);
+                message.setStatus(Message.STATUS_SENT);
+                messages.add(message);
+            }
+
+            this.messagingDAO.insertMessages(messages);
+
+            final List<PushMessage> pushMessages = new ArrayList<>(messages.size());
+            for (Message message : messages) {
+                PushMessage pushMessage = new PushMessage();
+                pushMessage.setDeviceId(message.getDeviceId());
+                pushMessage.setPayload(buildPayload(message));
+                pushMessage.setMessageType("textMessage");
+                pushMessages.add(pushMessage);
+            }
+
+            this.pushService.sendAll(pushMessages);
+
+            job.onBatchSent(deviceIds.size());
+        } catch (Exception e) {
+            logger.error("Failed to send the message to {} devices for job {}", deviceIds.size(), job.getId(), e);
+            job.onBatchFailed(deviceIds.size());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        final long threshold = System.currentTimeMillis() - FINISHED_JOB_TTL;
+        this.jobs.values().removeIf(job -> job.isFinished() && job.getFinishTime() < threshold);
+    }
+}
@@ -42,6 +42,7 @@ angular.module('plugin-messaging', ['ngResource', 'ui.bootstrap', 'ui.router', '
             purgeOldMessages: {url: 'rest/plugins/messaging/private/purge/:days', method: 'GET'},
             getMessages: {url: 'rest/plugins/messaging/private/search', method: 'POST'},
             sendMessage: {url: 'rest/plugins/messaging/private/send', method: 'POST'},
+            getSendJob: {url: 'rest/plugins/messaging/private/jobs/:id', method: 'GET'},
             deleteMessage: {url: 'rest/plugins/messaging/:id', method: 'DELETE'},
             lookupDevices: {url: 'rest/private/devices/autocomplete', method: 'POST'},
         });
@@ -269,10 +270,48 @@ angular.module('plugin-messaging', ['ngResource', 'ui.bootstrap', 'ui.router', '
             });
         };
     })
-    .controller('NewMessageController', function ($scope, $rootScope, $modalInstance, configurationService, groupService,
+    .controller('NewMessageController', function ($scope, $rootScope, $modalInstance, $timeout, configurationService, groupService,
                                                   confirmModal, localization, pluginMessagingService, getDevicesService) {
 
         $scope.sending = false;
+        $scope.job = undefined;
+
+        var jobPollTimer;
+
+        var pollJob = function (jobId) {
+            jobPollTimer = $timeout(function () {
+                pluginMessagingService.getSendJob({id: jobId}).$promise.then(function (response) {
+                    if (response.status !== 'OK') {
+                        $scope.sending = false;
+                        $scope.errorMessage = localization.localizeServerResponse(response);
+                        return;
+                    }
+                    $scope.job = response.data;
+                    if ($scope.job.state === 'DONE' && $scope.job.failed === 0) {
+                        $modalInstance.close();
+                    } else if ($scope.job.state === 'DONE' || $scope.job.state === 'FAILED') {
+                        $scope.sending = false;
+                        $scope.errorMessage = localization.localize('plugin.messaging.send.job.failed');
+                    } else {
+                        pollJob(jobId);
+                    }
+                }, function () {
+                    $scope.sending = false;
+                    $scope.errorMessage = localization.localizeServerResponse('error.request.failure');
+                });
+            }, 1000);
+        };
+
+        $scope.$on('$destroy', function () {
+            $timeout.cancel(jobPollTimer);
+        });
+
+        $scope.getJobProgress = function () {
+            return localization.localize('plugin.messaging.send.job.progress')
+                .replace('${sent}', $scope.job.sent)
+                .replace('${failed}', $scope.job.failed)
+                .replace('${total}', $scope.job.total);
+        };
 
         $scope.getDevices = getDevicesService.getDevices;
         $scope.deviceLookupFormatter = getDevicesService.deviceLookupFormatter;
@@ -321,10 +360,15 @@ angular.module('plugin-messaging', ['ngResource', 'ui.bootstrap', 'ui.router', '
             $scope.sending = true;
 
             pluginMessagingService.sendMessage($scope.message).$promise.then(function(response) {
-                $scope.sending = false;
-                if (response.status === 'OK') {
+                if (response.status === 'OK' && response.data && response.data.id) {
+                    // The message is sent to a group of devices in background, the dialog shows the progress
+                    $scope.job = response.data;
+                    pollJob($scope.job.id);
+                } else if (response.status === 'OK') {
+                    $scope.sending = false;
                     $modalInstance.close();
                 } else {
+                    $scope.sending = false;
                     $scope.errorMessage = localization.localizeServerResponse(response);
                 }
             }, function () {
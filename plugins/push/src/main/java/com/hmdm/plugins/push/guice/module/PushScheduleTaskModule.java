@@ -30,16 +30,16 @@ import com.hmdm.persistence.domain.Device;
 import com.hmdm.persistence.domain.DeviceSearchRequest;
 import com.hmdm.plugin.PluginTaskModule;
 import com.hmdm.plugins.push.persistence.PushDAO;
-import com.hmdm.plugins.push.persistence.PushScheduleDAO;
 import com.hmdm.plugins.push.persistence.domain.PluginPushMessage;
 import com.hmdm.plugins.push.persistence.domain.PluginPushSchedule;
-import com.hmdm.rest.json.Response;
-import com.hmdm.security.SecurityContext;
+import com.hmdm.plugins.push.service.PushScheduleIndex;
+import com.hmdm.service.ScheduledTaskService;
 import com.hmdm.util.BackgroundTaskRunnerService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -53,19 +53,19 @@ public class PushScheduleTaskModule implements PluginTaskModule {
     private static final Logger logger = LoggerFactory.getLogger(PushScheduleTaskModule.class);
 
     /**
-     * <p>An interface to push message records persistence.</p>
+     * <p>A max number of messages inserted and dispatched at once.</p>
      */
-    private PushDAO pushDAO;
+    private static final int BATCH_SIZE = 500;
 
     /**
-     * <p>An interface to persistence layer.</p>
+     * <p>An interface to push message records persistence.</p>
      */
-    private final UnsecureDAO unsecureDAO;
+    private PushDAO pushDAO;
 
     /**
      * <p>An interface to persistence layer.</p>
      */
-    private final PushScheduleDAO pushScheduleDAO;
+    private final UnsecureDAO unsecureDAO;
 
     /**
      * <p>An interface to notification services.</p>
@@ -77,6 +77,16 @@ public class PushScheduleTaskModule implements PluginTaskModule {
      */
     private final BackgroundTaskRunnerService taskRunner;
 
+    /**
+     * <p>An in-memory index of the scheduled messages.</p>
+     */
+    private final PushScheduleIndex pushScheduleIndex;
+
+    /**
+     * <p>A runner for the tasks executed by the single server node.</p>
+     */
+    private final ScheduledTaskService scheduledTaskService;
+
     /**
      * <p>Constructs new <code>DeviceInfoTaskModule</code> instance. This implementation does nothing.</p>
      */
@@ -84,14 +94,16 @@ public class PushScheduleTaskModule implements PluginTaskModule {
     public PushScheduleTaskModule(
             PushDAO pushDAO,
             UnsecureDAO unsecureDAO,
-            PushScheduleDAO pushScheduleDAO,
             PushService pushService,
-            BackgroundTaskRunnerService taskRunner) {
+            BackgroundTaskRunnerService taskRunner,
+            PushScheduleIndex pushScheduleIndex,
+            ScheduledTaskService scheduledTaskService) {
         this.pushDAO = pushDAO;
         this.unsecureDAO = unsecureDAO;
-        this.pushScheduleDAO = pushScheduleDAO;
         this.pushService = pushService;
         this.taskRunner = taskRunner;
+        this.pushScheduleIndex = pushScheduleIndex;
+        this.scheduledTaskService = scheduledTaskService;
     }
 
     /**
@@ -99,78 +111,95 @@ public class PushScheduleTaskModule implements PluginTaskModule {
      */
     @Override
     public void init() {
-        taskRunner.submitRepeatableTask(this::sendScheduledMessages, 1, 1, TimeUnit.MINUTES);
+        scheduledTaskService.submitScheduledTask("push.schedule", this::sendScheduledMessages, 1, 1, TimeUnit.MINUTES);
     }
 
 
     /**
-     * <p>Retrieves scheduled messages from the database and sends them.</p>
+     * <p>Finds the scheduled messages due at current minute and hands them over for sending in background, so a
+     * large dispatch never delays the next tick.</p>
      */
     public void sendScheduledMessages() {
         try {
-            List<PluginPushSchedule> taskList = pushScheduleDAO.findMatchingTime();
-            taskList.forEach(task -> sendScheduledMessage(task));
+            final List<PluginPushSchedule> taskList = pushScheduleIndex.findDue(Calendar.getInstance());
+            if (!taskList.isEmpty()) {
+                taskRunner.submitTask(() -> sendScheduledMessages(taskList));
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    public void sendScheduledMessage(PluginPushSchedule task) {
-        List<PluginPushMessage> messages = new LinkedList<>();
-        List<Device> devices = new LinkedList<>();
-        logger.info("Processing scheduled message: type " + task.getMessageType() +
-                ", customer " + task.getCustomerId() +
-                ", scope " + task.getScope() + ", device " + task.getDeviceId() +
-                ", group " + task.getGroupId() + ", config " + task.getConfigurationId());
+    /**
+     * <p>Resolves the target devices of the specified scheduled messages and sends the messages in batches.</p>
+     *
+     * @param taskList a list of scheduled messages to send.
+     */
+    public void sendScheduledMessages(List<PluginPushSchedule> taskList) {
+        final List<PluginPushMessage> messages = new ArrayList<>();
+        for (PluginPushSchedule task : taskList) {
+            try {
+                collectScheduledMessages(task, messages);
+            } catch (Exception e) {
+                logger.error("Failed to resolve target devices of scheduled message #" + task.getId(), e);
+            }
+        }
+        for (int i = 0; i < messages.size(); i += BATCH_SIZE) {
+            sendBatch(messages.subList(i, Math.min(i + BATCH_SIZE, messages.size())));
+        }
+    }
 
+    private void collectScheduledMessages(PluginPushSchedule task, List<PluginPushMessage> messages) {
+        final List<Integer> deviceIds = new ArrayList<>();
         if (task.getScope().equals("device")) {
-            PluginPushMessage message = new PluginPushMessage();
-            message.setDeviceId(task.getDeviceId());
-            messages.add(message);
-        } else if (task.getScope().equals("group")) {
-            devices = unsecureDAO.getAllGroupDevices(task.getGroupId(), task.getCustomerId());
-        } else if (task.getScope().equals("configuration")) {
-            devices = unsecureDAO.getAllConfigurationDevices(task.getConfigurationId(), task.getCustomerId());
+            deviceIds.add(task.getDeviceId());
         } else {
-            devices = unsecureDAO.getAllCustomerDevices(task.getCustomerId());
+            final List<Device> devices;
+            if (task.getScope().equals("group")) {
+                devices = unsecureDAO.getAllGroupDevices(task.getGroupId(), task.getCustomerId());
+            } else if (task.getScope().equals("configuration")) {
+                devices = unsecureDAO.getAllConfigurationDevices(task.getConfigurationId(), task.getCustomerId());
+            } else {
+                devices = unsecureDAO.getAllCustomerDevices(task.getCustomerId());
+            }
+            devices.forEach(device -> deviceIds.add(device.getId()));
         }
+        logger.info("Processing scheduled message: type " + task.getMessageType() +
+                ", customer " + task.getCustomerId() +
+                ", scope " + task.getScope() + ", device " + task.getDeviceId() +
+                ", group " + task.getGroupId() + ", config " + task.getConfigurationId() +
+                ", " + deviceIds.size() + " device(s)");
 
-        for (Device device : devices) {
+        final long ts = System.currentTimeMillis();
+        for (Integer deviceId : deviceIds) {
             PluginPushMessage message = new PluginPushMessage();
-            message.setDeviceId(device.getId());
-            messages.add(message);
-        }
-
-        for (PluginPushMessage message : messages) {
+            message.setDeviceId(deviceId);
             message.setCustomerId(task.getCustomerId());
             message.setMessageType(task.getMessageType());
             if (task.getPayload() != null && !task.getPayload().trim().equals("")) {
                 message.setPayload(task.getPayload());
             }
-            message.setTs(System.currentTimeMillis());
-            sendSingleMessage(message);
+            message.setTs(ts);
+            messages.add(message);
         }
-
     }
 
-    private boolean sendSingleMessage(PluginPushMessage message) {
-        logger.info("Sending Push message " + message.getMessageType() + " to device " + message.getDeviceId());
+    private void sendBatch(List<PluginPushMessage> batch) {
         try {
-            this.pushDAO.insertRawMessage(message);
-
-            PushMessage pushMessage = new PushMessage();
-            pushMessage.setDeviceId(message.getDeviceId());
-            pushMessage.setMessageType(message.getMessageType());
-            pushMessage.setPayload(message.getPayload());
-
-            this.pushService.send(pushMessage);
-
-            return true;
+            this.pushDAO.insertRawMessages(batch);
+
+            final List<PushMessage> pushMessages = new ArrayList<>(batch.size());
+            for (PluginPushMessage message : batch) {
+                PushMessage pushMessage = new PushMessage();
+                pushMessage.setDeviceId(message.getDeviceId());
+                pushMessage.setMessageType(message.getMessageType());
+                pushMessage.setPayload(message.getPayload());
+                pushMessages.add(pushMessage);
+            }
 
+            this.pushService.sendAll(pushMessages);
         } catch (Exception e) {
-            e.printStackTrace();
-            logger.error("Unexpected error when sending a Push message to " + message.getDeviceId(), e);
-            return false;
+            logger.error("Unexpected error when sending a batch of " + batch.size() + " scheduled Push messages", e);
         }
     }
 }
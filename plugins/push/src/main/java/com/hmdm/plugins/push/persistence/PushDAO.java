@@ -114,6 +114,17 @@ public class PushDAO extends AbstractDAO<PluginPushMessage> {
         this.pushMessageMapper.insertMessage(message);
     }
 
+    /**
+     * <p>Inserts the specified messages into underlying persistent data store using a single statement.</p>
+     *
+     * @param messages messages to insert
+     */
+    public void insertRawMessages(List<PluginPushMessage> messages) {
+        if (!messages.isEmpty()) {
+            this.pushMessageMapper.insertMessages(messages);
+        }
+    }
+
     /**
      * <p>Deletes the message</p>
      *
@@ -37,7 +37,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -140,15 +139,23 @@ public class PushScheduleDAO extends AbstractDAO<PluginPushSchedule> {
         });
     }
 
-    public List<PluginPushSchedule> findMatchingTime() {
-        Calendar c = Calendar.getInstance();
-        return pushScheduleMapper.findMatchingTime(
-                parseScheduleMask("" + c.get(Calendar.MINUTE), 60, false, "minute"),
-                parseScheduleMask("" + c.get(Calendar.HOUR_OF_DAY), 24, false, "hour"),
-                parseScheduleMask("" + c.get(Calendar.DAY_OF_MONTH), 31, true, "day"),
-                parseScheduleMask("" + c.get(Calendar.DAY_OF_WEEK), 7, true, "weekday"),
-                parseScheduleMask("" + c.get(Calendar.MONTH), 12, true, "month")
-        );
+    /**
+     * <p>Gets all scheduled messages of all customers. Used for building the schedule index.</p>
+     *
+     * @return a list of all scheduled messages.
+     */
+    public List<PluginPushSchedule> findAllUnsecure() {
+        return pushScheduleMapper.findAllSchedules();
+    }
+
+    /**
+     * <p>Gets the version of the scheduled messages of all customers. The version changes whenever a scheduled message
+     * is created, updated or deleted.</p>
+     *
+     * @return a version of the scheduled messages.
+     */
+    public String getScheduleVersionUnsecure() {
+        return pushScheduleMapper.getScheduleVersion();
     }
 
     /**
@@ -200,7 +207,17 @@ public class PushScheduleDAO extends AbstractDAO<PluginPushSchedule> {
         return true;
     }
 
-    private static String parseScheduleMask(String rawMask, int length, boolean startFromOne, String scope) {
+    /**
+     * <p>Parses the cron-like schedule field into a bit mask.</p>
+     *
+     * @param rawMask a field value: <code>*</code>, <code>*&#47;n</code> or a single number.
+     * @param length a number of bits in the mask.
+     * @param startFromOne <code>true</code> if field values start from 1 (days, weekdays, months).
+     * @param scope a field name for logging.
+     * @return a string of <code>0</code> and <code>1</code> characters, the first character corresponding to the
+     *         lowest field value; or <code>null</code> if the field value is invalid.
+     */
+    public static String parseScheduleMask(String rawMask, int length, boolean startFromOne, String scope) {
         String mask = rawMask.replaceAll("\\s+","");
         StringBuilder res = new StringBuilder(length);
         if (mask.equals("*")) {
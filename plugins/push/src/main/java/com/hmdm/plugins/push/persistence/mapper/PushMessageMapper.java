@@ -43,6 +43,8 @@ public interface PushMessageMapper {
             keyColumn = "id", keyProperty = "id", before = false, resultType = int.class )
     int insertMessage(PluginPushMessage msg);
 
+    void insertMessages(@Param("messages") List<PluginPushMessage> messages);
+
     @Delete("DELETE FROM plugin_push_messages WHERE id = #{id} AND customerId = #{customerId}")
     void deleteMessage(@Param("id") int id, @Param("customerId") int customerId);
 
@@ -38,12 +38,12 @@ public interface PushScheduleMapper {
 
     @Insert("INSERT INTO plugin_push_schedule " +
             "(customerId, deviceId, groupId, configurationId, scope, messageType, payload, comment, " +
-            "min, minBit, hour, hourBit, day, dayBit, weekday, weekdayBit, month, monthBit) " +
+            "min, minBit, hour, hourBit, day, dayBit, weekday, weekdayBit, month, monthBit, updateTime) " +
             "VALUES " +
             "(#{customerId}, #{deviceId}, #{groupId}, #{configurationId}, #{scope}, #{messageType}, #{payload}, #{comment}, " +
             "#{min}, CAST(#{minBit} AS BIT(60)), #{hour}, CAST(#{hourBit} AS BIT(24)), " +
             "#{day}, CAST(#{dayBit} AS BIT(31)), #{weekday}, CAST(#{weekdayBit} AS BIT(7)), " +
-            "#{month}, CAST(#{monthBit} AS BIT(12)))"
+            "#{month}, CAST(#{monthBit} AS BIT(12)), EXTRACT(EPOCH FROM NOW()) * 1000)"
     )
     @SelectKey( statement = "SELECT currval('plugin_push_schedule_id_seq')",
             keyColumn = "id", keyProperty = "id", before = false, resultType = int.class )
@@ -54,7 +54,7 @@ public interface PushScheduleMapper {
             "scope=#{scope}, messageType=#{messageType}, payload=#{payload}, comment=#{comment}, " +
             "min=#{min}, minBit=CAST(#{minBit} AS BIT(60)), hour=#{hour}, hourBit=CAST(#{hourBit} AS BIT(24)), " +
             "day=#{day}, dayBit=CAST(#{dayBit} AS BIT(31)), weekday=#{weekday}, weekdayBit=CAST(#{weekdayBit} AS BIT(7)), " +
-            "month=#{month}, monthBit=CAST(#{monthBit} AS BIT(12)) " +
+            "month=#{month}, monthBit=CAST(#{monthBit} AS BIT(12)), updateTime=EXTRACT(EPOCH FROM NOW()) * 1000 " +
             "WHERE id=#{id} AND customerId=#{customerId}"
     )
     int update(PluginPushSchedule msg);
@@ -62,18 +62,11 @@ public interface PushScheduleMapper {
     @Delete("DELETE FROM plugin_push_schedule WHERE id = #{id} AND customerId = #{customerId}")
     void delete(@Param("id") int id, @Param("customerId") int customerId);
 
-    @Select("SELECT * FROM plugin_push_schedule WHERE " +
-            "(minBit & CAST(#{minMask} AS BIT(60))) = CAST(#{minMask} AS BIT(60)) AND " +
-            "(hourBit & CAST(#{hourMask} AS BIT(24))) = CAST(#{hourMask} AS BIT(24)) AND " +
-            "(dayBit & CAST(#{dayMask} AS BIT(31))) = CAST(#{dayMask} AS BIT(31)) AND " +
-            "(weekdayBit & CAST(#{weekdayMask} AS BIT(7))) = CAST(#{weekdayMask} AS BIT(7)) AND " +
-            "(monthBit & CAST(#{monthMask} AS BIT(12))) = CAST(#{monthMask} AS BIT(12))"
-    )
-    List<PluginPushSchedule> findMatchingTime(@Param("minMask") String minMask,
-                                             @Param("hourMask") String hourMask,
-                                             @Param("dayMask") String dayMask,
-                                             @Param("weekdayMask") String weekdayMask,
-                                             @Param("monthMask") String monthMask);
+    @Select("SELECT * FROM plugin_push_schedule")
+    List<PluginPushSchedule> findAllSchedules();
+
+    @Select("SELECT COUNT(*) || ':' || COALESCE(MAX(updateTime), 0) FROM plugin_push_schedule")
+    String getScheduleVersion();
 
     List<PluginPushSchedule> findAll(PushScheduleFilter filter);
 
@@ -35,6 +35,7 @@ import com.hmdm.plugins.push.persistence.domain.PluginPushSchedule;
 import com.hmdm.plugins.push.rest.json.PushMessageFilter;
 import com.hmdm.plugins.push.rest.json.PushScheduleFilter;
 import com.hmdm.plugins.push.rest.json.PushSendRequest;
+import com.hmdm.plugins.push.service.PushScheduleIndex;
 import com.hmdm.rest.json.PaginatedData;
 import com.hmdm.rest.json.Response;
 import com.hmdm.security.SecurityContext;
@@ -93,6 +94,11 @@ public class PushResource {
 
     private PluginStatusCache pluginStatusCache;
 
+    /**
+     * <p>An in-memory index of the scheduled messages.</p>
+     */
+    private PushScheduleIndex pushScheduleIndex;
+
     /**
      * <p>A constructor required by swagger.</p>
      */
@@ -108,13 +114,15 @@ public class PushResource {
                              UnsecureDAO unsecureDAO,
                              DeviceDAO deviceDAO,
                              PushService pushService,
-                             PluginStatusCache pluginStatusCache) {
+                             PluginStatusCache pluginStatusCache,
+                             PushScheduleIndex pushScheduleIndex) {
         this.pushDAO = pushDAO;
         this.pushScheduleDAO = pushScheduleDAO;
         this.unsecureDAO = unsecureDAO;
         this.deviceDAO = deviceDAO;
         this.pushService = pushService;
         this.pluginStatusCache = pluginStatusCache;
+        this.pushScheduleIndex = pushScheduleIndex;
     }
 
     // =================================================================================================================
@@ -367,6 +375,7 @@ public class PushResource {
             } else {
                 pushScheduleDAO.update(task);
             }
+            pushScheduleIndex.invalidate();
 
             return Response.OK();
         } catch (Exception e) {
@@ -392,6 +401,7 @@ public class PushResource {
         }
         try {
             this.pushScheduleDAO.delete(id);
+            pushScheduleIndex.invalidate();
             return Response.OK();
         } catch (SecurityException e) {
             logger.error("Prohibited to delete a scheduled task #{} by current user", id, e);
@@ -0,0 +1,218 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.plugins.push.service;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hmdm.plugins.push.persistence.PushScheduleDAO;
+import com.hmdm.plugins.push.persistence.domain.PluginPushSchedule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>An in-memory index of the scheduled push messages. The schedule masks are compiled into bit sets once and the
+ * schedules are bucketed by minute, so finding the schedules due at a given moment doesn't touch the database.</p>
+ *
+ * <p>The index is rebuilt on the next lookup after {@link #invalidate()} is called (on schedule change) or when the
+ * version of the schedules in the database changes, to pick up the changes made on other nodes.</p>
+ *
+ * @author isv
+ */
+@Singleton
+public class PushScheduleIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushScheduleIndex.class);
+
+    /**
+     * <p>An interface to scheduled task records persistence.</p>
+     */
+    private final PushScheduleDAO pushScheduleDAO;
+
+    /**
+     * <p>The compiled schedules bucketed by minute of hour.</p>
+     */
+    private volatile List<List<CompiledSchedule>> byMinute;
+
+    /**
+     * <p>The version of the schedules the index was built from.</p>
+     */
+    private volatile String version;
+
+    private volatile boolean dirty = true;
+
+    /**
+     * <p>Constructs new <code>PushScheduleIndex</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public PushScheduleIndex(PushScheduleDAO pushScheduleDAO) {
+        this.pushScheduleDAO = pushScheduleDAO;
+    }
+
+    /**
+     * <p>Marks the index as outdated so it is rebuilt on next lookup.</p>
+     */
+    public void invalidate() {
+        this.dirty = true;
+    }
+
+    /**
+     * <p>Finds the schedules matching the specified moment.</p>
+     *
+     * @param c a moment to find the schedules for.
+     * @return a list of scheduled messages due at specified moment.
+     */
+    public List<PluginPushSchedule> findDue(Calendar c) {
+        final String currentVersion = getCurrentVersion();
+        if (dirty || currentVersion != null && !currentVersion.equals(version)) {
+            rebuild(currentVersion);
+        }
+        final List<CompiledSchedule> candidates = byMinute.get(c.get(Calendar.MINUTE));
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final int hour = c.get(Calendar.HOUR_OF_DAY);
+        final int day = c.get(Calendar.DAY_OF_MONTH) - 1;
+        final int weekday = c.get(Calendar.DAY_OF_WEEK) - 1;
+        final int month = c.get(Calendar.MONTH);
+
+        final List<PluginPushSchedule> result = new ArrayList<>();
+        for (CompiledSchedule s : candidates) {
+            if ((s.hourBits >>> hour & 1) != 0 &&
+                    (s.dayBits >>> day & 1) != 0 &&
+                    (s.weekdayBits >>> weekday & 1) != 0 &&
+                    (s.monthBits >>> month & 1) != 0) {
+                result.add(s.schedule);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>Gets the current version of the schedules in the database.</p>
+     *
+     * @return a version of the schedules or <code>null</code> if it failed to be read.
+     */
+    private String getCurrentVersion() {
+        try {
+            return pushScheduleDAO.getScheduleVersionUnsecure();
+        } catch (RuntimeException e) {
+            logger.error("Failed to check the version of the scheduled messages", e);
+            return null;
+        }
+    }
+
+    /**
+     * <p>Reloads the schedules from the database and compiles them.</p>
+     *
+     * @param currentVersion a version of the schedules read before loading them, so a change made during the rebuild
+     *                       triggers another one; may be <code>null</code> if unknown.
+     */
+    private synchronized void rebuild(String currentVersion) {
+        // Reset the flag before loading so a change made during the rebuild triggers another one
+        dirty = false;
+        final List<PluginPushSchedule> schedules;
+        try {
+            schedules = pushScheduleDAO.findAllUnsecure();
+        } catch (RuntimeException e) {
+            dirty = true;
+            if (byMinute == null) {
+                throw e;
+            }
+            logger.error("Failed to reload the scheduled messages, using the previous index", e);
+            return;
+        }
+
+        final List<List<CompiledSchedule>> index = new ArrayList<>(60);
+        for (int i = 0; i < 60; i++) {
+            index.add(new ArrayList<>());
+        }
+        for (PluginPushSchedule schedule : schedules) {
+            final CompiledSchedule compiled = compile(schedule);
+            if (compiled == null) {
+                logger.warn("Skipping scheduled message #{} with invalid schedule", schedule.getId());
+                continue;
+            }
+            for (int minute = 0; minute < 60; minute++) {
+                if ((compiled.minuteBits >>> minute & 1) != 0) {
+                    index.get(minute).add(compiled);
+                }
+            }
+        }
+        this.byMinute = index;
+        this.version = currentVersion;
+        logger.debug("Rebuilt the push schedule index: {} schedules", schedules.size());
+    }
+
+    private static CompiledSchedule compile(PluginPushSchedule s) {
+        try {
+            final long minuteBits = toBits(PushScheduleDAO.parseScheduleMask(s.getMin(), 60, false, "minute"));
+            final long hourBits = toBits(PushScheduleDAO.parseScheduleMask(s.getHour(), 24, false, "hour"));
+            final long dayBits = toBits(PushScheduleDAO.parseScheduleMask(s.getDay(), 31, true, "day"));
+            final long weekdayBits = toBits(PushScheduleDAO.parseScheduleMask(s.getWeekday(), 7, true, "weekday"));
+            final long monthBits = toBits(PushScheduleDAO.parseScheduleMask(s.getMonth(), 12, true, "month"));
+            return new CompiledSchedule(s, minuteBits, (int) hourBits, (int) dayBits, (int) weekdayBits, (int) monthBits);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    /**
+     * <p>Converts the mask produced by {@link PushScheduleDAO#parseScheduleMask} into a bit set; the first character
+     * of the mask becomes the lowest bit.</p>
+     */
+    private static long toBits(String mask) {
+        if (mask == null) {
+            throw new IllegalArgumentException("Invalid schedule mask");
+        }
+        long bits = 0;
+        for (int i = 0; i < mask.length(); i++) {
+            if (mask.charAt(i) == '1') {
+                bits |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    private static final class CompiledSchedule {
+        private final PluginPushSchedule schedule;
+        private final long minuteBits;
+        private final int hourBits;
+        private final int dayBits;
+        private final int weekdayBits;
+        private final int monthBits;
+
+        private CompiledSchedule(PluginPushSchedule schedule, long minuteBits,
+                                 int hourBits, int dayBits, int weekdayBits, int monthBits) {
+            this.schedule = schedule;
+            this.minuteBits = minuteBits;
+            this.hourBits = hourBits;
+            this.dayBits = dayBits;
+            this.weekdayBits = weekdayBits;
+            this.monthBits = monthBits;
+        }
+    }
+}
@@ -25,6 +25,9 @@ import com.google.inject.Inject;
 import com.hmdm.event.EventService;
 import com.hmdm.persistence.ConfigurationUpdatedEventListener;
 import com.hmdm.persistence.DeviceInfoUpdatedEventListener;
+import com.hmdm.persistence.DeviceLookupIndex;
+import com.hmdm.persistence.DeviceRemovedEventListener;
+import com.hmdm.persistence.DevicesUpdatedEventListener;
 import com.hmdm.persistence.mapper.DeviceMapper;
 import com.hmdm.service.DeviceStatusService;
 import org.slf4j.Logger;
@@ -42,6 +45,7 @@ public class EventListenerModule {
     private final EventService eventService;
     private final DeviceMapper deviceMapper;
     private final DeviceStatusService deviceStatusService;
+    private final DeviceLookupIndex deviceLookupIndex;
 
     private final ExecutorService executorService = Executors.newFixedThreadPool(1);
 
@@ -52,14 +56,18 @@ public class EventListenerModule {
      * <p>Constructs new <code>EventListenerModule</code> instance. This implementation does nothing.</p>
      */
     @Inject
-    public EventListenerModule(EventService eventService, DeviceMapper deviceMapper, DeviceStatusService deviceStatusService) {
+    public EventListenerModule(EventService eventService, DeviceMapper deviceMapper, DeviceStatusService deviceStatusService,
+                               DeviceLookupIndex deviceLookupIndex) {
         this.eventService = eventService;
         this.deviceMapper = deviceMapper;
         this.deviceStatusService = deviceStatusService;
+        this.deviceLookupIndex = deviceLookupIndex;
     }
 
     public void init() {
-        this.eventService.addEventListener(new DeviceInfoUpdatedEventListener(deviceStatusService));
+        this.eventService.addEventListener(new DeviceInfoUpdatedEventListener(deviceStatusService, deviceLookupIndex));
+        this.eventService.addEventListener(new DeviceRemovedEventListener(deviceLookupIndex));
+        this.eventService.addEventListener(new DevicesUpdatedEventListener(deviceLookupIndex));
         this.eventService.addEventListener(new ConfigurationUpdatedEventListener(deviceMapper, deviceStatusService));
 
         executorService.submit(() -> {
@@ -7,7 +7,9 @@ import com.hmdm.persistence.CommonDAO;
 import com.hmdm.persistence.UnsecureDAO;
 import com.hmdm.persistence.domain.User;
 import com.hmdm.service.RsaKeyService;
+import com.hmdm.service.ScheduledTaskService;
 import com.hmdm.task.CustomerStatusTask;
+import com.hmdm.task.DeviceStatusDecayTask;
 import com.hmdm.task.FileCheckTask;
 import com.hmdm.task.FileMigrateTask;
 import com.hmdm.util.BackgroundTaskRunnerService;
@@ -35,9 +37,11 @@ public class StartupTaskModule {
     private CustomerStatusTask customerStatusTask;
     private FileCheckTask fileCheckTask;
     private FileMigrateTask fileMigrateTask;
+    private DeviceStatusDecayTask deviceStatusDecayTask;
     private boolean customerAutoStatus;
     private boolean transmitPassword;
     private RsaKeyService rsaKeyService;
+    private ScheduledTaskService scheduledTaskService;
 
     private static final Logger logger = LoggerFactory.getLogger(EventService.class);
 
@@ -49,7 +53,9 @@ public class StartupTaskModule {
                              CustomerStatusTask customerStatusTask,
                              FileCheckTask fileCheckTask,
                              FileMigrateTask fileMigrateTask,
+                             DeviceStatusDecayTask deviceStatusDecayTask,
                              RsaKeyService rsaKeyService,
+                             ScheduledTaskService scheduledTaskService,
                              @Named("device.fast.search.chars") int deviceFastSearchChars,
                              @Named("sql.init.script.path") String sqlInitScriptPath,
                              @Named("customer.auto.status") boolean customerAutoStatus,
@@ -62,9 +68,11 @@ public class StartupTaskModule {
         this.customerStatusTask = customerStatusTask;
         this.fileCheckTask = fileCheckTask;
         this.fileMigrateTask = fileMigrateTask;
+        this.deviceStatusDecayTask = deviceStatusDecayTask;
         this.customerAutoStatus = customerAutoStatus;
         this.transmitPassword = transmitPassword;
         this.rsaKeyService = rsaKeyService;
+        this.scheduledTaskService = scheduledTaskService;
     }
 
     public void init() {
@@ -76,10 +84,11 @@ public class StartupTaskModule {
             taskRunner.submitTask(new ExecuteInitSqlTask());
         }
         if (customerAutoStatus) {
-            taskRunner.submitRepeatableTask(customerStatusTask, 0, 1, TimeUnit.HOURS);
+            scheduledTaskService.submitScheduledTask("customer.status", customerStatusTask, 0, 1, TimeUnit.HOURS);
         }
         // Shift a task to 5 min so they won't execute at the same time
-        taskRunner.submitRepeatableTask(fileCheckTask, 5, 60, TimeUnit.MINUTES);
+        scheduledTaskService.submitScheduledTask("file.check", fileCheckTask, 5, 60, TimeUnit.MINUTES);
+        scheduledTaskService.submitScheduledTask("device.status.decay", deviceStatusDecayTask, 1, 1, TimeUnit.MINUTES);
         if (transmitPassword) {
             taskRunner.submitTask(new GenerateRsaKeysTask());
         }
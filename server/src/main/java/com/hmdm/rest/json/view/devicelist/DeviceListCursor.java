@@ -0,0 +1,78 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.hmdm.rest.json.view.devicelist;
+
+import com.hmdm.persistence.domain.Device;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.io.Serializable;
+
+/**
+ * <p>A DTO carrying the sort keys of the last device of the page of <code>Device List</code> view. The values are to
+ * be passed as <code>after*</code> parameters of the request for the next page.</p>
+ *
+ * @author isv
+ */
+@ApiModel(description = "The sort keys of the last device of the page of device list")
+public class DeviceListCursor implements Serializable {
+
+    private static final long serialVersionUID = -2380567311974163823L;
+
+    @ApiModelProperty("A sorting value of the device")
+    private final String afterSortingValue;
+
+    @ApiModelProperty("A search priority of the device")
+    private final Integer afterSearchPriority;
+
+    @ApiModelProperty("A number of the device")
+    private final String afterDeviceNumber;
+
+    @ApiModelProperty("An ID of the device")
+    private final Integer afterDeviceId;
+
+    /**
+     * <p>Constructs new <code>DeviceListCursor</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceListCursor(Device device) {
+        this.afterSortingValue = device.getSortingValue();
+        this.afterSearchPriority = device.getSearchPriority();
+        this.afterDeviceNumber = device.getNumber();
+        this.afterDeviceId = device.getId();
+    }
+
+    public String getAfterSortingValue() {
+        return afterSortingValue;
+    }
+
+    public Integer getAfterSearchPriority() {
+        return afterSearchPriority;
+    }
+
+    public String getAfterDeviceNumber() {
+        return afterDeviceNumber;
+    }
+
+    public Integer getAfterDeviceId() {
+        return afterDeviceId;
+    }
+}
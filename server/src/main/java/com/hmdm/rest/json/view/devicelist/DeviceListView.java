@@ -55,15 +55,30 @@ public class DeviceListView implements Serializable {
      */
     private final PaginatedData<DeviceView> devices;
 
+    /**
+     * <p>The sort keys of the last device of the page to be passed with the request for the next page.</p>
+     */
+    private final DeviceListCursor nextPageCursor;
+
     /**
      * <p>Constructs new <code>DeviceListView</code> instance. This implementation does nothing.</p>
      */
     public DeviceListView(@NotNull Collection<Configuration> configurations,
                           @NotNull PaginatedData<DeviceView> devices) {
+        this(configurations, devices, null);
+    }
+
+    /**
+     * <p>Constructs new <code>DeviceListView</code> instance. This implementation does nothing.</p>
+     */
+    public DeviceListView(@NotNull Collection<Configuration> configurations,
+                          @NotNull PaginatedData<DeviceView> devices,
+                          DeviceListCursor nextPageCursor) {
         this.configurations = configurations.stream()
                 .map(ConfigurationView::new)
                 .collect(Collectors.toMap(ConfigurationView::getId, c -> c));
         this.devices = devices;
+        this.nextPageCursor = nextPageCursor;
     }
 
     public Map<Integer, ConfigurationView> getConfigurations() {
@@ -73,4 +88,8 @@ public class DeviceListView implements Serializable {
     public PaginatedData<DeviceView> getDevices() {
         return devices;
     }
+
+    public DeviceListCursor getNextPageCursor() {
+        return nextPageCursor;
+    }
 }
@@ -23,10 +23,15 @@ package com.hmdm.rest.resource;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
@@ -42,10 +47,12 @@ import com.hmdm.notification.PushService;
 import com.hmdm.persistence.*;
 import com.hmdm.persistence.domain.*;
 import com.hmdm.rest.json.*;
+import com.hmdm.rest.json.view.devicelist.DeviceListCursor;
 import com.hmdm.rest.json.view.devicelist.DeviceListView;
 import com.hmdm.rest.json.view.devicelist.DeviceView;
 import com.hmdm.security.SecurityContext;
 import com.hmdm.security.SecurityException;
+import com.hmdm.util.BackgroundTaskRunnerService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -63,9 +70,10 @@ public class DeviceResource {
     private DeviceDAO deviceDAO;
     private ConfigurationDAO configurationDAO;
     private PushService pushService;
-    private ConfigurationFileDAO configurationFileDAO;
     private CommonDAO commonDAO;
     private UnsecureDAO unsecureDAO;
+    private BackgroundTaskRunnerService taskRunner;
+    private DeviceImportDAO deviceImportDAO;
 
     /**
      * <p>A constructor required by Swagger.</p>
@@ -77,15 +85,17 @@ public class DeviceResource {
     public DeviceResource(DeviceDAO deviceDAO,
                           ConfigurationDAO configurationDAO,
                           PushService pushService,
-                          ConfigurationFileDAO configurationFileDAO,
                           CommonDAO commonDAO,
-                          UnsecureDAO unsecureDAO) {
+                          UnsecureDAO unsecureDAO,
+                          BackgroundTaskRunnerService taskRunner,
+                          DeviceImportDAO deviceImportDAO) {
         this.deviceDAO = deviceDAO;
         this.configurationDAO = configurationDAO;
         this.pushService = pushService;
-        this.configurationFileDAO = configurationFileDAO;
         this.commonDAO = commonDAO;
         this.unsecureDAO = unsecureDAO;
+        this.taskRunner = taskRunner;
+        this.deviceImportDAO = deviceImportDAO;
     }
 
     // =================================================================================================================
@@ -99,46 +109,22 @@ public class DeviceResource {
     @Produces(MediaType.APPLICATION_JSON)
     public Response getAllDevices(DeviceSearchRequest request) {
         PaginatedData<Device> devices = this.deviceDAO.getAllDevices(request);
-        Map<Integer, List<Application>> configIdToApplicationsMap = new HashMap<>();
-        Map<Integer, List<ConfigurationFile>> configIdToFilesMap = new HashMap<>();
-        Map<Integer, Configuration> configIdToConfigurationsMap = new HashMap<>();
+        final Set<Integer> configurationIds = devices.getItems().stream()
+                .map(Device::getConfigurationId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        final Map<Integer, Configuration> configIdToConfigurationsMap
+                = this.configurationDAO.getDeviceListConfigurations(configurationIds);
         for (Device device : devices.getItems()) {
             final Integer deviceConfigurationId = device.getConfigurationId();
-
-            Configuration dbConfig = null;
-            if (!configIdToConfigurationsMap.containsKey(deviceConfigurationId)) {
-                dbConfig = configurationDAO.getConfigurationById(deviceConfigurationId);
-                if (dbConfig == null) {
-                    log.error("Device " + device.getNumber() + ": configuration does not exist: " + deviceConfigurationId);
-                    device.setConfigurationId(null);     // Will be filtered out when converting to DeviceView
-                    continue;
-                }
-            }
-
-            if (!configIdToApplicationsMap.containsKey(deviceConfigurationId)) {
-                configIdToApplicationsMap.put(deviceConfigurationId, this.configurationDAO.getConfigurationApplications(deviceConfigurationId));
-            }
-            if (!configIdToFilesMap.containsKey(deviceConfigurationId)) {
-                configIdToFilesMap.put(deviceConfigurationId, this.configurationFileDAO.getConfigurationFiles(deviceConfigurationId));
-            }
-
-            if (!configIdToConfigurationsMap.containsKey(deviceConfigurationId)) {
-                // Here we keep only required properties
-                Configuration configuration = new Configuration();
-                configuration.setId(deviceConfigurationId);
-                configuration.setName(device.getConfigName());
-                if (dbConfig.getMainAppId() != null && dbConfig.getMainAppId() > 0 &&
-                        dbConfig.getEventReceivingComponent() != null && dbConfig.getEventReceivingComponent().length() > 0) {
-                    configuration.setQrCodeKey(dbConfig.getQrCodeKey());
-                    configuration.setBaseUrl(this.configurationDAO.getBaseUrl());
-                }
-                configuration.setApplications(configIdToApplicationsMap.get(deviceConfigurationId));
-                configuration.setFiles(configIdToFilesMap.get(deviceConfigurationId));
-                
-                configIdToConfigurationsMap.put(deviceConfigurationId, configuration);
+            final Configuration configuration = configIdToConfigurationsMap.get(deviceConfigurationId);
+            if (configuration == null) {
+                log.error("Device " + device.getNumber() + ": configuration does not exist: " + deviceConfigurationId);
+                device.setConfigurationId(null);     // Will be filtered out when converting to DeviceView
+                continue;
             }
 
-            device.setConfiguration(configIdToConfigurationsMap.get(deviceConfigurationId));
+            device.setConfiguration(configuration);
         }
 
         final List<DeviceView> deviceViews = devices.getItems().stream()
@@ -147,7 +133,15 @@ public class DeviceResource {
                 .collect(Collectors.toList());
         PaginatedData<DeviceView> devicesPage = new PaginatedData<>(deviceViews, devices.getTotalItemsCount());
 
-        DeviceListView view = new DeviceListView(configIdToConfigurationsMap.values(), devicesPage);
+        DeviceListCursor nextPageCursor = null;
+        if (!devices.getItems().isEmpty()) {
+            final Device lastDevice = devices.getItems().get(devices.getItems().size() - 1);
+            if (lastDevice.getSortingValue() != null && lastDevice.getSearchPriority() != null) {
+                nextPageCursor = new DeviceListCursor(lastDevice);
+            }
+        }
+
+        DeviceListView view = new DeviceListView(configIdToConfigurationsMap.values(), devicesPage, nextPageCursor);
 
         return Response.OK(view);
 
@@ -236,15 +230,10 @@ public class DeviceResource {
                     }
                 } else if (device.getIds() != null) {
                     // This is a bulk request to update configurations for selected devices
-                    Iterator it = device.getIds().iterator();
-
-                    while (it.hasNext()) {
-                        Integer id = (Integer) it.next();
-                        dbDevice = this.deviceDAO.getDeviceById(id);
-                        if (dbDevice != null) {
-                            this.deviceDAO.updateDeviceConfiguration(id, device.getConfigurationId());
-                            this.pushService.notifyDeviceOnSettingUpdate(dbDevice.getId());
-                        }
+                    final List<Integer> updatedIds
+                            = this.deviceDAO.updateDevicesConfiguration(device.getIds(), device.getConfigurationId());
+                    if (!updatedIds.isEmpty()) {
+                        this.taskRunner.submitTask(() -> notifyDevicesOnSettingUpdate(updatedIds));
                     }
                 } else {
                     Settings settings = new Settings();
@@ -308,16 +297,69 @@ public class DeviceResource {
             return Response.PERMISSION_DENIED();
         }
 
-        if (device.getIds() != null) {
-            // Device IDs are transferred in the "ids" parameter
-            Iterator it = device.getIds().iterator();
+        // Device IDs are transferred in the "ids" parameter
+        this.deviceDAO.removeDevicesByIds(device.getIds());
+        return Response.OK();
+    }
 
-            while (it.hasNext()) {
-                Integer id = (Integer) it.next();
-                this.deviceDAO.removeDeviceById(id);
-            }
+    // =================================================================================================================
+    @ApiOperation(
+            value = "Import devices",
+            notes = "Creates the devices in bulk. The rows failed to pass validation are listed in response.",
+            response = DeviceImportResult.class
+    )
+    @POST
+    @Path("/import")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importDevices(List<DeviceImportRow> rows) {
+        final boolean canEditDevices = SecurityContext.get().hasPermission("edit_devices");
+
+        if (!canEditDevices) {
+            log.error("Unauthorized attempt to import devices",
+                    SecurityException.onCustomerDataAccessViolation(0, "device"));
+            return Response.PERMISSION_DENIED();
+        }
+
+        try {
+            return Response.OK(this.deviceImportDAO.importDevices(rows, getAvailableDevicesCount()));
+        } catch (Exception e) {
+            log.error("Unexpected error when importing devices", e);
+            return Response.INTERNAL_ERROR();
+        }
+    }
+
+    // =================================================================================================================
+    @ApiOperation(
+            value = "Import devices from CSV",
+            notes = "Creates the devices listed in CSV file. The first line lists the columns: number, imei, serial, " +
+                    "phone, description, configuration, groups, custom1, custom2, custom3. The rows failed to pass " +
+                    "validation are listed in response.",
+            response = DeviceImportResult.class
+    )
+    @POST
+    @Path("/import/csv")
+    @Consumes({"text/csv", MediaType.TEXT_PLAIN, MediaType.APPLICATION_OCTET_STREAM})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importDevicesCsv(InputStream csv) {
+        final boolean canEditDevices = SecurityContext.get().hasPermission("edit_devices");
+
+        if (!canEditDevices) {
+            log.error("Unauthorized attempt to import devices",
+                    SecurityException.onCustomerDataAccessViolation(0, "device"));
+            return Response.PERMISSION_DENIED();
+        }
+
+        try {
+            final Reader reader = new InputStreamReader(csv, StandardCharsets.UTF_8);
+            return Response.OK(this.deviceImportDAO.importCsv(reader, getAvailableDevicesCount()));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid CSV file for device import: {}", e.getMessage());
+            return Response.ERROR("error.import.format");
+        } catch (Exception e) {
+            log.error("Unexpected error when importing devices from CSV", e);
+            return Response.INTERNAL_ERROR();
         }
-        return Response.OK();
     }
 
     // =================================================================================================================
@@ -337,25 +379,13 @@ public class DeviceResource {
             return Response.PERMISSION_DENIED();
         }
 
-        if (request.getIds() != null) {
+        if (request.getGroups() != null && !request.getGroups().isEmpty()) {
             // Device IDs are transferred in the "ids" parameter
-            Iterator it = request.getIds().iterator();
-
-            while (it.hasNext()) {
-                Integer id = (Integer) it.next();
-                Device device = deviceDAO.getDeviceById(id);
-                if (device == null) {
-                    // Not found
-                    continue;
-                }
-                List<LookupItem> groups = device.getGroups();
-                groups.removeAll(request.getGroups());
-                if (request.getAction().equals("set")) {
-                    groups.addAll(request.getGroups());
-                }
-                deviceDAO.updateDevice(device);
-                // No need to notify devices because changing a group doesn't affect a device
-            }
+            final List<Integer> groupIds = request.getGroups().stream()
+                    .map(LookupItem::getId)
+                    .collect(Collectors.toList());
+            this.deviceDAO.updateDevicesGroups(request.getIds(), groupIds, "set".equals(request.getAction()));
+            // No need to notify devices because changing a group doesn't affect a device
         }
         return Response.OK();
     }
@@ -442,4 +472,28 @@ public class DeviceResource {
             return Response.INTERNAL_ERROR();
         }
     }
+
+    private void notifyDevicesOnSettingUpdate(List<Integer> deviceIds) {
+        try {
+            this.pushService.notifyDevicesOnSettingUpdate(deviceIds);
+        } catch (Exception e) {
+            log.error("Failed to notify {} devices on configuration change", deviceIds.size(), e);
+        }
+    }
+
+    /**
+     * <p>Gets the number of devices which can be added to customer account of current user.</p>
+     *
+     * @return a number of devices allowed by license or <code>null</code> if the number of devices is not limited.
+     */
+    private Integer getAvailableDevicesCount() {
+        Settings settings = new Settings();
+        if (!unsecureDAO.isSingleCustomer()) {
+            commonDAO.loadCustomerSettings(settings);
+        }
+        if (settings.getDeviceLimit() == 0) {
+            return null;
+        }
+        return Math.max(0, settings.getDeviceLimit() - settings.getDeviceCount());
+    }
 }
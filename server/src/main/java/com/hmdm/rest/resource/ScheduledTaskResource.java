@@ -0,0 +1,94 @@
+/*
+ *
+ * Headwind MDM: Open Source Android MDM Software
+ * https://h-mdm.com
+ *
+ * Copyright (C) 2019 Headwind Solutions LLC (http://h-sms.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.hmdm.rest.resource;
+
+import com.hmdm.rest.json.Response;
+import com.hmdm.security.SecurityContext;
+import com.hmdm.service.ScheduledTaskService;
+import com.hmdm.service.ScheduledTaskStats;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.Authorization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * <p>A resource exposing the state of the scheduled tasks on the server node.</p>
+ *
+ * @author isv
+ */
+@Api(tags = {"Scheduled tasks"})
+@Singleton
+@Path("/private/tasks")
+public class ScheduledTaskResource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledTaskResource.class);
+
+    private ScheduledTaskService scheduledTaskService;
+
+    /**
+     * <p>A constructor required by Swagger.</p>
+     */
+    public ScheduledTaskResource() {
+    }
+
+    /**
+     * <p>Constructs new <code>ScheduledTaskResource</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public ScheduledTaskResource(ScheduledTaskService scheduledTaskService) {
+        this.scheduledTaskService = scheduledTaskService;
+    }
+
+    // =================================================================================================================
+    @ApiOperation(
+            value = "Get scheduled task stats",
+            notes = "Gets the leases and run-time statistics of the scheduled tasks on the server node.",
+            response = ScheduledTaskStats.class,
+            responseContainer = "List",
+            authorizations = {@Authorization("Bearer Token")}
+    )
+    @GET
+    @Path("/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getTaskStats() {
+        if (!SecurityContext.get().isSuperAdmin()) {
+            logger.error("Unauthorized attempt to get scheduled task stats by user {}",
+                    SecurityContext.get().getCurrentUserName());
+            return Response.PERMISSION_DENIED();
+        }
+        try {
+            return Response.OK(this.scheduledTaskService.getTaskStats());
+        } catch (Exception e) {
+            logger.error("Unexpected error when getting scheduled task stats", e);
+            return Response.INTERNAL_ERROR();
+        }
+    }
+}
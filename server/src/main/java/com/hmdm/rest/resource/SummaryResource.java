@@ -22,8 +22,9 @@
 package com.hmdm.rest.resource;
 
 import com.hmdm.persistence.DeviceDAO;
-import com.hmdm.persistence.domain.DeviceSummaryRequest;
-import com.hmdm.persistence.domain.SummaryConfigItem;
+import com.hmdm.persistence.domain.DeviceConfigSummary;
+import com.hmdm.persistence.domain.DeviceSummary;
+import com.hmdm.rest.json.ChartItem;
 import com.hmdm.rest.json.Response;
 import com.hmdm.rest.json.SummaryResponse;
 import com.hmdm.service.DeviceApplicationsStatus;
@@ -37,7 +38,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
-import java.util.Calendar;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -71,91 +72,58 @@ public class SummaryResource {
     @Path("/devices")
     @Produces(MediaType.APPLICATION_JSON)
     public Response getDeviceStats() {
-        SummaryResponse summaryResponse = new SummaryResponse();
-
-        summaryResponse.setInstallSummary(deviceDAO.getInstallSummary());
-        if (summaryResponse.getInstallSummary() == null) {
-            log.error("Failed to get installation statistics!");
+        final DeviceSummary summary = deviceDAO.getDeviceSummary();
+        if (summary == null) {
+            log.error("Failed to get device statistics!");
             return Response.INTERNAL_ERROR();
         }
 
-        summaryResponse.setStatusSummary(deviceDAO.getStatusSummary());
-        if (summaryResponse.getStatusSummary() == null) {
-            log.error("Failed to get device status statistics!");
-            return Response.INTERNAL_ERROR();
-        }
+        SummaryResponse summaryResponse = new SummaryResponse();
+
+        summaryResponse.setStatusSummary(Arrays.asList(
+                chartItem("green", summary.getStatusGreen()),
+                chartItem("yellow", summary.getStatusYellow()),
+                chartItem("red", summary.getStatusRed())
+        ));
+        summaryResponse.setInstallSummary(Arrays.asList(
+                chartItem(DeviceApplicationsStatus.SUCCESS.name(), summary.getInstallSuccess()),
+                chartItem(DeviceApplicationsStatus.VERSION_MISMATCH.name(), summary.getInstallVersionMismatch()),
+                chartItem(DeviceApplicationsStatus.FAILURE.name(), summary.getInstallFailure())
+        ));
 
         summaryResponse.setDevicesTotal(deviceDAO.getTotalDevicesCount());
-        summaryResponse.setDevicesEnrolled(deviceDAO.countEnrolled(0l));
-        summaryResponse.setDevicesEnrolledLastMonth(deviceDAO.countEnrolled(
-                System.currentTimeMillis() - 30 * 86400 * 1000l));
+        summaryResponse.setDevicesEnrolled(summary.getEnrolled());
+        summaryResponse.setDevicesEnrolledLastMonth(summary.getEnrolledLastMonth());
 
         // Top 5 configs by devices
-        DeviceSummaryRequest condition = new DeviceSummaryRequest();
-        condition.setMinOnlineTime(0l);
-        List<SummaryConfigItem> topConfigs = deviceDAO.getSummaryByConfig(condition, null);
-
+        final List<DeviceConfigSummary> topConfigs = summary.getTopConfigs();
         summaryResponse.setTopConfigs(new LinkedList<>());
-        for (SummaryConfigItem summaryConfigItem : topConfigs) {
-            summaryResponse.getTopConfigs().add(summaryConfigItem.getName());
-        };
-
-        // Offline devices
-        long now = System.currentTimeMillis();
-        condition.setMaxOnlineTime(now - 3600*1000l);
-        List<SummaryConfigItem> offline = deviceDAO.getSummaryByConfig(condition, topConfigs);
         summaryResponse.setStatusOfflineByConfig(new LinkedList<>());
-        for (SummaryConfigItem item : offline) {
-            summaryResponse.getStatusOfflineByConfig().add(item.getCounter());
-        }
-
-        // Idle devices
-        condition.setMinOnlineTime(now - 3600*4000l);
-        condition.setMaxOnlineTime(now - 3600*1000l);
-        List<SummaryConfigItem> idle = deviceDAO.getSummaryByConfig(condition, topConfigs);
         summaryResponse.setStatusIdleByConfig(new LinkedList<>());
-        for (SummaryConfigItem item : idle) {
-            summaryResponse.getStatusIdleByConfig().add(item.getCounter());
-        }
-
-        // Online devices
-        condition.setMinOnlineTime(now - 3600*1000l);
-        condition.setMaxOnlineTime(null);
-        List<SummaryConfigItem> online = deviceDAO.getSummaryByConfig(condition, topConfigs);
         summaryResponse.setStatusOnlineByConfig(new LinkedList<>());
-        for (SummaryConfigItem item : online) {
-            summaryResponse.getStatusOnlineByConfig().add(item.getCounter());
-        }
-
-        // Application status: failed
-        condition.setMinOnlineTime(0l);
-        condition.setMaxOnlineTime(null);
-        condition.setAppStatus(DeviceApplicationsStatus.FAILURE);
-        List<SummaryConfigItem> failed = deviceDAO.getSummaryByConfig(condition, topConfigs);
         summaryResponse.setAppFailureByConfig(new LinkedList<>());
-        for (SummaryConfigItem item : failed) {
-            summaryResponse.getAppFailureByConfig().add(item.getCounter());
-        }
-
-        // Application status: mismatch
-        condition.setAppStatus(DeviceApplicationsStatus.VERSION_MISMATCH);
-        List<SummaryConfigItem> mismatch = deviceDAO.getSummaryByConfig(condition, topConfigs);
         summaryResponse.setAppMismatchByConfig(new LinkedList<>());
-        for (SummaryConfigItem item : mismatch) {
-            summaryResponse.getAppMismatchByConfig().add(item.getCounter());
-        }
-
-        // Application status: success
-        condition.setAppStatus(DeviceApplicationsStatus.SUCCESS);
-        List<SummaryConfigItem> success = deviceDAO.getSummaryByConfig(condition, topConfigs);
         summaryResponse.setAppSuccessByConfig(new LinkedList<>());
-        for (SummaryConfigItem item : success) {
-            summaryResponse.getAppSuccessByConfig().add(item.getCounter());
+        for (DeviceConfigSummary item : topConfigs) {
+            summaryResponse.getTopConfigs().add(item.getName());
+            summaryResponse.getStatusOfflineByConfig().add((int) item.getOffline());
+            summaryResponse.getStatusIdleByConfig().add((int) item.getIdle());
+            summaryResponse.getStatusOnlineByConfig().add((int) item.getOnline());
+            summaryResponse.getAppFailureByConfig().add((int) item.getAppFailure());
+            summaryResponse.getAppMismatchByConfig().add((int) item.getAppMismatch());
+            summaryResponse.getAppSuccessByConfig().add((int) item.getAppSuccess());
         }
 
-        summaryResponse.setDevicesEnrolledMonthly(deviceDAO.getDevicesEnrolledMonthly());
+        summaryResponse.setDevicesEnrolledMonthly(summary.getEnrolledMonthly());
 
         return Response.OK(summaryResponse);
     }
 
+    private static ChartItem chartItem(String stringAttr, long number) {
+        ChartItem item = new ChartItem();
+        item.setStringAttr(stringAttr);
+        item.setNumber(number);
+        return item;
+    }
+
 }
@@ -0,0 +1,45 @@
+package com.hmdm.task;
+
+import com.google.inject.Inject;
+import com.hmdm.persistence.UnsecureDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A task moving the devices which stopped reporting to server from <code>green</code> to <code>yellow</code> and
+ * from <code>yellow</code> to <code>red</code> online status, so the device status counters stay current without
+ * scanning the devices.</p>
+ *
+ * @author isv
+ */
+public class DeviceStatusDecayTask implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceStatusDecayTask.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final UnsecureDAO unsecureDAO;
+
+    /**
+     * <p>Constructs new <code>DeviceStatusDecayTask</code> instance. This implementation does nothing.</p>
+     */
+    @Inject
+    public DeviceStatusDecayTask(UnsecureDAO unsecureDAO) {
+        this.unsecureDAO = unsecureDAO;
+    }
+
+    @Override
+    public void run() {
+        final long now = System.currentTimeMillis();
+        int total = 0;
+        int updated;
+        do {
+            updated = this.unsecureDAO.decayDeviceOnlineStatus(now, BATCH_SIZE);
+            total += updated;
+        } while (updated >= BATCH_SIZE);
+
+        if (total > 0) {
+            logger.debug("Updated online status of {} devices", total);
+        }
+    }
+}
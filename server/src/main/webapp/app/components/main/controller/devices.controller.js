@@ -266,6 +266,12 @@ angular.module('headwind-kiosk')
 
         $scope.showSpinner = false;
         var searchIsRunning = false;
+
+        // The sort keys of the last devices of loaded pages used for requesting the next page by keyset. The keys are
+        // valid as long as the filter and sorting stay the same
+        var pageCursors = {};
+        var pageCursorsFilter = null;
+
         $scope.search = function (spinnerHidden, callback) {
             if (searchIsRunning) {
                 console.log("Skipping device search since a previous search is pending", new Error());
@@ -299,7 +305,8 @@ angular.module('headwind-kiosk')
                 pageSize: $scope.paging.pageSize,
                 sortBy: $scope.paging.sortBy,
                 sortDir: $scope.paging.sortAsc ? "ASC" : "DESC",
-                fastSearch: $scope.searchParams.fastSearch
+                fastSearch: $scope.searchParams.fastSearch,
+                estimateTotal: true
             };
 
             if ($scope.additionalParams.enabled) {
@@ -339,6 +346,14 @@ angular.module('headwind-kiosk')
                 }
             }
 
+            var pageNum = request.pageNum;
+            var filter = angular.toJson(angular.extend({}, request, {pageNum: null}));
+            if (filter !== pageCursorsFilter) {
+                pageCursors = {};
+                pageCursorsFilter = filter;
+            }
+            angular.extend(request, pageCursors[pageNum - 1]);
+
             deviceService.getAllDevices(request, function (response) {
                 $scope.selection.all = false;
                 searchIsRunning = false;
@@ -388,6 +403,9 @@ angular.module('headwind-kiosk')
                     }
 
                     $scope.paging.totalItems = response.data.devices.totalItemsCount;
+                    if (response.data.nextPageCursor && filter === pageCursorsFilter) {
+                        pageCursors[pageNum] = response.data.nextPageCursor;
+                    }
 
                     if (callback) {
                         callback();